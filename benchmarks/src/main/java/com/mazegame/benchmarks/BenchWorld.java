@@ -0,0 +1,82 @@
+package com.mazegame.benchmarks;
+
+import com.mazegame.characters.LivingBeing;
+import com.mazegame.characters.NPC;
+import com.mazegame.characters.Player;
+import com.mazegame.core.Room;
+import com.mazegame.core.World;
+import com.mazegame.core.WorldGenerator;
+import com.mazegame.items.AidKit;
+import com.mazegame.simulation.TickClock;
+import com.mazegame.utils.Position;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * The world every suite runs against: a WorldGenerator maze of worldSize x worldSize rooms, with
+ * 'entities' extra NPCs (and as many floor items) crowded into the player's room, which is where
+ * the hot paths spend their time. The generator leaves the start room empty otherwise.
+ *
+ * The extra NPCs have strength 0 so the player outlives any benchmark, and the world runs on a
+ * TickClock with a fixed seed so runs are comparable.
+ */
+@State(Scope.Thread)
+public class BenchWorld {
+    static final long SEED = 42L;
+
+    @Param({"10", "40", "100"})
+    public int worldSize; // Rooms per side
+
+    @Param({"1", "8", "32"})
+    public int entities; // At least one, the NPC suite needs someone to run
+
+    public World world;
+    public Player player;
+    public Room room; // The player's room
+    public NPC npc;   // First NPC in the player's room, null if there is none
+
+    @Setup(Level.Trial)
+    public void build() {
+        world = new World("Benchmark");
+        world.setClock(TickClock.forTickRate(20));
+        world.setRandomSeed(SEED);
+        new WorldGenerator(SEED, worldSize, worldSize).generate(world);
+        player = world.getPlayer();
+        room = player.getCurrentRoom();
+
+        // Free floor cells away from the player, row by row
+        int placed = 0;
+        for (int y = 1; y < room.getHeight() - 1 && placed < entities; y++) {
+            for (int x = 1; x < room.getWidth() - 1 && placed < entities; x++) {
+                Position pos = new Position(x, y);
+                if (!room.isWalkable(x, y) || Math.abs(x - player.getPosition().getX()) + Math.abs(y - player.getPosition().getY()) < 3
+                        || !room.getLivingBeingsAt(x, y).isEmpty()) {
+                    continue;
+                }
+                NPC extra = new NPC("Bench NPC " + placed, world, pos, room, 30, 0, player);
+                room.addLivingBeing(extra);
+                world.addEntity(extra);
+                AidKit kit = new AidKit("Bench Kit " + placed, world, pos, 5);
+                room.addItem(kit);
+                world.addEntity(kit);
+                placed++;
+            }
+        }
+        for (LivingBeing being : room.getLivingBeingsInRoom()) {
+            if (being instanceof NPC) {
+                npc = (NPC) being;
+                break;
+            }
+        }
+    }
+
+    /** Undoes whatever a long iteration might have done to the player. */
+    @Setup(Level.Iteration)
+    public void heal() {
+        player.setHealth(player.getMaxHealth());
+    }
+}
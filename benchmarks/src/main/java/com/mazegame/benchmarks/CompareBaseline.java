@@ -0,0 +1,112 @@
+package com.mazegame.benchmarks;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compares a JMH run against the checked-in baseline, both as JMH CSV (-rf csv):
+ *
+ *   java -cp target/benchmarks.jar com.mazegame.benchmarks.CompareBaseline baseline.csv results.csv [threshold%]
+ *
+ * Prints every benchmark/parameter combination with both scores and the change. A combination
+ * counts as slower (or faster) only if it moved by more than the threshold (default 10%) and
+ * by more than both runs' error margins put together. Exits with 1 if anything got slower, so
+ * it can gate a build.
+ */
+public class CompareBaseline {
+
+    private static final class Score {
+        final double score;
+        final double error;
+        final String unit;
+
+        Score(double score, double error, String unit) {
+            this.score = score;
+            this.error = error;
+            this.unit = unit;
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: CompareBaseline <baseline.csv> <results.csv> [threshold%]");
+            System.exit(2);
+        }
+        Map<String, Score> baseline = read(args[0]);
+        Map<String, Score> results = read(args[1]);
+        double threshold = (args.length > 2 ? Double.parseDouble(args[2]) : 10.0) / 100.0;
+
+        int slower = 0;
+        int faster = 0;
+        System.out.printf("%-70s %14s %14s %9s%n", "Benchmark", "Baseline", "Now", "Change");
+        for (Map.Entry<String, Score> entry : results.entrySet()) {
+            Score now = entry.getValue();
+            Score base = baseline.get(entry.getKey());
+            if (base == null || !base.unit.equals(now.unit)) {
+                System.out.printf("%-70s %14s %14.3f %9s%n", entry.getKey(), "-", now.score, "new");
+                continue;
+            }
+            // AverageTime scores: lower is better
+            double change = (now.score - base.score) / base.score;
+            boolean significant = Math.abs(change) > threshold && Math.abs(now.score - base.score) > base.error + now.error;
+            String verdict = "";
+            if (significant && change > 0) {
+                verdict = "  SLOWER";
+                slower++;
+            } else if (significant) {
+                verdict = "  faster";
+                faster++;
+            }
+            System.out.printf("%-70s %14.3f %14.3f %+8.1f%%%s%n", entry.getKey(), base.score, now.score, change * 100, verdict);
+        }
+        System.out.println(results.size() + " results, " + slower + " slower, " + faster + " faster than the baseline");
+        System.exit(slower > 0 ? 1 : 0);
+    }
+
+    // Benchmark name plus its parameters -> score
+    private static Map<String, Score> read(String file) throws IOException {
+        List<String> lines = Files.readAllLines(Paths.get(file), StandardCharsets.UTF_8);
+        Map<String, Score> scores = new LinkedHashMap<>();
+        if (lines.isEmpty()) return scores;
+        List<String> header = split(lines.get(0));
+        int name = header.indexOf("Benchmark");
+        int score = header.indexOf("Score");
+        int error = header.indexOf("Score Error (99.9%)");
+        int unit = header.indexOf("Unit");
+        if (name < 0 || score < 0 || error < 0 || unit < 0) {
+            throw new IOException(file + " doesn't look like JMH CSV output (-rf csv)");
+        }
+        for (int i = 1; i < lines.size(); i++) {
+            if (lines.get(i).trim().isEmpty()) continue;
+            List<String> row = split(lines.get(i));
+            StringBuilder key = new StringBuilder(row.get(name).replace("com.mazegame.benchmarks.", ""));
+            for (int c = 0; c < header.size(); c++) {
+                if (header.get(c).startsWith("Param: ")) {
+                    key.append(' ').append(header.get(c).substring(7)).append('=').append(row.get(c));
+                }
+            }
+            double err = row.get(error).isEmpty() || row.get(error).equals("NaN") ? 0 : Double.parseDouble(row.get(error));
+            scores.put(key.toString(), new Score(Double.parseDouble(row.get(score)), err, row.get(unit)));
+        }
+        return scores;
+    }
+
+    // JMH quotes every text field and never embeds quotes or commas in them
+    private static List<String> split(String line) {
+        List<String> fields = new ArrayList<>();
+        for (String field : line.split(",", -1)) {
+            field = field.trim();
+            if (field.length() >= 2 && field.startsWith("\"") && field.endsWith("\"")) {
+                field = field.substring(1, field.length() - 1);
+            }
+            fields.add(field);
+        }
+        return fields;
+    }
+}
@@ -0,0 +1,28 @@
+package com.mazegame.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One NPC's turn, NPC.execute(). It walks up to the player and then keeps attacking for no
+ * damage, so after warmup this is mostly the attack path with the room's crowd in the way.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = { "-Djava.awt.headless=true", "-Dmazegame.log.level=WARN" })
+public class NpcBenchmark {
+
+    @Benchmark
+    public void execute(BenchWorld state) {
+        state.npc.execute(state.world.getClock());
+    }
+}
@@ -0,0 +1,36 @@
+package com.mazegame.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Player.interact() with nothing in reach (the common case: looks at its feet and all eight
+ * neighbours) and LivingBeing.move(), stepping right and back so the player stays put.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = { "-Djava.awt.headless=true", "-Dmazegame.log.level=WARN" })
+public class PlayerBenchmark {
+
+    @Benchmark
+    public void interact(BenchWorld state) {
+        state.player.interact();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(2)
+    public void move(BenchWorld state) {
+        state.player.move(1, 0);
+        state.player.move(-1, 0);
+    }
+}
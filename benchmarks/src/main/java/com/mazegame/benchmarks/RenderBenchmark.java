@@ -0,0 +1,51 @@
+package com.mazegame.benchmarks;
+
+import com.mazegame.ui.GamePanel;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.TimeUnit;
+
+/** Room.drawContents() for the player's room into an offscreen image at the game's tile size. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = { "-Djava.awt.headless=true", "-Dmazegame.log.level=WARN" })
+public class RenderBenchmark {
+    @State(Scope.Thread)
+    public static class Canvas {
+        BufferedImage image;
+        Graphics2D g;
+
+        @Setup
+        public void create(BenchWorld state) {
+            image = new BufferedImage(state.room.getWidth() * GamePanel.TILE_PIXEL_WIDTH,
+                    state.room.getHeight() * GamePanel.TILE_PIXEL_HEIGHT, BufferedImage.TYPE_INT_RGB);
+            g = image.createGraphics();
+        }
+
+        @TearDown
+        public void dispose() {
+            g.dispose();
+        }
+    }
+
+    @Benchmark
+    public BufferedImage drawContents(BenchWorld state, Canvas canvas) {
+        state.room.drawContents(canvas.g, GamePanel.TILE_PIXEL_WIDTH, GamePanel.TILE_PIXEL_HEIGHT);
+        return canvas.image;
+    }
+}
@@ -0,0 +1,66 @@
+package com.mazegame.benchmarks;
+
+import com.mazegame.core.Room;
+import com.mazegame.core.Tile;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/** Tile.isWalkable() and Room.getTile(), each over every tile of the player's room; scores are per tile. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = { "-Djava.awt.headless=true", "-Dmazegame.log.level=WARN" })
+public class TileBenchmark {
+    private static final int TILES = Room.ROOM_WIDTH_TILES * Room.ROOM_HEIGHT_TILES; // WorldGenerator's default room size
+
+    @State(Scope.Thread)
+    public static class Tiles {
+        Tile[] tiles;
+
+        @Setup
+        public void collect(BenchWorld state) {
+            Room room = state.room;
+            tiles = new Tile[room.getWidth() * room.getHeight()];
+            for (int y = 0; y < room.getHeight(); y++) {
+                for (int x = 0; x < room.getWidth(); x++) {
+                    tiles[y * room.getWidth() + x] = room.getTile(x, y);
+                }
+            }
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(TILES)
+    public int isWalkable(Tiles tiles) {
+        int walkable = 0;
+        for (Tile tile : tiles.tiles) {
+            if (tile.isWalkable()) walkable++;
+        }
+        return walkable;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(TILES)
+    public void getTile(BenchWorld state, Blackhole blackhole) {
+        Room room = state.room;
+        for (int y = 0; y < Room.ROOM_HEIGHT_TILES; y++) {
+            for (int x = 0; x < Room.ROOM_WIDTH_TILES; x++) {
+                blackhole.consume(room.getTile(x, y));
+            }
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.mazegame.benchmarks;
+
+import com.mazegame.core.Entity;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/** World.update() (one tick: the player's room NPCs chase and attack) and World.getEntitiesInRoom(). */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = { "-Djava.awt.headless=true", "-Dmazegame.log.level=WARN" })
+public class WorldBenchmark {
+
+    @Benchmark
+    public void update(BenchWorld state) {
+        state.world.update();
+        state.world.getClock().advanceTick();
+    }
+
+    @Benchmark
+    public List<Entity> getEntitiesInRoom(BenchWorld state) {
+        return state.world.getEntitiesInRoom(state.room);
+    }
+}
@@ -3,38 +3,72 @@ package com.mazegame;
 import com.mazegame.core.World;
 import com.mazegame.ui.MainFrame;
 import com.mazegame.ui.SpriteManager; // Added import for sprite loading
+import com.mazegame.logging.GameLogger;
+import com.mazegame.simulation.InputRecording;
 import javax.swing.SwingUtilities;
 import javax.swing.JOptionPane;
+import java.nio.file.Paths;
+import java.util.concurrent.CompletableFuture;
 
 public class Main {
+    private static final GameLogger LOG = GameLogger.getLogger(Main.class);
+    // Trap time per player turn. Traps run on turns, not the wall clock, so a session can be replayed
+    private static final long MILLIS_PER_TURN = 250;
+
     public static void main(String[] args) {
-        System.out.println("Starting Maze Game...");
+        LOG.info("Starting Maze Game...");
+        long start = System.nanoTime();
+
+        // Sprites decode in the background while the world is built; entities get placeholder
+        // sprites right away that fill in as the PNGs arrive
+        CompletableFuture<Void> allSprites = SpriteManager.preloadAsync();
+        World world;
+        InputRecording recording;
+        try {
+            // -Dmazegame.seed=N replays the same loot rolls, -Dmazegame.record=file saves the
+            // session for ReplayRunner
+            long seed = Long.getLong("mazegame.seed", System.nanoTime());
+            recording = new InputRecording(InputRecording.Mode.TURNS, seed, MILLIS_PER_TURN);
+            world = recording.createWorld("Labyrinth of Xar");
+            String recordTo = System.getProperty("mazegame.record");
+            if (recordTo != null) {
+                recording.streamTo(Paths.get(recordTo));
+                LOG.info("Recording input to " + recordTo + " (seed " + seed + ")");
+            } else {
+                recording = null;
+            }
+            // Walls, floor and the player are enough for a first frame; the rest can pop in
+            SpriteManager.whenLoaded(SpriteManager.FIRST_FRAME_SPRITES).join();
+        } catch (Exception e) {
+            failToStart(e);
+            return;
+        }
 
+        InputRecording session = recording;
         SwingUtilities.invokeLater(() -> {
             try {
-                // Load sprites before creating world
-                SpriteManager.loadAllSprites();
-                System.out.println("Sprites loaded successfully");
-
-                // Create and initialize world
-                World world = new World("Labyrinth of Xar");
-                world.initializeWorld();
-
                 // Create and show main window
-                MainFrame frame = new MainFrame(world);
+                MainFrame frame = new MainFrame(world, session);
+                frame.getGamePanel().setFirstFrameListener(() -> LOG.info(String.format(
+                        "First frame after %.1f ms", (System.nanoTime() - start) / 1_000_000.0)));
                 frame.setLocationRelativeTo(null); // Center on screen
                 frame.setVisible(true);
+                allSprites.thenRun(frame::repaint); // Swap the remaining placeholders for the real thing
 
-                System.out.println("Game started successfully!");
+                LOG.info("Game started successfully!");
             } catch (Exception e) {
-                System.err.println("Failed to start game: " + e.getMessage());
-                e.printStackTrace();
-                JOptionPane.showMessageDialog(null,
-                    "Failed to start game: " + e.getMessage(),
-                    "Error",
-                    JOptionPane.ERROR_MESSAGE);
-                System.exit(1);
+                failToStart(e);
             }
         });
     }
-}
\ No newline at end of file
+
+    private static void failToStart(Exception e) {
+        LOG.error("Failed to start game: " + e.getMessage(), e);
+        JOptionPane.showMessageDialog(null,
+            "Failed to start game: " + e.getMessage(),
+            "Error",
+            JOptionPane.ERROR_MESSAGE);
+        GameLogger.flush();
+        System.exit(1);
+    }
+}
@@ -7,15 +7,20 @@ import com.mazegame.core.Tile;
 import com.mazegame.core.Door;
 import com.mazegame.interfaces.Executable;
 import com.mazegame.items.Item;
+import com.mazegame.simulation.SimulationClock;
 import com.mazegame.utils.Position;
+import com.mazegame.logging.GameLogger;
 
 import java.awt.Image;
 import java.awt.Graphics;
 import java.awt.Color;
+import java.util.AbstractList;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.RandomAccess;
 
 public abstract class LivingBeing extends Entity implements Executable {
+    private static final GameLogger LOG = GameLogger.getLogger(LivingBeing.class);
     protected int health;
     protected int maxHealth;
     protected int strength;
@@ -29,7 +34,7 @@ public abstract class LivingBeing extends Entity implements Executable {
         this.maxHealth = maxHealth;
         this.health = this.maxHealth;      // Initialize current health to maxHealth
         this.strength = strength;
-        this.inventory = new ArrayList<>();
+        this.inventory = new Inventory();
         this.currentRoom = startRoom;
         // The World's createPlayer/populateNPCs methods will call room.addLivingBeing(this)
     }
@@ -47,15 +52,39 @@ public abstract class LivingBeing extends Entity implements Executable {
         return this.strength;
     }
 
+    /** Sets health as is (clamped to 0..max), without damage or death events. For loading saves. */
+    public void setHealth(int health) {
+        this.health = Math.max(0, Math.min(health, this.maxHealth));
+        markChanged();
+    }
+
     public List<Item> getInventory() {
         // Return the actual internal list to allow direct modification
         return this.inventory;
     }
 
+    /**
+     * Restores room, position and health exactly as saved: no room lists, no events. Used when
+     * applying a checkpoint, which puts the rooms' own lists back separately.
+     */
+    public void restoreState(Room room, Position position, int health) {
+        this.currentRoom = room;
+        this.position = position;
+        this.health = Math.max(0, Math.min(health, this.maxHealth));
+    }
+
     public Room getCurrentRoom() {
         return this.currentRoom;
     }
 
+    @Override
+    public void setPosition(Position position) {
+        super.setPosition(position);
+        if (this.currentRoom != null) {
+            this.currentRoom.updateLivingBeingPosition(this); // Keep the room's tile buckets in sync
+        }
+    }
+
     /**
      * Moves the LivingBeing to a new room.
      * Handles removing from the old room and adding to the new room.
@@ -66,15 +95,25 @@ public abstract class LivingBeing extends Entity implements Executable {
         }
         String oldRoomName = (this.currentRoom != null) ? this.currentRoom.getName() : "null";
         String newRoomName = (newRoom != null) ? newRoom.getName() : "null";
-        System.out.println(getName() + " - setCurrentRoom: Transitioning from " + oldRoomName + " to " + newRoomName);
+        if (LOG.isDebugEnabled()) {
+            LOG.debug(getName() + " - setCurrentRoom: Transitioning from " + oldRoomName + " to " + newRoomName);
+        }
 
         if (this.currentRoom != null) {
             this.currentRoom.removeLivingBeing(this);
         }
+        Room oldRoom = this.currentRoom;
         this.currentRoom = newRoom; // Update own reference
+        markChanged();
+        if (world != null) {
+            world.touchRoom(newRoom); // Its tiles may be paged out, see TilePager
+        }
         if (this.currentRoom != null) {
             this.currentRoom.addLivingBeing(this);
         }
+        if (world != null) {
+            world.getEventBus().fireRoomChanged(this, oldRoom, newRoom);
+        }
     }
 
     // --- Actions & Mechanics ---
@@ -84,13 +123,21 @@ public abstract class LivingBeing extends Entity implements Executable {
         int healthBeforeDamage = this.health;
         this.health -= amount;
 
-        System.out.println(getName() + " takes " + amount + " damage. Health: " + this.health + "/" + this.maxHealth +
+        LOG.info(getName() + " takes " + amount + " damage. Health: " + this.health + "/" + this.maxHealth +
                            " (Was: " + healthBeforeDamage + ")");
-        // System.out.println("takeDamage: this.health is now " + this.health + " for " + this.name +
+        // LOG.info("takeDamage: this.health is now " + this.health + " for " + this.name +
         //                    " (object: " + System.identityHashCode(this) + ")"); // Debugging
 
-        if (this.health <= 0 && healthBeforeDamage > 0) { // Check healthBeforeDamage to ensure die() is called only once
+        boolean killed = this.health <= 0 && healthBeforeDamage > 0; // Check healthBeforeDamage to ensure die() is called only once
+        if (killed) {
             this.health = 0; // Clamp health at 0
+        }
+        markChanged();
+        if (world != null) {
+            world.getEventBus().fireDamage(this, amount);
+            if (killed) world.getEventBus().fireDeath(this); // Here, not in die(): NPC.die() doesn't call super
+        }
+        if (killed) {
             die();
         }
     }
@@ -102,16 +149,17 @@ public abstract class LivingBeing extends Entity implements Executable {
     public void heal(int amount) {
         if (amount <= 0 || this.health >= this.maxHealth) {
             if (this.health >= this.maxHealth) {
-                 System.out.println(getName() + " is already at full health. Heal attempt with " + amount + " ignored.");
+                 LOG.info(getName() + " is already at full health. Heal attempt with " + amount + " ignored.");
             }
             return;
         }
         int healthBeforeHeal = this.health;
         this.health = Math.min(this.health + amount, this.maxHealth);
+        markChanged();
         if (this.health > healthBeforeHeal) {
-            System.out.println(getName() + " heals for " + (this.health - healthBeforeHeal) + " HP. Health: " + this.health + "/" + this.maxHealth);
+            LOG.info(getName() + " heals for " + (this.health - healthBeforeHeal) + " HP. Health: " + this.health + "/" + this.maxHealth);
         } else {
-            System.out.println(getName() + " heal attempt had no effect (already max or zero amount). Health: " + this.health + "/" + this.maxHealth);
+            LOG.info(getName() + " heal attempt had no effect (already max or zero amount). Health: " + this.health + "/" + this.maxHealth);
         }
     }
 
@@ -122,7 +170,7 @@ public abstract class LivingBeing extends Entity implements Executable {
      * and then call super.die().
      */
     protected void die() {
-        System.out.println(this.name + " (" + System.identityHashCode(this) + ") [LivingBeing.die()] processing death.");
+        LOG.debug(() -> this.name + " (" + System.identityHashCode(this) + ") [LivingBeing.die()] processing death.");
 
         if (currentRoom != null && position != null) {
             for (Item item : new ArrayList<>(this.inventory)) { // Iterate copy
@@ -135,13 +183,25 @@ public abstract class LivingBeing extends Entity implements Executable {
             currentRoom.removeLivingBeing(this);
         }
         if (world != null) {
-            world.removeEntity(this); // This will also set world.player = null if this is the player
+            runCrossRoomEffect(() -> world.removeEntity(this)); // This will also set world.player = null if this is the player
+        }
+    }
+
+    /**
+     * Runs something that reaches outside this being's room (changing rooms, adding to the world).
+     * Goes through the world so it can be deferred while rooms tick in parallel.
+     */
+    protected void runCrossRoomEffect(Runnable effect) {
+        if (world != null) {
+            world.runCrossRoomEffect(effect);
+        } else {
+            effect.run();
         }
     }
 
     public void move(int dx, int dy) {
         if (currentRoom == null || position == null) {
-            System.err.println(getName() + " cannot move: not in a room or no position.");
+            LOG.debug(getName() + " cannot move: not in a room or no position.");
             return;
         }
 
@@ -151,8 +211,7 @@ public abstract class LivingBeing extends Entity implements Executable {
         int newY = currentY + dy;
 
         // 1. Boundary Check for the current room
-        if (newX < 0 || newX >= Room.ROOM_WIDTH_TILES ||
-            newY < 0 || newY >= Room.ROOM_HEIGHT_TILES) {
+        if (!currentRoom.isInBounds(newX, newY)) {
             // Check if currently on a door tile and this move is "through" it
             Tile tilePlayerIsOn = currentRoom.getTile(currentX, currentY);
             if (tilePlayerIsOn != null && tilePlayerIsOn.getEntityOnTile() instanceof Door) {
@@ -164,45 +223,58 @@ public abstract class LivingBeing extends Entity implements Executable {
                     // A simple check: if new target is out of *this* room's bounds, but aligns with door exit logic
                     // This can be complex. For now, handleDoorMovement will be called if player is ON a door tile.
                     // The better way is if moving onto a door tile is the trigger.
-                    System.out.println(getName() + " is on door tile " + doorPlayerIsOn.getName() + ". Attempting to move (" + dx + "," + dy + ") (potentially out of bounds).");
+                    if (LOG.isDebugEnabled()) {
+                        LOG.debug(getName() + " is on door tile " + doorPlayerIsOn.getName() + ". Attempting to move (" + dx + "," + dy + ") (potentially out of bounds).");
+                    }
                     handleDoorMovement(doorPlayerIsOn, dx, dy);
                     return;
                 }
             }
-            System.out.println(getName() + " cannot move there (out of bounds of current room). Target: (" + newX + "," + newY + ")");
+            if (LOG.isDebugEnabled()) {
+                LOG.debug(getName() + " cannot move there (out of bounds of current room). Target: (" + newX + "," + newY + ")");
+            }
             return;
         }
 
         // 2. Get the target tile (now guaranteed to be within bounds)
         Tile targetTile = currentRoom.getTile(newX, newY);
         if (targetTile == null) {
-            System.err.println(getName() + " - move: Target tile at (" + newX + "," + newY + ") is null unexpectedly (after bounds check).");
+            LOG.warn(getName() + " - move: Target tile at (" + newX + "," + newY + ") is null unexpectedly (after bounds check).");
             return;
         }
 
         // 3. Check if the target tile contains a Door entity
         if (targetTile.getEntityOnTile() instanceof Door) {
-            System.out.println(getName() + " is moving onto/through door tile: " + ((Door)targetTile.getEntityOnTile()).getName());
-            handleDoorMovement((Door) targetTile.getEntityOnTile(), dx, dy);
+            if (LOG.isDebugEnabled()) {
+                LOG.debug(getName() + " is moving onto/through door tile: " + ((Door)targetTile.getEntityOnTile()).getName());
+            }
+            Door door = (Door) targetTile.getEntityOnTile();
+            runCrossRoomEffect(() -> handleDoorMovement(door, dx, dy)); // Touches two rooms
         }
         // 4. Else, check if the target tile is walkable (and not a door)
         else if (targetTile.isWalkable()) {
             setPosition(new Position(newX, newY));
-            System.out.println(getName() + " moved to (" + newX + ", " + newY + ")");
+            if (LOG.isDebugEnabled()) {
+                LOG.debug(getName() + " moved to (" + newX + ", " + newY + ")");
+            }
         }
         // 5. Else, it's blocked
         else {
-            System.out.println(getName() + " cannot move there. Target: (" + newX + "," + newY + ") is blocked.");
+            if (LOG.isDebugEnabled()) {
+                LOG.debug(getName() + " cannot move there. Target: (" + newX + "," + newY + ") is blocked.");
+            }
         }
     }
 
     private void handleDoorMovement(Door door, int intendedDx, int intendedDy) {
         if (door == null) { /* ... error ... */ return; }
-        System.out.println(getName() + " - handleDoorMovement: Interacting with Door '" + door.getName() + "'. Locked: " + door.isLocked() + ", Open: " + door.isCurrentlyOpen());
+        if (LOG.isDebugEnabled()) {
+            LOG.debug(getName() + " - handleDoorMovement: Interacting with Door '" + door.getName() + "'. Locked: " + door.isLocked() + ", Open: " + door.isCurrentlyOpen());
+        }
 
         if (this instanceof Player && (door.getName().equals("Dimensional Exit") || door.getName().equals("Shimmering Portal"))) {
             if (!door.isLocked()) {
-                System.out.println(name + " steps through the " + door.getName() + "! YOU WIN!");
+                LOG.info(name + " steps through the " + door.getName() + "! YOU WIN!");
                 if (world != null) world.setPlayerWon(true);
                 return;
             } else { /* ... sealed message ... */ return; }
@@ -212,12 +284,15 @@ public abstract class LivingBeing extends Entity implements Executable {
             door.passThrough(); // Sets isCurrentlyOpen to true
             Room nextRoom = door.getOtherRoom(this.currentRoom);
             if (nextRoom != null) {
+                if (world != null) world.touchRoom(nextRoom); // findEntrySpot() reads its tiles
                 Position doorPosInNextRoom = door.getPositionInRoom(nextRoom);
                 if (doorPosInNextRoom == null) { /* ... error ... */ return; }
                 Position newPositionInNextRoom = findEntrySpot(nextRoom, doorPosInNextRoom, intendedDx, intendedDy);
                 setCurrentRoom(nextRoom);
                 setPosition(newPositionInNextRoom);
-                System.out.println(name + " successfully moved to room: " + nextRoom.getName() + " at " + newPositionInNextRoom);
+                if (LOG.isDebugEnabled()) {
+                    LOG.debug(name + " successfully moved to room: " + nextRoom.getName() + " at " + newPositionInNextRoom);
+                }
             } else { /* ... door leads nowhere ... */ }
         } else { /* ... door locked ... */ }
     }
@@ -229,8 +304,8 @@ public abstract class LivingBeing extends Entity implements Executable {
         int targetY = doorPosInNewRoom.getY() + entryDy;
 
         // Clamp to new room boundaries first
-        targetX = Math.max(0, Math.min(targetX, Room.ROOM_WIDTH_TILES - 1));
-        targetY = Math.max(0, Math.min(targetY, Room.ROOM_HEIGHT_TILES - 1));
+        targetX = Math.max(0, Math.min(targetX, newRoom.getWidth() - 1));
+        targetY = Math.max(0, Math.min(targetY, newRoom.getHeight() - 1));
 
         Tile preferredEntryTile = newRoom.getTile(targetX, targetY);
         if (preferredEntryTile != null && preferredEntryTile.isWalkable() && (preferredEntryTile.getEntityOnTile() == null || preferredEntryTile.getEntityOnTile().isPassable())) {
@@ -244,51 +319,54 @@ public abstract class LivingBeing extends Entity implements Executable {
         for (int i = 0; i < dxOffsets.length; i++) {
             int checkX = doorPosInNewRoom.getX() + dxOffsets[i];
             int checkY = doorPosInNewRoom.getY() + dyOffsets[i];
-            if (checkX >= 0 && checkX < Room.ROOM_WIDTH_TILES && checkY >= 0 && checkY < Room.ROOM_HEIGHT_TILES) {
+            if (newRoom.isInBounds(checkX, checkY)) {
                 Tile t = newRoom.getTile(checkX, checkY);
                 if (t != null && t.isWalkable() && (t.getEntityOnTile() == null || t.getEntityOnTile().isPassable())) {
                     return new Position(checkX, checkY);
                 }
             }
         }
-        System.err.println("findEntrySpot: Critically failed to find any walkable entry spot for door " + doorPosInNewRoom + " in " + newRoom.getName() + ". Placing on door tile.");
+        LOG.warn("findEntrySpot: Critically failed to find any walkable entry spot for door " + doorPosInNewRoom + " in " + newRoom.getName() + ". Placing on door tile.");
         return doorPosInNewRoom; // Last resort
     }
 
     public boolean pickUpItem(Item item) {
         if (item == null) {
-            System.out.println(name + " tried to pick up a null item.");
+            LOG.debug(() -> name + " tried to pick up a null item.");
             return false;
         }
         if (currentRoom == null) {
-            System.out.println(name + " is not in a room, cannot pick up items.");
+            LOG.debug(() -> name + " is not in a room, cannot pick up items.");
             return false;
         }
         if (position == null) {
-            System.out.println(name + " has no position, cannot pick up items.");
+            LOG.debug(() -> name + " has no position, cannot pick up items.");
             return false;
         }
         if (item.getPosition() == null) {
-            System.out.println("Item " + item.getName() + " has no position, cannot be picked up from floor.");
+            LOG.debug(() -> "Item " + item.getName() + " has no position, cannot be picked up from floor.");
             return false;
         }
 
         // Check if the item is in the current room's list of items on the floor
         // AND if the item is at the player's current position.
-        if (currentRoom.getItemsInRoom().contains(item) && item.getPosition().equals(this.position)) {
+        if (currentRoom.containsItem(item) && item.getPosition().equals(this.position)) {
             List<Item> currentInventory = this.getInventory(); // This gets the direct reference to this.inventory
             if (currentInventory.add(item)) { // Add to the player's actual inventory
                 currentRoom.removeItem(item);   // Remove from room's floor
                 item.setOwner(this);            // Set owner
                 item.setPosition(null);         // Item in inventory has no world position
-                System.out.println(name + " picked up " + item.getName());
+                LOG.info(name + " picked up " + item.getName());
+                if (world != null) {
+                    world.getEventBus().fireItemPickedUp(this, item);
+                }
                 return true;
             } else {
-                System.out.println(name + " failed to add " + item.getName() + " to inventory (list add failed).");
+                LOG.info(name + " failed to add " + item.getName() + " to inventory (list add failed).");
                 return false;
             }
         }
-        System.out.println(name + " could not pick up " + item.getName() + ". It's not at " + this.position +
+        LOG.debug(() -> name + " could not pick up " + item.getName() + ". It's not at " + this.position +
                            " in " + currentRoom.getName() + " or not in room's item list.");
         return false;
     }
@@ -302,10 +380,10 @@ public abstract class LivingBeing extends Entity implements Executable {
                 // Drop at current player's position
                 item.setPosition(new Position(this.position.getX(), this.position.getY()));
                 currentRoom.addItem(item); // This adds to room's list. Room.drawContents() will draw it.
-                System.out.println(name + " dropped " + item.getName());
+                LOG.info(name + " dropped " + item.getName());
             } else {
                 inventory.add(item); // Add it back if drop failed
-                System.err.println(name + " failed to drop " + item.getName() + ": not in a room or no valid position.");
+                LOG.warn(name + " failed to drop " + item.getName() + ": not in a room or no valid position.");
             }
         }
     }
@@ -313,11 +391,11 @@ public abstract class LivingBeing extends Entity implements Executable {
     public void attack(LivingBeing target) {
         // ... (your existing attack logic, seems fine) ...
         if (target == null || target == this || target.getHealth() <= 0) {
-            System.out.println(name + " cannot attack invalid target.");
+            LOG.debug(() -> name + " cannot attack invalid target.");
             return;
         }
         if (target.getCurrentRoom() != this.currentRoom) {
-            System.out.println(target.getName() + " is not in the same room.");
+            LOG.debug(() -> target.getName() + " is not in the same room.");
             return;
         }
         if (this.position == null || target.getPosition() == null) return;
@@ -326,16 +404,18 @@ public abstract class LivingBeing extends Entity implements Executable {
         int dy = Math.abs(this.position.getY() - target.getPosition().getY());
 
         if (dx <= 1 && dy <= 1 && (dx + dy > 0)) { // Adjacent, not self
-            System.out.println(name + " attacks " + target.getName() + " for " + strength + " damage.");
+            LOG.info(name + " attacks " + target.getName() + " for " + strength + " damage.");
             target.takeDamage(strength);
         } else {
-            System.out.println(name + " is too far to melee attack " + target.getName());
+            if (LOG.isDebugEnabled()) {
+                LOG.debug(name + " is too far to melee attack " + target.getName());
+            }
         }
     }
 
     // Abstract execute() method - to be implemented by Player and NPC
     @Override
-    public abstract void execute();
+    public abstract void execute(SimulationClock clock);
 
     /**
      * Draw method for LivingBeings.
@@ -353,7 +433,7 @@ public abstract class LivingBeing extends Entity implements Executable {
             return;
         }
         if (this.position == null) {
-            System.err.println("LivingBeing " + getName() + " has null position. Cannot draw.");
+            LOG.warn("LivingBeing " + getName() + " has null position. Cannot draw.");
             return;
         }
 
@@ -393,6 +473,18 @@ public abstract class LivingBeing extends Entity implements Executable {
         }
     }
 
+    // Snapshots only hold live beings, so no health check here
+    @Override
+    public void drawVisualState(Graphics g, int visualState, int screenX, int screenY, int tilePixelWidth, int tilePixelHeight) {
+        if (this.sprite != null) {
+            g.drawImage(this.sprite, screenX, screenY, tilePixelWidth, tilePixelHeight, null);
+        } else {
+            Color beingColor = (this instanceof Player) ? Color.BLUE : Color.RED;
+            g.setColor(beingColor);
+            g.fillOval(screenX + tilePixelWidth / 4, screenY + tilePixelHeight / 4, tilePixelWidth / 2, tilePixelHeight / 2);
+        }
+    }
+
     public boolean isPassable() {
         return false; // Living beings generally block the tile they are on.
     }
@@ -402,7 +494,7 @@ public abstract class LivingBeing extends Entity implements Executable {
             this.inventory.add(item);
             item.setOwner(this); // Set owner when adding
             item.setPosition(null); // Item in inventory has no world position
-            System.out.println(item.getName() + " added to " + this.getName() + "'s inventory.");
+            LOG.debug(() -> item.getName() + " added to " + this.getName() + "'s inventory.");
         }
     }
 
@@ -410,8 +502,56 @@ public abstract class LivingBeing extends Entity implements Executable {
         if (this.inventory != null && item != null) {
             if (this.inventory.remove(item)) {
                 item.setOwner(null); // Clear owner
-                System.out.println(item.getName() + " removed from " + this.getName() + "'s inventory.");
+                LOG.debug(() -> item.getName() + " removed from " + this.getName() + "'s inventory.");
             }
         }
     }
+
+    // Items take themselves out of getInventory() when used up, so the list flags its owner
+    // for the next checkpoint on every edit instead of relying on each caller to. It wraps an
+    // ArrayList rather than extending it: AbstractList sends every bulk and iterator edit
+    // (removeIf, sort, subList().clear(), ...) through the few methods below, so none skip the flag
+    private final class Inventory extends AbstractList<Item> implements RandomAccess {
+        private final ArrayList<Item> items = new ArrayList<>();
+
+        @Override
+        public Item get(int index) {
+            return items.get(index);
+        }
+
+        @Override
+        public int size() {
+            return items.size();
+        }
+
+        @Override
+        public Item set(int index, Item item) {
+            Item old = items.set(index, item);
+            markChanged();
+            return old;
+        }
+
+        @Override
+        public void add(int index, Item item) {
+            items.add(index, item);
+            modCount++;
+            markChanged();
+        }
+
+        @Override
+        public Item remove(int index) {
+            Item removed = items.remove(index);
+            modCount++;
+            markChanged();
+            return removed;
+        }
+
+        @Override
+        protected void removeRange(int fromIndex, int toIndex) {
+            if (fromIndex >= toIndex) return;
+            items.subList(fromIndex, toIndex).clear();
+            modCount++;
+            markChanged();
+        }
+    }
 }
\ No newline at end of file
@@ -1,13 +1,17 @@
 package com.mazegame.characters;
 
+import com.mazegame.core.Door;
+import com.mazegame.core.PathFinder;
 import com.mazegame.core.Room;
 import com.mazegame.core.World;
 import com.mazegame.items.Item;
 import com.mazegame.items.Key;
 import com.mazegame.items.Ammo;
 import com.mazegame.items.AidKit;
+import com.mazegame.simulation.SimulationClock;
 import com.mazegame.utils.Position;
 import com.mazegame.ui.SpriteManager;
+import com.mazegame.logging.GameLogger;
 
 import java.awt.Graphics;
 import java.awt.Color;
@@ -15,6 +19,8 @@ import java.awt.Image;
 import java.util.Random;
 
 public class NPC extends LivingBeing {
+    private static final GameLogger LOG = GameLogger.getLogger(NPC.class);
+    private static final int CHASE_ROOM_DEPTH = 2; // How many doors away an NPC will still follow the player
     private Player targetPlayer;
     private Random randomGenerator; // For drop chances
 
@@ -22,7 +28,8 @@ public class NPC extends LivingBeing {
     public void heal(int amount) {
         // Example implementation: increase health but not above maxHealth
         this.health = Math.min(this.health + amount, this.maxHealth);
-        System.out.println(this.name + " healed for " + amount + " points. Current health: " + this.health);
+        markChanged();
+        LOG.debug(() -> this.name + " healed for " + amount + " points. Current health: " + this.health);
     }
 
     // Loot drop configuration
@@ -34,14 +41,19 @@ public class NPC extends LivingBeing {
                int maxHealth, int strength, Player targetPlayer) {
         super(name, world, initialPosition, startRoom, maxHealth, strength);
         this.targetPlayer = targetPlayer;
-        this.randomGenerator = new Random();
+        this.randomGenerator = (world != null) ? new Random(world.nextRandomSeed()) : new Random();
         this.sprite = SpriteManager.getSprite("goblin.png");
 
         if (this.sprite == null) {
-            System.out.println("Warning: Could not load sprite for " + name);
+            LOG.warn("Warning: Could not load sprite for " + name);
         }
 
-        System.out.println(name + " (NPC) created in " + startRoom.getName());
+        LOG.debug(() -> name + " (NPC) created in " + startRoom.getName());
+    }
+
+    /** Restarts the loot rolls from a fixed seed (replays, tests). */
+    public void setRandomSeed(long seed) {
+        this.randomGenerator = new Random(seed);
     }
 
     // Method to configure a special key drop for this NPC instance
@@ -63,12 +75,19 @@ public class NPC extends LivingBeing {
         return specialKeyId;
     }
 
+    public Player getTargetPlayer() {
+        return targetPlayer;
+    }
+
     @Override
-    public void execute() {
+    public void execute(SimulationClock clock) {
         if (!canAct()) return;
 
-        if (targetPlayer.getCurrentRoom() == this.currentRoom) {
+        Room playerRoom = targetPlayer.getCurrentRoom();
+        if (playerRoom == this.currentRoom) {
             handleCombatOrMovement();
+        } else if (playerRoom != null && world != null) {
+            chaseThroughDoor(playerRoom);
         }
     }
 
@@ -87,11 +106,36 @@ public class NPC extends LivingBeing {
         }
     }
 
+    // Player left the room: head for the first door on the way to them and step through it
+    private void chaseThroughDoor(Room playerRoom) {
+        Door door = world.getRoomGraph().firstDoorTowards(currentRoom, playerRoom, CHASE_ROOM_DEPTH);
+        if (door == null) return;
+        Position doorPos = door.getPositionInRoom(currentRoom);
+        if (doorPos != null) {
+            stepTowards(doorPos.getX(), doorPos.getY());
+        }
+    }
+
+    // One step along the room's shared flow field; false if there is no way to the goal
+    private boolean stepTowards(int goalX, int goalY) {
+        PathFinder pathFinder = world.getPathFinder();
+        int step = pathFinder.nextStep(currentRoom, position.getX(), position.getY(), goalX, goalY);
+        if (step == PathFinder.NO_STEP) return false;
+        move(PathFinder.stepDx(step), PathFinder.stepDy(step));
+        return true;
+    }
+
     private boolean isInAttackRange(int dx, int dy) {
         return Math.abs(dx) <= 1 && Math.abs(dy) <= 1 && (dx != 0 || dy != 0);
     }
 
     private void moveTowardsTarget(int dxPlayer, int dyPlayer) {
+        if (world != null) {
+            stepTowards(targetPlayer.getPosition().getX(), targetPlayer.getPosition().getY());
+            return;
+        }
+
+        // No world to ask for paths, fall back to greedy steps
         int moveX = Integer.compare(dxPlayer, 0);
         int moveY = Integer.compare(dyPlayer, 0);
 
@@ -116,28 +160,34 @@ public class NPC extends LivingBeing {
     }
 
     private boolean isValidMove(Position pos) {
-        return currentRoom.getTile(pos.getX(), pos.getY()) != null &&
-               currentRoom.getTile(pos.getX(), pos.getY()).isWalkable();
+        return currentRoom.isWalkable(pos.getX(), pos.getY());
     }
 
     @Override
     protected void die() {
-        System.out.println(this.name + " (" + System.identityHashCode(this) + ") has been defeated!");
+        LOG.debug(() -> this.name + " (" + System.identityHashCode(this) + ") has been defeated!");
 
+        // Loot goes into the world, so it waits for the merge if rooms are ticking in parallel
+        runCrossRoomEffect(this::dropLoot);
+
+        //super.die(); // Handles removal from room, world, and dropping its OWN inventory (if any)
+    }
+
+    private void dropLoot() {
         // --- LOOT DROP LOGIC ---
         if (currentRoom != null && world != null && this.position != null) {
             Position dropPosition = new Position(this.position.getX(), this.position.getY()); // Copy position BEFORE super.die()
 
             // Example: Drop a specific key if configured
-            System.out.println("NPC.die (" + this.name + "): Checking for special key drop. dropsSpecialKey=" + dropsSpecialKey + ", specialKeyId=" + specialKeyId);
+            LOG.debug(() -> "NPC.die (" + this.name + "): Checking for special key drop. dropsSpecialKey=" + dropsSpecialKey + ", specialKeyId=" + specialKeyId);
             if (dropsSpecialKey && specialKeyId != null && !specialKeyId.isEmpty()) {
                 Key droppedKey = new Key(this.specialKeyName, world, dropPosition, this.specialKeyId);
                 currentRoom.addItem(droppedKey);
                 world.addEntity(droppedKey);
-                System.out.println(this.name + " dropped the " + droppedKey.getName() + " with ID: " + droppedKey.getKeyId());
+                LOG.info(this.name + " dropped the " + droppedKey.getName() + " with ID: " + droppedKey.getKeyId());
             } else {
-                if (!dropsSpecialKey) System.out.println("NPC.die (" + this.name + "): Not configured to drop a special key (dropsSpecialKey is false).");
-                if (specialKeyId == null || specialKeyId.isEmpty()) System.out.println("NPC.die (" + this.name + "): Special key ID is null or empty.");
+                if (!dropsSpecialKey) LOG.debug(() -> "NPC.die (" + this.name + "): Not configured to drop a special key (dropsSpecialKey is false).");
+                if (specialKeyId == null || specialKeyId.isEmpty()) LOG.debug(() -> "NPC.die (" + this.name + "): Special key ID is null or empty.");
             }
 
             // 50% chance to drop some ammo
@@ -145,7 +195,7 @@ public class NPC extends LivingBeing {
                 Ammo droppedAmmo = new Ammo("Dropped 9mm", world, dropPosition, "9mm", randomGenerator.nextInt(3) + 1); // 1-3 bullets
                 currentRoom.addItem(droppedAmmo);
                 world.addEntity(droppedAmmo);
-                System.out.println(this.name + " dropped " + droppedAmmo.getName());
+                LOG.info(this.name + " dropped " + droppedAmmo.getName());
             }
 
             // 25% chance to drop a small aidkit
@@ -153,15 +203,13 @@ public class NPC extends LivingBeing {
                 AidKit droppedAidKit = new AidKit("Crude Bandage", world, dropPosition, 10); // Heals for 10
                 currentRoom.addItem(droppedAidKit);
                 world.addEntity(droppedAidKit);
-                System.out.println(this.name + " dropped a " + droppedAidKit.getName());
+                LOG.info(this.name + " dropped a " + droppedAidKit.getName());
             }
         } else {
-            if (currentRoom == null) System.out.println("NPC.die (" + this.name + "): currentRoom is null, cannot drop loot.");
-            if (world == null) System.out.println("NPC.die (" + this.name + "): world is null, cannot drop loot.");
-            if (this.position == null) System.out.println("NPC.die (" + this.name + "): this.position is null, cannot determine drop location.");
+            if (currentRoom == null) LOG.debug(() -> "NPC.die (" + this.name + "): currentRoom is null, cannot drop loot.");
+            if (world == null) LOG.debug(() -> "NPC.die (" + this.name + "): world is null, cannot drop loot.");
+            if (this.position == null) LOG.debug(() -> "NPC.die (" + this.name + "): this.position is null, cannot determine drop location.");
         }
-
-        //super.die(); // Handles removal from room, world, and dropping its OWN inventory (if any)
     }
 
     @Override
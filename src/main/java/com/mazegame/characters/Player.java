@@ -10,20 +10,22 @@ import com.mazegame.items.Lever;
 import com.mazegame.items.Chest;
 import com.mazegame.items.Treasure;
 import com.mazegame.interfaces.Activatable;
+import com.mazegame.simulation.SimulationClock;
 import com.mazegame.utils.Position;
 import com.mazegame.ui.SpriteManager;
+import com.mazegame.logging.GameLogger;
 
 import java.awt.Graphics;
 import java.awt.Color;
-import java.util.ArrayList;
 import java.util.List;
 // No Image import needed if sprite is handled by LivingBeing
 
 public class Player extends LivingBeing {
+    private static final GameLogger LOG = GameLogger.getLogger(Player.class);
 
     // Fields specific to Player
     private boolean recentlyDamaged = false;
-    private long lastDamageTime = 0;
+    private volatile long lastDamageTime = 0; // Read by snapshot painting on the EDT
     private static final long DAMAGE_FLASH_DURATION = 200; // milliseconds
     private int activeItemSlot = 0;
 
@@ -32,7 +34,7 @@ public class Player extends LivingBeing {
         super(name, world, initialPosition, startRoom, maxHealth, strength);
         this.sprite = SpriteManager.getSprite("player.png"); // Assigns to LivingBeing.sprite
         if (this.sprite == null) {
-            System.err.println("Warning: Player sprite ('player.png') could not be loaded for " + this.name);
+            LOG.warn("Warning: Player sprite ('player.png') could not be loaded for " + this.name);
         }
     }
 
@@ -46,22 +48,24 @@ public class Player extends LivingBeing {
 
     public void setActiveItemSlot(int slotIndex) {
         if (inventory == null) {
-            System.err.println("Player.setActiveItemSlot: Inventory is null!");
+            LOG.error("Player.setActiveItemSlot: Inventory is null!");
             return;
         }
         if (slotIndex >= 0 && slotIndex < inventory.size()) {
             this.activeItemSlot = slotIndex;
-            System.out.println("Active item set to slot: " + (slotIndex + 1) + " (" + inventory.get(slotIndex).getName() + ")");
+            markChanged();
+            LOG.debug(() -> "Active item set to slot: " + (slotIndex + 1) + " (" + inventory.get(slotIndex).getName() + ")");
         } else if (inventory.isEmpty() && slotIndex == 0) {
             this.activeItemSlot = 0;
+            markChanged();
         } else {
-            System.out.println("Cannot set active item to invalid slot: " + (slotIndex + 1) + ". Inventory size: " + inventory.size());
+            LOG.debug(() -> "Cannot set active item to invalid slot: " + (slotIndex + 1) + ". Inventory size: " + inventory.size());
         }
     }
 
     public Item getActiveItem() {
         if (inventory == null) {
-            System.err.println("Player.getActiveItem: Inventory is null!");
+            LOG.error("Player.getActiveItem: Inventory is null!");
             return null;
         }
         if (activeItemSlot >= 0 && activeItemSlot < inventory.size()) {
@@ -71,7 +75,7 @@ public class Player extends LivingBeing {
     }
 
     @Override
-    public void execute() {
+    public void execute(SimulationClock clock) {
         // Player actions are driven by GUI events
     }
 
@@ -103,25 +107,35 @@ public class Player extends LivingBeing {
         }
     }
 
+    @Override
+    public int getVisualState() {
+        return recentlyDamaged ? 1 : 0;
+    }
+
+    // Same flicker as draw(), but leaves recentlyDamaged alone (this runs on the EDT)
+    @Override
+    public void drawVisualState(Graphics g, int visualState, int screenX, int screenY, int tilePixelWidth, int tilePixelHeight) {
+        long now = System.currentTimeMillis();
+        if (visualState != 0 && now - lastDamageTime <= DAMAGE_FLASH_DURATION && (now / 50) % 2 == 0) {
+            return;
+        }
+        super.drawVisualState(g, visualState, screenX, screenY, tilePixelWidth, tilePixelHeight);
+    }
+
     // customPlayerDrawLogic is not needed if Player.draw() handles everything itself.
     // public void customPlayerDrawLogic(...)
 
     public void interact() {
         if (currentRoom == null || position == null) {
-            System.err.println("Player.interact: currentRoom or position is null. Cannot interact.");
+            LOG.error("Player.interact: currentRoom or position is null. Cannot interact.");
             return;
         }
-        System.out.println(getName() + " attempts to interact at (" + position.getX() + "," + position.getY() +")...");
+        LOG.debug(() -> getName() + " attempts to interact at (" + position.getX() + "," + position.getY() +")...");
 
-        List<Item> itemsAtFeet = new ArrayList<>();
-        for (Item item : currentRoom.getItemsInRoom()) {
-            if (item.getPosition() != null && item.getPosition().equals(this.position)) {
-                itemsAtFeet.add(item);
-            }
-        }
+        List<Item> itemsAtFeet = currentRoom.getItemsAt(position);
         if (!itemsAtFeet.isEmpty()) {
             Item itemToInteractWith = itemsAtFeet.get(0);
-            System.out.println("  Found item at feet: " + itemToInteractWith.getName());
+            LOG.debug(() -> "  Found item at feet: " + itemToInteractWith.getName());
             if (itemToInteractWith instanceof Treasure) {
                 ((Treasure) itemToInteractWith).winGame(this);
                 return;
@@ -133,7 +147,7 @@ public class Player extends LivingBeing {
         if (tryInteractWithAdjacentEntities()) {
             return;
         }
-        System.out.println("  Nothing specific to interact with nearby.");
+        LOG.debug(() -> "  Nothing specific to interact with nearby.");
     }
 
     private boolean tryInteractWithAdjacentEntities() {
@@ -154,23 +168,23 @@ public class Player extends LivingBeing {
     }
 
     private void handleActivatableEntity(Activatable activatable, Entity entityAsEntity) {
-        System.out.println("  Found activatable: " + entityAsEntity.getName());
+        LOG.debug(() -> "  Found activatable: " + entityAsEntity.getName());
         if (activatable instanceof Chest) {
             ((Chest) activatable).open(this);
         } else if (activatable instanceof Door) {
             Door door = (Door) activatable;
             if (door.getName().equals("Dimensional Exit") || door.getName().equals("Shimmering Portal")) {
                 if (!door.isLocked()) {
-                    System.out.println(this.getName() + " has found the " + door.getName() + "! YOU WIN!");
+                    LOG.info(this.getName() + " has found the " + door.getName() + "! YOU WIN!");
                     if (world != null) world.setPlayerWon(true);
                 } else {
-                    System.out.println("  " + door.getName() + " is sealed. It might need a special key or condition.");
+                    LOG.debug(() -> "  " + door.getName() + " is sealed. It might need a special key or condition.");
                 }
             } else {
                 if (door.isLocked()) {
-                    System.out.println("  " + door.getName() + " is locked. Try using a key or crowbar.");
+                    LOG.debug(() -> "  " + door.getName() + " is locked. Try using a key or crowbar.");
                 } else {
-                    System.out.println("  " + door.getName() + " is unlocked. Move into it to pass through.");
+                    LOG.debug(() -> "  " + door.getName() + " is unlocked. Move into it to pass through.");
                 }
             }
         } else if (activatable instanceof Lever) {
@@ -180,9 +194,9 @@ public class Player extends LivingBeing {
 
     @Override
     protected void die() {
-        System.out.println("Player " + this.name + " is dying (pre-super.die). Health: " + this.health);
+        LOG.debug(() -> "Player " + this.name + " is dying (pre-super.die). Health: " + this.health);
         super.die(); // This calls LivingBeing.die() for item drops & removal from room/world lists
-        System.out.println("GAME OVER! The player (" + this.name + ") has died (post-super.die).");
+        LOG.info("GAME OVER! The player (" + this.name + ") has died (post-super.die).");
         if (world != null) {
             world.setGameOver(true);
         }
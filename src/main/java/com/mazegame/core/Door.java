@@ -3,12 +3,14 @@ package com.mazegame.core;
 import com.mazegame.interfaces.Activatable;
 import com.mazegame.ui.SpriteManager;
 import com.mazegame.utils.Position;
+import com.mazegame.logging.GameLogger;
 import java.awt.Graphics; // For drawing
 import java.awt.Image;
 import java.awt.Color;
 // import com.mazegame.ui.SpriteManager; // For sprites
 
 public class Door extends Entity implements Activatable {
+    private static final GameLogger LOG = GameLogger.getLogger(Door.class);
     private Room room1;
     private Room room2;
     private boolean locked;
@@ -35,7 +37,7 @@ public class Door extends Entity implements Activatable {
         this.spriteOpen = SpriteManager.getSprite("door_open.png");
         this.spriteClosed = SpriteManager.getSprite("door_closed.png");
         if (this.spriteOpen == null || this.spriteClosed == null) {
-            System.err.println("Error: Door sprites not loaded for " + getName());
+            LOG.warn("Error: Door sprites not loaded for " + getName());
         }
 
         // Add this door to the rooms and update their tile maps
@@ -77,7 +79,7 @@ public class Door extends Entity implements Activatable {
         this.spriteOpen = SpriteManager.getSprite("door_open.png");
         this.spriteClosed = SpriteManager.getSprite("door_closed.png");
         if (this.spriteOpen == null || this.spriteClosed == null) {
-            System.err.println("Error: Door sprites not loaded for " + getName());
+            LOG.warn("Error: Door sprites not loaded for " + getName());
         }
 
         if (room1 != null) {
@@ -98,6 +100,9 @@ public class Door extends Entity implements Activatable {
         }
     }
 
+    public Room getRoom1() { return room1; }
+    public Room getRoom2() { return room2; } // null for exits
+
     public Room getOtherRoom(Room currentRoom) {
         if (currentRoom == room1) return room2;
         if (currentRoom == room2) return room1;
@@ -112,26 +117,28 @@ public class Door extends Entity implements Activatable {
 
     public void passThrough() {
         if (isLocked()) {
-            System.out.println(getName() + " is locked. Cannot pass.");
+            LOG.info(getName() + " is locked. Cannot pass.");
             return;
         }
         if (!isCurrentlyOpen) {
             isCurrentlyOpen = true;
-            System.out.println(getName() + " opened for passage.");
+            LOG.info(getName() + " opened for passage.");
             updateTileWalkability(true);
+            fireChanged();
         }
     }
 
     @Override
     public void open() {
         if (isLocked()) {
-            System.out.println(getName() + " is locked. Cannot open.");
+            LOG.info(getName() + " is locked. Cannot open.");
             return;
         }
         if (!isCurrentlyOpen) {
             isCurrentlyOpen = true;
-            System.out.println(getName() + " is now open.");
+            LOG.info(getName() + " is now open.");
             updateTileWalkability(true);
+            fireChanged();
         }
     }
 
@@ -139,8 +146,9 @@ public class Door extends Entity implements Activatable {
     public void close() {
         if (isCurrentlyOpen) {
             isCurrentlyOpen = false;
-            System.out.println(getName() + " is now closed.");
+            LOG.info(getName() + " is now closed.");
             updateTileWalkability(false);
+            fireChanged();
         }
     }
 
@@ -152,20 +160,22 @@ public class Door extends Entity implements Activatable {
     public void unlock() {
         if (locked) {
             this.locked = false;
-            System.out.println(getName() + " unlocked.");
+            LOG.info(getName() + " unlocked.");
+            notifyRoomGraph();
+            fireChanged();
             // Door isn't necessarily "open" just because it's unlocked.
         }
     }
     
     public void forceOpen() {
         if (forceable && isLocked()) {
-            System.out.println(getName() + " is being forced open!");
+            LOG.info(getName() + " is being forced open!");
             unlock(); // Sets locked = false
             open();   // Sets isCurrentlyOpen = true
         } else if (!isLocked()) {
-            System.out.println(getName() + " is already unlocked/open, no need to force.");
+            LOG.info(getName() + " is already unlocked/open, no need to force.");
         } else {
-            System.out.println(getName() + " cannot be forced.");
+            LOG.info(getName() + " cannot be forced.");
         }
     }
 
@@ -175,6 +185,8 @@ public class Door extends Entity implements Activatable {
 
     public void setForceable(boolean forceable) {
         this.forceable = forceable;
+        markChanged();
+        notifyRoomGraph();
     }
 
     public boolean canBeForcedOpen() {
@@ -187,10 +199,27 @@ public class Door extends Entity implements Activatable {
      */
     public void setLockedState(boolean lockedStatus) {
         this.locked = lockedStatus;
+        notifyRoomGraph();
+        fireChanged();
         // Optionally update visuals if needed:
         // updateSpriteAndTile(isCurrentlyOpen);
     }
     
+    // Keeps the edge state in World's room graph in line with this door
+    private void notifyRoomGraph() {
+        if (world != null) {
+            world.getRoomGraph().updateDoor(this);
+        }
+    }
+
+    // Every lock/open change ends up here, so it also flags the door for the next checkpoint
+    private void fireChanged() {
+        markChanged();
+        if (world != null) {
+            world.getEventBus().fireDoorChanged(this);
+        }
+    }
+
     private void updateSpriteAndTile(boolean openState) {
         if (room1 != null && positionInRoom1 != null) {
             Tile tile1 = room1.getTile(positionInRoom1.getX(), positionInRoom1.getY());
@@ -224,9 +253,32 @@ public class Door extends Entity implements Activatable {
         return this.isCurrentlyOpen;
     }
 
+    /** Puts the door straight into a saved state: no events, no log lines. Used when loading a game. */
+    public void restoreState(boolean locked, boolean open) {
+        this.locked = locked;
+        this.isCurrentlyOpen = open;
+        updateTileWalkability(open);
+        notifyRoomGraph();
+        markChanged();
+    }
+
+    private static final int VISUAL_OPEN = 1;
+    private static final int VISUAL_LOCKED = 2;
+
+    @Override
+    public int getVisualState() {
+        return (isCurrentlyOpen ? VISUAL_OPEN : 0) | (locked ? VISUAL_LOCKED : 0);
+    }
+
     @Override
     public void draw(Graphics g, int screenX, int screenY, int tilePixelWidth, int tilePixelHeight) {
-        Image spriteToDraw = this.isCurrentlyOpen ? this.spriteOpen : this.spriteClosed;
+        drawVisualState(g, getVisualState(), screenX, screenY, tilePixelWidth, tilePixelHeight);
+    }
+
+    @Override
+    public void drawVisualState(Graphics g, int visualState, int screenX, int screenY, int tilePixelWidth, int tilePixelHeight) {
+        boolean open = (visualState & VISUAL_OPEN) != 0;
+        Image spriteToDraw = open ? this.spriteOpen : this.spriteClosed;
 
         if (spriteToDraw != null) {
             g.drawImage(spriteToDraw,
@@ -235,7 +287,7 @@ public class Door extends Entity implements Activatable {
                     tilePixelWidth, tilePixelHeight, null);
         } else {
             // Fallback placeholder drawing AT screenX, screenY
-            Color doorColor = this.isCurrentlyOpen ? Color.GREEN.darker() : (this.isLocked() ? Color.RED.darker() : new Color(139, 69, 19));
+            Color doorColor = open ? Color.GREEN.darker() : ((visualState & VISUAL_LOCKED) != 0 ? Color.RED.darker() : new Color(139, 69, 19));
             g.setColor(doorColor);
             g.fillRect(screenX + tilePixelWidth / 4, // Offset within the tile for placeholder
                        screenY,
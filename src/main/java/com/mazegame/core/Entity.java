@@ -9,6 +9,7 @@ public abstract class Entity {
     protected World world;
     protected Position position; // Tile coordinates (e.g., 5, 3)
     protected Image sprite;      // Optional: a default sprite for the entity type
+    volatile boolean changed;    // Flagged for the next checkpoint, see World.markChanged()
 
     public Entity(String name, World world, Position position) {
         this.name = name;
@@ -30,6 +31,18 @@ public abstract class Entity {
 
     public void setPosition(Position position) {
         this.position = position;
+        markChanged();
+    }
+
+    /**
+     * Flags this entity for the next incremental checkpoint (see GameStateManager). Call it after
+     * changing anything a save records about the entity. Free when nobody tracks changes, and
+     * flagging an already flagged entity does nothing.
+     */
+    public void markChanged() {
+        if (world != null && !changed) {
+            world.markChanged(this);
+        }
     }
 
     public Image getSprite() {
@@ -46,6 +59,23 @@ public abstract class Entity {
      */
     public abstract void draw(Graphics g, int screenX, int screenY, int tilePixelWidth, int tilePixelHeight);
 
+    /**
+     * Everything about how this entity looks that can change during the game (door open, trap
+     * phase, ...) packed into an int. 0 for entities that always look the same.
+     */
+    public int getVisualState() {
+        return 0;
+    }
+
+    /**
+     * Draws the entity as it looks in the given visual state (from getVisualState()), without
+     * reading any of its game state. Render snapshots use this to paint on the EDT while the tick
+     * carries on. The default just calls draw(), fine for entities whose look never changes.
+     */
+    public void drawVisualState(Graphics g, int visualState, int screenX, int screenY, int tilePixelWidth, int tilePixelHeight) {
+        draw(g, screenX, screenY, tilePixelWidth, tilePixelHeight);
+    }
+
     /**
      * Whether this entity can be walked over.
      * Override in subclasses for open doors, items, etc.
@@ -0,0 +1,242 @@
+package com.mazegame.core;
+
+import com.mazegame.utils.Position;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Tile-level pathfinding inside a room, on top of the room's cached walkability bitmap.
+ *
+ * Two flavours:
+ *  - flow fields: a BFS distance map from one goal tile over the whole room. Every NPC chasing
+ *    the same goal reads its next step from the same field, so the cost per tick is one BFS per
+ *    room and goal, not one search per NPC.
+ *  - A* for a single agent that wants the full path (findPath).
+ *
+ * Both are cached per room and thrown away when the room's walkability version changes (door
+ * opened/closed, tile or entity changed). Movement is 4-way, the same steps LivingBeing.move()
+ * takes. The goal tile itself doesn't have to be walkable, so a closed door tile works as a
+ * goal: stepping onto it is what makes LivingBeing go through.
+ */
+public class PathFinder {
+    public static final int NO_STEP = -1;
+
+    // Step directions, index is what nextStep() returns
+    private static final int[] DX = { 1, -1, 0, 0 };
+    private static final int[] DY = { 0, 0, 1, -1 };
+
+    private static final int UNREACHABLE = Integer.MAX_VALUE;
+    private static final int FIELDS_PER_ROOM = 8; // Player tile + a few door tiles is the usual working set
+    private static final int PATHS_PER_ROOM = 32;
+
+    private final Map<Room, RoomCache> caches = new IdentityHashMap<>();
+
+    public static int stepDx(int step) { return DX[step]; }
+    public static int stepDy(int step) { return DY[step]; }
+
+    /**
+     * Direction (index for stepDx/stepDy) of the next step from (x, y) towards the goal, or NO_STEP
+     * if already there or the goal can't be reached from (x, y). Ties go to the first direction in
+     * a fixed order, so the result is deterministic.
+     */
+    public int nextStep(Room room, int x, int y, int goalX, int goalY) {
+        if (room == null || !room.isInBounds(x, y) || !room.isInBounds(goalX, goalY)) return NO_STEP;
+        TileLayer layer = room.getTileLayer();
+        int[] dist = getFlowField(room, goalX, goalY);
+        int here = dist[layer.indexOf(x, y)];
+        if (here == 0) return NO_STEP;
+
+        int best = NO_STEP;
+        int bestDist = here; // Standing on a blocked tile (UNREACHABLE) still lets us step off it
+        for (int d = 0; d < 4; d++) {
+            int nx = x + DX[d];
+            int ny = y + DY[d];
+            if (!layer.inBounds(nx, ny)) continue;
+            int nd = dist[layer.indexOf(nx, ny)];
+            if (nd < bestDist) {
+                bestDist = nd;
+                best = d;
+            }
+        }
+        return best;
+    }
+
+    /** Number of steps from (x, y) to the goal, or -1 if it can't be reached. */
+    public int distance(Room room, int x, int y, int goalX, int goalY) {
+        if (room == null || !room.isInBounds(x, y) || !room.isInBounds(goalX, goalY)) return -1;
+        int d = getFlowField(room, goalX, goalY)[room.getTileLayer().indexOf(x, y)];
+        return (d == UNREACHABLE) ? -1 : d;
+    }
+
+    /**
+     * A* path from start to goal (both inclusive), or an empty list if there is none. The
+     * returned list is shared with the cache, don't modify it.
+     */
+    public List<Position> findPath(Room room, Position start, Position goal) {
+        if (room == null || start == null || goal == null
+                || !room.isInBounds(start.getX(), start.getY()) || !room.isInBounds(goal.getX(), goal.getY())) {
+            return Collections.emptyList();
+        }
+        TileLayer layer = room.getTileLayer();
+        int from = layer.indexOf(start.getX(), start.getY());
+        int to = layer.indexOf(goal.getX(), goal.getY());
+        RoomCache cache = cacheFor(room);
+        synchronized (cache) {
+            cache.checkVersion(layer);
+            long key = ((long) from << 32) | (to & 0xFFFFFFFFL);
+            List<Position> path = cache.paths.get(key);
+            if (path == null) {
+                path = aStar(layer, from, to);
+                cache.paths.put(key, path);
+            }
+            return path;
+        }
+    }
+
+    /** Drops everything cached for the room (e.g. when it is unloaded). */
+    public void forget(Room room) {
+        synchronized (caches) {
+            caches.remove(room);
+        }
+    }
+
+    int[] getFlowField(Room room, int goalX, int goalY) {
+        TileLayer layer = room.getTileLayer();
+        int goal = layer.indexOf(goalX, goalY);
+        RoomCache cache = cacheFor(room);
+        synchronized (cache) {
+            cache.checkVersion(layer);
+            int[] field = cache.fields.get(goal);
+            if (field == null) {
+                field = buildFlowField(layer, goal);
+                cache.fields.put(goal, field);
+            }
+            return field;
+        }
+    }
+
+    private RoomCache cacheFor(Room room) {
+        synchronized (caches) {
+            RoomCache cache = caches.get(room);
+            if (cache == null) {
+                cache = new RoomCache();
+                caches.put(room, cache);
+            }
+            return cache;
+        }
+    }
+
+    private static int[] buildFlowField(TileLayer layer, int goal) {
+        int width = layer.getWidth();
+        int[] dist = new int[layer.size()];
+        Arrays.fill(dist, UNREACHABLE);
+        int[] queue = new int[layer.size()];
+        int head = 0;
+        int tail = 0;
+        dist[goal] = 0;
+        queue[tail++] = goal;
+        while (head < tail) {
+            int cell = queue[head++];
+            int x = cell % width;
+            int y = cell / width;
+            for (int d = 0; d < 4; d++) {
+                int nx = x + DX[d];
+                int ny = y + DY[d];
+                if (!layer.inBounds(nx, ny)) continue;
+                int next = layer.indexOf(nx, ny);
+                if (dist[next] == UNREACHABLE && layer.isWalkable(next)) {
+                    dist[next] = dist[cell] + 1;
+                    queue[tail++] = next;
+                }
+            }
+        }
+        return dist;
+    }
+
+    private static List<Position> aStar(TileLayer layer, int start, int goal) {
+        int width = layer.getWidth();
+        int goalX = goal % width;
+        int goalY = goal / width;
+        int[] cost = new int[layer.size()];
+        int[] cameFrom = new int[layer.size()];
+        Arrays.fill(cost, UNREACHABLE);
+        cost[start] = 0;
+        cameFrom[start] = -1;
+
+        // Entries are {f, cell}; ties broken on cell so the search order doesn't depend on insertion
+        PriorityQueue<int[]> open = new PriorityQueue<>(16, (a, b) -> a[0] != b[0] ? Integer.compare(a[0], b[0]) : Integer.compare(a[1], b[1]));
+        open.add(new int[] { manhattan(start % width, start / width, goalX, goalY), start });
+        while (!open.isEmpty()) {
+            int[] entry = open.poll();
+            int cell = entry[1];
+            if (cell == goal) {
+                return reconstruct(cameFrom, goal, width);
+            }
+            int x = cell % width;
+            int y = cell / width;
+            if (entry[0] > cost[cell] + manhattan(x, y, goalX, goalY)) continue; // Stale entry
+            for (int d = 0; d < 4; d++) {
+                int nx = x + DX[d];
+                int ny = y + DY[d];
+                if (!layer.inBounds(nx, ny)) continue;
+                int next = layer.indexOf(nx, ny);
+                if (next != goal && !layer.isWalkable(next)) continue;
+                int newCost = cost[cell] + 1;
+                if (newCost < cost[next]) {
+                    cost[next] = newCost;
+                    cameFrom[next] = cell;
+                    open.add(new int[] { newCost + manhattan(nx, ny, goalX, goalY), next });
+                }
+            }
+        }
+        return Collections.emptyList();
+    }
+
+    private static List<Position> reconstruct(int[] cameFrom, int goal, int width) {
+        List<Position> path = new ArrayList<>();
+        for (int cell = goal; cell != -1; cell = cameFrom[cell]) {
+            path.add(new Position(cell % width, cell / width));
+        }
+        Collections.reverse(path);
+        return Collections.unmodifiableList(path);
+    }
+
+    private static int manhattan(int x1, int y1, int x2, int y2) {
+        return Math.abs(x1 - x2) + Math.abs(y1 - y2);
+    }
+
+    // Everything cached for one room, valid for one walkability version
+    private static final class RoomCache {
+        private int version = -1;
+
+        private final Map<Integer, int[]> fields = new LinkedHashMap<Integer, int[]>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, int[]> eldest) {
+                return size() > FIELDS_PER_ROOM;
+            }
+        };
+
+        private final Map<Long, List<Position>> paths = new LinkedHashMap<Long, List<Position>>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, List<Position>> eldest) {
+                return size() > PATHS_PER_ROOM;
+            }
+        };
+
+        void checkVersion(TileLayer layer) {
+            int current = layer.getWalkableVersion();
+            if (current != version) {
+                fields.clear();
+                paths.clear();
+                version = current;
+            }
+        }
+    }
+}
@@ -6,30 +6,58 @@ import com.mazegame.items.Item;
 // import com.mazegame.items.Lever; // Lever is an Entity, not necessarily an Item for this context
 import com.mazegame.utils.Position;
 import com.mazegame.ui.SpriteManager;
+import com.mazegame.logging.GameLogger;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.awt.Graphics;
 import java.awt.Image;
-import java.awt.Color;
 
 public class Room extends Entity { // Room is an Entity, its 'position' is its logical grid pos in the world
+    private static final GameLogger LOG = GameLogger.getLogger(Room.class);
     private final int roomID;
-    private final Tile[][] tiles;
+    private final TileLayer tileLayer; // Struct-of-arrays tile storage, Tile objects are views over it
     private final List<Door> connectedDoors; // For game logic, e.g., finding exits
+    // Copy-on-write: reads (every tick and every paint) vastly outnumber adds/removes, and iterating
+    // them never throws even if a being dies or an item is picked up mid-loop
     private final List<LivingBeing> livingBeingsInRoom;
     private final List<Item> itemsInRoom; // Items on the floor
+    private final List<LivingBeing> livingBeingsView; // Read-only views handed out by the getters
+    private final List<Item> itemsView;
+    // Per-tile buckets so "what is at (x, y)" doesn't scan the lists above
+    private final SpatialIndex<Item> itemIndex;
+    private final SpatialIndex<LivingBeing> beingIndex;
 
+    private final int width;  // In tiles, walls included
+    private final int height;
+
+    // Size of the hand-built rooms and the default for new ones
     public static final int ROOM_WIDTH_TILES = 12;
     public static final int ROOM_HEIGHT_TILES = 12;
 
     public Room(int roomID, String name, World world, Position worldGridPosition) {
+        this(roomID, name, world, worldGridPosition, ROOM_WIDTH_TILES, ROOM_HEIGHT_TILES);
+    }
+
+    // Rooms from the procedural generator can be any size (walls included), 5x5 at the least
+    public Room(int roomID, String name, World world, Position worldGridPosition, int width, int height) {
         super(name, world, worldGridPosition); // Entity constructor
+        if (width < 5 || height < 5) {
+            throw new IllegalArgumentException("Room " + name + " is too small: " + width + "x" + height);
+        }
         this.roomID = roomID;
-        this.tiles = new Tile[ROOM_WIDTH_TILES][ROOM_HEIGHT_TILES];
+        this.width = width;
+        this.height = height;
+        this.tileLayer = new TileLayer(width, height);
         this.connectedDoors = new ArrayList<>();
-        this.livingBeingsInRoom = new ArrayList<>();
-        this.itemsInRoom = new ArrayList<>();
+        this.livingBeingsInRoom = new CopyOnWriteArrayList<>();
+        this.itemsInRoom = new CopyOnWriteArrayList<>();
+        this.livingBeingsView = Collections.unmodifiableList(livingBeingsInRoom);
+        this.itemsView = Collections.unmodifiableList(itemsInRoom);
+        this.itemIndex = new SpatialIndex<>(width, height);
+        this.beingIndex = new SpatialIndex<>(width, height);
         initializeDefaultTiles();
     }
 
@@ -39,15 +67,15 @@ public class Room extends Entity { // Room is an Entity, its 'position' is its l
 
         boolean spritesAvailable = (wallSprite != null && floorSprite != null);
         if (!spritesAvailable) {
-            System.err.println("Warning: Essential wall/floor sprites missing for room " + getName() + ". Using placeholders.");
+            LOG.warn("Warning: Essential wall/floor sprites missing for room " + getName() + ". Using placeholders.");
         }
 
-        for (int y = 0; y < ROOM_HEIGHT_TILES; y++) {
-            for (int x = 0; x < ROOM_WIDTH_TILES; x++) {
-                boolean isWall = (x == 0 || x == ROOM_WIDTH_TILES - 1 || y == 0 || y == ROOM_HEIGHT_TILES - 1);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                boolean isWall = (x == 0 || x == width - 1 || y == 0 || y == height - 1);
                 Image currentTileSprite = isWall ? wallSprite : floorSprite;
 
-                tiles[x][y] = new Tile(
+                tileLayer.set(tileLayer.indexOf(x, y),
                     isWall ? Tile.TileType.WALL : Tile.TileType.FLOOR,
                     !isWall, // walkable if not a wall
                     spritesAvailable ? currentTileSprite : null // Use null if sprites aren't loaded to force placeholder
@@ -55,50 +83,35 @@ public class Room extends Entity { // Room is an Entity, its 'position' is its l
             }
         }
 
-        // Add specific internal walls for Room 0 as an example
-        if (this.roomID == 0 && wallSprite != null) { // Check wallSprite to avoid NPE if it failed to load
-            // Make sure these coordinates are within bounds (1 to 10 for internal)
-            if (tiles[5][3] != null) tiles[5][3] = new Tile(Tile.TileType.WALL, false, wallSprite);
-            if (tiles[3][4] != null) tiles[3][4] = new Tile(Tile.TileType.WALL, false, wallSprite);
-            if (tiles[3][5] != null) tiles[3][5] = new Tile(Tile.TileType.WALL, false, wallSprite);
-            if (tiles[7][6] != null) tiles[7][6] = new Tile(Tile.TileType.WALL, false, wallSprite);
-            if (tiles[7][7] != null) tiles[7][7] = new Tile(Tile.TileType.WALL, false, wallSprite);
-        }
-         // Example for another room (roomID == 1)
-        if (this.roomID == 1 && wallSprite != null) {
-            if (tiles[8][5] != null) tiles[8][5] = new Tile(Tile.TileType.WALL, false, wallSprite);
-            if (tiles[5][6] != null) tiles[5][6] = new Tile(Tile.TileType.WALL, false, wallSprite);
-        }
-
-
         if (!spritesAvailable) {
-            System.out.println("Room " + getName() + " initialized with some placeholder graphics due to missing sprites.");
+            LOG.debug(() -> "Room " + getName() + " initialized with some placeholder graphics due to missing sprites.");
         } else {
-            System.out.println("Room " + getName() + " initialized successfully with sprites.");
+            LOG.debug(() -> "Room " + getName() + " initialized successfully with sprites.");
         }
     }
 
     public Tile getTile(int x, int y) {
-        if (x >= 0 && x < ROOM_WIDTH_TILES && y >= 0 && y < ROOM_HEIGHT_TILES) {
-            if (tiles[x][y] == null) { // Should not happen after initializeDefaultTiles
-                System.err.println("CRITICAL: Tile at (" + x + "," + y + ") in Room " + getName() + " is null!");
-                // Create a fallback tile to prevent NullPointerExceptions elsewhere
-                tiles[x][y] = new Tile(Tile.TileType.EMPTY, false, null);
-            }
-            return tiles[x][y];
+        if (x >= 0 && x < width && y >= 0 && y < height) {
+            return new Tile(tileLayer, tileLayer.indexOf(x, y)); // Two-field view, writes go straight to the layer
         }
         // Consider throwing an IllegalArgumentException for out-of-bounds access
         // or return a special "VOID" tile object. For now, null is okay if handled by callers.
-        System.err.println("Warning: Accessing out-of-bounds tile at ("+x+","+y+") in Room " + getName());
+        LOG.warn("Warning: Accessing out-of-bounds tile at ("+x+","+y+") in Room " + getName());
         return null;
     }
 
+    /** Cached walkability of (x, y); false outside the room. One bit test, no Tile view. */
+    public boolean isWalkable(int x, int y) {
+        return tileLayer.isWalkable(x, y);
+    }
+
     // setTile might be used by world generation or special events to change a tile fundamentally
     public void setTile(int x, int y, Tile tile) {
-        if (x >= 0 && x < ROOM_WIDTH_TILES && y >= 0 && y < ROOM_HEIGHT_TILES && tile != null) {
-            tiles[x][y] = tile;
+        if (x >= 0 && x < width && y >= 0 && y < height && tile != null) {
+            tileLayer.copyCell(tile.getLayer(), tile.getIndex(), tileLayer.indexOf(x, y));
+            markChanged();
         } else {
-            System.err.println("Cannot set tile at invalid coordinates or with null tile.");
+            LOG.warn("Cannot set tile at invalid coordinates or with null tile.");
         }
     }
 
@@ -118,10 +131,10 @@ public class Room extends Entity { // Room is an Entity, its 'position' is its l
                 if (tile != null) {
                     tile.setEntityOnTile(door); // This sets the Entity on the Tile
                 } else {
-                     System.err.println("Room.addDoor: Tile at " + doorPosInThisRoom + " is null for door " + door.getName());
+                     LOG.warn("Room.addDoor: Tile at " + doorPosInThisRoom + " is null for door " + door.getName());
                 }
             } else {
-                 System.err.println("Room.addDoor: Door " + door.getName() + " has no specified position in this room " + getName());
+                 LOG.warn("Room.addDoor: Door " + door.getName() + " has no specified position in this room " + getName());
             }
         }
     }
@@ -130,21 +143,41 @@ public class Room extends Entity { // Room is an Entity, its 'position' is its l
         if (being == null) return;
         if (!livingBeingsInRoom.contains(being)) {
             livingBeingsInRoom.add(being);
+            beingIndex.add(being); // No-op if it has no position yet, setPosition() will file it
+            markChanged();
         }
     }
 
     public void removeLivingBeing(LivingBeing being) {
         if (being == null) return;
-        livingBeingsInRoom.remove(being);
+        if (livingBeingsInRoom.remove(being)) {
+            markChanged();
+        }
+        beingIndex.remove(being);
+    }
+
+    /** Called by LivingBeing.setPosition() so the tile buckets follow the being around. */
+    public void updateLivingBeingPosition(LivingBeing being) {
+        if (being == null) return;
+        // Only beings that were actually added to this room get filed
+        if (beingIndex.contains(being) || livingBeingsInRoom.contains(being)) {
+            beingIndex.update(being);
+        }
     }
 
     public void addItem(Item item) { // For items on the floor
         if (item == null || item.getPosition() == null) {
-             System.err.println("Room " + getName() + ": Attempted to add null item or item with null position.");
+             LOG.warn("Room " + getName() + ": Attempted to add null item or item with null position.");
             return;
         }
-        if (!itemsInRoom.contains(item)) {
+        if (!isInBounds(item.getPosition().getX(), item.getPosition().getY())) {
+            LOG.warn("Room " + getName() + ": Item " + item.getName() + " is outside the room at " + item.getPosition());
+            return;
+        }
+        if (!itemIndex.contains(item)) {
             itemsInRoom.add(item);
+            itemIndex.add(item);
+            markChanged();
             // World should be notified if items are also global entities
             if (world != null && item instanceof Entity) { // All our Items are Entities
                 world.addEntity((Entity)item); // Ensure world tracks it IF NECESSARY
@@ -154,16 +187,101 @@ public class Room extends Entity { // Room is an Entity, its 'position' is its l
     }
 
     public void removeItem(Item item) { // From floor
-        if (item == null) return;
+        if (item == null || !itemIndex.contains(item)) return;
+        itemIndex.remove(item);
         boolean removed = itemsInRoom.remove(item);
+        markChanged();
         if (removed && world != null && item instanceof Entity) {
             // world.removeEntity((Entity)item); // If world was tracking it globally
         }
     }
 
+    /**
+     * Replaces the beings and floor items with the given ones, in that order, with no events and
+     * without touching the world. Used when applying a checkpoint; positions must already be set.
+     */
+    public void restoreContents(List<LivingBeing> beings, List<Item> items) {
+        livingBeingsInRoom.clear();
+        beingIndex.clear();
+        itemsInRoom.clear();
+        itemIndex.clear();
+        livingBeingsInRoom.addAll(beings);
+        for (LivingBeing being : beings) {
+            beingIndex.add(being);
+        }
+        itemsInRoom.addAll(items);
+        for (Item item : items) {
+            itemIndex.add(item);
+        }
+        markChanged();
+    }
+
     public int getRoomID() { return roomID; }
-    public List<LivingBeing> getLivingBeingsInRoom() { return new ArrayList<>(livingBeingsInRoom); } // Return copy
-    public List<Item> getItemsInRoom() { return new ArrayList<>(itemsInRoom); } // Return copy
+    public int getWidth() { return width; }
+    /** Raw tile storage, for code that scans lots of tiles (pathfinding) and wants to skip the Tile views. */
+    public TileLayer getTileLayer() { return tileLayer; }
+    public int getHeight() { return height; }
+
+    /**
+     * Live, read-only view of the beings in this room. No copy is made; iterating it is safe even
+     * if beings enter, leave or die during the loop (the iteration sees the list as it was when
+     * the loop started). Copy it yourself if you need a stable list to keep around.
+     */
+    public List<LivingBeing> getLivingBeingsInRoom() { return livingBeingsView; }
+
+    /** Live, read-only view of the items on the floor. Same rules as getLivingBeingsInRoom(). */
+    public List<Item> getItemsInRoom() { return itemsView; }
+
+    public boolean containsItem(Item item) {
+        return item != null && itemIndex.contains(item);
+    }
+
+    public boolean isInBounds(int x, int y) {
+        return x >= 0 && x < width && y >= 0 && y < height;
+    }
+
+    // --- Position lookups (O(1) per tile, backed by the spatial index) ---
+    // The returned lists are read-only views of the tile bucket, copy them if you're going to move things.
+
+    public List<Item> getItemsAt(int x, int y) { return itemIndex.getAt(x, y); }
+    public List<Item> getItemsAt(Position position) { return itemIndex.getAt(position); }
+    public List<LivingBeing> getLivingBeingsAt(int x, int y) { return beingIndex.getAt(x, y); }
+    public List<LivingBeing> getLivingBeingsAt(Position position) { return beingIndex.getAt(position); }
+
+    /** The static entity (door, chest, lever, trap) sitting on a tile, or null. */
+    public Entity getTileEntityAt(int x, int y) {
+        if (!isInBounds(x, y)) return null;
+        return tileLayer.getEntity(tileLayer.indexOf(x, y));
+    }
+
+    /** Tile entities (doors, chests, levers, traps) of the given type, appended to 'out'. Cost is the number of tile entities, not tiles. */
+    public <T extends Entity> void getTileEntities(Class<T> type, List<? super T> out) {
+        tileLayer.collectEntities(type, out);
+    }
+
+    // Range queries: everything within 'range' tiles (|dx| <= range && |dy| <= range), results appended to 'out'
+
+    public List<Item> getItemsInRange(int x, int y, int range, List<Item> out) {
+        return itemIndex.queryRange(x, y, range, out);
+    }
+
+    public List<LivingBeing> getLivingBeingsInRange(int x, int y, int range, List<LivingBeing> out) {
+        return beingIndex.queryRange(x, y, range, out);
+    }
+
+    public List<Entity> getTileEntitiesInRange(int x, int y, int range, List<Entity> out) {
+        int minX = Math.max(0, x - range), maxX = Math.min(width - 1, x + range);
+        int minY = Math.max(0, y - range), maxY = Math.min(height - 1, y + range);
+        for (int ty = minY; ty <= maxY; ty++) {
+            for (int tx = minX; tx <= maxX; tx++) {
+                Entity onTile = tileLayer.getEntity(tileLayer.indexOf(tx, ty));
+                if (onTile != null) {
+                    out.add(onTile);
+                }
+            }
+        }
+        return out;
+    }
 
     /**
      * This is the primary method called by GamePanel to draw the entire room.
@@ -171,20 +289,16 @@ public class Room extends Entity { // Room is an Entity, its 'position' is its l
      */
     public void drawContents(Graphics g, int tilePixelWidth, int tilePixelHeight) {
         // 1. Draw all Tiles (Tiles will call entityOnTile.draw(g, screenX, screenY, w, h) for static entities)
-        for (int y = 0; y < ROOM_HEIGHT_TILES; y++) {
-            for (int x = 0; x < ROOM_WIDTH_TILES; x++) {
-                Tile currentTile = tiles[x][y];
-                if (currentTile != null) {
-                    currentTile.draw(g, x * tilePixelWidth, y * tilePixelHeight, tilePixelWidth, tilePixelHeight);
-                } else {
-                    g.setColor(Color.BLACK); // Fallback for null tile
-                    g.fillRect(x * tilePixelWidth, y * tilePixelHeight, tilePixelWidth, tilePixelHeight);
-                }
+        Tile view = new Tile(tileLayer, 0); // One flyweight moved across the whole room
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                view.moveTo(tileLayer.indexOf(x, y));
+                view.draw(g, x * tilePixelWidth, y * tilePixelHeight, tilePixelWidth, tilePixelHeight);
             }
         }
 
         // 2. Draw items on the floor
-        for (Item item : new ArrayList<>(itemsInRoom)) {
+        for (Item item : itemsInRoom) { // COW list, no defensive copy needed
             if (item.getOwner() == null && item.getPosition() != null) {
                 item.draw(g,
                           item.getPosition().getX() * tilePixelWidth,
@@ -194,14 +308,14 @@ public class Room extends Entity { // Room is an Entity, its 'position' is its l
         }
 
         // 3. Draw living beings (Players, NPCs)
-        for (LivingBeing being : new ArrayList<>(livingBeingsInRoom)) {
+        for (LivingBeing being : livingBeingsInRoom) {
             if (being.getHealth() > 0 || (being instanceof Player && world != null && world.isGameOver())) {
                 if (being.getPosition() != null) { // Ensure being has a position
                     int beingScreenX = being.getPosition().getX() * tilePixelWidth;
                     int beingScreenY = being.getPosition().getY() * tilePixelHeight;
                     being.draw(g, beingScreenX, beingScreenY, tilePixelWidth, tilePixelHeight); // <<< CORRECTED CALL
                 } else {
-                    System.err.println("Room.drawContents: LivingBeing " + being.getName() + " has null position. Cannot draw.");
+                    LOG.warn("Room.drawContents: LivingBeing " + being.getName() + " has null position. Cannot draw.");
                 }
             }
         }
@@ -218,11 +332,11 @@ public class Room extends Entity { // Room is an Entity, its 'position' is its l
         // For example, on a mini-map. For the main game view, drawContents is used.
         // For now, it can be a no-op or draw a simple representation.
         // To avoid confusion, let's make it clear this isn't the main draw:
-        // System.out.println("Room.draw(screenX, screenY, ...) called for " + getName() + " - Usually drawContents() is used.");
+        // LOG.info("Room.draw(screenX, screenY, ...) called for " + getName() + " - Usually drawContents() is used.");
 
         // If you wanted to draw a border around the entire room if it was, for example, an icon:
         // g.setColor(Color.BLUE);
-        // g.drawRect(screenX, screenY, ROOM_WIDTH_TILES * tilePixelWidth, ROOM_HEIGHT_TILES * tilePixelHeight);
+        // g.drawRect(screenX, screenY, width * tilePixelWidth, height * tilePixelHeight);
     }
 
     // addLever method was specific and might be better handled by generic tile.setEntityOnTile
@@ -0,0 +1,261 @@
+package com.mazegame.core;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Rooms as nodes, doors as edges. Kept up to date by World.addEntity() and by Door whenever its
+ * lock/forceable state changes, so nobody has to go digging through tiles to find out how rooms
+ * connect.
+ *
+ * "Reachable" means connected through unlocked doors. Connectivity is tracked with a union-find
+ * that is extended incrementally as doors get added or unlocked (the common case); locking a door
+ * again just marks it stale and it is rebuilt on the next query.
+ */
+public class RoomGraph {
+
+    /** One direction of a door. Every two-sided door has two edges, an exit door has one with no target. */
+    public static final class Edge {
+        private final Door door;
+        private final Room from;
+        private final Room to; // null for exits out of the maze
+        private boolean locked;
+        private boolean forceable;
+
+        Edge(Door door, Room from, Room to) {
+            this.door = door;
+            this.from = from;
+            this.to = to;
+            this.locked = door.isLocked();
+            this.forceable = door.canBeForcedOpen();
+        }
+
+        public Door getDoor() { return door; }
+        public Room getFrom() { return from; }
+        public Room getTo() { return to; }
+        public boolean isLocked() { return locked; }
+        public boolean isForceable() { return forceable; }
+        public boolean isExit() { return to == null; }
+
+        /** Whether the edge can be used right now, or after forcing it with a crowbar if allowForcing is set. */
+        public boolean isPassable(boolean allowForcing) {
+            return !locked || (allowForcing && forceable);
+        }
+    }
+
+    private final Map<Room, List<Edge>> adjacency = new HashMap<>();
+    private final Map<Door, List<Edge>> edgesByDoor = new HashMap<>();
+
+    // Union-find over unlocked edges
+    private final Map<Room, Room> parent = new HashMap<>();
+    private final Map<Room, Integer> rank = new HashMap<>();
+    private boolean componentsStale = false;
+
+    public void addRoom(Room room) {
+        if (room == null || adjacency.containsKey(room)) return;
+        adjacency.put(room, new ArrayList<Edge>(4));
+        parent.put(room, room);
+        rank.put(room, 0);
+    }
+
+    public void removeRoom(Room room) {
+        if (room == null || !adjacency.containsKey(room)) return;
+        for (Edge edge : new ArrayList<>(adjacency.get(room))) {
+            removeDoor(edge.getDoor());
+        }
+        adjacency.remove(room);
+        parent.remove(room);
+        rank.remove(room);
+        componentsStale = true;
+    }
+
+    public boolean containsRoom(Room room) {
+        return adjacency.containsKey(room);
+    }
+
+    public int getRoomCount() {
+        return adjacency.size();
+    }
+
+    /** Adds the door's edges. Rooms the door touches are added too if they aren't in the graph yet. */
+    public void addDoor(Door door) {
+        if (door == null || edgesByDoor.containsKey(door)) return;
+        Room a = door.getRoom1();
+        Room b = door.getRoom2();
+        if (a == null && b == null) return;
+
+        List<Edge> edges = new ArrayList<>(2);
+        if (a != null) {
+            addRoom(a);
+            edges.add(new Edge(door, a, b));
+        }
+        if (b != null) {
+            addRoom(b);
+            edges.add(new Edge(door, b, a));
+        }
+        for (Edge edge : edges) {
+            adjacency.get(edge.getFrom()).add(edge);
+        }
+        edgesByDoor.put(door, edges);
+
+        if (!door.isLocked() && a != null && b != null) {
+            union(a, b);
+        }
+    }
+
+    public void removeDoor(Door door) {
+        List<Edge> edges = edgesByDoor.remove(door);
+        if (edges == null) return;
+        for (Edge edge : edges) {
+            List<Edge> fromEdges = adjacency.get(edge.getFrom());
+            if (fromEdges != null) fromEdges.remove(edge);
+        }
+        componentsStale = true;
+    }
+
+    /** Called by Door after its locked/forceable state changed. */
+    public void updateDoor(Door door) {
+        List<Edge> edges = edgesByDoor.get(door);
+        if (edges == null) return;
+        boolean wasLocked = edges.get(0).isLocked();
+        for (Edge edge : edges) {
+            edge.locked = door.isLocked();
+            edge.forceable = door.canBeForcedOpen();
+        }
+        if (wasLocked && !door.isLocked()) {
+            if (door.getRoom1() != null && door.getRoom2() != null) {
+                union(door.getRoom1(), door.getRoom2()); // Unlocking only ever merges components
+            }
+        } else if (!wasLocked && door.isLocked()) {
+            componentsStale = true; // Locking can split a component, rebuild lazily
+        }
+    }
+
+    /** Read-only list of the doors leading out of a room (empty if the room isn't known). */
+    public List<Edge> getEdges(Room room) {
+        List<Edge> edges = adjacency.get(room);
+        return (edges == null) ? Collections.<Edge>emptyList() : Collections.unmodifiableList(edges);
+    }
+
+    /** Whether b can be reached from a through unlocked doors. Near constant time. */
+    public boolean isReachable(Room a, Room b) {
+        if (a == null || b == null || !adjacency.containsKey(a) || !adjacency.containsKey(b)) return false;
+        if (a == b) return true;
+        ensureComponents();
+        return find(a) == find(b);
+    }
+
+    /**
+     * All rooms reachable from 'from', including itself. With allowForcing, forceable locked
+     * doors count as passable too (player has or could find a crowbar).
+     */
+    public Set<Room> getReachableRooms(Room from, boolean allowForcing) {
+        Set<Room> visited = new HashSet<>();
+        if (from == null || !adjacency.containsKey(from)) return visited;
+        Deque<Room> queue = new ArrayDeque<>();
+        visited.add(from);
+        queue.add(from);
+        while (!queue.isEmpty()) {
+            Room room = queue.poll();
+            for (Edge edge : adjacency.get(room)) {
+                Room next = edge.getTo();
+                if (next != null && edge.isPassable(allowForcing) && visited.add(next)) {
+                    queue.add(next);
+                }
+            }
+        }
+        return visited;
+    }
+
+    /**
+     * First door on a shortest route (in rooms) from 'from' to 'to' through unlocked doors, looking
+     * at most maxDepth doors deep. Null if 'to' is further away, unreachable, or the same room.
+     * Edges are tried in the order the doors were added, so the answer is deterministic.
+     */
+    public Door firstDoorTowards(Room from, Room to, int maxDepth) {
+        if (from == null || to == null || from == to || !adjacency.containsKey(from) || !adjacency.containsKey(to)) {
+            return null;
+        }
+        Map<Room, Door> firstDoor = new HashMap<>(); // Room -> door out of 'from' that leads there
+        firstDoor.put(from, null);
+        List<Room> frontier = Collections.singletonList(from);
+        for (int depth = 0; depth < maxDepth && !frontier.isEmpty(); depth++) {
+            List<Room> next = new ArrayList<>();
+            for (Room room : frontier) {
+                for (Edge edge : adjacency.get(room)) {
+                    Room target = edge.getTo();
+                    if (target == null || !edge.isPassable(false) || firstDoor.containsKey(target)) continue;
+                    Door door = (room == from) ? edge.getDoor() : firstDoor.get(room);
+                    if (target == to) return door;
+                    firstDoor.put(target, door);
+                    next.add(target);
+                }
+            }
+            frontier = next;
+        }
+        return null;
+    }
+
+    /** Whether any exit door (a door with no room behind it) can be reached from 'from'. */
+    public boolean canReachExit(Room from, boolean allowForcing) {
+        for (Room room : getReachableRooms(from, allowForcing)) {
+            for (Edge edge : adjacency.get(room)) {
+                if (edge.isExit() && edge.isPassable(allowForcing)) return true;
+            }
+        }
+        return false;
+    }
+
+    private void ensureComponents() {
+        if (!componentsStale) return;
+        for (Room room : adjacency.keySet()) {
+            parent.put(room, room);
+            rank.put(room, 0);
+        }
+        for (List<Edge> edges : edgesByDoor.values()) {
+            Edge edge = edges.get(0);
+            if (!edge.isLocked() && !edge.isExit()) {
+                union(edge.getFrom(), edge.getTo());
+            }
+        }
+        componentsStale = false;
+    }
+
+    private Room find(Room room) {
+        Room root = room;
+        while (parent.get(root) != root) {
+            root = parent.get(root);
+        }
+        // Path compression
+        while (room != root) {
+            Room next = parent.get(room);
+            parent.put(room, root);
+            room = next;
+        }
+        return root;
+    }
+
+    private void union(Room a, Room b) {
+        if (componentsStale) return; // Will be picked up by the rebuild anyway
+        Room rootA = find(a);
+        Room rootB = find(b);
+        if (rootA == rootB) return;
+        int rankA = rank.get(rootA);
+        int rankB = rank.get(rootB);
+        if (rankA < rankB) {
+            parent.put(rootA, rootB);
+        } else if (rankA > rankB) {
+            parent.put(rootB, rootA);
+        } else {
+            parent.put(rootB, rootA);
+            rank.put(rootA, rankA + 1);
+        }
+    }
+}
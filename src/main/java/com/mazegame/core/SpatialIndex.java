@@ -0,0 +1,177 @@
+package com.mazegame.core;
+
+import com.mazegame.utils.Position;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Grid-bucket index of entities by tile, one bucket per tile of a room.
+ *
+ * Looking up "what is standing on (x, y)" is a single array access instead of a scan over
+ * every item/being in the room. Each entity remembers the cell it was filed under, so it can be
+ * removed or moved even if its Position object was changed behind our back.
+ *
+ * Distances for range queries are in tiles and use the same rule as melee/adjacency checks
+ * elsewhere in the game: a tile is within N if both |dx| <= N and |dy| <= N.
+ */
+public class SpatialIndex<T extends Entity> {
+    private final int width;
+    private final int height;
+    private List<T>[] buckets; // Created on first add, most rooms in a big world never hold anything
+    private final Map<T, Integer> cellOf = new IdentityHashMap<>();
+
+    public SpatialIndex(int width, int height) {
+        if (width <= 0 || height <= 0) {
+            throw new IllegalArgumentException("SpatialIndex needs a positive size, got " + width + "x" + height);
+        }
+        this.width = width;
+        this.height = height;
+    }
+
+    public int getWidth() { return width; }
+    public int getHeight() { return height; }
+
+    /** Number of entities currently filed in the grid. */
+    public int size() { return cellOf.size(); }
+
+    public boolean contains(T entity) {
+        return cellOf.containsKey(entity);
+    }
+
+    /**
+     * Files the entity under its current position. Entities without a position, or outside the
+     * grid, are not indexed (they cannot be found by position anyway).
+     */
+    public void add(T entity) {
+        if (entity == null) return;
+        moveTo(entity, entity.getPosition());
+    }
+
+    public void remove(T entity) {
+        if (entity == null) return;
+        Integer cell = cellOf.remove(entity);
+        if (cell != null) {
+            removeFromBucket(cell, entity);
+        }
+    }
+
+    /** Re-files the entity after its position changed. Cheap no-op if the cell is the same. */
+    public void update(T entity) {
+        if (entity == null) return;
+        moveTo(entity, entity.getPosition());
+    }
+
+    /**
+     * Entities on the given tile, in the order they arrived there. Returns a read-only view of the
+     * bucket (empty if nothing is there or the tile is out of bounds), so don't hold on to it
+     * across moves.
+     */
+    public List<T> getAt(int x, int y) {
+        if (buckets == null || !inBounds(x, y)) return Collections.emptyList();
+        List<T> bucket = buckets[cellIndex(x, y)];
+        return (bucket == null) ? Collections.<T>emptyList() : Collections.unmodifiableList(bucket);
+    }
+
+    public List<T> getAt(Position position) {
+        if (position == null) return Collections.emptyList();
+        return getAt(position.getX(), position.getY());
+    }
+
+    /** First entity that arrived on the tile, or null. */
+    public T getFirstAt(int x, int y) {
+        if (buckets == null || !inBounds(x, y)) return null;
+        List<T> bucket = buckets[cellIndex(x, y)];
+        return (bucket == null || bucket.isEmpty()) ? null : bucket.get(0);
+    }
+
+    /**
+     * Adds every entity within {@code range} tiles of (centerX, centerY) to {@code out}, scanning
+     * only the tiles in that square (clipped to the room). The center tile is included.
+     *
+     * @return out, for chaining
+     */
+    public List<T> queryRange(int centerX, int centerY, int range, List<T> out) {
+        if (range < 0 || buckets == null) return out;
+        int minX = Math.max(0, centerX - range);
+        int maxX = Math.min(width - 1, centerX + range);
+        int minY = Math.max(0, centerY - range);
+        int maxY = Math.min(height - 1, centerY + range);
+        for (int y = minY; y <= maxY; y++) {
+            int row = y * width;
+            for (int x = minX; x <= maxX; x++) {
+                List<T> bucket = buckets[row + x];
+                if (bucket != null && !bucket.isEmpty()) {
+                    out.addAll(bucket);
+                }
+            }
+        }
+        return out;
+    }
+
+    public List<T> queryRange(int centerX, int centerY, int range) {
+        return queryRange(centerX, centerY, range, new ArrayList<T>());
+    }
+
+    public void clear() {
+        if (buckets == null) return;
+        for (int i = 0; i < buckets.length; i++) {
+            if (buckets[i] != null) buckets[i].clear();
+        }
+        cellOf.clear();
+    }
+
+    private void moveTo(T entity, Position position) {
+        int newCell = (position != null && inBounds(position.getX(), position.getY()))
+                ? cellIndex(position.getX(), position.getY()) : -1;
+        Integer oldCell = cellOf.get(entity);
+        if (oldCell != null && oldCell == newCell) {
+            return;
+        }
+        if (oldCell != null) {
+            removeFromBucket(oldCell, entity);
+        }
+        if (newCell < 0) {
+            cellOf.remove(entity);
+            return;
+        }
+        if (buckets == null) {
+            buckets = newBucketArray(width * height);
+        }
+        List<T> bucket = buckets[newCell];
+        if (bucket == null) {
+            bucket = new ArrayList<>(2);
+            buckets[newCell] = bucket;
+        }
+        bucket.add(entity);
+        cellOf.put(entity, newCell);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> List<T>[] newBucketArray(int size) {
+        return (List<T>[]) new List[size];
+    }
+
+    private void removeFromBucket(int cell, T entity) {
+        List<T> bucket = buckets[cell];
+        if (bucket == null) return;
+        // Buckets hold a handful of entries at most, identity scan is fine
+        for (int i = 0; i < bucket.size(); i++) {
+            if (bucket.get(i) == entity) {
+                bucket.remove(i);
+                return;
+            }
+        }
+    }
+
+    private boolean inBounds(int x, int y) {
+        return x >= 0 && x < width && y >= 0 && y < height;
+    }
+
+    private int cellIndex(int x, int y) {
+        return y * width + x;
+    }
+}
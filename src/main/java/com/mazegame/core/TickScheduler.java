@@ -0,0 +1,331 @@
+package com.mazegame.core;
+
+import com.mazegame.characters.LivingBeing;
+import com.mazegame.interfaces.Executable;
+import com.mazegame.simulation.SimulationClock;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Decides which executables run on a tick, so World.update() doesn't have to walk (and skip)
+ * every NPC and trap in the world.
+ *
+ * Executables are filed by room:
+ *  - living beings (NPCs) are found through their room's being list, so they follow room changes
+ *    without telling us
+ *  - traps with a room are filed under that room
+ *  - anything else (traps without a room, custom executables) is global and runs every tick
+ *
+ * Only "hot" rooms run: the player's room, everything within activeRoomRadius unlocked doors of
+ * it (0 by default, NPCs only ever acted in the player's room), and the room the player just
+ * left for a few ticks so NPCs already chasing can follow through the door. A room that wakes up
+ * after being dormant gets one Executable.catchUp() call per executable before it runs again,
+ * instead of replaying the ticks it missed.
+ *
+ * The player's room runs first, on the game thread, with cross-room effects (going through a
+ * door, dropping loot, dying) applied right away. The other hot rooms only touch their own room;
+ * anything of theirs that reaches into another room or the World goes through
+ * runCrossRoomEffect(), which queues it per room. Once all of them have run the queues are
+ * applied in room order. So an NPC that walks into a hot room later in the order isn't seen
+ * there until the next tick.
+ *
+ * That is what lets those rooms run in parallel on a ForkJoinPool (optional): serial and parallel
+ * ticks both defer and merge the same way, so they end in the same state.
+ */
+public class TickScheduler {
+    public static final int DEFAULT_ACTIVE_ROOM_RADIUS = 0;
+    public static final int DEFAULT_LINGER_TICKS = 40;
+
+    private final RoomGraph roomGraph;
+    private final Map<Room, List<Executable>> byRoom = new IdentityHashMap<>();
+    private final List<Executable> global = new CopyOnWriteArrayList<>();
+    private final Set<Executable> beings = Collections.newSetFromMap(new IdentityHashMap<Executable, Boolean>());
+    private int activeRoomRadius = DEFAULT_ACTIVE_ROOM_RADIUS;
+    private int lingerTicks = DEFAULT_LINGER_TICKS;
+
+    private Room currentPlayerRoom;
+    private Room lingeringRoom; // Room the player left, kept hot for lingerTicksLeft more ticks
+    private int lingerTicksLeft = 0;
+
+    // Reused between ticks
+    private final List<Room> activeRooms = new ArrayList<>();
+    private final Set<Room> activeSet = Collections.newSetFromMap(new IdentityHashMap<Room, Boolean>());
+    private final Set<Room> previousActiveSet = Collections.newSetFromMap(new IdentityHashMap<Room, Boolean>());
+    private final List<Executable> batch = new ArrayList<>();
+    private int[] groupEnds = new int[8]; // Batch end index per hot room, in activeRooms order
+
+    // Parallel mode
+    private boolean parallel = false;
+    private ForkJoinPool pool = ForkJoinPool.commonPool();
+    private final ThreadLocal<List<Runnable>> deferredEffects = new ThreadLocal<>();
+    private final List<List<Runnable>> deferredPerRoom = new ArrayList<>();
+
+    public TickScheduler(RoomGraph roomGraph) {
+        this.roomGraph = roomGraph;
+    }
+
+    public int getActiveRoomRadius() { return activeRoomRadius; }
+
+    /** 0 = only the player's room runs, 1 = also rooms one unlocked door away, and so on. */
+    public void setActiveRoomRadius(int activeRoomRadius) {
+        if (activeRoomRadius < 0) {
+            throw new IllegalArgumentException("activeRoomRadius can't be negative: " + activeRoomRadius);
+        }
+        this.activeRoomRadius = activeRoomRadius;
+    }
+
+    public int getLingerTicks() { return lingerTicks; }
+
+    /** How many ticks the room the player just left keeps running. 0 turns it off. */
+    public void setLingerTicks(int lingerTicks) {
+        if (lingerTicks < 0) {
+            throw new IllegalArgumentException("lingerTicks can't be negative: " + lingerTicks);
+        }
+        this.lingerTicks = lingerTicks;
+    }
+
+    public void add(Executable executable) {
+        if (executable instanceof LivingBeing) {
+            beings.add(executable);
+            return;
+        }
+        Room room = roomOf(executable);
+        if (room == null) {
+            global.add(executable);
+        } else {
+            List<Executable> list = byRoom.get(room);
+            if (list == null) {
+                list = new CopyOnWriteArrayList<>();
+                byRoom.put(room, list);
+            }
+            list.add(executable);
+        }
+    }
+
+    /** @return true if it was registered */
+    public boolean remove(Executable executable) {
+        if (beings.remove(executable)) return true;
+        if (global.remove(executable)) return true;
+        for (List<Executable> list : byRoom.values()) {
+            if (list.remove(executable)) return true;
+        }
+        return false;
+    }
+
+    /** Re-files an executable whose room changed (e.g. Trap.setRoom after it was added). Ignored if not registered. */
+    public void refile(Executable executable) {
+        if (remove(executable)) {
+            add(executable);
+        }
+    }
+
+    public boolean isParallel() { return parallel; }
+
+    /** Runs hot rooms other than the player's concurrently. Off by default. */
+    public void setParallel(boolean parallel) {
+        this.parallel = parallel;
+    }
+
+    public void setPool(ForkJoinPool pool) {
+        if (pool == null) {
+            throw new IllegalArgumentException("pool can't be null");
+        }
+        this.pool = pool;
+    }
+
+    /**
+     * Runs an effect that reaches outside the current room. In the player's room (and for global
+     * executables) it runs right away; inside another hot room it is queued and applied after all
+     * of them finished.
+     */
+    public void runCrossRoomEffect(Runnable effect) {
+        List<Runnable> deferred = deferredEffects.get();
+        if (deferred != null) {
+            deferred.add(effect);
+        } else {
+            effect.run();
+        }
+    }
+
+    public boolean isRoomActive(Room room) {
+        return activeSet.contains(room);
+    }
+
+    /** Rooms that ran on the last tick, player's room first. */
+    public List<Room> getActiveRooms() {
+        return Collections.unmodifiableList(activeRooms);
+    }
+
+    /**
+     * Works out the hot rooms around playerRoom, catches up rooms that just woke, and returns the
+     * executables to run this tick: per hot room its traps then its beings (in room order), then
+     * the global ones. The list is reused by the next call. The player is left out, their
+     * actions come from input.
+     */
+    List<Executable> prepareTick(Room playerRoom, Executable player, SimulationClock clock) {
+        collectActiveRooms(playerRoom);
+        batch.clear();
+        if (groupEnds.length < activeRooms.size()) {
+            groupEnds = new int[activeRooms.size() * 2];
+        }
+        for (int r = 0; r < activeRooms.size(); r++) {
+            Room room = activeRooms.get(r);
+            boolean woke = !previousActiveSet.contains(room);
+            List<Executable> roomBound = byRoom.get(room);
+            if (roomBound != null) {
+                for (Executable ex : roomBound) {
+                    if (woke) ex.catchUp(clock);
+                    batch.add(ex);
+                }
+            }
+            for (LivingBeing being : room.getLivingBeingsInRoom()) {
+                if (being == player || !beings.contains(being)) continue;
+                if (woke) being.catchUp(clock);
+                batch.add(being);
+            }
+            groupEnds[r] = batch.size();
+        }
+        batch.addAll(global);
+        return batch;
+    }
+
+    /** Index in the last batch where hot room 'room' (activeRooms order) starts. */
+    int roomStart(int room) {
+        return (room == 0) ? 0 : groupEnds[room - 1];
+    }
+
+    /** Index in the last batch just past hot room 'room'; for room == getActiveRooms().size() this is the end of the global part. */
+    int roomEnd(int room) {
+        return (room == activeRooms.size()) ? batch.size() : groupEnds[room];
+    }
+
+    /** Whether the last batch is worth splitting: parallel mode on and at least two other rooms with work. */
+    boolean shouldRunInParallel() {
+        if (!parallel) return false;
+        int busyRooms = 0;
+        for (int r = 1; r < activeRooms.size(); r++) {
+            if (roomEnd(r) > roomStart(r) && ++busyRooms >= 2) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Runs hot rooms [fromRoom, toRoom) of the last batch, on the pool if inParallel, then applies
+     * their deferred cross-room effects in room order. Must only be used for rooms the player isn't in.
+     */
+    void executeRooms(int fromRoom, int toRoom, SimulationClock clock, boolean inParallel) {
+        while (deferredPerRoom.size() < toRoom) {
+            deferredPerRoom.add(new ArrayList<Runnable>());
+        }
+        if (inParallel) {
+            pool.invoke(new RoomRangeTask(fromRoom, toRoom, clock));
+        } else {
+            for (int r = fromRoom; r < toRoom; r++) {
+                runRoom(r, clock);
+            }
+        }
+        for (int r = fromRoom; r < toRoom; r++) {
+            List<Runnable> effects = deferredPerRoom.get(r);
+            for (int i = 0; i < effects.size(); i++) {
+                effects.get(i).run();
+            }
+            effects.clear();
+        }
+    }
+
+    /** Same skip rule the serial loop uses: dead beings don't act. */
+    static boolean shouldRun(Executable executable) {
+        return !(executable instanceof LivingBeing) || ((LivingBeing) executable).getHealth() > 0;
+    }
+
+    private void runRoom(int room, SimulationClock clock) {
+        deferredEffects.set(deferredPerRoom.get(room));
+        try {
+            for (int i = roomStart(room); i < roomEnd(room); i++) {
+                Executable ex = batch.get(i);
+                if (shouldRun(ex)) {
+                    ex.execute(clock);
+                }
+            }
+        } finally {
+            deferredEffects.remove();
+        }
+    }
+
+    // Splits the room range in halves so idle workers can steal
+    private final class RoomRangeTask extends RecursiveAction {
+        private final int from;
+        private final int to;
+        private final SimulationClock clock;
+
+        RoomRangeTask(int from, int to, SimulationClock clock) {
+            this.from = from;
+            this.to = to;
+            this.clock = clock;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from == 1) {
+                runRoom(from, clock);
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new RoomRangeTask(from, mid, clock), new RoomRangeTask(mid, to, clock));
+        }
+    }
+
+    private void collectActiveRooms(Room playerRoom) {
+        // What was active last tick becomes "previous", so we can tell which rooms just woke
+        activeRooms.clear();
+        previousActiveSet.clear();
+        previousActiveSet.addAll(activeSet);
+        activeSet.clear();
+
+        if (playerRoom != currentPlayerRoom) {
+            lingeringRoom = currentPlayerRoom;
+            lingerTicksLeft = lingerTicks;
+            currentPlayerRoom = playerRoom;
+        }
+        if (playerRoom == null) return;
+
+        activeRooms.add(playerRoom);
+        activeSet.add(playerRoom);
+        int levelStart = 0;
+        for (int depth = 0; depth < activeRoomRadius; depth++) {
+            int levelEnd = activeRooms.size();
+            for (int i = levelStart; i < levelEnd; i++) {
+                for (RoomGraph.Edge edge : roomGraph.getEdges(activeRooms.get(i))) {
+                    Room next = edge.getTo();
+                    if (next != null && edge.isPassable(false) && activeSet.add(next)) {
+                        activeRooms.add(next);
+                    }
+                }
+            }
+            if (levelEnd == activeRooms.size()) break;
+            levelStart = levelEnd;
+        }
+
+        if (lingerTicksLeft > 0) {
+            lingerTicksLeft--;
+            if (lingeringRoom != null && activeSet.add(lingeringRoom)) {
+                activeRooms.add(lingeringRoom);
+            }
+        }
+    }
+
+    private static Room roomOf(Executable executable) {
+        if (executable instanceof Trap) {
+            return ((Trap) executable).getRoom();
+        }
+        return null;
+    }
+}
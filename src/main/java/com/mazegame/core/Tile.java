@@ -1,9 +1,5 @@
 package com.mazegame.core;
 
-import com.mazegame.items.Chest; // Assuming Chest is in items
-import com.mazegame.items.Lever; // Assuming Lever is in items
-import com.mazegame.ui.SpriteManager;
-
 import java.awt.Image;
 import java.awt.Graphics;
 import java.awt.Color;
@@ -15,10 +11,11 @@ public class Tile {
         LEVER, TRAP_FLOOR
     }
 
-    private TileType type;
-    private boolean baseWalkable;   // Walkability of the tile type itself
-    private Image sprite;           // Base sprite for the tile (e.g., "floor.png", "wall.png")
-    private Entity entityOnTile;    // The interactive/blocking entity ON this tile
+    // Flyweight: a Tile is just a cell in a TileLayer. Room.getTile() hands out views over the
+    // room's layer; a Tile built with the public constructor owns a one-cell layer of its own
+    // (that's what Room.setTile() copies from).
+    private final TileLayer layer;
+    private int index;
 
     // Placeholder colors
     private static final Color WALL_COLOR = new Color(100, 100, 100);
@@ -31,85 +28,42 @@ public class Tile {
     private static final Color BORDER_COLOR = new Color(50, 50, 50);
 
     public Tile(TileType type, boolean walkable, Image sprite) {
-        this.type = type;
-        this.baseWalkable = walkable;
-        this.sprite = sprite; // This is the base sprite (e.g. "floor.png" or "wall.png")
-        this.entityOnTile = null;
+        this.layer = new TileLayer(1, 1);
+        this.index = 0;
+        layer.set(0, type, walkable, sprite); // This is the base sprite (e.g. "floor.png" or "wall.png")
+    }
+
+    Tile(TileLayer layer, int index) {
+        this.layer = layer;
+        this.index = index;
     }
 
-    public TileType getType() { return type; }
+    // Lets Room walk one view over all its cells while drawing instead of creating one per tile
+    void moveTo(int index) { this.index = index; }
+
+    TileLayer getLayer() { return layer; }
+    int getIndex() { return index; }
+
+    public TileType getType() { return layer.getType(index); }
 
     public void setType(TileType type) {
-        this.type = type;
-        switch (type) {
-            case WALL:
-                this.baseWalkable = false;
-                break;
-            case FLOOR:
-            case EMPTY:
-            case PLAYER_SPAWN:
-            case ENEMY_SPAWN:
-            case LEVER:     // The tile itself is walkable, the lever entity might not be "on"
-            case TRAP_FLOOR: // The tile itself is walkable, trap state determines hazard
-                this.baseWalkable = true;
-                break;
-            case DOOR:      // The space a door occupies is not walkable unless open
-            case CHEST:     // Cannot walk on a chest
-                this.baseWalkable = false;
-                break;
-            default:
-                this.baseWalkable = false; // Default to not walkable for unknown types
-                break;
-        }
+        layer.setType(index, type);
     }
 
     public boolean isWalkable() {
-        if (!this.baseWalkable && this.type != TileType.DOOR) { // If it's a wall, definitely not walkable
-            return false;
-        }
-
-        if (entityOnTile != null) {
-            if (entityOnTile instanceof Door) {
-                return ((Door) entityOnTile).isCurrentlyOpen();
-            }
-            // Entities like Chest, Lever make the specific tile they are ON not walkable through
-            if (entityOnTile instanceof Chest || entityOnTile instanceof Lever) {
-                return false;
-            }
-            // Traps don't inherently block movement, they deal damage. So, the tile remains "walkable".
-            if (entityOnTile instanceof Trap) {
-                return this.baseWalkable; // Depends on the base tile (e.g. TRAP_FLOOR might be on FLOOR)
-            }
-            // For any other entity type that might be on a tile and block it:
-            // return false; or check a property on the entity like entityOnTile.isBlocking();
-        }
-        return this.baseWalkable; // If no blocking entity, rely on base walkability
+        return layer.isWalkable(index);
     }
 
     public void setWalkable(boolean walkable) {
-        this.baseWalkable = walkable;
+        layer.setBaseWalkable(index, walkable);
     }
 
-    public Image getSprite() { return sprite; } // Returns the base tile sprite
-    public void setSprite(Image sprite) { this.sprite = sprite; }
-    public Entity getEntityOnTile() { return entityOnTile; }
+    public Image getSprite() { return layer.getSprite(index); } // Returns the base tile sprite
+    public void setSprite(Image sprite) { layer.setSprite(index, sprite); }
+    public Entity getEntityOnTile() { return layer.getEntity(index); }
 
     public void setEntityOnTile(Entity entity) {
-        this.entityOnTile = entity;
-        if (entity instanceof Door) {
-            this.type = TileType.DOOR;
-            // Walkability is handled by Door.isCurrentlyOpen() via isWalkable()
-        } else if (entity instanceof Chest) {
-            this.type = TileType.CHEST;
-            this.baseWalkable = false; // Can't walk ON a chest tile
-        } else if (entity instanceof Lever) {
-            this.type = TileType.LEVER;
-            // baseWalkable might still be true (e.g. lever on floor)
-            // isWalkable() will return false because an entity is on it.
-        } else if (entity instanceof Trap) {
-            this.type = TileType.TRAP_FLOOR; // Or could keep as FLOOR
-            // baseWalkable is true, damage is separate
-        }
+        layer.placeEntity(index, entity);
     }
 
     /**
@@ -118,13 +72,10 @@ public class Tile {
      */
     // @Override // Remove if Tile does not extend a class with this exact method signature
     public void draw(Graphics g, int screenX, int screenY, int tilePixelWidth, int tilePixelHeight) {
+        Image sprite = getSprite();
+        Entity entityOnTile = getEntityOnTile();
         // 1. Draw the base tile sprite (e.g., floor, or a generic door frame tile if type is DOOR)
-        if (this.sprite != null) { // this.sprite is the base sprite of the TILE itself
-            g.drawImage(this.sprite, screenX, screenY, tilePixelWidth, tilePixelHeight, null);
-        } else {
-            // Fallback if base sprite is null, draw placeholder based on type
-            drawPlaceholderBase(g, screenX, screenY, tilePixelWidth, tilePixelHeight);
-        }
+        drawBase(g, getType(), sprite, screenX, screenY, tilePixelWidth, tilePixelHeight);
 
         // 2. Draw the INTERACTIVE ENTITY on top of the base tile, if one exists
         if (entityOnTile != null) {
@@ -134,21 +85,30 @@ public class Tile {
         }
     }
 
-    private void drawPlaceholderBase(Graphics g, int screenX, int screenY, int width, int height) {
-        g.setColor(getColorForType());
+    /**
+     * Draws the base of a tile (no entity): its sprite, or a placeholder for its type if it has
+     * none. Static so render snapshots can paint tiles without a Tile.
+     */
+    public static void drawBase(Graphics g, TileType type, Image sprite, int screenX, int screenY, int width, int height) {
+        if (sprite != null) { // sprite is the base sprite of the TILE itself
+            g.drawImage(sprite, screenX, screenY, width, height, null);
+            return;
+        }
+        // Fallback if base sprite is null, draw placeholder based on type
+        g.setColor(getColorForType(type));
         g.fillRect(screenX, screenY, width, height);
         g.setColor(BORDER_COLOR);
         g.drawRect(screenX, screenY, width - 1, height - 1);
 
         // Draw 'X' only for WALL type if it's using a placeholder
-        if (this.type == TileType.WALL && this.sprite == null) {
+        if (type == TileType.WALL) {
             g.setColor(BORDER_COLOR.brighter());
             g.drawLine(screenX, screenY, screenX + width, screenY + height);
             g.drawLine(screenX + width, screenY, screenX, screenY + height);
         }
     }
 
-    private Color getColorForType() {
+    private static Color getColorForType(TileType type) {
         switch (type) {
             case WALL: return WALL_COLOR;
             case FLOOR: return FLOOR_COLOR;
@@ -166,6 +126,6 @@ public class Tile {
     @Override // toString from Object is fine to override
     public String toString() {
         return String.format("Tile[type=%s, baseWalkable=%b, entityOnTile=%s]",
-            type, baseWalkable, (entityOnTile != null ? entityOnTile.getName() : "none"));
+            getType(), layer.isBaseWalkable(index), (getEntityOnTile() != null ? getEntityOnTile().getName() : "none"));
     }
 }
\ No newline at end of file
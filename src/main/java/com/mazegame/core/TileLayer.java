@@ -0,0 +1,478 @@
+package com.mazegame.core;
+
+import com.mazegame.items.Chest;
+import com.mazegame.items.Lever;
+
+import java.awt.Image;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Struct-of-arrays storage for a room's tiles. One cell per tile, index = y * width + x:
+ *  - types:          TileType ordinal per cell (byte)
+ *  - walkableBits:   base walkability, one bit per cell
+ *  - sprites:        id into a palette of tile sprites shared by all rooms (0 = no sprite)
+ *  - entityHandles:  slot in this layer's entity table + 1 (0 = nothing on the tile)
+ *
+ * A 12x12 room is a few hundred bytes here instead of 144 Tile objects. Tile is just a view
+ * (layer + index) over one cell, so the old Tile API keeps working on top of this.
+ *
+ * Effective walkability (base bit + door/chest/lever rules) is cached in its own bitmap. Every
+ * write to a cell marks it dirty and the next isWalkable() rebuilds it, so movement and AI checks
+ * are a single bit test. Door open/close goes through setBaseWalkable(), so it invalidates too.
+ *
+ * Type and sprite writes also bump appearanceVersion, which the UI uses to know when its cached
+ * picture of the room's static tiles is stale. Entities and walkability don't touch it.
+ *
+ * With a TilePager the four cell arrays can be paged out to a memory-mapped file while the room
+ * is dormant. The entity table and a clean walkability bitmap stay on the heap, so isWalkable()
+ * and getEntity() on a dormant room don't need the cells. Anything else pages them back in first.
+ */
+public final class TileLayer {
+    private static final Tile.TileType[] TYPES = Tile.TileType.values();
+
+    // Tile sprites are a handful of shared images (wall, floor, ...), so a byte id is plenty
+    private static final Map<Image, Integer> spriteIds = new IdentityHashMap<>();
+    private static volatile Image[] spritePalette = new Image[] { null };
+
+    private final int width;
+    private final int height;
+    private final int cells;
+    private byte[] types;         // The four cell arrays are null while paged out
+    private long[] walkableBits;
+    private byte[] sprites;
+    private int[] entityHandles;
+
+    private Entity[] entities = new Entity[4]; // Handle - 1 -> entity
+    private int[] slotCells = new int[4];      // Handle - 1 -> cell, so a paged-out layer can still find its entities
+    private int[] freeSlots = new int[4];      // Slots released by setEntity(index, null)
+    private int freeCount = 0;
+    private int usedSlots = 0;
+
+    private volatile long[] walkableCache;
+    private volatile boolean walkableDirty = true;
+    private int walkableVersion = 0; // Bumped on every invalidation, lets path caches notice changes
+    private int appearanceVersion = 0; // Bumped when a type or base sprite changes
+
+    // Paging, see TilePager
+    private TilePager pager;
+    private ByteBuffer pageSlot;          // Where the cells go in the paging file, once they've been out
+    private volatile boolean resident = true;
+    private boolean cellsDirty = true;    // Changed since they were last written to pageSlot
+
+    public TileLayer(int width, int height) {
+        this.width = width;
+        this.height = height;
+        this.cells = width * height;
+        this.types = new byte[cells];
+        this.walkableBits = new long[(cells + 63) >>> 6];
+        this.sprites = new byte[cells];
+        this.entityHandles = new int[cells];
+        Arrays.fill(types, (byte) Tile.TileType.EMPTY.ordinal());
+    }
+
+    public int getWidth() { return width; }
+    public int getHeight() { return height; }
+    public int size() { return cells; }
+
+    public int indexOf(int x, int y) { return y * width + x; }
+
+    public boolean inBounds(int x, int y) {
+        return x >= 0 && x < width && y >= 0 && y < height;
+    }
+
+    // --- Raw cell access ---
+
+    public Tile.TileType getType(int index) {
+        ensureResident();
+        return TYPES[types[index]];
+    }
+
+    void setRawType(int index, Tile.TileType type) {
+        ensureResident();
+        if (types[index] != (byte) type.ordinal()) {
+            types[index] = (byte) type.ordinal();
+            appearanceVersion++;
+        }
+        invalidateWalkability();
+    }
+
+    public boolean isBaseWalkable(int index) {
+        ensureResident();
+        return (walkableBits[index >>> 6] & (1L << index)) != 0;
+    }
+
+    public void setBaseWalkable(int index, boolean walkable) {
+        ensureResident();
+        if (walkable) walkableBits[index >>> 6] |= (1L << index);
+        else walkableBits[index >>> 6] &= ~(1L << index);
+        invalidateWalkability();
+    }
+
+    public Image getSprite(int index) {
+        ensureResident();
+        return spritePalette[sprites[index] & 0xFF];
+    }
+
+    /** Copy of the shared tile sprite palette: id -> image, id 0 is null (no sprite). */
+    public static Image[] getSpritePalette() { return spritePalette.clone(); }
+
+    public void setSprite(int index, Image sprite) {
+        byte id = (byte) spriteIdFor(sprite);
+        ensureResident();
+        if (sprites[index] != id) {
+            sprites[index] = id;
+            appearanceVersion++;
+            cellsDirty = true;
+        }
+    }
+
+    /** Palette id for a sprite, adding it to the palette if it's new. */
+    public static int paletteIdOf(Image sprite) { return spriteIdFor(sprite); }
+
+    /** Copies every cell's type, sprite id and base walkability out, the inverse of restore(). */
+    public void copyCells(byte[] types, byte[] spriteIds, long[] walkable) {
+        if (!resident && pager.readPagedCells(this, types, spriteIds, walkable)) {
+            return; // Saving a paged world doesn't pull every room back onto the heap
+        }
+        ensureResident();
+        System.arraycopy(this.types, 0, types, 0, this.types.length);
+        System.arraycopy(sprites, 0, spriteIds, 0, sprites.length);
+        System.arraycopy(walkableBits, 0, walkable, 0, walkableBits.length);
+    }
+
+    /**
+     * Overwrites every cell's type, sprite and base walkability in one go (loading a save).
+     * spriteIds are palette ids, walkable is packed like walkableBits. Entities are left alone.
+     */
+    public void restore(byte[] types, byte[] spriteIds, long[] walkable) {
+        if (types.length != cells || spriteIds.length != cells || walkable.length != (cells + 63) >>> 6) {
+            throw new IllegalArgumentException("Tile data doesn't fit a " + width + "x" + height + " layer");
+        }
+        for (byte type : types) {
+            if (type < 0 || type >= TYPES.length) {
+                throw new IllegalArgumentException("Unknown tile type " + type);
+            }
+        }
+        Image[] palette = spritePalette;
+        for (byte id : spriteIds) {
+            if ((id & 0xFF) >= palette.length) {
+                throw new IllegalArgumentException("Unknown sprite id " + (id & 0xFF));
+            }
+        }
+        ensureResident();
+        System.arraycopy(types, 0, this.types, 0, types.length);
+        System.arraycopy(spriteIds, 0, sprites, 0, spriteIds.length);
+        System.arraycopy(walkable, 0, walkableBits, 0, walkable.length);
+        appearanceVersion++;
+        invalidateWalkability();
+    }
+
+    public Entity getEntity(int index) {
+        if (!resident) {
+            return findEntity(index); // A few slots to scan beats paging the room in
+        }
+        int handle = entityHandles[index];
+        return (handle == 0) ? null : entities[handle - 1];
+    }
+
+    /**
+     * Appends every entity standing on a tile to 'out', in entity table order. Walks the table,
+     * not the cells, so it's as cheap as the number of tile entities and leaves a paged-out layer out.
+     */
+    public <T extends Entity> void collectEntities(Class<T> type, List<? super T> out) {
+        for (int slot = 0; slot < usedSlots; slot++) {
+            Entity entity = entities[slot];
+            if (type.isInstance(entity)) {
+                out.add(type.cast(entity));
+            }
+        }
+    }
+
+    /** Stores the entity for the cell, reusing the cell's slot (or a free one) in the entity table. */
+    public void setEntity(int index, Entity entity) {
+        ensureResident();
+        invalidateWalkability();
+        int handle = entityHandles[index];
+        if (entity == null) {
+            if (handle != 0) {
+                entities[handle - 1] = null;
+                pushFreeSlot(handle - 1);
+                entityHandles[index] = 0;
+            }
+            return;
+        }
+        if (handle == 0) {
+            int slot = takeSlot();
+            entities[slot] = entity;
+            slotCells[slot] = index;
+            entityHandles[index] = slot + 1;
+        } else {
+            entities[handle - 1] = entity;
+        }
+    }
+
+    /** Initial fill of a cell. */
+    public void set(int index, Tile.TileType type, boolean walkable, Image sprite) {
+        // Same as the three setters, but one invalidation: room setup and loading call this per cell
+        byte typeId = (byte) type.ordinal();
+        byte spriteId = (byte) spriteIdFor(sprite);
+        ensureResident();
+        if (types[index] != typeId || sprites[index] != spriteId) {
+            types[index] = typeId;
+            sprites[index] = spriteId;
+            appearanceVersion++;
+        }
+        if (walkable) walkableBits[index >>> 6] |= (1L << index);
+        else walkableBits[index >>> 6] &= ~(1L << index);
+        invalidateWalkability();
+    }
+
+    // --- Game rules, same as the old per-object Tile ---
+
+    /** setType() semantics: changing the type also resets base walkability to the type's default. */
+    public void setType(int index, Tile.TileType type) {
+        setRawType(index, type);
+        switch (type) {
+            case WALL:
+                setBaseWalkable(index, false);
+                break;
+            case FLOOR:
+            case EMPTY:
+            case PLAYER_SPAWN:
+            case ENEMY_SPAWN:
+            case LEVER:     // The tile itself is walkable, the lever entity might not be "on"
+            case TRAP_FLOOR: // The tile itself is walkable, trap state determines hazard
+                setBaseWalkable(index, true);
+                break;
+            case DOOR:      // The space a door occupies is not walkable unless open
+            case CHEST:     // Cannot walk on a chest
+            default:
+                setBaseWalkable(index, false);
+                break;
+        }
+    }
+
+    /** setEntityOnTile() semantics: the entity kind decides the tile type. */
+    public void placeEntity(int index, Entity entity) {
+        setEntity(index, entity);
+        if (entity instanceof Door) {
+            setRawType(index, Tile.TileType.DOOR);
+            // Walkability is handled by Door.isCurrentlyOpen() via isWalkable()
+        } else if (entity instanceof Chest) {
+            setRawType(index, Tile.TileType.CHEST);
+            setBaseWalkable(index, false); // Can't walk ON a chest tile
+        } else if (entity instanceof Lever) {
+            setRawType(index, Tile.TileType.LEVER);
+            // isWalkable() will return false because an entity is on it.
+        } else if (entity instanceof Trap) {
+            setRawType(index, Tile.TileType.TRAP_FLOOR);
+        }
+    }
+
+    /** Cached effective walkability of the cell. */
+    public boolean isWalkable(int index) {
+        long[] cache = walkableCache;
+        if (walkableDirty || cache == null) {
+            cache = rebuildWalkability();
+        }
+        return (cache[index >>> 6] & (1L << index)) != 0;
+    }
+
+    public boolean isWalkable(int x, int y) {
+        return inBounds(x, y) && isWalkable(indexOf(x, y));
+    }
+
+    /**
+     * Forces the walkability bitmap to be rebuilt on the next query. Cell writes already do this;
+     * call it when something a tile depends on changes without touching the tile (e.g. door state).
+     */
+    public void invalidateWalkability() {
+        walkableDirty = true;
+        cellsDirty = true; // Every cell write ends up here (door state changes too, a spare write-back is harmless)
+        walkableVersion++;
+    }
+
+    /** Changes whenever walkability may have changed. */
+    public int getWalkableVersion() { return walkableVersion; }
+
+    /** Changes whenever a cell's type or base sprite does (Room.setTile, Tile.setType, setSprite). */
+    public int getAppearanceVersion() { return appearanceVersion; }
+
+    private long[] rebuildWalkability() {
+        ensureResident();
+        walkableDirty = false; // Cleared first so a write that races the rebuild marks it dirty again
+        long[] cache = new long[walkableBits.length];
+        for (int i = 0; i < cells; i++) {
+            if (computeWalkable(i)) {
+                cache[i >>> 6] |= (1L << i);
+            }
+        }
+        walkableCache = cache;
+        return cache;
+    }
+
+    private boolean computeWalkable(int index) {
+        boolean base = isBaseWalkable(index);
+        if (!base && types[index] != Tile.TileType.DOOR.ordinal()) { // If it's a wall, definitely not walkable
+            return false;
+        }
+        int handle = entityHandles[index];
+        if (handle != 0) {
+            Entity entityOnTile = entities[handle - 1];
+            if (entityOnTile instanceof Door) {
+                return ((Door) entityOnTile).isCurrentlyOpen();
+            }
+            // Entities like Chest, Lever make the specific tile they are ON not walkable through
+            if (entityOnTile instanceof Chest || entityOnTile instanceof Lever) {
+                return false;
+            }
+            // Traps and anything else don't block, base walkability decides
+        }
+        return base;
+    }
+
+    /** Copies one cell (including the entity reference) from another layer, used by Room.setTile(). */
+    void copyCell(TileLayer from, int fromIndex, int toIndex) {
+        from.ensureResident();
+        ensureResident();
+        types[toIndex] = from.types[fromIndex];
+        setBaseWalkable(toIndex, from.isBaseWalkable(fromIndex));
+        sprites[toIndex] = from.sprites[fromIndex];
+        appearanceVersion++;
+        invalidateWalkability();
+        setEntity(toIndex, from.getEntity(fromIndex));
+    }
+
+    // --- Paging ---
+
+    /** False while the cells are paged out to a TilePager's file. */
+    public boolean isResident() { return resident; }
+
+    private void ensureResident() {
+        if (!resident) {
+            pager.pageIn(this);
+        }
+    }
+
+    /** Bytes the cells take in a paging file. */
+    int pagedBytes() {
+        return cells * 6 + ((cells + 63) >>> 6) * 8;
+    }
+
+    TilePager getPager() { return pager; }
+
+    void attachPager(TilePager pager) {
+        if (this.pager != null && this.pager != pager) {
+            throw new IllegalStateException("Layer is already paged by another TilePager");
+        }
+        this.pager = pager;
+    }
+
+    void detachPager() {
+        pager = null;
+        pageSlot = null;
+    }
+
+    ByteBuffer getPageSlot() { return pageSlot; }
+
+    /** Writes the cells to their slot unless the copy there is current, then drops the arrays. Caller holds the pager lock. */
+    void pageOut(ByteBuffer slot) {
+        if (!resident) return;
+        if (cellsDirty || slot != pageSlot) {
+            ByteBuffer out = slot.duplicate();
+            out.clear();
+            out.put(types).put(sprites);
+            out.asLongBuffer().put(walkableBits);
+            out.position(out.position() + walkableBits.length * 8);
+            out.asIntBuffer().put(entityHandles);
+        }
+        pageSlot = slot;
+        cellsDirty = false;
+        if (walkableDirty) {
+            walkableCache = null; // Would need the cells to rebuild, let the next query page them in
+        }
+        resident = false;
+        types = null;
+        sprites = null;
+        walkableBits = null;
+        entityHandles = null;
+    }
+
+    /** Reads the cells back from their slot. Caller holds the pager lock. */
+    void pageIn() {
+        if (resident) return;
+        byte[] newTypes = new byte[cells];
+        byte[] newSprites = new byte[cells];
+        long[] newWalkable = new long[(cells + 63) >>> 6];
+        int[] newHandles = new int[cells];
+        readSlot(newTypes, newSprites, newWalkable, newHandles);
+        types = newTypes;
+        sprites = newSprites;
+        walkableBits = newWalkable;
+        entityHandles = newHandles;
+        cellsDirty = false;
+        resident = true; // Volatile write publishes the arrays
+    }
+
+    /** Reads the paged-out copy of the cells; handles may be null. Caller holds the pager lock. */
+    void readSlot(byte[] types, byte[] spriteIds, long[] walkable, int[] handles) {
+        ByteBuffer in = pageSlot.duplicate();
+        in.clear();
+        in.get(types).get(spriteIds);
+        in.asLongBuffer().get(walkable);
+        if (handles != null) {
+            in.position(in.position() + walkable.length * 8);
+            in.asIntBuffer().get(handles);
+        }
+    }
+
+    private Entity findEntity(int index) {
+        for (int slot = 0; slot < usedSlots; slot++) {
+            if (slotCells[slot] == index && entities[slot] != null) return entities[slot];
+        }
+        return null;
+    }
+
+    private int takeSlot() {
+        if (freeCount > 0) {
+            return freeSlots[--freeCount];
+        }
+        if (usedSlots == entities.length) {
+            entities = Arrays.copyOf(entities, entities.length * 2);
+            slotCells = Arrays.copyOf(slotCells, entities.length);
+        }
+        return usedSlots++;
+    }
+
+    private void pushFreeSlot(int slot) {
+        if (freeCount == freeSlots.length) {
+            freeSlots = Arrays.copyOf(freeSlots, freeSlots.length * 2);
+        }
+        freeSlots[freeCount++] = slot;
+    }
+
+    private static int spriteIdFor(Image sprite) {
+        if (sprite == null) return 0;
+        Image[] known = spritePalette; // Few entries, a scan beats taking the lock
+        for (int id = 1; id < known.length; id++) {
+            if (known[id] == sprite) return id;
+        }
+        synchronized (spriteIds) {
+            Integer id = spriteIds.get(sprite);
+            if (id != null) return id;
+            Image[] palette = spritePalette;
+            if (palette.length > 255) {
+                throw new IllegalStateException("More than 255 distinct tile sprites");
+            }
+            Image[] grown = Arrays.copyOf(palette, palette.length + 1);
+            grown[palette.length] = sprite;
+            spriteIds.put(sprite, palette.length);
+            spritePalette = grown; // Publish after the slot is filled, readers don't lock
+            return palette.length;
+        }
+    }
+}
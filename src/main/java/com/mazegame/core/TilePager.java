@@ -0,0 +1,237 @@
+package com.mazegame.core;
+
+import com.mazegame.logging.GameLogger;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Keeps the tile cells of dormant rooms off the heap, in a memory-mapped scratch file.
+ *
+ * Rooms on the heap are tracked in LRU order. Rooms the TickScheduler runs and the player's room
+ * are pinned; of the rest only the residentRooms most recently used stay, older ones get paged
+ * out. When the heap gets fuller than pressureRatio of -Xmx, all unpinned rooms go. A paged-out
+ * room comes back the first time anything reads or writes its cells; LivingBeing.setCurrentRoom()
+ * and going through a door touch the room up front so it's in before the first move.
+ *
+ * Paging in happens whenever it's needed, paging out only in evict(), which World calls between
+ * ticks (and after rooms are added). So nobody is ever halfway through a layer whose arrays go away.
+ *
+ * Each layer gets a fixed slot in the file the first time it goes out and keeps it. A layer that
+ * hasn't changed since it was last written just drops its arrays, nothing is written.
+ */
+public class TilePager implements Closeable {
+    private static final GameLogger LOG = GameLogger.getLogger(TilePager.class);
+    public static final int DEFAULT_RESIDENT_ROOMS = 64;
+    public static final double DEFAULT_PRESSURE_RATIO = 0.8;
+    private static final int CHUNK_BYTES = 16 << 20; // Mapped a chunk at a time; slots never straddle two
+
+    private final World world;
+    private final Path file;
+    private final FileChannel channel;
+    private final List<MappedByteBuffer> chunks = new ArrayList<>();
+    private long fileBytes = 0;
+    private int chunkUsed = CHUNK_BYTES; // Forces the first chunk to be mapped
+    private final LinkedHashMap<Room, Boolean> resident = new LinkedHashMap<>(64, 0.75f, true); // Eldest first
+    private final Map<TileLayer, Room> owners = new IdentityHashMap<>();
+    private final Set<Room> pinned = Collections.newSetFromMap(new IdentityHashMap<Room, Boolean>());
+    private int residentRooms = DEFAULT_RESIDENT_ROOMS;
+    private double pressureRatio = DEFAULT_PRESSURE_RATIO;
+    private long pageIns = 0;
+    private long pageOuts = 0;
+    private boolean closed = false;
+
+    /**
+     * @param file scratch file, created if missing and truncated; deleted again by close().
+     *             Give it a spot on a disk with room for all the world's tiles.
+     */
+    public TilePager(World world, Path file) throws IOException {
+        this.world = world;
+        this.file = file;
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+    }
+
+    public synchronized int getResidentRooms() { return residentRooms; }
+
+    /** How many unpinned rooms stay on the heap after they're left. */
+    public synchronized void setResidentRooms(int residentRooms) {
+        if (residentRooms < 0) {
+            throw new IllegalArgumentException("residentRooms can't be negative: " + residentRooms);
+        }
+        this.residentRooms = residentRooms;
+    }
+
+    public synchronized double getPressureRatio() { return pressureRatio; }
+
+    /** Heap use (fraction of the max heap) above which evict() keeps only pinned rooms. */
+    public synchronized void setPressureRatio(double pressureRatio) {
+        if (pressureRatio <= 0 || pressureRatio > 1) {
+            throw new IllegalArgumentException("pressureRatio must be in (0, 1]: " + pressureRatio);
+        }
+        this.pressureRatio = pressureRatio;
+    }
+
+    /** Starts tracking a room's tiles. It counts as just used. */
+    public synchronized void register(Room room) {
+        checkOpen();
+        room.getTileLayer().attachPager(this);
+        owners.put(room.getTileLayer(), room);
+        if (room.getTileLayer().isResident()) {
+            resident.put(room, Boolean.TRUE);
+        }
+    }
+
+    /** Stops tracking a room (it left the world); its tiles come back onto the heap. */
+    public synchronized void unregister(Room room) {
+        TileLayer layer = room.getTileLayer();
+        if (owners.remove(layer) == null) return;
+        if (!closed) layer.pageIn();
+        layer.detachPager();
+        resident.remove(room);
+    }
+
+    /** Pages the room in if it's out and marks it most recently used. */
+    public synchronized void touch(Room room) {
+        TileLayer layer = room.getTileLayer();
+        if (layer.getPager() != this) return;
+        pageIn(layer);
+        resident.put(room, Boolean.TRUE);
+    }
+
+    public synchronized boolean isResident(Room room) {
+        return resident.containsKey(room);
+    }
+
+    /** Rooms whose tiles are on the heap right now. */
+    public synchronized int getResidentCount() { return resident.size(); }
+
+    public synchronized long getPageIns() { return pageIns; }
+    public synchronized long getPageOuts() { return pageOuts; }
+
+    @Override
+    public String toString() { return "TilePager(" + file + ")"; }
+
+    /** Bytes of the scratch file in use (mapped so far). */
+    public synchronized long getFileBytes() { return fileBytes; }
+
+    /**
+     * Pages out least recently used rooms until at most residentRooms unpinned ones are left, or
+     * all unpinned ones if the heap is under pressure. Only call it when no layer is in use, i.e.
+     * between ticks on the game thread.
+     */
+    public synchronized void evict() {
+        if (closed) return;
+        pinned.clear();
+        pinned.addAll(world.getTickScheduler().getActiveRooms());
+        if (world.getPlayer() != null && world.getPlayer().getCurrentRoom() != null) {
+            pinned.add(world.getPlayer().getCurrentRoom());
+        }
+        boolean pressure = isUnderMemoryPressure();
+        int keep = pressure ? 0 : residentRooms;
+        int unpinned = 0;
+        for (Room room : resident.keySet()) {
+            if (!pinned.contains(room)) unpinned++;
+        }
+        if (unpinned <= keep) return;
+        int before = unpinned;
+        try {
+            for (Iterator<Room> it = resident.keySet().iterator(); it.hasNext() && unpinned > keep; ) {
+                Room room = it.next();
+                if (pinned.contains(room)) continue;
+                TileLayer layer = room.getTileLayer();
+                ByteBuffer slot = layer.getPageSlot();
+                layer.pageOut(slot != null ? slot : allocate(layer.pagedBytes()));
+                it.remove();
+                unpinned--;
+                pageOuts++;
+            }
+        } catch (IOException e) {
+            // Rooms that didn't make it out just stay on the heap
+            LOG.error("Couldn't grow the tile paging file " + file + ": " + e.getMessage());
+        }
+        if (pressure) {
+            int pagedOut = before - unpinned;
+            LOG.debug(() -> "Heap under pressure, paged out " + pagedOut + " rooms");
+        }
+    }
+
+    // Reads a paged-out layer's cells straight from the file, false if it's back on the heap
+    synchronized boolean readPagedCells(TileLayer layer, byte[] types, byte[] spriteIds, long[] walkable) {
+        if (layer.isResident()) return false;
+        layer.readSlot(types, spriteIds, walkable, null);
+        return true;
+    }
+
+    // Called by a layer that finds itself paged out
+    synchronized void pageIn(TileLayer layer) {
+        if (layer.isResident()) return; // Another thread beat us to it
+        checkOpen();
+        layer.pageIn();
+        pageIns++;
+        Room room = owners.get(layer);
+        if (room != null) {
+            resident.put(room, Boolean.TRUE);
+        }
+    }
+
+    private boolean isUnderMemoryPressure() {
+        Runtime runtime = Runtime.getRuntime();
+        long used = runtime.totalMemory() - runtime.freeMemory(); // Includes garbage, so this errs towards paging out
+        return used > runtime.maxMemory() * pressureRatio;
+    }
+
+    private ByteBuffer allocate(int bytes) throws IOException {
+        if (chunkUsed + bytes > CHUNK_BYTES) {
+            long size = Math.max(CHUNK_BYTES, bytes);
+            chunks.add(channel.map(FileChannel.MapMode.READ_WRITE, fileBytes, size));
+            fileBytes += size;
+            chunkUsed = 0;
+        }
+        ByteBuffer slot = chunks.get(chunks.size() - 1).duplicate();
+        slot.position(chunkUsed);
+        slot.limit(chunkUsed + bytes);
+        chunkUsed += bytes;
+        return slot.slice();
+    }
+
+    private void checkOpen() {
+        if (closed) {
+            throw new IllegalStateException("TilePager for " + file + " is closed");
+        }
+    }
+
+    /** Pages every room back in and deletes the scratch file. */
+    @Override
+    public synchronized void close() throws IOException {
+        if (closed) return;
+        for (TileLayer layer : owners.keySet()) {
+            layer.pageIn();
+            layer.detachPager();
+        }
+        closed = true;
+        owners.clear();
+        resident.clear();
+        chunks.clear(); // The mappings go away with the buffers
+        channel.close();
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            LOG.warn("Couldn't delete tile paging file " + file + ": " + e.getMessage()); // Still mapped on some platforms
+        }
+    }
+}
@@ -2,7 +2,9 @@ package com.mazegame.core; // Or a new package like com.mazegame.hazards
 
 import com.mazegame.characters.Player;
 import com.mazegame.interfaces.Executable; // Traps will execute each game tick to update state
+import com.mazegame.simulation.SimulationClock;
 import com.mazegame.ui.SpriteManager;
+import com.mazegame.logging.GameLogger;
 import com.mazegame.utils.Position;
 
 import java.awt.Graphics;
@@ -10,6 +12,7 @@ import java.awt.Image;
 import java.awt.Color; // For placeholder drawing
 
 public class Trap extends Entity implements Executable {
+    private static final GameLogger LOG = GameLogger.getLogger(Trap.class);
 
     public enum TrapState {
         IDLE,       // Safe, spikes retracted or hidden
@@ -23,6 +26,7 @@ public class Trap extends Entity implements Executable {
     private long warningDuration;   // How long the warning shows (if used)
     private long activeDuration;    // How long spikes are out
     private int damage;
+    private Room room; // Room the trap sits in; null means "whatever room the player is in" (old behaviour)
 
     private Image spriteIdle;
     private Image spriteWarning; // Optional
@@ -37,7 +41,7 @@ public class Trap extends Entity implements Executable {
         this.damage = damageAmount;
 
         this.currentState = TrapState.IDLE;
-        this.lastStateChangeTime = System.currentTimeMillis();
+        this.lastStateChangeTime = (world != null) ? world.getClock().currentTimeMillis() : 0;
 
         // Load sprites (ensure these exist in resources/sprites and SpriteManager)
         this.spriteIdle = SpriteManager.getSprite("trap_idle.png");
@@ -45,16 +49,16 @@ public class Trap extends Entity implements Executable {
         this.spriteActive = SpriteManager.getSprite("trap_active.png");
 
         if (this.spriteIdle == null)
-            System.err.println("TRAP_SPRITE_ERROR: trap_idle.png for " + getName() + " is null!");
+            LOG.warn("TRAP_SPRITE_ERROR: trap_idle.png for " + getName() + " is null!");
         if (this.warningDuration > 0 && this.spriteWarning == null)
-            System.err.println("TRAP_SPRITE_ERROR: trap_warning.png for " + getName() + " is null (and warning is used)!");
+            LOG.warn("TRAP_SPRITE_ERROR: trap_warning.png for " + getName() + " is null (and warning is used)!");
         if (this.spriteActive == null)
-            System.err.println("TRAP_SPRITE_ERROR: trap_active.png for " + getName() + " is null!");
+            LOG.warn("TRAP_SPRITE_ERROR: trap_active.png for " + getName() + " is null!");
     }
 
     @Override
-    public void execute() { // Called by World.update() for each trap
-        long currentTime = System.currentTimeMillis();
+    public void execute(SimulationClock clock) { // Called by World.update() for each trap
+        long currentTime = clock.currentTimeMillis();
         long timeInCurrentState = currentTime - lastStateChangeTime;
 
         TrapState nextState = currentState;
@@ -77,8 +81,9 @@ public class Trap extends Entity implements Executable {
                 // Deal damage if player is on this tile during ACTIVE state
                 // This check should happen frequently, so we do it every tick while active.
                 Player player = world.getPlayer();
-                if (player != null && player.getPosition().equals(this.position) && player.getHealth() > 0) {
-                    System.out.println(player.getName() + " stepped on active trap " + getName() + "!");
+                if (player != null && (room == null || player.getCurrentRoom() == room)
+                        && player.getPosition().equals(this.position) && player.getHealth() > 0) {
+                    LOG.info(player.getName() + " stepped on active trap " + getName() + "!");
                     player.takeDamage(this.damage);
                     // Optional: Play a sound
                 }
@@ -88,42 +93,117 @@ public class Trap extends Entity implements Executable {
         if (nextState != currentState) {
             currentState = nextState;
             lastStateChangeTime = currentTime;
-            System.out.println("Trap " + getName() + " changed to state: " + currentState + " at " + this.position);
+            markChanged();
+            if (LOG.isDebugEnabled()) {
+                LOG.debug("Trap " + getName() + " changed to state: " + currentState + " at " + this.position);
+            }
         }
     }
 
+    /**
+     * Jumps straight to the state the trap would be in now, by working out where in its
+     * idle/warning/active cycle the current time falls. Used when a dormant room wakes up.
+     * Unlike ticking, this lands on exact phase boundaries instead of the first tick after them,
+     * and nobody gets hurt in between (the player wasn't in the room).
+     */
+    @Override
+    public void catchUp(SimulationClock clock) {
+        long now = clock.currentTimeMillis();
+        long cycle = idleDuration + warningDuration + activeDuration;
+        long elapsed = now - lastStateChangeTime;
+        if (cycle <= 0 || elapsed <= 0) return;
+
+        long phase = (phaseStart(currentState) + elapsed) % cycle;
+        TrapState state;
+        if (phase < idleDuration) {
+            state = TrapState.IDLE;
+        } else if (phase < idleDuration + warningDuration) {
+            state = TrapState.WARNING;
+        } else {
+            state = TrapState.ACTIVE;
+        }
+        currentState = state;
+        lastStateChangeTime = now - (phase - phaseStart(state));
+        markChanged();
+    }
+
+    // Offset of a state's start within one cycle
+    private long phaseStart(TrapState state) {
+        switch (state) {
+            case WARNING: return idleDuration;
+            case ACTIVE: return idleDuration + warningDuration;
+            case IDLE:
+            default: return 0;
+        }
+    }
+
+    public Room getRoom() { return room; }
+
+    public void setRoom(Room room) {
+        this.room = room;
+        if (world != null) {
+            world.getTickScheduler().refile(this); // Only matters if we were already added to the world
+        }
+    }
+
+    public TrapState getCurrentState() {
+        return currentState;
+    }
+
+    public long getIdleDuration() { return idleDuration; }
+    public long getWarningDuration() { return warningDuration; }
+    public long getActiveDuration() { return activeDuration; }
+    public int getDamage() { return damage; }
+
+    /** Clock time the current state started at. */
+    public long getLastStateChangeTime() { return lastStateChangeTime; }
+
+    /** Puts the trap at a saved point of its cycle. Used when loading a game. */
+    public void restoreState(TrapState state, long lastStateChangeTime) {
+        this.currentState = state;
+        this.lastStateChangeTime = lastStateChangeTime;
+        markChanged();
+    }
+
+    @Override
+    public int getVisualState() {
+        return currentState.ordinal();
+    }
+
     @Override
     public void draw(Graphics g, int screenX, int screenY, int tilePixelWidth, int tilePixelHeight) {
+        drawVisualState(g, getVisualState(), screenX, screenY, tilePixelWidth, tilePixelHeight);
+    }
+
+    @Override
+    public void drawVisualState(Graphics g, int visualState, int screenX, int screenY, int tilePixelWidth, int tilePixelHeight) {
+        TrapState state = TrapState.values()[visualState];
         if (this.position == null) { // Should have a position if it's an entity on a tile
-            System.err.println("Trap " + getName() + " has null position, cannot determine draw coordinates correctly.");
+            LOG.warn("Trap " + getName() + " has null position, cannot determine draw coordinates correctly.");
             return;
         }
         // This method is called by Tile.draw(), so screenX, screenY are the tile's top-left.
 
-        Image spriteToDraw = null;
-        switch (currentState) {
-            case IDLE:
-                spriteToDraw = spriteIdle;
-                System.out.println("Trap " + getName() + " drawing IDLE sprite."); // DEBUG
-                break;
+        Image spriteToDraw;
+        switch (state) {
             case WARNING:
                 spriteToDraw = spriteWarning != null ? spriteWarning : spriteIdle; // Fallback to idle
-                System.out.println("Trap " + getName() + " drawing WARNING sprite."); // DEBUG
                 break;
             case ACTIVE:
                 spriteToDraw = spriteActive;
-                System.out.println("Trap " + getName() + " drawing ACTIVE sprite."); // DEBUG
                 break;
+            case IDLE:
             default:
-                System.err.println("Trap " + getName() + " in unknown draw state: " + currentState);
-                spriteToDraw = spriteIdle; // Default to idle sprite
+                spriteToDraw = spriteIdle;
                 break;
         }
 
-        // --- DEBUG LOG ---
-        System.out.println("Trap.draw() called for " + getName() + " in state " + currentState +
-                           ". Sprite to draw: " + (spriteToDraw != null ? "VALID_IMAGE" : "NULL") +
-                           " at screenX=" + screenX + ", screenY=" + screenY);
+        // Runs every frame for every trap on screen - keep the message off the heap unless someone wants it
+        if (LOG.isTraceEnabled()) {
+            LOG.trace("Trap.draw() called for " + getName() + " in state " + state +
+                      ". Sprite to draw: " + (spriteToDraw != null ? "VALID_IMAGE" : "NULL") +
+                      " at screenX=" + screenX + ", screenY=" + screenY);
+        }
 
         if (spriteToDraw != null) {
             g.drawImage(spriteToDraw,
@@ -133,18 +213,15 @@ public class Trap extends Entity implements Executable {
         } else {
             // Fallback placeholder drawing for the trap itself AT screenX, screenY
             Color c;
-            switch (currentState) {
+            switch (state) {
                 case IDLE:
                     c = Color.GREEN.darker().darker();
-                    System.out.println("Trap " + getName() + " drawing IDLE placeholder."); // DEBUG
                     break;
                 case WARNING:
                     c = Color.ORANGE;
-                    System.out.println("Trap " + getName() + " drawing WARNING placeholder."); // DEBUG
                     break;
                 case ACTIVE:
                     c = Color.RED;
-                    System.out.println("Trap " + getName() + " drawing ACTIVE placeholder."); // DEBUG
                     break;
                 default:
                     c = Color.BLACK;
@@ -155,10 +232,6 @@ public class Trap extends Entity implements Executable {
                        tilePixelWidth / 2, tilePixelHeight / 2);
             g.setColor(Color.DARK_GRAY);
             g.drawRect(screenX + tilePixelWidth / 4, screenY + tilePixelHeight / 4, tilePixelWidth / 2 - 1, tilePixelHeight / 2 - 1);
-            if (currentState != null)
-                System.err.println("Trap " + getName() + ": spriteToDraw was NULL for state " + currentState); // DEBUG
-            else
-                System.err.println("Trap " + getName() + ": spriteToDraw was NULL and currentState was also NULL"); // DEBUG
         }
     }
 }
\ No newline at end of file
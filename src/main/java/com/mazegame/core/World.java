@@ -7,41 +7,73 @@ import com.mazegame.interfaces.Executable;
 import com.mazegame.items.Chest;
 import com.mazegame.items.Key;
 import com.mazegame.items.Lever;
+import com.mazegame.events.EventBus;
 import com.mazegame.puzzles.PuzzleController;
 import com.mazegame.items.AidKit;
 import com.mazegame.items.Gun;
 import com.mazegame.items.Ammo;
 // import com.mazegame.items.Treasure; // Not used if Exit Door is the win condition
 import com.mazegame.items.Crowbar;
+import com.mazegame.items.Item;
+import com.mazegame.simulation.SimulationClock;
+import com.mazegame.simulation.WallClock;
+import com.mazegame.ui.SpriteManager;
 import com.mazegame.utils.Position;
+import com.mazegame.logging.GameLogger;
 
+import java.awt.Image;
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
-import java.util.Iterator; // For safe removal during iteration
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
 
 public class World {
+    private static final GameLogger LOG = GameLogger.getLogger(World.class);
     private String name;
     private List<Entity> entities;
-    private List<Executable> executables; // Entities that have an execute() method (Player, NPCs, active traps)
     private List<Room> rooms;
+    private final List<Entity> entitiesView; // Read-only live view, see getEntities()
+    private final Set<Entity> entitySet = Collections.newSetFromMap(new IdentityHashMap<Entity, Boolean>()); // O(1) "already added?"
+    private final Map<Integer, Room> roomsById = new HashMap<>();
+    private final RoomGraph roomGraph = new RoomGraph(); // Rooms + doors, kept in sync by addEntity/removeEntity
+    private final PathFinder pathFinder = new PathFinder(); // Per-room flow fields/paths, shared by all NPCs
+    private final TickScheduler tickScheduler = new TickScheduler(roomGraph); // Executables by room, only hot rooms tick
+    private final EventBus eventBus = new EventBus(); // Damage, deaths, doors, levers... see GameListener
     private Player player; // The single player instance
     private boolean gameOver = false;
     private boolean playerWon = false;
+    private final List<Entity> changedEntities = new ArrayList<>(); // Flagged since the last takeChangedEntities()
+    private volatile boolean trackingChanges = false;
+    private Random seeds = new Random(); // Hands out the seeds NPCs make their Randoms from, see setRandomSeed()
+    private TilePager tilePager; // Null unless enableTilePaging() was called
+    private SimulationClock clock = new WallClock(); // Handed to every Executable; swap for TickClock in headless runs
     // private Room startRoom; // Not strictly needed as a field if rooms.get(0) is always the start
 
     public static final int NUM_ROOMS_X = 3; // e.g., 3x3 grid of rooms
     public static final int NUM_ROOMS_Y = 3;
 
+    // Actual grid size of this world. The hand-built level uses the constants above,
+    // WorldGenerator sets its own.
+    private int roomsX = NUM_ROOMS_X;
+    private int roomsY = NUM_ROOMS_Y;
+
     public World(String name) {
         this.name = name;
         this.entities = new ArrayList<>();
-        this.executables = new ArrayList<>();
         this.rooms = new ArrayList<>();
+        this.entitiesView = Collections.unmodifiableList(entities);
         // Player is created and set during initializeWorld()
     }
 
     public void initializeWorld() {
-        System.out.println("Initializing world...");
+        LOG.info("Initializing world...");
 
         createRooms();
         createPlayer();
@@ -52,7 +84,7 @@ public class World {
         setupLeverPuzzle();
         createTraps(); // <<< CALL NEW METHOD
 
-        System.out.println("World initialization complete.");
+        LOG.info("World initialization complete.");
     }
 
     private void createRooms() {
@@ -65,27 +97,47 @@ public class World {
             }
         }
         if (!rooms.isEmpty()) {
-            System.out.println("Created " + rooms.size() + " rooms. Start room will be: " + rooms.get(0).getName());
+            addInternalWalls();
+            LOG.info("Created " + rooms.size() + " rooms. Start room will be: " + rooms.get(0).getName());
         } else {
-            System.err.println("CRITICAL: No rooms were created!");
+            LOG.error("CRITICAL: No rooms were created!");
+        }
+    }
+
+    // A few walls inside the first two rooms so the start isn't just an empty box
+    private void addInternalWalls() {
+        Image wallSprite = SpriteManager.getSprite("wall.png");
+        if (wallSprite == null) return; // Room already warned about the missing sprite
+        int[][] walls = {
+            {0, 5, 3}, {0, 3, 4}, {0, 3, 5}, {0, 7, 6}, {0, 7, 7}, // room, x, y
+            {1, 8, 5}, {1, 5, 6}
+        };
+        for (int[] wall : walls) {
+            Room room = getRoomById(wall[0]);
+            if (room == null) continue;
+            TileLayer layer = room.getTileLayer();
+            layer.set(layer.indexOf(wall[1], wall[2]), Tile.TileType.WALL, false, wallSprite);
         }
     }
 
     private void createPlayer() {
         if (rooms.isEmpty()) {
-            System.err.println("CRITICAL: Cannot create player, no rooms exist. Creating a fallback room.");
+            LOG.error("CRITICAL: Cannot create player, no rooms exist. Creating a fallback room.");
             Room fallbackRoom = new Room(0, "Fallback Start Room", this, new Position(0,0));
             addEntity(fallbackRoom);
         }
         Room playerStartRoom = rooms.get(0); // Player starts in the first created room
-        Position playerStartPos = new Position(Room.ROOM_WIDTH_TILES / 2, Room.ROOM_HEIGHT_TILES / 2);
+        placePlayer(playerStartRoom, new Position(playerStartRoom.getWidth() / 2, playerStartRoom.getHeight() / 2));
+    }
 
+    // Creates the hero with the starting pistol. Shared with WorldGenerator.
+    void placePlayer(Room playerStartRoom, Position playerStartPos) {
         this.player = new Player("Hero", this, playerStartPos, playerStartRoom, 100, 10);
         if (playerStartRoom != null) {
             playerStartRoom.addLivingBeing(this.player);
         }
         addEntity(this.player);
-        System.out.println("Player created in " + (playerStartRoom != null ? playerStartRoom.getName() : "NO START ROOM"));
+        LOG.info("Player created in " + (playerStartRoom != null ? playerStartRoom.getName() : "NO START ROOM"));
 
         // Give player starting Pistol using Option A (direct inventory reference)
         Gun pistol = new Gun("Pistol", this, null, 15, 6, "9mm", 5);
@@ -93,7 +145,7 @@ public class World {
             player.getInventory().add(pistol); // Directly add to the list
             pistol.setOwner(player);
             pistol.addAmmo(3);
-            System.out.println("Gave Pistol (3/6 ammo) to Player.");
+            LOG.info("Gave Pistol (3/6 ammo) to Player.");
         }
     }
 
@@ -131,7 +183,7 @@ public class World {
                 }
             }
         }
-        System.out.println("Created basic grid doors.");
+        LOG.info("Created basic grid doors.");
     }
 
 
@@ -144,7 +196,7 @@ public class World {
         room0.addItem(new Key("Chest Key", this, new Position(2,2), "chest_key_1"));
         room0.addItem(new AidKit("Floor Medkit", this, new Position(4,4), 30));
         room0.addItem(new Crowbar("Sturdy Crowbar", this, new Position(1,5)));
-        System.out.println("Populated Room 0 with starting items.");
+        LOG.info("Populated Room 0 with starting items.");
 
         // Chest in Room 1
         Room room1 = getRoomById(1);
@@ -154,7 +206,7 @@ public class World {
             oldChest.addItemInside(new AidKit("Small Medkit", this, null, 25));
             oldChest.addItemInside(new Ammo("9mm Rounds", this, null, "9mm", 12));
             addEntity(oldChest); // The chest itself is an entity
-            System.out.println("Added Old Chest (forceable, w/ Medkit, Ammo) to Room 1.");
+            LOG.info("Added Old Chest (forceable, w/ Medkit, Ammo) to Room 1.");
         }
 
         // Another chest in Room 3
@@ -164,13 +216,13 @@ public class World {
                                        false, null, true); // Unlocked, no key, forceable
             dustyCrate.addItemInside(new Ammo("Shotgun Shells", this, null, "shotgun", 5)); // If you add a shotgun
             addEntity(dustyCrate);
-            System.out.println("Added Dusty Crate (forceable, w/ Shells) to Room 3.");
+            LOG.info("Added Dusty Crate (forceable, w/ Shells) to Room 3.");
         }
     }
 
     private void populateNPCs() {
         if (player == null || rooms.size() < 2) {
-            System.err.println("Cannot populate NPCs: Player or sufficient rooms not available.");
+            LOG.warn("Cannot populate NPCs: Player or sufficient rooms not available.");
             return;
         }
         Room room1 = getRoomById(1); // NPCs in Room 1
@@ -179,13 +231,13 @@ public class World {
             NPC goblin = new NPC("Goblin", this, new Position(2, 8), room1, 30, 5, player);
             room1.addLivingBeing(goblin); // Explicitly add NPC to room's list
             addEntity(goblin);
-            System.out.println("Added Goblin to " + room1.getName());
+            LOG.info("Added Goblin to " + room1.getName());
 
             NPC goblinGuard = new NPC("Goblin Guard", this, new Position(7, 8), room1, 50, 8, player);
             goblinGuard.setSpecialKeyDrop("Guard's Key", "door_room2_exit_key");
             room1.addLivingBeing(goblinGuard); // Explicitly add NPC to room's list
             addEntity(goblinGuard);
-            System.out.println("Added Goblin Guard (will drop: " + goblinGuard.dropsSpecialKey +
+            LOG.info("Added Goblin Guard (will drop: " + goblinGuard.dropsSpecialKey +
                                ", keyName: " + goblinGuard.getSpecialKeyName() +
                                ", keyId: " + goblinGuard.getSpecialKeyId() +
                                ") to " + room1.getName());
@@ -202,7 +254,7 @@ public class World {
                     secretRoom, new Position(0, 5),                  // West wall, mid-height
                     true, "door_room2_exit_key", false); // Locked, needs key, NOT forceable
             addEntity(guardedDoor);
-            System.out.println("Placed Heavy Vault Door in Room 2 (to Room 6), requires 'door_room2_exit_key'.");
+            LOG.info("Placed Heavy Vault Door in Room 2 (to Room 6), requires 'door_room2_exit_key'.");
         }
 
         // Rickety Door (forceable)
@@ -216,7 +268,7 @@ public class World {
             addEntity(ricketyDoor);
             // Optionally add "rickety_door_key" somewhere if you want it to be openable by key too
             // rooms.get(0).addItem(new Key("Bent Key", this, new Position(1,1), "rickety_door_key"));
-            System.out.println("Placed Rickety Door (forceable) between Room 3 and 4.");
+            LOG.info("Placed Rickety Door (forceable) between Room 3 and 4.");
         }
 
         // Exit Door
@@ -230,7 +282,7 @@ public class World {
             // OR player.interact checks for this door name.
             // The LivingBeing.handleDoorMovement was updated to check for specific name.
             addEntity(exitDoor);
-            System.out.println("Placed Dimensional Exit in " + finalRoom.getName());
+            LOG.info("Placed Dimensional Exit in " + finalRoom.getName());
         }
     }
 
@@ -239,7 +291,7 @@ public class World {
         Room rewardRoom = getRoomById(5); // Door leads from Room 4 to Room 5
 
         if (puzzleRoom == null || rewardRoom == null) {
-            System.err.println("Cannot setup lever puzzle: Puzzle room or reward room not found.");
+            LOG.warn("Cannot setup lever puzzle: Puzzle room or reward room not found.");
             return;
         }
 
@@ -249,7 +301,7 @@ public class World {
                 rewardRoom, new Position(0, 3),                         // West wall of RewardRoom
                 true, "puzzle_door_key_id_not_used", false); // Locked, key ID not relevant if puzzle controls, not forceable
         addEntity(puzzleDoor);
-        System.out.println("Placed Sealed Passage (puzzle door) between " + puzzleRoom.getName() + " and " + rewardRoom.getName());
+        LOG.info("Placed Sealed Passage (puzzle door) between " + puzzleRoom.getName() + " and " + rewardRoom.getName());
 
         // 2. Create the PuzzleController for this door
         PuzzleController leverPuzzleController = new PuzzleController(puzzleDoor);
@@ -267,7 +319,7 @@ public class World {
         puzzleRoom.getTile(8,5).setEntityOnTile(lever3);
         addEntity(lever3);
 
-        System.out.println("Setup Lever Puzzle in " + puzzleRoom.getName() + " controlling " + puzzleDoor.getName());
+        LOG.info("Setup Lever Puzzle in " + puzzleRoom.getName() + " controlling " + puzzleDoor.getName());
     }
 
     private void createTraps() {
@@ -277,46 +329,49 @@ public class World {
             for (int x = 3; x <= 7; x++) {
                 Trap spikeTrap = new Trap("Spike Trap " + x, this, new Position(x, 5),
                                           3000, 1000, 1500, 10);
+                spikeTrap.setRoom(trapRoom);
                 addEntity(spikeTrap);
                 // Place the trap on the tile so interaction/drawing is consistent
                 trapRoom.getTile(x, 5).setEntityOnTile(spikeTrap);
                 // Optional: If you have a TRAP_FLOOR type for special drawing
                 // trapRoom.getTile(x, 5).setType(Tile.TileType.TRAP_FLOOR);
-                System.out.println("Placed " + spikeTrap.getName() + " in " + trapRoom.getName());
+                LOG.info("Placed " + spikeTrap.getName() + " in " + trapRoom.getName());
             }
 
             // A single, faster trap
             Trap fastTrap = new Trap("Quick Spikes", this, new Position(5, 8),
                                      1500, 500, 1000, 15);
+            fastTrap.setRoom(trapRoom);
             addEntity(fastTrap);
             trapRoom.getTile(5, 8).setEntityOnTile(fastTrap);
             // trapRoom.getTile(5, 8).setType(Tile.TileType.TRAP_FLOOR);
-            System.out.println("Placed " + fastTrap.getName() + " in " + trapRoom.getName());
+            LOG.info("Placed " + fastTrap.getName() + " in " + trapRoom.getName());
         }
     }
 
     public Room getRoomById(int id) {
-        for (Room room : rooms) {
-            if (room.getRoomID() == id) {
-                return room;
-            }
+        Room room = roomsById.get(id);
+        if (room != null) {
+            return room;
         }
-        System.err.println("Warning: Room with ID " + id + " not found.");
+        LOG.warn("Warning: Room with ID " + id + " not found.");
         return null;
     }
 
     public void addEntity(Entity entity) {
         if (entity == null) {
-            System.err.println("Warning: Attempted to add a null entity to the world.");
+            LOG.warn("Warning: Attempted to add a null entity to the world.");
             return;
         }
-        if (!entities.contains(entity)) {
+        if (entitySet.add(entity)) {
             entities.add(entity);
-            if (entity instanceof Executable && !executables.contains(entity)) {
-                executables.add((Executable) entity);
+            markChanged(entity);
+            if (entity instanceof Executable) {
+                tickScheduler.add((Executable) entity);
             }
-            if (entity instanceof Room && !rooms.contains(entity)) {
-                rooms.add((Room) entity);
+            registerRoomOrDoor(entity);
+            if (entity instanceof Room && tilePager != null) {
+                tilePager.evict();
             }
             // If an Item is added directly to the world (not in a room/chest/inventory yet),
             // it might need separate handling or this method assumes it's already placed in a room.
@@ -326,14 +381,42 @@ public class World {
         }
     }
 
+    private void registerRoomOrDoor(Entity entity) {
+        if (entity instanceof Room) {
+            Room room = (Room) entity;
+            rooms.add(room);
+            roomsById.put(room.getRoomID(), room);
+            roomGraph.addRoom(room);
+            if (tilePager != null) {
+                tilePager.register(room);
+            }
+        }
+        if (entity instanceof Door) {
+            roomGraph.addDoor((Door) entity);
+        }
+    }
+
     public void removeEntity(Entity entity) {
-        if (entity == null) return;
+        if (entity == null || !entitySet.remove(entity)) return;
         entities.remove(entity);
+        markChanged(entity);
         if (entity instanceof Executable) {
-            executables.remove((Executable) entity);
+            tickScheduler.remove((Executable) entity);
         }
         if (entity instanceof Room) {
-            rooms.remove((Room) entity);
+            Room room = (Room) entity;
+            rooms.remove(room);
+            if (roomsById.get(room.getRoomID()) == room) {
+                roomsById.remove(room.getRoomID());
+            }
+            roomGraph.removeRoom(room);
+            pathFinder.forget(room);
+            if (tilePager != null) {
+                tilePager.unregister(room);
+            }
+        }
+        if (entity instanceof Door) {
+            roomGraph.removeDoor((Door) entity);
         }
         // If it's the player being removed (e.g. game over sequence elsewhere)
         if (entity == this.player) {
@@ -344,6 +427,10 @@ public class World {
     public void update() {
         if (gameOver || playerWon) return;
 
+        if (tilePager != null) {
+            tilePager.evict(); // Between ticks, nothing is using a layer
+        }
+
         if (this.player != null) {
             // The player's direct actions (move, interact, use item via F key) are handled by MainFrame's KeyListener.
             // Player.execute() might be for passive effects or queued actions if you develop that.
@@ -359,39 +446,41 @@ public class World {
         // Check game state after any player passive execution
         if (gameOver || playerWon) return;
 
-        // Process other executables (NPCs)
-        // Use an iterator for safe removal if NPCs can die and remove themselves from executables list
-        Iterator<Executable> iter = executables.iterator();
-        while (iter.hasNext()) {
-            Executable ex = iter.next();
-            if (ex == player) continue; // Player actions are input-driven
-
-            boolean shouldExecute = true;
-            if (ex instanceof LivingBeing) {
-                if (((LivingBeing) ex).getHealth() <= 0) {
-                    shouldExecute = false;
-                }
-            }
-
-            if (shouldExecute) {
-                // Only update NPCs in the same room as the player for simplicity/performance
-                if (ex instanceof NPC) {
-                    NPC npc = (NPC) ex;
-                    if (player != null && npc.getCurrentRoom() == player.getCurrentRoom()) {
-                        npc.execute(); // NPC AI and actions
-                    }
-                } else {
-                    ex.execute(); // For Traps and any other non-NPC executables
-                }
-            }
-            // Check game state changes after each executable's action
+        // Process other executables (NPCs, traps). Only rooms near the player run, see TickScheduler.
+        // The batch is collected before anything executes, so NPCs dying, spawning or changing
+        // rooms mid-tick still run at most once
+        List<Executable> batch = tickScheduler.prepareTick(player.getCurrentRoom(), player, clock);
+        // The player's room runs here first (NPCs there fight the player), then the other hot
+        // rooms (in parallel if that's on and worth it), then the global executables
+        int hotRooms = tickScheduler.getActiveRooms().size();
+        if (hotRooms > 0 && !runExecutables(batch, 0, tickScheduler.roomEnd(0))) return;
+        if (hotRooms > 1) {
+            tickScheduler.executeRooms(1, hotRooms, clock, tickScheduler.shouldRunInParallel());
             if (gameOver || playerWon) return;
         }
+        if (!runExecutables(batch, tickScheduler.roomStart(hotRooms), batch.size())) return;
 
         // Player health already logged by MainFrame after world.update() completes.
     }
 
 
+    // Runs batch[from, to) on this thread; false if the game ended along the way
+    private boolean runExecutables(List<Executable> batch, int from, int to) {
+        for (int i = from; i < to; i++) {
+            Executable ex = batch.get(i);
+            if (!TickScheduler.shouldRun(ex)) continue;
+            ex.execute(clock);
+            // Check game state changes after each executable's action
+            if (gameOver || playerWon) return false;
+        }
+        return true;
+    }
+
+    /** See TickScheduler.runCrossRoomEffect(): runs now, or after the parallel part of the tick. */
+    public void runCrossRoomEffect(Runnable effect) {
+        tickScheduler.runCrossRoomEffect(effect);
+    }
+
     public Player getPlayer() {
         return player;
     }
@@ -404,16 +493,33 @@ public class World {
         }
     }
 
+    public SimulationClock getClock() { return clock; }
+
+    /**
+     * Replaces the clock used for all timers. Set this before creating timed entities (traps),
+     * since they remember the time they were created at.
+     */
+    public void setClock(SimulationClock clock) {
+        if (clock == null) {
+            throw new IllegalArgumentException("World clock cannot be null");
+        }
+        this.clock = clock;
+    }
+
     public boolean isGameOver() { return gameOver; }
     public void setGameOver(boolean gameOver) {
+        boolean ended = gameOver && !this.gameOver && !playerWon;
         this.gameOver = gameOver;
-        if (gameOver) System.out.println("World: Game Over flag set.");
+        if (gameOver) LOG.info("World: Game Over flag set.");
+        if (ended) eventBus.fireGameEnded(false);
     }
 
     public boolean didPlayerWin() { return playerWon; }
     public void setPlayerWon(boolean playerWon) {
+        boolean ended = playerWon && !this.playerWon && !gameOver;
         this.playerWon = playerWon;
-        if (playerWon) System.out.println("World: Player Won flag set.");
+        if (playerWon) LOG.info("World: Player Won flag set.");
+        if (ended) eventBus.fireGameEnded(true);
     }
 
     // getStartRoom() might not be needed if you always use rooms.get(0)
@@ -429,22 +535,192 @@ public class World {
         roomEntities.addAll(room.getItemsInRoom());
         // Living beings
         roomEntities.addAll(room.getLivingBeingsInRoom());
-        // Static entities on tiles like Chests (Doors are part of room connections)
-        for (int y = 0; y < Room.ROOM_HEIGHT_TILES; y++) {
-            for (int x = 0; x < Room.ROOM_WIDTH_TILES; x++) {
-                Tile tile = room.getTile(x,y);
-                if(tile != null && tile.getEntityOnTile() != null &&
-                   tile.getEntityOnTile() instanceof Chest && // Only add chests this way
-                   !roomEntities.contains(tile.getEntityOnTile())) {
-                     roomEntities.add(tile.getEntityOnTile());
-                }
+        // Static entities on tiles like Chests (Doors are part of room connections).
+        // A chest sits on exactly one tile, so no duplicate check is needed
+        room.getTileEntities(Chest.class, roomEntities);
+        return roomEntities;
+    }
+
+    /**
+     * Everything within 'range' tiles of a spot in a room: floor items, living beings and tile
+     * entities (doors, chests, levers, traps). Only the tiles in range are looked at.
+     */
+    public List<Entity> getEntitiesInRange(Room room, int x, int y, int range) {
+        List<Entity> result = new ArrayList<>();
+        if (room == null) return result;
+        for (Item item : room.getItemsInRange(x, y, range, new ArrayList<Item>())) {
+            result.add(item);
+        }
+        for (LivingBeing being : room.getLivingBeingsInRange(x, y, range, new ArrayList<LivingBeing>())) {
+            result.add(being);
+        }
+        return room.getTileEntitiesInRange(x, y, range, result);
+    }
+
+    /**
+     * Adds many entities at once. Same as calling addEntity for each, used when generating big worlds.
+     */
+    public void addEntities(Collection<? extends Entity> newEntities) {
+        boolean addedRooms = false;
+        for (Entity entity : newEntities) {
+            if (entity == null || !entitySet.add(entity)) continue;
+            entities.add(entity);
+            markChanged(entity);
+            if (entity instanceof Executable) {
+                tickScheduler.add((Executable) entity);
             }
+            registerRoomOrDoor(entity);
+            addedRooms |= entity instanceof Room;
         }
-        return roomEntities;
+        if (addedRooms && tilePager != null) {
+            tilePager.evict();
+        }
+    }
+
+    // --- Randomness ---
+
+    /**
+     * Makes everything random in the world (NPC loot rolls) follow from one seed. NPCs already in
+     * the world are reseeded in world order, NPCs created later draw their seed from the same
+     * sequence. Call it before building the world and two builds with the same seed and inputs
+     * play out the same.
+     */
+    public void setRandomSeed(long seed) {
+        seeds = new Random(seed);
+        for (Entity entity : entities) {
+            if (entity instanceof NPC) {
+                ((NPC) entity).setRandomSeed(seeds.nextLong());
+            }
+        }
+    }
+
+    /** Seed for a new NPC's Random; unseeded worlds hand out arbitrary ones. */
+    public long nextRandomSeed() {
+        return seeds.nextLong();
+    }
+
+    // --- Out-of-core tiles ---
+
+    /**
+     * Lets dormant rooms' tiles live in a memory-mapped scratch file instead of the heap, see
+     * TilePager. Only the hot rooms plus the residentRooms most recently used ones stay on the heap.
+     * Call it on the game thread, before or after the rooms are added.
+     */
+    public TilePager enableTilePaging(Path file, int residentRooms) throws IOException {
+        if (tilePager != null) {
+            throw new IllegalStateException("Tile paging is already on, to " + tilePager);
+        }
+        TilePager pager = new TilePager(this, file);
+        pager.setResidentRooms(residentRooms);
+        for (Room room : rooms) {
+            pager.register(room);
+        }
+        tilePager = pager;
+        pager.evict();
+        return pager;
+    }
+
+    /** Pages every room back onto the heap and deletes the scratch file. */
+    public void disableTilePaging() throws IOException {
+        if (tilePager == null) return;
+        TilePager pager = tilePager;
+        tilePager = null;
+        pager.close();
+    }
+
+    public TilePager getTilePager() { return tilePager; }
+
+    /** Brings a room's tiles onto the heap ahead of use (someone's about to enter it). */
+    public void touchRoom(Room room) {
+        if (tilePager != null && room != null) {
+            tilePager.touch(room);
+        }
+    }
+
+    public String getName() { return name; }
+
+    /** O(1), unlike getEntities().contains(). */
+    public boolean containsEntity(Entity entity) {
+        return entitySet.contains(entity);
+    }
+
+    // --- Change tracking for incremental checkpoints (GameStateManager) ---
+
+    /**
+     * Turns change tracking on or off. While it's on, Entity.markChanged() (and adding or removing
+     * entities) records the entity once until the next takeChangedEntities(). Off by default, so
+     * worlds nobody checkpoints don't collect anything.
+     */
+    public void setTrackingChanges(boolean tracking) {
+        this.trackingChanges = tracking;
+        if (!tracking) {
+            takeChangedEntities();
+        }
+    }
+
+    public boolean isTrackingChanges() { return trackingChanges; }
+
+    // Called by Entity.markChanged(); comes from pool threads too when rooms tick in parallel
+    void markChanged(Entity entity) {
+        if (!trackingChanges) return;
+        synchronized (changedEntities) {
+            if (!entity.changed) {
+                entity.changed = true;
+                changedEntities.add(entity);
+            }
+        }
+    }
+
+    /**
+     * Everything flagged since the last call, in the order it was first flagged, and clears the
+     * flags. Call between ticks: the checkpoint that reads these entities must see a settled world.
+     */
+    public List<Entity> takeChangedEntities() {
+        synchronized (changedEntities) {
+            List<Entity> taken = new ArrayList<>(changedEntities);
+            for (Entity entity : changedEntities) {
+                entity.changed = false;
+            }
+            changedEntities.clear();
+            return taken;
+        }
+    }
+
+    public int getRoomsX() { return roomsX; }
+    public int getRoomsY() { return roomsY; }
+
+    // Called by WorldGenerator before it creates rooms, and when loading a save
+    public void setGridSize(int roomsX, int roomsY) {
+        this.roomsX = roomsX;
+        this.roomsY = roomsY;
+    }
+
+    public RoomGraph getRoomGraph() {
+        return roomGraph;
+    }
+
+    public EventBus getEventBus() {
+        return eventBus;
+    }
+
+    public TickScheduler getTickScheduler() {
+        return tickScheduler;
+    }
+
+    public PathFinder getPathFinder() {
+        return pathFinder;
+    }
+
+    /** Whether room 'toId' can be reached from room 'fromId' through unlocked doors. */
+    public boolean isRoomReachable(int fromId, int toId) {
+        return roomGraph.isReachable(roomsById.get(fromId), roomsById.get(toId));
     }
 
-    // Add this method to provide access to the world's entities
+    /**
+     * Read-only live view of the world's entities (no copy per call).
+     * Don't add/remove entities while iterating it; copy it first if you need to.
+     */
     public List<Entity> getEntities() {
-        return new ArrayList<>(entities);
+        return entitiesView;
     }
 }
\ No newline at end of file
@@ -0,0 +1,433 @@
+package com.mazegame.core;
+
+import com.mazegame.characters.NPC;
+import com.mazegame.characters.Player;
+import com.mazegame.items.AidKit;
+import com.mazegame.items.Ammo;
+import com.mazegame.items.Chest;
+import com.mazegame.items.Crowbar;
+import com.mazegame.items.Item;
+import com.mazegame.items.Key;
+import com.mazegame.logging.GameLogger;
+import com.mazegame.utils.Position;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Builds a random maze of rooms instead of the hand-made 3x3 level.
+ *
+ * Rooms sit on a roomsX x roomsY grid and are connected by a random spanning tree (plus a few
+ * extra doors to make loops). Some tree doors get locked; the matching key is always put in a
+ * room that comes earlier in BFS order from the start room, so every key can be reached without
+ * the door it opens and the level is solvable by construction. isSolvable() double-checks that.
+ *
+ * Same seed + same settings = same world.
+ *
+ * Usage:
+ *   World world = new World("Big Maze");
+ *   new WorldGenerator(42L, 100, 100, 12, 12).generate(world);
+ */
+public class WorldGenerator {
+    private static final GameLogger LOG = GameLogger.getLogger(WorldGenerator.class);
+
+    public static final String EXIT_DOOR_NAME = "Dimensional Exit"; // Name the player code treats as the win door
+
+    private final long seed;
+    private final int roomsX;
+    private final int roomsY;
+    private final int roomWidth;
+    private final int roomHeight;
+
+    // Tunables, all per room/door. Defaults give a busy but not crowded maze.
+    private double loopChance = 0.10;  // Extra (non-tree) door between neighbours
+    private double lockChance = 0.15;  // Tree door gets a lock + key
+    private double forceableChance = 0.3; // Locked door can also be forced with a crowbar
+    private double chestChance = 0.25;
+    private double npcChance = 0.30;
+    private double trapChance = 0.20;
+
+    public WorldGenerator(long seed, int roomsX, int roomsY, int roomWidth, int roomHeight) {
+        if (roomsX <= 0 || roomsY <= 0) {
+            throw new IllegalArgumentException("World needs at least one room, got " + roomsX + "x" + roomsY);
+        }
+        if (roomWidth < 5 || roomHeight < 5) {
+            throw new IllegalArgumentException("Rooms must be at least 5x5 tiles, got " + roomWidth + "x" + roomHeight);
+        }
+        this.seed = seed;
+        this.roomsX = roomsX;
+        this.roomsY = roomsY;
+        this.roomWidth = roomWidth;
+        this.roomHeight = roomHeight;
+    }
+
+    public WorldGenerator(long seed, int roomsX, int roomsY) {
+        this(seed, roomsX, roomsY, Room.ROOM_WIDTH_TILES, Room.ROOM_HEIGHT_TILES);
+    }
+
+    public long getSeed() { return seed; }
+
+    public void setLoopChance(double loopChance) { this.loopChance = loopChance; }
+    public void setLockChance(double lockChance) { this.lockChance = lockChance; }
+    public void setForceableChance(double forceableChance) { this.forceableChance = forceableChance; }
+    public void setChestChance(double chestChance) { this.chestChance = chestChance; }
+    public void setNpcChance(double npcChance) { this.npcChance = npcChance; }
+    public void setTrapChance(double trapChance) { this.trapChance = trapChance; }
+
+    /** Fills an empty world. Don't call initializeWorld() on the same world. */
+    public void generate(World world) {
+        if (!world.getEntities().isEmpty()) {
+            throw new IllegalStateException("WorldGenerator needs an empty world");
+        }
+        long startNanos = System.nanoTime();
+        Random random = new Random(seed);
+        world.setGridSize(roomsX, roomsY);
+
+        List<Entity> batch = new ArrayList<>();
+        Room[] rooms = createRooms(world, batch);
+        world.addEntities(batch);
+        batch.clear();
+
+        Room start = rooms[0];
+        world.placePlayer(start, centerOf(start));
+        Player player = world.getPlayer();
+
+        int[] bfsOrder = new int[rooms.length]; // Room id -> position in BFS order from the start
+        int[] parent = buildSpanningTree(random, bfsOrder);
+
+        int lockCount = createDoors(world, random, rooms, parent, bfsOrder, batch);
+        Room exitRoom = placeExit(world, rooms, bfsOrder, batch);
+        populateRooms(world, random, rooms, player, batch);
+        world.addEntities(batch);
+
+        long millis = (System.nanoTime() - startNanos) / 1_000_000;
+        LOG.info("Generated " + rooms.length + " rooms (" + roomsX + "x" + roomsY + ", " + roomWidth + "x" + roomHeight
+                + " tiles each), " + lockCount + " locked doors, exit in " + exitRoom.getName()
+                + ", seed " + seed + " in " + millis + " ms");
+    }
+
+    private Room[] createRooms(World world, List<Entity> batch) {
+        Room[] rooms = new Room[roomsX * roomsY];
+        for (int y = 0; y < roomsY; y++) {
+            for (int x = 0; x < roomsX; x++) {
+                int id = y * roomsX + x;
+                rooms[id] = new Room(id, "Room " + id, world, new Position(x, y), roomWidth, roomHeight);
+                batch.add(rooms[id]);
+            }
+        }
+        return rooms;
+    }
+
+    /**
+     * Randomised DFS over the room grid. Returns parent[roomId] (-1 for the start) and fills
+     * bfsOrder with each room's rank in BFS order over the resulting tree.
+     */
+    private int[] buildSpanningTree(Random random, int[] bfsOrder) {
+        int count = roomsX * roomsY;
+        int[] parent = new int[count];
+        boolean[] visited = new boolean[count];
+        Arrays.fill(parent, -1);
+
+        Deque<Integer> stack = new ArrayDeque<>();
+        stack.push(0);
+        visited[0] = true;
+        int[] neighbours = new int[4];
+        while (!stack.isEmpty()) {
+            int current = stack.peek();
+            int n = unvisitedNeighbours(current, visited, neighbours);
+            if (n == 0) {
+                stack.pop();
+                continue;
+            }
+            int next = neighbours[random.nextInt(n)];
+            visited[next] = true;
+            parent[next] = current;
+            stack.push(next);
+        }
+
+        // BFS over the tree for the key placement order
+        List<List<Integer>> children = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) children.add(new ArrayList<Integer>(2));
+        for (int i = 1; i < count; i++) children.get(parent[i]).add(i);
+        Deque<Integer> queue = new ArrayDeque<>();
+        queue.add(0);
+        int rank = 0;
+        while (!queue.isEmpty()) {
+            int room = queue.poll();
+            bfsOrder[room] = rank++;
+            queue.addAll(children.get(room));
+        }
+        return parent;
+    }
+
+    private int unvisitedNeighbours(int id, boolean[] visited, int[] out) {
+        int x = id % roomsX;
+        int y = id / roomsX;
+        int n = 0;
+        if (x > 0 && !visited[id - 1]) out[n++] = id - 1;
+        if (x < roomsX - 1 && !visited[id + 1]) out[n++] = id + 1;
+        if (y > 0 && !visited[id - roomsX]) out[n++] = id - roomsX;
+        if (y < roomsY - 1 && !visited[id + roomsX]) out[n++] = id + roomsX;
+        return n;
+    }
+
+    /**
+     * One door per tree edge (some locked), plus random loop doors which are always unlocked.
+     * Keys go into a room with a lower BFS rank than the room behind the lock.
+     */
+    private int createDoors(World world, Random random, Room[] rooms, int[] parent, int[] bfsOrder, List<Entity> batch) {
+        // Rooms sorted by BFS rank so "any room before rank k" is a prefix of this array
+        Room[] byRank = new Room[rooms.length];
+        for (Room room : rooms) byRank[bfsOrder[room.getRoomID()]] = room;
+
+        int lockCount = 0;
+        for (int y = 0; y < roomsY; y++) {
+            for (int x = 0; x < roomsX; x++) {
+                int id = y * roomsX + x;
+                // Only look east and south so each pair is considered once
+                int[] others = { (x < roomsX - 1) ? id + 1 : -1, (y < roomsY - 1) ? id + roomsX : -1 };
+                for (int other : others) {
+                    if (other < 0) continue;
+                    boolean treeEdge = parent[other] == id || parent[id] == other;
+                    if (!treeEdge && random.nextDouble() >= loopChance) continue;
+
+                    boolean locked = treeEdge && random.nextDouble() < lockChance;
+                    boolean forceable = locked && random.nextDouble() < forceableChance;
+                    String keyId = locked ? "gen_key_" + id + "_" + other : null;
+                    Door door = connect(world, rooms[id], rooms[other], locked, keyId, forceable);
+                    batch.add(door);
+
+                    if (locked) {
+                        lockCount++;
+                        int childRank = Math.max(bfsOrder[id], bfsOrder[other]); // The room behind the lock
+                        Room keyRoom = byRank[random.nextInt(childRank)];
+                        placeKey(world, random, keyRoom, new Key("Key to " + door.getName(), world, null, keyId), batch);
+                    }
+                }
+            }
+        }
+        return lockCount;
+    }
+
+    private Door connect(World world, Room a, Room b, boolean locked, String keyId, boolean forceable) {
+        Position posA;
+        Position posB;
+        if (b.getPosition().getX() > a.getPosition().getX()) { // b is east of a
+            posA = new Position(roomWidth - 1, roomHeight / 2);
+            posB = new Position(0, roomHeight / 2);
+        } else { // b is south of a
+            posA = new Position(roomWidth / 2, roomHeight - 1);
+            posB = new Position(roomWidth / 2, 0);
+        }
+        String name = (locked ? (forceable ? "Rickety Door " : "Locked Door ") : "Door ")
+                + a.getRoomID() + "-" + b.getRoomID();
+        return new Door(name, world, a, posA, b, posB, locked, keyId, forceable);
+    }
+
+    // Keys lie on the floor or, if the room has a chest, sometimes inside it
+    private void placeKey(World world, Random random, Room room, Key key, List<Entity> batch) {
+        if (random.nextBoolean()) {
+            Chest chest = findOrCreateChest(world, random, room, batch);
+            if (chest != null) {
+                chest.addItemInside(key);
+                return;
+            }
+        }
+        placeOnFloor(random, room, key);
+    }
+
+    /** Puts the exit on an outer wall of the boundary room that is deepest in the tree. */
+    private Room placeExit(World world, Room[] rooms, int[] bfsOrder, List<Entity> batch) {
+        Room best = null;
+        for (Room room : rooms) {
+            int x = room.getPosition().getX();
+            int y = room.getPosition().getY();
+            boolean onBoundary = x == 0 || y == 0 || x == roomsX - 1 || y == roomsY - 1;
+            if (onBoundary && (best == null || bfsOrder[room.getRoomID()] > bfsOrder[best.getRoomID()])) {
+                best = room;
+            }
+        }
+        int x = best.getPosition().getX();
+        int y = best.getPosition().getY();
+        Position exitPos;
+        if (y == 0) exitPos = new Position(roomWidth / 2, 0);
+        else if (x == roomsX - 1) exitPos = new Position(roomWidth - 1, roomHeight / 2);
+        else if (y == roomsY - 1) exitPos = new Position(roomWidth / 2, roomHeight - 1);
+        else exitPos = new Position(0, roomHeight / 2);
+
+        Door exit = new Door(EXIT_DOOR_NAME, world, best, exitPos, null, null, false, null, false);
+        batch.add(exit);
+        return best;
+    }
+
+    private void populateRooms(World world, Random random, Room[] rooms, Player player, List<Entity> batch) {
+        // A crowbar near the start so forceable doors are worth something
+        placeOnFloor(random, rooms[0], new Crowbar("Crowbar", world, null));
+
+        for (Room room : rooms) {
+            int id = room.getRoomID();
+            if (random.nextDouble() < chestChance) {
+                Chest chest = findOrCreateChest(world, random, room, batch);
+                if (chest != null) {
+                    if (random.nextBoolean()) chest.addItemInside(new AidKit("Medkit", world, null, 20 + random.nextInt(21)));
+                    else chest.addItemInside(new Ammo("9mm Rounds", world, null, "9mm", 3 + random.nextInt(10)));
+                }
+            }
+            if (id == 0) continue; // Give the player a quiet start
+
+            if (random.nextDouble() < npcChance) {
+                Position pos = findFreeTile(random, room);
+                if (pos != null) {
+                    NPC npc = new NPC("Goblin " + id, world, pos, room, 20 + random.nextInt(31), 3 + random.nextInt(6), player);
+                    room.addLivingBeing(npc);
+                    batch.add(npc);
+                }
+            }
+            if (random.nextDouble() < trapChance) {
+                Position pos = findFreeTile(random, room);
+                if (pos != null) {
+                    long idle = 1500 + random.nextInt(2500);
+                    Trap trap = new Trap("Spike Trap " + id, world, pos, idle, 500, 800 + random.nextInt(1000), 5 + random.nextInt(11));
+                    trap.setRoom(room);
+                    room.getTile(pos.getX(), pos.getY()).setEntityOnTile(trap);
+                    batch.add(trap);
+                }
+            }
+        }
+    }
+
+    /**
+     * Chests only go in the four inner corners. Doors are always in the middle of a wall, so a
+     * chest there can never block the way between doors.
+     */
+    private Chest findOrCreateChest(World world, Random random, Room room, List<Entity> batch) {
+        int[][] corners = { {1, 1}, {roomWidth - 2, 1}, {1, roomHeight - 2}, {roomWidth - 2, roomHeight - 2} };
+        for (int[] c : corners) {
+            Entity existing = room.getTileEntityAt(c[0], c[1]);
+            if (existing instanceof Chest) return (Chest) existing;
+        }
+        int startCorner = random.nextInt(corners.length);
+        for (int i = 0; i < corners.length; i++) {
+            int[] c = corners[(startCorner + i) % corners.length];
+            if (isFree(room, c[0], c[1])) {
+                Chest chest = new Chest("Chest " + room.getRoomID(), world, new Position(c[0], c[1]), room, false, null, true);
+                batch.add(chest);
+                return chest;
+            }
+        }
+        return null;
+    }
+
+    private void placeOnFloor(Random random, Room room, Item item) {
+        Position pos = findFreeTile(random, room);
+        if (pos == null) pos = centerOf(room); // Items don't block anything, doubling up is fine
+        item.setPosition(pos);
+        room.addItem(item);
+    }
+
+    // Random walkable tile with nothing on it, away from the door tiles' entry spots
+    private Position findFreeTile(Random random, Room room) {
+        for (int attempt = 0; attempt < 20; attempt++) {
+            int x = 1 + random.nextInt(roomWidth - 2);
+            int y = 1 + random.nextInt(roomHeight - 2);
+            if (isFree(room, x, y) && !isDoorApproach(x, y)) {
+                return new Position(x, y);
+            }
+        }
+        return null;
+    }
+
+    private boolean isFree(Room room, int x, int y) {
+        Tile tile = room.getTile(x, y);
+        return tile != null && tile.isWalkable() && tile.getEntityOnTile() == null
+                && room.getItemsAt(x, y).isEmpty() && room.getLivingBeingsAt(x, y).isEmpty();
+    }
+
+    // The tile just inside each possible door, where beings land when coming through
+    private boolean isDoorApproach(int x, int y) {
+        return (x == roomWidth / 2 && (y == 1 || y == roomHeight - 2))
+                || (y == roomHeight / 2 && (x == 1 || x == roomWidth - 2))
+                || (x == roomWidth / 2 && y == roomHeight / 2); // Player spawn
+    }
+
+    private Position centerOf(Room room) {
+        return new Position(room.getWidth() / 2, room.getHeight() / 2);
+    }
+
+    /**
+     * Checks that the exit can be reached from the player's room by walking through unlocked
+     * doors and using keys found on the way (on the floor or in chests). Crowbars are ignored,
+     * so forceable doors have to be solvable with their key too.
+     */
+    public static boolean isSolvable(World world) {
+        Player player = world.getPlayer();
+        if (player == null || player.getCurrentRoom() == null) return false;
+        RoomGraph graph = world.getRoomGraph();
+
+        Set<String> keys = new HashSet<>();
+        Map<String, List<Room>> waitingOnKey = new HashMap<>(); // Rooms behind locks we don't have the key for yet
+        Set<Room> visited = new HashSet<>();
+        Deque<Room> queue = new ArrayDeque<>();
+        visited.add(player.getCurrentRoom());
+        queue.add(player.getCurrentRoom());
+
+        while (!queue.isEmpty()) {
+            Room room = queue.poll();
+            for (String keyId : keysIn(room)) {
+                if (keys.add(keyId)) {
+                    List<Room> released = waitingOnKey.remove(keyId);
+                    if (released == null) continue;
+                    for (Room next : released) {
+                        if (visited.add(next)) queue.add(next);
+                    }
+                }
+            }
+            for (RoomGraph.Edge edge : graph.getEdges(room)) {
+                if (edge.isExit()) {
+                    if (!edge.isLocked()) return true;
+                    continue;
+                }
+                Room next = edge.getTo();
+                if (visited.contains(next)) continue;
+                String keyId = edge.getDoor().getKeyId();
+                if (!edge.isLocked() || keys.contains(keyId)) {
+                    visited.add(next);
+                    queue.add(next);
+                } else {
+                    List<Room> waiting = waitingOnKey.get(keyId);
+                    if (waiting == null) {
+                        waiting = new ArrayList<>(1);
+                        waitingOnKey.put(keyId, waiting);
+                    }
+                    waiting.add(next);
+                }
+            }
+        }
+        return false;
+    }
+
+    private static List<String> keysIn(Room room) {
+        List<String> found = new ArrayList<>();
+        for (Item item : room.getItemsInRoom()) {
+            if (item instanceof Key) found.add(((Key) item).getKeyId());
+        }
+        // Chests only ever sit in the corners, but check every tile so hand-built rooms work too
+        for (Entity entity : room.getTileEntitiesInRange(0, 0, Math.max(room.getWidth(), room.getHeight()), new ArrayList<Entity>())) {
+            if (entity instanceof Chest) {
+                for (Item inside : ((Chest) entity).getItemsInside()) {
+                    if (inside instanceof Key) found.add(((Key) inside).getKeyId());
+                }
+            }
+        }
+        return found.isEmpty() ? Collections.<String>emptyList() : found;
+    }
+}
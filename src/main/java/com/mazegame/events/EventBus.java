@@ -0,0 +1,94 @@
+package com.mazegame.events;
+
+import com.mazegame.characters.LivingBeing;
+import com.mazegame.core.Door;
+import com.mazegame.core.Room;
+import com.mazegame.items.Item;
+import com.mazegame.items.Lever;
+
+import java.util.Arrays;
+
+/**
+ * Synchronous event bus owned by World (World.getEventBus()).
+ *
+ * Firing an event is a loop over an array of listeners with the event's values as arguments:
+ * no event objects, no iterator, nothing to box. Subscribing copies the array, which is fine
+ * because it happens a handful of times per game. Listeners may subscribe/unsubscribe while an
+ * event is being delivered; that delivery still goes to the old set.
+ */
+public class EventBus {
+    private static final GameListener[] NONE = new GameListener[0];
+
+    private volatile GameListener[] listeners = NONE;
+
+    public synchronized void subscribe(GameListener listener) {
+        if (listener == null) {
+            throw new IllegalArgumentException("listener can't be null");
+        }
+        GameListener[] current = listeners;
+        GameListener[] updated = Arrays.copyOf(current, current.length + 1);
+        updated[current.length] = listener;
+        listeners = updated;
+    }
+
+    /** @return true if it was subscribed */
+    public synchronized boolean unsubscribe(GameListener listener) {
+        GameListener[] current = listeners;
+        for (int i = 0; i < current.length; i++) {
+            if (current[i] == listener) {
+                GameListener[] updated = new GameListener[current.length - 1];
+                System.arraycopy(current, 0, updated, 0, i);
+                System.arraycopy(current, i + 1, updated, i, current.length - i - 1);
+                listeners = updated;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public int getListenerCount() {
+        return listeners.length;
+    }
+
+    public void fireDamage(LivingBeing being, int amount) {
+        for (GameListener listener : listeners) {
+            listener.onDamage(being, amount);
+        }
+    }
+
+    public void fireDeath(LivingBeing being) {
+        for (GameListener listener : listeners) {
+            listener.onDeath(being);
+        }
+    }
+
+    public void fireDoorChanged(Door door) {
+        for (GameListener listener : listeners) {
+            listener.onDoorChanged(door);
+        }
+    }
+
+    public void fireItemPickedUp(LivingBeing being, Item item) {
+        for (GameListener listener : listeners) {
+            listener.onItemPickedUp(being, item);
+        }
+    }
+
+    public void fireLeverToggled(Lever lever) {
+        for (GameListener listener : listeners) {
+            listener.onLeverToggled(lever);
+        }
+    }
+
+    public void fireRoomChanged(LivingBeing being, Room from, Room to) {
+        for (GameListener listener : listeners) {
+            listener.onRoomChanged(being, from, to);
+        }
+    }
+
+    public void fireGameEnded(boolean playerWon) {
+        for (GameListener listener : listeners) {
+            listener.onGameEnded(playerWon);
+        }
+    }
+}
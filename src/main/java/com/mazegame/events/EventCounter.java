@@ -0,0 +1,60 @@
+package com.mazegame.events;
+
+import com.mazegame.characters.LivingBeing;
+import com.mazegame.characters.Player;
+import com.mazegame.core.Door;
+import com.mazegame.core.Room;
+import com.mazegame.items.Item;
+import com.mazegame.items.Lever;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts events for run summaries (HeadlessSimulation prints it at the end).
+ * LongAdders because with parallel ticking events can come from several threads.
+ */
+public class EventCounter implements GameListener {
+    private final LongAdder damageEvents = new LongAdder();
+    private final LongAdder damageToPlayer = new LongAdder();
+    private final LongAdder deaths = new LongAdder();
+    private final LongAdder doorChanges = new LongAdder();
+    private final LongAdder pickups = new LongAdder();
+    private final LongAdder leverPulls = new LongAdder();
+    private final LongAdder roomChanges = new LongAdder();
+
+    @Override
+    public void onDamage(LivingBeing being, int amount) {
+        damageEvents.increment();
+        if (being instanceof Player) damageToPlayer.add(amount);
+    }
+
+    @Override
+    public void onDeath(LivingBeing being) { deaths.increment(); }
+
+    @Override
+    public void onDoorChanged(Door door) { doorChanges.increment(); }
+
+    @Override
+    public void onItemPickedUp(LivingBeing being, Item item) { pickups.increment(); }
+
+    @Override
+    public void onLeverToggled(Lever lever) { leverPulls.increment(); }
+
+    @Override
+    public void onRoomChanged(LivingBeing being, Room from, Room to) { roomChanges.increment(); }
+
+    public long getDamageEvents() { return damageEvents.sum(); }
+    public long getDamageToPlayer() { return damageToPlayer.sum(); }
+    public long getDeaths() { return deaths.sum(); }
+    public long getDoorChanges() { return doorChanges.sum(); }
+    public long getPickups() { return pickups.sum(); }
+    public long getLeverPulls() { return leverPulls.sum(); }
+    public long getRoomChanges() { return roomChanges.sum(); }
+
+    @Override
+    public String toString() {
+        return "hits=" + getDamageEvents() + " (player lost " + getDamageToPlayer() + " HP), deaths=" + getDeaths() +
+               ", doors=" + getDoorChanges() + ", pickups=" + getPickups() + ", levers=" + getLeverPulls() +
+               ", room changes=" + getRoomChanges();
+    }
+}
@@ -0,0 +1,38 @@
+package com.mazegame.events;
+
+import com.mazegame.characters.LivingBeing;
+import com.mazegame.core.Door;
+import com.mazegame.core.Room;
+import com.mazegame.items.Item;
+import com.mazegame.items.Lever;
+
+/**
+ * Receives game events from an EventBus. Every method does nothing by default, so a listener
+ * only overrides what it cares about (like a Swing KeyAdapter).
+ *
+ * Events are delivered on the thread that caused them, right after the change. That's the game
+ * thread, except that with parallel ticking, rooms other than the player's run on pool threads.
+ * Listeners that hand work to the EDT should just set a flag or post it.
+ */
+public interface GameListener {
+    /** being lost 'amount' health; getHealth() is already the new value. */
+    default void onDamage(LivingBeing being, int amount) {}
+
+    /** Health reached 0. Sent before the being is removed from the world. */
+    default void onDeath(LivingBeing being) {}
+
+    /** A door was opened, closed, locked or unlocked. */
+    default void onDoorChanged(Door door) {}
+
+    /** being picked 'item' up from the floor. */
+    default void onItemPickedUp(LivingBeing being, Item item) {}
+
+    /** lever was pulled; isActive() is already the new state. */
+    default void onLeverToggled(Lever lever) {}
+
+    /** being moved from one room to another (either may be null). */
+    default void onRoomChanged(LivingBeing being, Room from, Room to) {}
+
+    /** The game ended: the player died (playerWon false) or escaped. Sent once. */
+    default void onGameEnded(boolean playerWon) {}
+}
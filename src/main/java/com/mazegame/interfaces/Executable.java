@@ -1,5 +1,14 @@
 package com.mazegame.interfaces;
 
+import com.mazegame.simulation.SimulationClock;
+
 public interface Executable {
-    void execute(); // Perform an action this turn/update
-}
\ No newline at end of file
+    void execute(SimulationClock clock); // Perform an action this turn/update; read time from the clock, never the system
+
+    /**
+     * Called once when the room this lives in becomes active again after being skipped for a
+     * while, instead of replaying every missed execute(). Default: nothing to catch up.
+     */
+    default void catchUp(SimulationClock clock) {
+    }
+}
@@ -0,0 +1,16 @@
+package com.mazegame.interfaces;
+
+import com.mazegame.simulation.PlayerCommand;
+
+/**
+ * Supplies the player's command for each simulation tick.
+ * The Swing frame, scripted test inputs and automated playthroughs all plug in here
+ * instead of talking to World directly.
+ */
+public interface InputSource {
+    /**
+     * @param tick the tick about to be simulated (0-based)
+     * @return the command to apply this tick, or PlayerCommand.NONE to just let the world advance
+     */
+    PlayerCommand nextCommand(long tick);
+}
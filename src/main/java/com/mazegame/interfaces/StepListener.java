@@ -0,0 +1,11 @@
+package com.mazegame.interfaces;
+
+import com.mazegame.core.World;
+
+/**
+ * Told by SimulationEngine after every step (a tick, a turn, or a command that cost no turn),
+ * on the thread that runs the simulation. The renderer uses it to publish a snapshot.
+ */
+public interface StepListener {
+    void stepCompleted(World world);
+}
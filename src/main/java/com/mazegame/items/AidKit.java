@@ -3,9 +3,11 @@ package com.mazegame.items;
 import com.mazegame.core.World;
 import com.mazegame.characters.LivingBeing;
 import com.mazegame.utils.Position;
-import com.mazegame.utils.SpriteManager;
+import com.mazegame.ui.SpriteManager;
+import com.mazegame.logging.GameLogger;
 
 public class AidKit extends Item {
+    private static final GameLogger LOG = GameLogger.getLogger(AidKit.class);
     private int healAmount;
 
     public AidKit(String name, World world, Position position, int healAmount) {
@@ -13,6 +15,10 @@ public class AidKit extends Item {
         this.healAmount = healAmount;
     }
 
+    public int getHealAmount() {
+        return healAmount;
+    }
+
     @Override
     public void use(LivingBeing user) {
         if (user == null) return;
@@ -20,7 +26,7 @@ public class AidKit extends Item {
         int before = user.getHealth();
         user.heal(healAmount);
         int after = user.getHealth();
-        System.out.println(user.getName() + " used " + getName() + " and healed for " + (after - before) + " (now " + after + "/" + user.getMaxHealth() + ")");
+        LOG.info(user.getName() + " used " + getName() + " and healed for " + (after - before) + " (now " + after + "/" + user.getMaxHealth() + ")");
         user.getInventory().remove(this);
         if (world != null) world.removeEntity(this);
     }
@@ -29,7 +35,7 @@ public class AidKit extends Item {
     protected void loadSprite() {
         this.sprite = SpriteManager.getSprite("aid_kit.png");
         if (this.sprite == null) {
-            System.out.println("Warning: Could not load sprite for aid kit");
+            LOG.warn("Warning: Could not load sprite for aid kit");
         }
     }
 }
\ No newline at end of file
@@ -3,8 +3,10 @@ package com.mazegame.items;
 import com.mazegame.core.World;
 import com.mazegame.characters.LivingBeing;
 import com.mazegame.utils.Position;
+import com.mazegame.logging.GameLogger;
 
 public class Ammo extends Item {
+    private static final GameLogger LOG = GameLogger.getLogger(Ammo.class);
     private int quantity;
     private String ammoType; // e.g., "pistol_rounds", "shotgun_shells" - for future if multiple guns
 
@@ -34,7 +36,7 @@ public class Ammo extends Item {
                 // Check if the gun uses this type of ammo
                 if (gun.getRequiredAmmoType().equals(this.ammoType)) {
                     gun.addAmmo(this.quantity);
-                    System.out.println(user.getName() + " reloaded " + gun.getName() + " with " + this.quantity + " " + this.name + ".");
+                    LOG.info(user.getName() + " reloaded " + gun.getName() + " with " + this.quantity + " " + this.name + ".");
                     ammoUsed = true;
                     break; // Stop after reloading one gun
                 }
@@ -47,7 +49,7 @@ public class Ammo extends Item {
                 world.removeEntity(this);
             }
         } else {
-            System.out.println(user.getName() + " has no compatible gun to reload with " + this.name + ".");
+            LOG.info(user.getName() + " has no compatible gun to reload with " + this.name + ".");
         }
     }
 }
\ No newline at end of file
@@ -8,6 +8,7 @@ import com.mazegame.characters.LivingBeing;
 import com.mazegame.interfaces.Activatable;
 import com.mazegame.utils.Position;
 import com.mazegame.ui.SpriteManager; // Make sure this is imported
+import com.mazegame.logging.GameLogger;
 
 import java.awt.Image;
 import java.util.ArrayList;
@@ -16,6 +17,7 @@ import java.awt.Graphics;
 import java.awt.Color; // For placeholder
 
 public class Chest extends Item implements Activatable { // Item extends Entity
+    private static final GameLogger LOG = GameLogger.getLogger(Chest.class);
     private List<Item> objectsInside;
     private boolean locked;
     private String keyId;
@@ -47,7 +49,7 @@ public class Chest extends Item implements Activatable { // Item extends Entity
         this.spriteChestOpen = SpriteManager.getSprite("chest_open.png");
         this.spriteChestClosed = SpriteManager.getSprite("chest_closed.png");
         if (this.spriteChestOpen == null || this.spriteChestClosed == null) {
-            System.err.println("Warning: Chest sprites not loaded for " + getName());
+            LOG.warn("Warning: Chest sprites not loaded for " + getName());
         }
         this.sprite = this.spriteChestClosed; // Set initial default sprite for Entity superclass if used
 
@@ -59,11 +61,11 @@ public class Chest extends Item implements Activatable { // Item extends Entity
                 chestTile.setType(Tile.TileType.CHEST);
                 chestTile.setWalkable(false); // Can't walk on a chest
             } else {
-                 System.err.println("Chest Constructor: Tile at " + this.position + " in room " + this.room.getName() + " is null.");
+                 LOG.warn("Chest Constructor: Tile at " + this.position + " in room " + this.room.getName() + " is null.");
             }
         } else {
-            if(this.room == null) System.err.println("Chest Constructor: Room is null for " + getName());
-            if(this.position == null) System.err.println("Chest Constructor: Position is null for " + getName());
+            if(this.room == null) LOG.warn("Chest Constructor: Room is null for " + getName());
+            if(this.position == null) LOG.warn("Chest Constructor: Position is null for " + getName());
         }
     }
 
@@ -76,10 +78,22 @@ public class Chest extends Item implements Activatable { // Item extends Entity
         return this.keyId;
     }
 
+    public Room getRoom() {
+        return room;
+    }
+
+    /** Sets lock and lid as saved, without the usual open/unlock side effects. Used when loading a game. */
+    public void restoreState(boolean locked, boolean open) {
+        this.locked = locked;
+        this.isOpen = open;
+        markChanged();
+    }
+
     public void unlock() {
         if (this.locked) {
             this.locked = false;
-            System.out.println(getName() + " has been unlocked.");
+            markChanged();
+            LOG.info(getName() + " has been unlocked.");
             // No direct sprite change here; draw method handles visual based on isOpen and isLocked
         }
     }
@@ -87,12 +101,13 @@ public class Chest extends Item implements Activatable { // Item extends Entity
     @Override
     public void open() { // Generic Activatable open (e.g., triggered by puzzle)
         if (isLocked()) {
-            System.out.println(getName() + " is locked. Cannot open generic.");
+            LOG.info(getName() + " is locked. Cannot open generic.");
             return;
         }
         if (!isOpen) {
             isOpen = true;
-            System.out.println(getName() + " opened (generic).");
+            markChanged();
+            LOG.info(getName() + " opened (generic).");
             // If opened generically, items might just spill or need a default interaction
             // For now, this just marks it open. The player interaction one is more detailed.
         }
@@ -102,50 +117,51 @@ public class Chest extends Item implements Activatable { // Item extends Entity
         if (user == null) { // e.g. if forced open by crowbar where user might be null
             open(); // Call the generic open
             if (isOpen && !objectsInside.isEmpty()) { // If successfully opened and has items
-                System.out.println(getName() + " forced open, items spill out (conceptually):");
+                LOG.info(getName() + " forced open, items spill out (conceptually):");
                 // Logic to spill items into the room
                 for (Item item : new ArrayList<>(objectsInside)) {
-                    System.out.println("- " + item.getName());
+                    LOG.info("- " + item.getName());
                     // For simplicity, just log. To actually spill:
                     // item.setOwner(null);
                     // item.setPosition(new Position(this.position.getX(), this.position.getY() + 1)); // Below chest
                     // this.room.addItem(item); // Add to room's floor items
                 }
                 // objectsInside.clear(); // Clear after spilling, or not if they remain "in" the broken chest
-                System.out.println("Items from forced " + getName() + " would need to be picked up from the room.");
+                LOG.info("Items from forced " + getName() + " would need to be picked up from the room.");
             } else if (isOpen && objectsInside.isEmpty()){
-                 System.out.println(getName() + " forced open and is empty.");
+                 LOG.info(getName() + " forced open and is empty.");
             }
             return;
         }
 
         if (isLocked()) {
-            System.out.println(getName() + " is locked. " + user.getName() + " cannot open it.");
+            LOG.info(getName() + " is locked. " + user.getName() + " cannot open it.");
             return;
         }
         if (!isOpen) {
             isOpen = true;
-            System.out.println(user.getName() + " opens " + getName() + ".");
+            markChanged();
+            LOG.info(user.getName() + " opens " + getName() + ".");
             // updateSpriteState(); // Not needed if draw() handles it
 
             if (objectsInside.isEmpty()) {
-                System.out.println(getName() + " is empty.");
+                LOG.info(getName() + " is empty.");
             } else {
-                System.out.println(getName() + " contains:");
+                LOG.info(getName() + " contains:");
                 for (Item item : new ArrayList<>(objectsInside)) {
-                    System.out.println("- " + item.getName());
+                    LOG.info("- " + item.getName());
                     if (user.getInventory().add(item)) { // Add to player's inventory
                         item.setOwner(user);
                         item.setPosition(null);
-                        System.out.println(item.getName() + " added to " + user.getName() + "'s inventory.");
+                        LOG.info(item.getName() + " added to " + user.getName() + "'s inventory.");
                     } else {
-                        System.out.println("Could not add " + item.getName() + " to " + user.getName() + "'s inventory (maybe full?).");
+                        LOG.info("Could not add " + item.getName() + " to " + user.getName() + "'s inventory (maybe full?).");
                     }
                 }
                 objectsInside.clear(); // Empty the chest after player takes items
             }
         } else {
-             System.out.println(getName() + " is already open.");
+             LOG.info(getName() + " is already open.");
         }
     }
 
@@ -153,7 +169,8 @@ public class Chest extends Item implements Activatable { // Item extends Entity
     public void close() {
         if (isOpen) {
             isOpen = false;
-            System.out.println(getName() + " closed.");
+            markChanged();
+            LOG.info(getName() + " closed.");
             // this.locked = true; // Option: Re-lock if it had a keyId
             // updateSpriteState(); // Not needed
         }
@@ -171,13 +188,16 @@ public class Chest extends Item implements Activatable { // Item extends Entity
     public void addItemInside(Item item) {
         if (item != null) {
             objectsInside.add(item);
+            markChanged();
             item.setOwner(null);
             item.setPosition(null);
         }
     }
 
     public void removeItemInside(Item item) { // Renamed for clarity from diagram's removeObject
-        objectsInside.remove(item);
+        if (objectsInside.remove(item)) {
+            markChanged();
+        }
     }
 
     public boolean isTreasureChest() { // Renamed for clarity from diagram's isTreasure
@@ -200,19 +220,20 @@ public class Chest extends Item implements Activatable { // Item extends Entity
     // From Activatable (ensure Activatable interface declares this)
     public void forceOpen() {
         if (canBeForcedOpen() && isLocked()) {
-            System.out.println(getName() + " is being forced open!");
+            LOG.info(getName() + " is being forced open!");
             this.locked = false; // Unlock it
             this.isOpen = true;  // Mark as open
-            System.out.println(getName() + " has been forced open.");
+            markChanged();
+            LOG.info(getName() + " has been forced open.");
             // updateSpriteState(); // Not needed
             // The items are not automatically given to player here. Player must interact again with 'E'.
             // Or, if forcing *also* spills items, call open(null) like before,
             // but open(LivingBeing user) needs robust handling for user == null.
             // For now, forcing just unlocks and opens it. Player E to loot.
         } else if (!isLocked()) {
-            System.out.println(getName() + " is already unlocked/open, no need to force.");
+            LOG.info(getName() + " is already unlocked/open, no need to force.");
         } else {
-            System.out.println(getName() + " cannot be forced.");
+            LOG.info(getName() + " cannot be forced.");
         }
     }
 
@@ -227,13 +248,27 @@ public class Chest extends Item implements Activatable { // Item extends Entity
         // For now, leave empty or remove.
     }
 
+    private static final int VISUAL_OPEN = 1;
+    private static final int VISUAL_LOCKED = 2;
+
     /**
      * Draws the chest at the given screen coordinates, using its current state.
      * This method is called by Tile.draw() if this Chest instance is the entityOnTile.
      */
     @Override
     public void draw(Graphics g, int screenX, int screenY, int tilePixelWidth, int tilePixelHeight) {
-        Image spriteToDraw = this.isOpen ? this.spriteChestOpen : this.spriteChestClosed;
+        drawVisualState(g, getVisualState(), screenX, screenY, tilePixelWidth, tilePixelHeight);
+    }
+
+    @Override
+    public int getVisualState() {
+        return (isOpen ? VISUAL_OPEN : 0) | (isLocked() ? VISUAL_LOCKED : 0);
+    }
+
+    @Override
+    public void drawVisualState(Graphics g, int visualState, int screenX, int screenY, int tilePixelWidth, int tilePixelHeight) {
+        boolean open = (visualState & VISUAL_OPEN) != 0;
+        Image spriteToDraw = open ? this.spriteChestOpen : this.spriteChestClosed;
 
         if (spriteToDraw != null) {
             g.drawImage(spriteToDraw,
@@ -242,7 +277,7 @@ public class Chest extends Item implements Activatable { // Item extends Entity
                     tilePixelWidth, tilePixelHeight, null);
         } else {
             // Fallback placeholder drawing AT screenX, screenY
-            Color chestColor = isOpen ? Color.CYAN : (isLocked() ? Color.MAGENTA.darker() : Color.ORANGE.darker());
+            Color chestColor = open ? Color.CYAN : ((visualState & VISUAL_LOCKED) != 0 ? Color.MAGENTA.darker() : Color.ORANGE.darker());
             g.setColor(chestColor);
             g.fillRect(screenX + tilePixelWidth / 4,
                        screenY + tilePixelHeight / 4,
@@ -7,9 +7,11 @@ import com.mazegame.core.World;
 import com.mazegame.characters.LivingBeing;
 import com.mazegame.interfaces.Activatable;
 import com.mazegame.utils.Position;
+import com.mazegame.logging.GameLogger;
 // import com.mazegame.ui.SpriteManager;
 
 public class Crowbar extends Item {
+    private static final GameLogger LOG = GameLogger.getLogger(Crowbar.class);
     private int durability;
     private static final int MAX_DURABILITY = 5; // Example: 5 uses
 
@@ -23,18 +25,24 @@ public class Crowbar extends Item {
         return durability;
     }
 
+    // Loading a save
+    public void setDurability(int durability) {
+        this.durability = Math.max(0, Math.min(durability, MAX_DURABILITY));
+        markChanged();
+    }
+
     @Override
     public void use(LivingBeing user) {
-        System.out.println("Crowbar.use() called by: " + user.getName() + " for item: " + this.getName()); // VERY FIRST LINE
+        LOG.debug(() -> "Crowbar.use() called by: " + user.getName() + " for item: " + this.getName());
 
         if (durability <= 0) {
-            System.out.println(getName() + " is broken!");
+            LOG.info(getName() + " is broken!");
             user.getInventory().remove(this); // Optionally remove if found broken in inventory
             if (world != null) world.removeEntity(this);
             return;
         }
 
-        System.out.println(user.getName() + " tries to use " + getName() + " (Durability: " + durability + "/" + MAX_DURABILITY + ")");
+        LOG.info(user.getName() + " tries to use " + getName() + " (Durability: " + durability + "/" + MAX_DURABILITY + ")");
         boolean actionTakenOnObject = false;
 
         // Iterate through adjacent tiles to find a target
@@ -51,31 +59,31 @@ public class Crowbar extends Item {
                     // Check if it's a Door
                     if (entityOnTile instanceof Door) {
                         Door door = (Door) entityOnTile;
-                        System.out.println("  Crowbar found adjacent Door: " + door.getName() + ", Locked: " + door.isLocked() + ", Forceable: " + door.canBeForcedOpen());
+                        LOG.debug(() -> "  Crowbar found adjacent Door: " + door.getName() + ", Locked: " + door.isLocked() + ", Forceable: " + door.canBeForcedOpen());
                         if (door.isLocked() && door.canBeForcedOpen()) {
                             door.forceOpen();
-                            System.out.println("  SUCCESS: " + getName() + " forced open " + door.getName() + "!");
+                            LOG.info("  SUCCESS: " + getName() + " forced open " + door.getName() + "!");
                             actionTakenOnObject = true;
                             break;
                         } else if (!door.isLocked()) {
-                            System.out.println("  INFO: " + door.getName() + " is already open/unlocked.");
+                            LOG.info("  INFO: " + door.getName() + " is already open/unlocked.");
                         } else {
-                            System.out.println("  FAIL: " + door.getName() + " cannot be forced open by a crowbar.");
+                            LOG.info("  FAIL: " + door.getName() + " cannot be forced open by a crowbar.");
                         }
                     }
                     // Check if it's a Chest
                     else if (entityOnTile instanceof Chest) {
                         Chest chest = (Chest) entityOnTile;
-                        System.out.println("  Crowbar found adjacent Chest: " + chest.getName() + ", Locked: " + chest.isLocked() + ", Forceable: " + chest.canBeForcedOpen());
+                        LOG.debug(() -> "  Crowbar found adjacent Chest: " + chest.getName() + ", Locked: " + chest.isLocked() + ", Forceable: " + chest.canBeForcedOpen());
                         if (chest.isLocked() && chest.canBeForcedOpen()) {
                             chest.forceOpen();
-                            System.out.println("  SUCCESS: " + getName() + " forced open " + chest.getName() + "!");
+                            LOG.info("  SUCCESS: " + getName() + " forced open " + chest.getName() + "!");
                             actionTakenOnObject = true;
                             break;
                         } else if (!chest.isLocked()) {
-                            System.out.println("  INFO: " + chest.getName() + " is already unlocked/open.");
+                            LOG.info("  INFO: " + chest.getName() + " is already unlocked/open.");
                         } else {
-                            System.out.println("  FAIL: " + chest.getName() + " cannot be forced open by a crowbar.");
+                            LOG.info("  FAIL: " + chest.getName() + " cannot be forced open by a crowbar.");
                         }
                     }
                     if (actionTakenOnObject) break;
@@ -86,14 +94,15 @@ public class Crowbar extends Item {
 
         if (actionTakenOnObject) {
             this.durability--;
-            System.out.println("  " + getName() + " durability: " + this.durability + "/" + MAX_DURABILITY);
+            markChanged();
+            LOG.info("  " + getName() + " durability: " + this.durability + "/" + MAX_DURABILITY);
             if (this.durability <= 0) {
-                System.out.println("  " + getName() + " broke!");
+                LOG.info("  " + getName() + " broke!");
                 user.getInventory().remove(this);
                 if (world != null) world.removeEntity(this);
             }
         } else {
-            System.out.println("  Nothing nearby that is locked and can be forced open with " + getName() + ".");
+            LOG.info("  Nothing nearby that is locked and can be forced open with " + getName() + ".");
         }
     }
 }
\ No newline at end of file
@@ -6,9 +6,11 @@ import com.mazegame.characters.LivingBeing;
 import com.mazegame.characters.NPC;
 import com.mazegame.characters.Player;
 import com.mazegame.utils.Position;
+import com.mazegame.logging.GameLogger;
 // import com.mazegame.ui.SpriteManager;
 
 public class Gun extends Item {
+    private static final GameLogger LOG = GameLogger.getLogger(Gun.class);
     private int damage;
     private int currentAmmo;
     private int maxAmmoCapacity;
@@ -31,9 +33,24 @@ public class Gun extends Item {
         return requiredAmmoType;
     }
 
+    // Loading a save
+    public void setCurrentAmmo(int ammo) {
+        this.currentAmmo = Math.max(0, Math.min(ammo, this.maxAmmoCapacity));
+        markChanged();
+    }
+
     public void addAmmo(int amount) {
         this.currentAmmo = Math.min(this.currentAmmo + amount, this.maxAmmoCapacity);
-        System.out.println(getName() + " ammo: " + currentAmmo + "/" + maxAmmoCapacity);
+        markChanged();
+        LOG.info(getName() + " ammo: " + currentAmmo + "/" + maxAmmoCapacity);
+    }
+
+    public int getDamage() {
+        return damage;
+    }
+
+    public int getRange() {
+        return range;
     }
 
     public int getCurrentAmmo() {
@@ -50,7 +67,7 @@ public class Gun extends Item {
     @Override
     public void use(LivingBeing user) {
         if (currentAmmo <= 0) {
-            System.out.println(getName() + " is out of ammo! Click-click.");
+            LOG.info(getName() + " is out of ammo! Click-click.");
             return;
         }
 
@@ -68,9 +85,10 @@ public class Gun extends Item {
             for (int dx = -1; dx <= 1; dx++) {
                 if (dx == 0 && dy == 0) continue; // Skip self
 
-                Position adjacentPos = new Position(user.getPosition().getX() + dx, user.getPosition().getY() + dy);
-                for (LivingBeing beingInRoom : currentRoom.getLivingBeingsInRoom()) {
-                    if (beingInRoom.getPosition().equals(adjacentPos) && beingInRoom != user) {
+                int adjacentX = user.getPosition().getX() + dx;
+                int adjacentY = user.getPosition().getY() + dy;
+                for (LivingBeing beingInRoom : currentRoom.getLivingBeingsAt(adjacentX, adjacentY)) {
+                    if (beingInRoom != user) {
                         // Found a being on an adjacent tile that isn't the user
                         if ((user instanceof Player && beingInRoom instanceof NPC) ||
                             (user instanceof NPC && beingInRoom instanceof Player)) { // Ensure it's an enemy
@@ -86,22 +104,23 @@ public class Gun extends Item {
 
 
         if (targetToShoot != null) {
-            System.out.println(user.getName() + " fires " + getName() + " at " + targetToShoot.getName() + "!");
+            LOG.info(user.getName() + " fires " + getName() + " at " + targetToShoot.getName() + "!");
             targetToShoot.takeDamage(this.damage);
             this.currentAmmo--;
-            System.out.println(getName() + " ammo: " + currentAmmo + "/" + maxAmmoCapacity);
+            markChanged();
+            LOG.info(getName() + " ammo: " + currentAmmo + "/" + maxAmmoCapacity);
 
             if (targetToShoot.getHealth() <= 0 && world != null) {
                 // Target might die, world.update() usually handles removal from executables.
                 // If not, ensure target is properly removed or marked as dead here or in takeDamage.
-                 System.out.println(targetToShoot.getName() + " was defeated by " + user.getName() + "'s " + getName() + "!");
+                 LOG.info(targetToShoot.getName() + " was defeated by " + user.getName() + "'s " + getName() + "!");
             }
 
         } else {
-            System.out.println(user.getName() + " fires " + getName() + " but hits nothing nearby.");
+            LOG.info(user.getName() + " fires " + getName() + " but hits nothing nearby.");
             // Could still consume ammo for a missed shot if desired
             // this.currentAmmo--;
-            // System.out.println(getName() + " ammo: " + currentAmmo + "/" + maxAmmoCapacity);
+            // LOG.info(getName() + " ammo: " + currentAmmo + "/" + maxAmmoCapacity);
         }
     }
 
@@ -39,6 +39,7 @@ public abstract class Item extends Entity {
 
     public void setOwner(LivingBeing owner) {
         this.owner = owner;
+        markChanged();
         // If item is picked up (has owner), clear its position
         if (owner != null) {
             setPosition(null);
@@ -74,6 +75,19 @@ public abstract class Item extends Entity {
         // If owned, it's in inventory, typically not drawn on the map this way.
     }
 
+    // Snapshots only hold items lying on the floor, so no owner check here
+    @Override
+    public void drawVisualState(Graphics g, int visualState, int screenX, int screenY, int tilePixelWidth, int tilePixelHeight) {
+        if (this.sprite != null) {
+            g.drawImage(this.sprite, screenX, screenY, tilePixelWidth, tilePixelHeight, null);
+        } else {
+            g.setColor(Color.GREEN);
+            g.fillRect(screenX + tilePixelWidth / 3,
+                       screenY + tilePixelHeight / 3,
+                       tilePixelWidth / 3, tilePixelHeight / 3);
+        }
+    }
+
     protected void drawPlaceholder(Graphics g, int screenX, int screenY, int width, int height) {
         g.setColor(Color.GREEN);
         int margin = width / 3;
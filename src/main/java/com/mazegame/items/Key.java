@@ -7,9 +7,11 @@ import com.mazegame.core.World;
 import com.mazegame.characters.LivingBeing;
 import com.mazegame.interfaces.Activatable;
 import com.mazegame.utils.Position;
-import com.mazegame.utils.SpriteManager;
+import com.mazegame.ui.SpriteManager;
+import com.mazegame.logging.GameLogger;
 
 public class Key extends Item {
+    private static final GameLogger LOG = GameLogger.getLogger(Key.class);
     private final String keyId;  // Made final since it shouldn't change
 
     public Key(String name, World world, Position position, String keyId) {
@@ -23,7 +25,7 @@ public class Key extends Item {
 
     @Override
     public void use(LivingBeing user) {
-        System.out.println(user.getName() + " tries to use " + getName() + " (Key's ID: " + this.keyId + ")");
+        LOG.info(user.getName() + " tries to use " + getName() + " (Key's ID: " + this.keyId + ")");
         boolean foundTarget = false;
         boolean unlockedSomething = false;
 
@@ -39,7 +41,7 @@ public class Key extends Item {
                     if (entityOnTile instanceof Activatable) {
                         foundTarget = true;
                         Activatable activatable = (Activatable) entityOnTile;
-                        System.out.println("  Found activatable nearby: " + entityOnTile.getName());
+                        LOG.debug(() -> "  Found activatable nearby: " + entityOnTile.getName());
 
                         if (activatable.isLocked()) {
                             String targetKeyId = null;
@@ -62,26 +64,26 @@ public class Key extends Item {
                             }
 
                             if (canUnlock) {
-                                System.out.println("  SUCCESS: " + getName() + " successfully unlocked " + entityOnTile.getName());
+                                LOG.info("  SUCCESS: " + getName() + " successfully unlocked " + entityOnTile.getName());
                                 // Optional: consume key
                                 // user.getInventory().remove(this);
                                 // if (world != null) world.removeEntity(this);
                                 unlockedSomething = true;
                                 return;
                             } else {
-                                System.out.println("  FAIL: Key ID '" + this.keyId + "' does not match " + entityOnTile.getName() + " (requires ID '" + targetKeyId + "')");
+                                LOG.info("  FAIL: Key ID '" + this.keyId + "' does not match " + entityOnTile.getName() + " (requires ID '" + targetKeyId + "')");
                             }
                         } else {
-                            System.out.println("  INFO: " + entityOnTile.getName() + " is already unlocked.");
+                            LOG.info("  INFO: " + entityOnTile.getName() + " is already unlocked.");
                         }
                     }
                 }
             }
         }
         if (!foundTarget) {
-            System.out.println("  No activatable objects found nearby to use " + getName() + " on.");
+            LOG.info("  No activatable objects found nearby to use " + getName() + " on.");
         } else if (!unlockedSomething) {
-            System.out.println("  " + getName() + " could not be used on any nearby locked objects requiring its specific ID, or they were already unlocked.");
+            LOG.info("  " + getName() + " could not be used on any nearby locked objects requiring its specific ID, or they were already unlocked.");
         }
     }
 
@@ -89,7 +91,7 @@ public class Key extends Item {
     protected void loadSprite() {
         this.sprite = SpriteManager.getSprite("key.png");
         if (this.sprite == null) {
-            System.out.println("Warning: Could not load sprite for key");
+            LOG.warn("Warning: Could not load sprite for key");
         }
     }
 
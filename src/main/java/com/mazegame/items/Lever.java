@@ -6,32 +6,34 @@ import com.mazegame.interfaces.Activatable;
 import com.mazegame.puzzles.PuzzleController;
 import com.mazegame.ui.SpriteManager;
 import com.mazegame.utils.Position;
+import com.mazegame.logging.GameLogger;
 
 import java.awt.Graphics;
 import java.awt.Image;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 public class Lever extends Entity implements Activatable {
+    private static final GameLogger LOG = GameLogger.getLogger(Lever.class);
     private boolean isActive;
     private Image spriteOn;
     private Image spriteOff;
-    private PuzzleController controller; // Reference to an object that checks puzzle state
+    private final List<PuzzleController> controllers = new ArrayList<>(); // Puzzles this lever is part of
 
     public Lever(String name, World world, Position position, PuzzleController controller, boolean initiallyActive) {
         super(name, world, position);
         this.isActive = initiallyActive;
-        this.controller = controller;
         // Assuming you have sprites: "lever_on.png" and "lever_off.png"
         this.spriteOn = SpriteManager.getSprite("lever_on.png");
         this.spriteOff = SpriteManager.getSprite("lever_off.png");
 
         if (this.spriteOn == null || this.spriteOff == null) {
-            System.err.println("Warning: Lever sprites not loaded for " + name);
+            LOG.warn("Warning: Lever sprites not loaded for " + name);
         }
         // Register with the controller if it exists
-        if (this.controller != null) {
-            this.controller.registerLever(this);
+        if (controller != null) {
+            controller.registerLever(this);
         }
     }
 
@@ -39,12 +41,38 @@ public class Lever extends Entity implements Activatable {
         return isActive;
     }
 
+    /**
+     * Sets the lever as saved without telling its puzzles; PuzzleController.restoreProgress()
+     * recounts them afterwards. Used when applying a checkpoint.
+     */
+    public void restoreState(boolean active) {
+        this.isActive = active;
+        markChanged();
+    }
+
+    public List<PuzzleController> getControllers() {
+        return Collections.unmodifiableList(controllers);
+    }
+
+    /** Called by PuzzleController.registerLever(); a lever can be in several puzzles. */
+    public void addController(PuzzleController controller) {
+        if (controller != null && !controllers.contains(controller)) {
+            controllers.add(controller);
+        }
+    }
+
     // When player interacts with the lever
     public void pull() {
         isActive = !isActive; // Toggle state
-        System.out.println(getName() + " is now " + (isActive ? "ON" : "OFF"));
-        if (controller != null) {
-            controller.checkPuzzleState(); // Notify controller to check if puzzle is solved
+        markChanged();
+        LOG.info(getName() + " is now " + (isActive ? "ON" : "OFF"));
+        // Our own controllers are told directly: each updates in O(1), no matter how many
+        // other puzzles and levers there are
+        for (int i = 0; i < controllers.size(); i++) {
+            controllers.get(i).onLeverToggled(this);
+        }
+        if (world != null) {
+            world.getEventBus().fireLeverToggled(this);
         }
     }
 
@@ -70,12 +98,23 @@ public class Lever extends Entity implements Activatable {
 
     public void forceOpen() {
         // Forcing a lever doesn't make sense in this context
-        System.out.println(getName() + " cannot be forced.");
+        LOG.info(getName() + " cannot be forced.");
+    }
+
+    @Override
+    public int getVisualState() {
+        return isActive ? 1 : 0;
     }
 
     @Override
     public void draw(Graphics g, int screenX, int screenY, int tilePixelWidth, int tilePixelHeight) {
-        Image currentSprite = isActive ? spriteOn : spriteOff;
+        drawVisualState(g, getVisualState(), screenX, screenY, tilePixelWidth, tilePixelHeight);
+    }
+
+    @Override
+    public void drawVisualState(Graphics g, int visualState, int screenX, int screenY, int tilePixelWidth, int tilePixelHeight) {
+        boolean active = (visualState != 0);
+        Image currentSprite = active ? spriteOn : spriteOff;
 
         if (currentSprite != null) {
             // Draw the lever AT the screenX, screenY provided by the Tile
@@ -85,14 +124,14 @@ public class Lever extends Entity implements Activatable {
                     tilePixelWidth, tilePixelHeight, null);
         } else if (this.position != null) { // Fallback placeholder if sprites are null
             // Draw placeholder AT screenX, screenY
-            g.setColor(isActive ? java.awt.Color.GREEN : java.awt.Color.RED);
+            g.setColor(active ? java.awt.Color.GREEN : java.awt.Color.RED);
             g.fillRect(
                     screenX + tilePixelWidth / 4, // Offset within the tile for placeholder appearance
                     screenY,
                     tilePixelWidth / 2, tilePixelHeight);
         } else {
             // This case should ideally not happen if a lever always has a position
-            System.err.println("Lever " + getName() + " has no position to draw at.");
+            LOG.warn("Lever " + getName() + " has no position to draw at.");
         }
     }
 }
\ No newline at end of file
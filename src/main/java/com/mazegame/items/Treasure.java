@@ -3,8 +3,10 @@ package com.mazegame.items;
 import com.mazegame.core.World;
 import com.mazegame.characters.LivingBeing;
 import com.mazegame.utils.Position;
+import com.mazegame.logging.GameLogger;
 
 public class Treasure extends Item {
+    private static final GameLogger LOG = GameLogger.getLogger(Treasure.class);
 
     public Treasure(String name, World world, Position position) {
         super(name, world, position);
@@ -20,7 +22,7 @@ public class Treasure extends Item {
     // Call this when player interacts with the Treasure on the ground OR uses it from inventory
     public void winGame(LivingBeing user) {
         if (world != null) {
-            System.out.println(user.getName() + " has found the " + getName() + "! YOU WIN!");
+            LOG.info(user.getName() + " has found the " + getName() + "! YOU WIN!");
             world.setPlayerWon(true);
             // Optional: remove treasure from world if it's an entity picked up
             // if (this.owner == user) { // If picked up
@@ -0,0 +1,165 @@
+package com.mazegame.logging;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Moves console I/O off the game and render threads.
+ *
+ * Records go into a fixed-size ring of preallocated slots and a daemon thread drains them
+ * into the delegate appender. Producers never wait for I/O: if the ring is full the record is
+ * dropped and counted, and the drain thread reports how many were lost.
+ *
+ * A delegate that throws loses that one record (reported on System.err), the drain thread keeps
+ * going. flush() gives up after a few seconds, so a stuck console can't hang shutdown.
+ */
+public class AsyncRingBufferAppender implements LogAppender {
+    public static final long DEFAULT_FLUSH_TIMEOUT_MILLIS = 5000;
+
+    private final LogAppender delegate;
+    private final int capacity;
+
+    // Parallel slot arrays, reused forever - no allocation per record
+    private final LogLevel[] levels;
+    private final String[] loggerNames;
+    private final String[] messages;
+    private final Throwable[] errors;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final Condition drained = lock.newCondition();
+    private long head = 0; // Next slot to read
+    private long tail = 0; // Next slot to write
+    private long dropped = 0;      // Dropped since the drain thread last reported
+    private long totalDropped = 0;
+    private boolean writing = false;
+
+    public AsyncRingBufferAppender(LogAppender delegate, int capacity) {
+        if (delegate == null || capacity <= 0) {
+            throw new IllegalArgumentException("Async appender needs a delegate and a positive capacity");
+        }
+        this.delegate = delegate;
+        this.capacity = capacity;
+        this.levels = new LogLevel[capacity];
+        this.loggerNames = new String[capacity];
+        this.messages = new String[capacity];
+        this.errors = new Throwable[capacity];
+
+        Thread drainThread = new Thread(this::drainLoop, "mazegame-log-writer");
+        drainThread.setDaemon(true);
+        drainThread.start();
+    }
+
+    @Override
+    public void append(LogLevel level, String loggerName, String message, Throwable error) {
+        lock.lock();
+        try {
+            if (tail - head >= capacity) {
+                dropped++;
+                totalDropped++;
+                return;
+            }
+            int slot = (int) (tail % capacity);
+            levels[slot] = level;
+            loggerNames[slot] = loggerName;
+            messages[slot] = message;
+            errors[slot] = error;
+            tail++;
+            notEmpty.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void flush() {
+        flush(DEFAULT_FLUSH_TIMEOUT_MILLIS);
+    }
+
+    /**
+     * Waits up to timeoutMillis for the ring to drain, then flushes the delegate.
+     * @return false if it timed out with records still queued
+     */
+    public boolean flush(long timeoutMillis) {
+        long remaining = TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        boolean empty;
+        lock.lock();
+        try {
+            while ((head != tail || writing) && remaining > 0) {
+                try {
+                    remaining = drained.awaitNanos(remaining);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+            empty = head == tail && !writing;
+        } finally {
+            lock.unlock();
+        }
+        delegate.flush();
+        return empty;
+    }
+
+    public long getDroppedCount() {
+        lock.lock();
+        try {
+            return totalDropped;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void drainLoop() {
+        while (true) {
+            LogLevel level;
+            String loggerName;
+            String message;
+            Throwable error;
+            long droppedSinceLastReport;
+
+            lock.lock();
+            try {
+                while (head == tail) {
+                    writing = false;
+                    drained.signalAll();
+                    notEmpty.awaitUninterruptibly();
+                }
+                int slot = (int) (head % capacity);
+                level = levels[slot];
+                loggerName = loggerNames[slot];
+                message = messages[slot];
+                error = errors[slot];
+                // Clear the slot so we don't pin large strings
+                messages[slot] = null;
+                errors[slot] = null;
+                head++;
+                writing = true;
+                droppedSinceLastReport = dropped;
+                dropped = 0;
+            } finally {
+                lock.unlock();
+            }
+
+            try {
+                if (droppedSinceLastReport > 0) {
+                    delegate.append(LogLevel.WARN, "AsyncRingBufferAppender",
+                            droppedSinceLastReport + " log records dropped (buffer full)", null);
+                }
+                delegate.append(level, loggerName, message, error);
+            } catch (RuntimeException e) {
+                // The delegate is what's broken, so don't log through it
+                System.err.println("AsyncRingBufferAppender: log record lost, appender failed: " + e);
+            } finally {
+                lock.lock();
+                try {
+                    writing = false;
+                    drained.signalAll();
+                } finally {
+                    lock.unlock();
+                }
+            }
+        }
+    }
+}
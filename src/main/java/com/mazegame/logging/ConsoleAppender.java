@@ -0,0 +1,26 @@
+package com.mazegame.logging;
+
+import java.io.PrintStream;
+
+/**
+ * Writes straight to the console: WARN and above to System.err, the rest to System.out.
+ * Synchronous, so it is normally wrapped in an AsyncRingBufferAppender.
+ */
+public class ConsoleAppender implements LogAppender {
+    @Override
+    public void append(LogLevel level, String loggerName, String message, Throwable error) {
+        PrintStream out = (level.compareTo(LogLevel.WARN) >= 0) ? System.err : System.out;
+        StringBuilder line = new StringBuilder(message != null ? message.length() + 32 : 32);
+        line.append('[').append(level).append("] ").append(loggerName).append(": ").append(message);
+        out.println(line);
+        if (error != null) {
+            error.printStackTrace(out);
+        }
+    }
+
+    @Override
+    public void flush() {
+        System.out.flush();
+        System.err.flush();
+    }
+}
@@ -0,0 +1,94 @@
+package com.mazegame.logging;
+
+import java.util.function.Supplier;
+
+/**
+ * Small logging facade for the game.
+ *
+ * Usage:
+ *   private static final GameLogger LOG = GameLogger.getLogger(World.class);
+ *   LOG.info("Created " + rooms.size() + " rooms.");
+ *   LOG.debug(() -> "expensive " + detail);            // message only built if DEBUG is on
+ *   if (LOG.isDebugEnabled()) { ... }                   // guard for render/tick hot paths
+ *
+ * The level is global (system property "mazegame.log.level", default INFO) and checked with a
+ * single volatile read, so disabled calls cost nothing but the check. By default records are
+ * written by a background thread through an AsyncRingBufferAppender.
+ */
+public final class GameLogger {
+    private static final int DEFAULT_BUFFER_CAPACITY = 8192;
+
+    private static volatile LogLevel threshold =
+            LogLevel.parse(System.getProperty("mazegame.log.level"), LogLevel.INFO);
+    private static volatile LogAppender appender =
+            new AsyncRingBufferAppender(new ConsoleAppender(), DEFAULT_BUFFER_CAPACITY);
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(GameLogger::flush, "mazegame-log-flush"));
+    }
+
+    private final String name;
+
+    private GameLogger(String name) {
+        this.name = name;
+    }
+
+    public static GameLogger getLogger(Class<?> type) {
+        return new GameLogger(type.getSimpleName());
+    }
+
+    public static LogLevel getLevel() { return threshold; }
+
+    public static void setLevel(LogLevel level) {
+        threshold = (level != null) ? level : LogLevel.INFO;
+    }
+
+    public static void setAppender(LogAppender newAppender) {
+        if (newAppender == null) {
+            throw new IllegalArgumentException("Appender cannot be null");
+        }
+        LogAppender old = appender;
+        appender = newAppender;
+        old.flush();
+    }
+
+    /** Waits until everything logged so far has reached the console. */
+    public static void flush() {
+        appender.flush();
+    }
+
+    public boolean isEnabled(LogLevel level) {
+        return level.compareTo(threshold) >= 0 && level != LogLevel.OFF;
+    }
+
+    public boolean isTraceEnabled() { return isEnabled(LogLevel.TRACE); }
+    public boolean isDebugEnabled() { return isEnabled(LogLevel.DEBUG); }
+    public boolean isInfoEnabled() { return isEnabled(LogLevel.INFO); }
+
+    public void trace(String message) { log(LogLevel.TRACE, message, null); }
+    public void trace(Supplier<String> message) { log(LogLevel.TRACE, message); }
+
+    public void debug(String message) { log(LogLevel.DEBUG, message, null); }
+    public void debug(Supplier<String> message) { log(LogLevel.DEBUG, message); }
+
+    public void info(String message) { log(LogLevel.INFO, message, null); }
+    public void info(Supplier<String> message) { log(LogLevel.INFO, message); }
+
+    public void warn(String message) { log(LogLevel.WARN, message, null); }
+    public void warn(Supplier<String> message) { log(LogLevel.WARN, message); }
+
+    public void error(String message) { log(LogLevel.ERROR, message, null); }
+    public void error(String message, Throwable error) { log(LogLevel.ERROR, message, error); }
+
+    private void log(LogLevel level, Supplier<String> message) {
+        if (isEnabled(level)) {
+            appender.append(level, name, message.get(), null);
+        }
+    }
+
+    private void log(LogLevel level, String message, Throwable error) {
+        if (isEnabled(level)) {
+            appender.append(level, name, message, error);
+        }
+    }
+}
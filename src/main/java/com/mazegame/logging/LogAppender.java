@@ -0,0 +1,12 @@
+package com.mazegame.logging;
+
+/**
+ * Destination for log records that passed the level check.
+ * Implementations must be safe to call from several threads.
+ */
+public interface LogAppender {
+    void append(LogLevel level, String loggerName, String message, Throwable error);
+
+    /** Blocks until everything appended so far has been written out. */
+    void flush();
+}
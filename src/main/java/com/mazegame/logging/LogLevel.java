@@ -0,0 +1,15 @@
+package com.mazegame.logging;
+
+public enum LogLevel {
+    TRACE, DEBUG, INFO, WARN, ERROR, OFF;
+
+    /** Parses a level name (case-insensitive), falling back to the given default for null/unknown values. */
+    public static LogLevel parse(String name, LogLevel fallback) {
+        if (name == null) return fallback;
+        try {
+            return LogLevel.valueOf(name.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return fallback;
+        }
+    }
+}
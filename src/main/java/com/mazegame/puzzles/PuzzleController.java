@@ -2,63 +2,197 @@ package com.mazegame.puzzles; // New package for puzzle-related logic
 
 import com.mazegame.core.Door;
 import com.mazegame.items.Lever; // Assuming Lever is in core or items
+import com.mazegame.logging.GameLogger;
 
 import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 
+/**
+ * Opens one or more doors when its levers are in the right combination.
+ *
+ * Nothing is rescanned on a pull. The controller keeps a running count of satisfied levers
+ * (lever on when it should be on, off when it should be off) plus, for SEQUENCE, how far into
+ * the order the player got. Lever.pull() tells each of its controllers, and each one updates
+ * in O(1). A lever can belong to several controllers, and a controller can drive several doors.
+ */
 public class PuzzleController {
-    private List<Lever> levers;
-    private Door controlledDoor;
+    private static final GameLogger LOG = GameLogger.getLogger(PuzzleController.class);
+
+    public enum Mode {
+        ALL,      // Every lever in its wanted position (the original puzzle)
+        ANY,      // At least one lever in its wanted position
+        XOR,      // An odd number of levers in their wanted position
+        SEQUENCE  // Levers switched on in the order they were registered; a wrong one starts over
+    }
+
+    private final Mode mode;
+    private final List<Lever> levers = new ArrayList<>();
+    private final Map<Lever, Integer> leverIndex = new IdentityHashMap<>();
+    private final BitSet wantedOn = new BitSet();
+    private final List<Door> controlledDoors = new ArrayList<>();
+    private boolean latching = true; // Once solved, stays solved (doors stay open)
+
+    private int satisfiedLevers = 0;
+    private int sequenceProgress = 0; // SEQUENCE: levers switched on in the right order so far
     private boolean isSolved;
 
     public PuzzleController(Door doorToControl) {
-        this.levers = new ArrayList<>();
-        this.controlledDoor = doorToControl;
+        this(Mode.ALL, doorToControl);
+        if (doorToControl == null) {
+            LOG.warn("PuzzleController created with a NULL door to control!");
+        }
+    }
+
+    public PuzzleController(Mode mode, Door... doorsToControl) {
+        if (mode == null) {
+            throw new IllegalArgumentException("PuzzleController needs a mode");
+        }
+        this.mode = mode;
         this.isSolved = false;
+        for (Door door : doorsToControl) {
+            addDoor(door);
+        }
+    }
 
+    public void addDoor(Door door) {
+        if (door == null || controlledDoors.contains(door)) {
+            return;
+        }
+        controlledDoors.add(door);
         // Ensure the door is initially locked if this puzzle controls it
-        if (this.controlledDoor != null && !this.controlledDoor.isLocked()) {
+        if (!door.isLocked()) {
             // This is tricky. If the door is unlocked by default, this puzzle won't lock it.
             // The door should be created as locked if a puzzle controller manages it.
-            // For now, we assume the door is already created as locked.
-            System.out.println("PuzzleController created for door: " + doorToControl.getName() +
+            LOG.info("PuzzleController created for door: " + door.getName() +
                                ". Ensure this door is initially locked.");
-        } else if (this.controlledDoor == null) {
-            System.err.println("PuzzleController created with a NULL door to control!");
         }
     }
 
+    public Mode getMode() { return mode; }
+
+    public boolean isLatching() { return latching; }
+
+    /** false: when the combination breaks again, the doors close and lock again. */
+    public void setLatching(boolean latching) {
+        this.latching = latching;
+    }
+
+    public boolean isSolved() {
+        return isSolved;
+    }
+
+    public List<Lever> getLevers() {
+        return Collections.unmodifiableList(levers);
+    }
+
+    public List<Door> getDoors() {
+        return Collections.unmodifiableList(controlledDoors);
+    }
+
+    /** The position a registered lever has to be in; false for levers that aren't part of this puzzle. */
+    public boolean isWantedOn(Lever lever) {
+        Integer index = leverIndex.get(lever);
+        return index != null && wantedOn.get(index);
+    }
+
+    public int getSequenceProgress() {
+        return sequenceProgress;
+    }
+
+    /**
+     * Puts back progress that can't be worked out from the levers alone. Call after all levers
+     * are registered. Used when loading a game; doesn't touch the doors.
+     */
+    public void restoreProgress(int sequenceProgress, boolean solved) {
+        this.sequenceProgress = Math.max(0, Math.min(sequenceProgress, levers.size()));
+        this.isSolved = solved;
+        // Levers may have been restored behind our back (Lever.restoreState), so count again
+        satisfiedLevers = 0;
+        for (int i = 0; i < levers.size(); i++) {
+            if (levers.get(i).isActive() == wantedOn.get(i)) satisfiedLevers++;
+        }
+    }
+
+    /** Registers a lever that has to be ON. */
     public void registerLever(Lever lever) {
-        if (lever != null && !levers.contains(lever)) {
-            levers.add(lever);
+        registerLever(lever, true);
+    }
+
+    /** @param wantOn the position this lever must be in (ignored for SEQUENCE, where every lever goes on) */
+    public void registerLever(Lever lever, boolean wantOn) {
+        if (lever == null || leverIndex.containsKey(lever)) {
+            return;
         }
+        int index = levers.size();
+        levers.add(lever);
+        leverIndex.put(lever, index);
+        wantedOn.set(index, wantOn);
+        if (lever.isActive() == wantOn) {
+            satisfiedLevers++;
+        }
+        lever.addController(this);
     }
 
-    public void checkPuzzleState() {
-        if (isSolved || controlledDoor == null || levers.isEmpty()) {
-            return; // Puzzle already solved, no door, or no levers to check
+    /** Called by Lever.pull() for each of its controllers, after the lever's state changed. */
+    public void onLeverToggled(Lever lever) {
+        Integer index = leverIndex.get(lever);
+        if (index == null) {
+            return; // Some other puzzle's lever
         }
+        boolean satisfied = (lever.isActive() == wantedOn.get(index));
+        satisfiedLevers += satisfied ? 1 : -1;
 
-        boolean allLeversActive = true;
-        for (Lever lever : levers) {
-            if (!lever.isActive()) {
-                allLeversActive = false;
-                break;
+        if (mode == Mode.SEQUENCE) {
+            if (lever.isActive() && index == sequenceProgress) {
+                sequenceProgress++;
+            } else if (lever.isActive() || index < sequenceProgress) {
+                // Wrong lever, or one of the done ones went off again
+                LOG.info("Wrong order! The sequence resets.");
+                sequenceProgress = 0;
             }
         }
+        checkPuzzleState();
+    }
+
+    public void checkPuzzleState() {
+        if (controlledDoors.isEmpty() || levers.isEmpty()) {
+            return; // No door, or no levers to check
+        }
 
-        if (allLeversActive) {
-            System.out.println("PUZZLE SOLVED! All levers are active.");
-            if (controlledDoor.isLocked()) {
-                controlledDoor.unlock(); // Unlock the door
-                controlledDoor.open();   // And open it
-                System.out.println(controlledDoor.getName() + " has been unlocked and opened by the puzzle!");
+        boolean solvedNow = isConditionMet();
+        if (solvedNow && !isSolved) {
+            LOG.info("PUZZLE SOLVED! (" + mode + ", " + levers.size() + " levers)");
+            for (Door door : controlledDoors) {
+                if (door.isLocked()) {
+                    door.unlock(); // Unlock the door
+                    door.open();   // And open it
+                    LOG.info(door.getName() + " has been unlocked and opened by the puzzle!");
+                }
             }
             isSolved = true;
-        } else {
-            System.out.println("Puzzle not yet solved. Not all levers are active.");
-            // Optional: If the door was opened by the puzzle and a lever is turned off, re-lock it?
-            // For "all levers on" this usually means it stays unlocked.
+        } else if (!solvedNow && isSolved && !latching) {
+            LOG.info("Puzzle no longer solved, sealing the doors again.");
+            for (Door door : controlledDoors) {
+                door.close();
+                door.setLockedState(true);
+            }
+            isSolved = false;
+        } else if (!solvedNow) {
+            LOG.debug(() -> "Puzzle not yet solved. " + satisfiedLevers + "/" + levers.size() + " levers in position.");
+        }
+    }
+
+    private boolean isConditionMet() {
+        switch (mode) {
+            case ANY: return satisfiedLevers > 0;
+            case XOR: return (satisfiedLevers & 1) == 1;
+            case SEQUENCE: return sequenceProgress == levers.size();
+            case ALL:
+            default: return satisfiedLevers == levers.size();
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,56 @@
+package com.mazegame.simulation;
+
+import com.mazegame.core.TickScheduler;
+import com.mazegame.core.World;
+import com.mazegame.core.WorldGenerator;
+import com.mazegame.events.EventCounter;
+import com.mazegame.logging.GameLogger;
+
+/**
+ * Command-line entry point for running the game with no display, e.g. on a build server:
+ *
+ *   java -cp target/classes com.mazegame.simulation.HeadlessSimulation [ticks] [ticksPerSecond|0] [seed] [roomsX roomsY]
+ *
+ * A tick rate of 0 runs as fast as possible. Prints the measured ticks per second and event counts at the end.
+ * With roomsX/roomsY the world comes from WorldGenerator (same seed) instead of the hand-built level.
+ * -Dmazegame.activeRoomRadius=N keeps N doors around the player ticking, -Dmazegame.parallelTick=true
+ * runs those rooms on the common ForkJoinPool.
+ */
+public class HeadlessSimulation {
+    public static void main(String[] args) {
+        System.setProperty("java.awt.headless", "true");
+
+        long ticks = args.length > 0 ? Long.parseLong(args[0]) : 100_000L;
+        int ticksPerSecond = args.length > 1 ? Integer.parseInt(args[1]) : 0;
+        long seed = args.length > 2 ? Long.parseLong(args[2]) : 42L;
+
+        World world = new World("Headless Labyrinth");
+        // Logical time: traps cycle per tick, not per wall-clock millisecond, so fast runs stay faithful
+        world.setClock(TickClock.forTickRate(SimulationEngine.DEFAULT_TICKS_PER_SECOND));
+        if (args.length > 4) {
+            new WorldGenerator(seed, Integer.parseInt(args[3]), Integer.parseInt(args[4])).generate(world);
+        } else {
+            world.initializeWorld();
+        }
+
+        world.getTickScheduler().setActiveRoomRadius(Integer.getInteger("mazegame.activeRoomRadius", TickScheduler.DEFAULT_ACTIVE_ROOM_RADIUS));
+        world.getTickScheduler().setParallel(Boolean.getBoolean("mazegame.parallelTick"));
+
+        EventCounter events = new EventCounter();
+        world.getEventBus().subscribe(events);
+
+        SimulationEngine engine = new SimulationEngine(world, new RandomInputSource(seed));
+        if (ticksPerSecond > 0) {
+            engine.setTicksPerSecond(ticksPerSecond);
+        } else {
+            engine.setAsFastAsPossible(true);
+        }
+
+        long simulated = engine.run(ticks);
+        GameLogger.flush(); // Let queued game messages out before the summary line
+        System.out.printf("Simulated %d ticks in %.1f ms (%.0f ticks/s). Game over: %b, player won: %b%n",
+                simulated, engine.getLastRunNanos() / 1_000_000.0, engine.getLastRunTicksPerSecond(),
+                world.isGameOver(), world.didPlayerWin());
+        System.out.println("Events: " + events);
+    }
+}
@@ -0,0 +1,280 @@
+package com.mazegame.simulation;
+
+import com.mazegame.core.World;
+import com.mazegame.core.WorldGenerator;
+import com.mazegame.logging.GameLogger;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The player's commands with the tick each was given on, plus what it takes to build the same
+ * world again. SimulationEngine.setRecording() fills one in; ReplayRunner plays it back headless.
+ *
+ * Replays are exact because everything a session depends on is in here: the world comes from
+ * the hand-built level or WorldGenerator with a seed, NPC loot rolls from World.setRandomSeed(),
+ * and trap timing from a TickClock, i.e. from the tick count rather than the wall clock.
+ *
+ * The file is plain text so a recording that reproduces a bug can be read and trimmed by hand:
+ *
+ *   mazegame-recording 1
+ *   mode turns                       (handleTurn(), like the Swing game) or ticks (tick()/run())
+ *   world handbuilt                  or: world generated <seed> <roomsX> <roomsY>
+ *   randomSeed 1234
+ *   millisPerTick 250
+ *   activeRoomRadius 0
+ *   0 MOVE_RIGHT                     one line per command: tick, PlayerCommand
+ *   1 INTERACT
+ *   end 2                            tick count when recording stopped (optional)
+ *
+ * With streamTo() every command is written (and flushed) as it comes in, so the file is still
+ * good after a crash; it just has no end line.
+ */
+public class InputRecording implements Closeable {
+    private static final GameLogger LOG = GameLogger.getLogger(InputRecording.class);
+    private static final String MAGIC = "mazegame-recording";
+    private static final int VERSION = 1;
+
+    public enum Mode { TURNS, TICKS }
+
+    /** One command and the tick (SimulationEngine.getTickCount()) it was applied on. */
+    public static final class Entry {
+        public final long tick;
+        public final PlayerCommand command;
+
+        public Entry(long tick, PlayerCommand command) {
+            this.tick = tick;
+            this.command = command;
+        }
+
+        @Override
+        public String toString() { return tick + " " + command.name(); }
+    }
+
+    private final Mode mode;
+    private final long randomSeed;
+    private final long millisPerTick;
+    private final boolean generated;
+    private final long worldSeed;
+    private final int roomsX;
+    private final int roomsY;
+    private int activeRoomRadius = 0;
+    private final List<Entry> entries = new ArrayList<>();
+    private long endTick = -1;
+    private Writer out;
+
+    /** Recording against the hand-built level (World.initializeWorld()). */
+    public InputRecording(Mode mode, long randomSeed, long millisPerTick) {
+        this(mode, randomSeed, millisPerTick, false, 0, 0, 0);
+    }
+
+    /** Recording against a WorldGenerator world. */
+    public InputRecording(Mode mode, long randomSeed, long millisPerTick, long worldSeed, int roomsX, int roomsY) {
+        this(mode, randomSeed, millisPerTick, true, worldSeed, roomsX, roomsY);
+    }
+
+    private InputRecording(Mode mode, long randomSeed, long millisPerTick, boolean generated, long worldSeed, int roomsX, int roomsY) {
+        if (mode == null) {
+            throw new IllegalArgumentException("InputRecording needs a mode");
+        }
+        if (millisPerTick <= 0) {
+            throw new IllegalArgumentException("millisPerTick must be positive");
+        }
+        this.mode = mode;
+        this.randomSeed = randomSeed;
+        this.millisPerTick = millisPerTick;
+        this.generated = generated;
+        this.worldSeed = worldSeed;
+        this.roomsX = roomsX;
+        this.roomsY = roomsY;
+    }
+
+    public Mode getMode() { return mode; }
+    public long getRandomSeed() { return randomSeed; }
+    public long getMillisPerTick() { return millisPerTick; }
+    public boolean isGeneratedWorld() { return generated; }
+
+    public int getActiveRoomRadius() { return activeRoomRadius; }
+
+    /** Goes in the header, so set it before streamTo(). */
+    public void setActiveRoomRadius(int activeRoomRadius) {
+        if (out != null) {
+            throw new IllegalStateException("Header already written");
+        }
+        this.activeRoomRadius = activeRoomRadius;
+    }
+
+    public List<Entry> getEntries() { return Collections.unmodifiableList(entries); }
+
+    /** Tick count when recording stopped, -1 if it never did (e.g. the game crashed). */
+    public long getEndTick() { return endTick; }
+
+    /**
+     * Builds the world this recording was (or will be) played against: seeded, on a TickClock,
+     * with the recorded active room radius.
+     */
+    public World createWorld(String name) {
+        World world = new World(name);
+        world.setClock(new TickClock(millisPerTick)); // Before building, traps read the clock when created
+        world.setRandomSeed(randomSeed); // Likewise NPCs when they roll their seeds
+        if (generated) {
+            new WorldGenerator(worldSeed, roomsX, roomsY).generate(world);
+        } else {
+            world.initializeWorld();
+        }
+        world.getTickScheduler().setActiveRoomRadius(activeRoomRadius);
+        return world;
+    }
+
+    /** Called by SimulationEngine for every command it applies. */
+    public synchronized void record(long tick, PlayerCommand command) {
+        if (endTick >= 0) {
+            throw new IllegalStateException("Recording already finished at tick " + endTick);
+        }
+        Entry entry = new Entry(tick, command);
+        entries.add(entry);
+        if (out != null) {
+            writeLine(entry.toString());
+        }
+    }
+
+    /** Marks the end of the session: a TICKS replay runs up to this tick even with no commands left. */
+    public synchronized void finish(long tick) {
+        if (endTick >= 0) return;
+        endTick = tick;
+        if (out != null) {
+            writeLine("end " + tick);
+        }
+    }
+
+    /** Writes the header and everything so far to 'file', then every new command as it's recorded. */
+    public synchronized void streamTo(Path file) throws IOException {
+        if (out != null) {
+            throw new IllegalStateException("Already streaming");
+        }
+        BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8);
+        writeAll(writer);
+        writer.flush();
+        out = writer;
+    }
+
+    /** Writes the whole recording to 'file'. */
+    public synchronized void save(Path file) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            writeAll(writer);
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (out != null) {
+            out.close();
+            out = null;
+        }
+    }
+
+    private void writeAll(Writer writer) throws IOException {
+        writer.write(MAGIC + " " + VERSION + "\n");
+        writer.write("mode " + mode.name().toLowerCase() + "\n");
+        writer.write(generated ? "world generated " + worldSeed + " " + roomsX + " " + roomsY + "\n" : "world handbuilt\n");
+        writer.write("randomSeed " + randomSeed + "\n");
+        writer.write("millisPerTick " + millisPerTick + "\n");
+        writer.write("activeRoomRadius " + activeRoomRadius + "\n");
+        for (Entry entry : entries) {
+            writer.write(entry + "\n");
+        }
+        if (endTick >= 0) {
+            writer.write("end " + endTick + "\n");
+        }
+    }
+
+    private void writeLine(String line) {
+        try {
+            out.write(line);
+            out.write('\n');
+            out.flush(); // A crash right after this command should still have it on disk
+        } catch (IOException e) {
+            // Recording is a side job; losing it mustn't take the game down. Entries stay in memory
+            LOG.error("Couldn't write the input recording, stopped streaming: " + e.getMessage());
+            try {
+                out.close();
+            } catch (IOException ignored) {
+                // Already broken
+            }
+            out = null;
+        }
+    }
+
+    /** Reads a recording written by save() or streamTo(). */
+    public static InputRecording load(Path file) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String[] magic = fields(reader.readLine(), file, 1);
+            if (magic.length != 2 || !magic[0].equals(MAGIC)) {
+                throw new IOException(file + " is not an input recording");
+            }
+            if (!magic[1].equals(String.valueOf(VERSION))) {
+                throw new IOException(file + " is recording version " + magic[1] + ", this build reads " + VERSION);
+            }
+            try {
+                Mode mode = Mode.valueOf(value(reader.readLine(), "mode", file, 2).toUpperCase());
+                String[] world = fields(reader.readLine(), file, 3);
+                long randomSeed = Long.parseLong(value(reader.readLine(), "randomSeed", file, 4));
+                long millisPerTick = Long.parseLong(value(reader.readLine(), "millisPerTick", file, 5));
+                int radius = Integer.parseInt(value(reader.readLine(), "activeRoomRadius", file, 6));
+                InputRecording recording;
+                if (world.length == 2 && world[0].equals("world") && world[1].equals("handbuilt")) {
+                    recording = new InputRecording(mode, randomSeed, millisPerTick);
+                } else if (world.length == 5 && world[0].equals("world") && world[1].equals("generated")) {
+                    recording = new InputRecording(mode, randomSeed, millisPerTick,
+                            Long.parseLong(world[2]), Integer.parseInt(world[3]), Integer.parseInt(world[4]));
+                } else {
+                    throw new IOException(file + " line 3: expected 'world handbuilt' or 'world generated <seed> <roomsX> <roomsY>'");
+                }
+                recording.activeRoomRadius = radius;
+
+                String line;
+                int lineNumber = 6;
+                while ((line = reader.readLine()) != null) {
+                    lineNumber++;
+                    if (line.trim().isEmpty()) continue;
+                    String[] parts = fields(line, file, lineNumber);
+                    if (parts.length != 2 || recording.endTick >= 0) {
+                        throw new IOException(file + " line " + lineNumber + ": expected '<tick> <COMMAND>' before 'end <tick>'");
+                    }
+                    if (parts[0].equals("end")) {
+                        recording.endTick = Long.parseLong(parts[1]);
+                    } else {
+                        recording.entries.add(new Entry(Long.parseLong(parts[0]), PlayerCommand.valueOf(parts[1])));
+                    }
+                }
+                return recording;
+            } catch (IllegalArgumentException e) { // Bad numbers and unknown modes/commands
+                throw new IOException(file + ": " + e.getMessage(), e);
+            }
+        }
+    }
+
+    private static String[] fields(String line, Path file, int lineNumber) throws IOException {
+        if (line == null) {
+            throw new IOException(file + " ends at line " + lineNumber + ", the header is incomplete");
+        }
+        return line.trim().split("\\s+");
+    }
+
+    private static String value(String line, String key, Path file, int lineNumber) throws IOException {
+        String[] parts = fields(line, file, lineNumber);
+        if (parts.length != 2 || !parts[0].equals(key)) {
+            throw new IOException(file + " line " + lineNumber + ": expected '" + key + " <value>'");
+        }
+        return parts[1];
+    }
+}
@@ -0,0 +1,38 @@
+package com.mazegame.simulation;
+
+/**
+ * Clock that only moves when told to. Handy in tests ("advance 3 seconds, the trap should be active")
+ * and for tools that step the world by arbitrary amounts.
+ */
+public class ManualClock implements SimulationClock {
+    private long now;
+
+    public ManualClock() {
+        this(0);
+    }
+
+    public ManualClock(long startMillis) {
+        this.now = startMillis;
+    }
+
+    @Override
+    public long currentTimeMillis() {
+        return now;
+    }
+
+    @Override
+    public void advanceTick() {
+        // Only advance() moves this clock
+    }
+
+    public void advance(long millis) {
+        if (millis < 0) {
+            throw new IllegalArgumentException("Cannot move a clock backwards");
+        }
+        now += millis;
+    }
+
+    public void setTime(long millis) {
+        this.now = millis;
+    }
+}
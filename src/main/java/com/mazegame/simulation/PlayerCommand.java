@@ -0,0 +1,72 @@
+package com.mazegame.simulation;
+
+import java.awt.event.KeyEvent;
+
+/**
+ * Everything the player can ask for in one turn.
+ * MainFrame maps key presses onto these; headless runs produce them from an InputSource.
+ */
+public enum PlayerCommand {
+    NONE,
+    MOVE_UP(0, -1),
+    MOVE_DOWN(0, 1),
+    MOVE_LEFT(-1, 0),
+    MOVE_RIGHT(1, 0),
+    INTERACT,
+    USE_SLOT_1,
+    USE_SLOT_2,
+    USE_SLOT_3,
+    USE_SLOT_4,
+    CYCLE_PREVIOUS,
+    CYCLE_NEXT,
+    USE_ACTIVE_ITEM;
+
+    private final int dx;
+    private final int dy;
+
+    PlayerCommand() {
+        this(0, 0);
+    }
+
+    PlayerCommand(int dx, int dy) {
+        this.dx = dx;
+        this.dy = dy;
+    }
+
+    public int getDx() { return dx; }
+    public int getDy() { return dy; }
+
+    public boolean isMove() {
+        return dx != 0 || dy != 0;
+    }
+
+    /** Inventory slot (0-based) for the USE_SLOT_n commands, -1 otherwise. */
+    public int getSlotIndex() {
+        switch (this) {
+            case USE_SLOT_1: return 0;
+            case USE_SLOT_2: return 1;
+            case USE_SLOT_3: return 2;
+            case USE_SLOT_4: return 3;
+            default: return -1;
+        }
+    }
+
+    /** Same bindings the game has always used: WASD/arrows, E, 1-4, Q/R, F. */
+    public static PlayerCommand fromKeyCode(int keyCode) {
+        switch (keyCode) {
+            case KeyEvent.VK_W: case KeyEvent.VK_UP: return MOVE_UP;
+            case KeyEvent.VK_S: case KeyEvent.VK_DOWN: return MOVE_DOWN;
+            case KeyEvent.VK_A: case KeyEvent.VK_LEFT: return MOVE_LEFT;
+            case KeyEvent.VK_D: case KeyEvent.VK_RIGHT: return MOVE_RIGHT;
+            case KeyEvent.VK_E: return INTERACT;
+            case KeyEvent.VK_1: return USE_SLOT_1;
+            case KeyEvent.VK_2: return USE_SLOT_2;
+            case KeyEvent.VK_3: return USE_SLOT_3;
+            case KeyEvent.VK_4: return USE_SLOT_4;
+            case KeyEvent.VK_Q: return CYCLE_PREVIOUS;
+            case KeyEvent.VK_R: return CYCLE_NEXT;
+            case KeyEvent.VK_F: return USE_ACTIVE_ITEM;
+            default: return NONE;
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.mazegame.simulation;
+
+import com.mazegame.interfaces.InputSource;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Hands out commands in the order they were submitted, one per tick.
+ * Safe to feed from another thread (e.g. a UI) while the engine polls it.
+ */
+public class QueuedInputSource implements InputSource {
+    private final Queue<PlayerCommand> pending = new ConcurrentLinkedQueue<>();
+
+    public void submit(PlayerCommand command) {
+        if (command != null && command != PlayerCommand.NONE) {
+            pending.add(command);
+        }
+    }
+
+    public boolean isEmpty() {
+        return pending.isEmpty();
+    }
+
+    @Override
+    public PlayerCommand nextCommand(long tick) {
+        PlayerCommand command = pending.poll();
+        return command != null ? command : PlayerCommand.NONE;
+    }
+}
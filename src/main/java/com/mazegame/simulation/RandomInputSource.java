@@ -0,0 +1,31 @@
+package com.mazegame.simulation;
+
+import com.mazegame.interfaces.InputSource;
+
+import java.util.Random;
+
+/**
+ * Seeded random "monkey" player for automated balancing playthroughs.
+ * Mostly walks around, sometimes interacts or uses the active item, sometimes idles.
+ */
+public class RandomInputSource implements InputSource {
+    private static final PlayerCommand[] MOVES = {
+        PlayerCommand.MOVE_UP, PlayerCommand.MOVE_DOWN, PlayerCommand.MOVE_LEFT, PlayerCommand.MOVE_RIGHT
+    };
+
+    private final Random random;
+
+    public RandomInputSource(long seed) {
+        this.random = new Random(seed);
+    }
+
+    @Override
+    public PlayerCommand nextCommand(long tick) {
+        int roll = random.nextInt(100);
+        if (roll < 70) return MOVES[random.nextInt(MOVES.length)];
+        if (roll < 80) return PlayerCommand.INTERACT;
+        if (roll < 85) return PlayerCommand.USE_ACTIVE_ITEM;
+        if (roll < 90) return PlayerCommand.CYCLE_NEXT;
+        return PlayerCommand.NONE;
+    }
+}
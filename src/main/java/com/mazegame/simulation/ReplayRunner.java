@@ -0,0 +1,93 @@
+package com.mazegame.simulation;
+
+import com.mazegame.core.World;
+import com.mazegame.interfaces.InputSource;
+import com.mazegame.logging.GameLogger;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.List;
+
+/**
+ * Plays an InputRecording back against a freshly built world, with no Swing and no pacing, for
+ * regression tests and reproducing crashes:
+ *
+ *   java -cp target/classes com.mazegame.simulation.ReplayRunner session.rec
+ *
+ * The world and engine are set up from the recording's header, then its commands go through
+ * SimulationEngine exactly like they did live. A replay that doesn't line up with the recording
+ * (a command due on a tick the replay never reaches, the game ending early) throws
+ * IllegalStateException; that means the game's behaviour changed since it was recorded.
+ */
+public class ReplayRunner {
+    private ReplayRunner() {
+    }
+
+    /** Replays the recording on a new world; the returned engine holds the world as it ended up. */
+    public static SimulationEngine replay(InputRecording recording) {
+        World world = recording.createWorld("Replay");
+        SimulationEngine engine = new SimulationEngine(world, null);
+        engine.setAsFastAsPossible(true);
+        List<InputRecording.Entry> entries = recording.getEntries();
+
+        if (recording.getMode() == InputRecording.Mode.TURNS) {
+            for (int i = 0; i < entries.size(); i++) {
+                InputRecording.Entry entry = entries.get(i);
+                if (engine.isFinished() || engine.getTickCount() != entry.tick) {
+                    throw diverged(i, entry, engine);
+                }
+                engine.handleTurn(entry.command);
+            }
+        } else {
+            RecordedInput input = new RecordedInput(entries);
+            engine.setInputSource(input);
+            long lastTick = entries.isEmpty() ? 0 : entries.get(entries.size() - 1).tick + 1;
+            long endTick = Math.max(recording.getEndTick(), lastTick);
+            engine.run(endTick);
+            if (input.next < entries.size()) {
+                throw diverged(input.next, entries.get(input.next), engine);
+            }
+        }
+        return engine;
+    }
+
+    private static IllegalStateException diverged(int index, InputRecording.Entry entry, SimulationEngine engine) {
+        return new IllegalStateException("Replay diverged at command " + index + " (" + entry + "): replay is on tick "
+                + engine.getTickCount() + (engine.isFinished() ? " and the game is over" : ""));
+    }
+
+    // Hands out each recorded command on its tick, NONE in between
+    private static final class RecordedInput implements InputSource {
+        private final List<InputRecording.Entry> entries;
+        private int next = 0;
+
+        RecordedInput(List<InputRecording.Entry> entries) {
+            this.entries = entries;
+        }
+
+        @Override
+        public PlayerCommand nextCommand(long tick) {
+            if (next < entries.size() && entries.get(next).tick == tick) {
+                return entries.get(next++).command;
+            }
+            return PlayerCommand.NONE;
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 1) {
+            System.err.println("Usage: ReplayRunner <recording>");
+            System.exit(2);
+        }
+        System.setProperty("java.awt.headless", "true");
+        InputRecording recording = InputRecording.load(Paths.get(args[0]));
+        long start = System.nanoTime();
+        SimulationEngine engine = replay(recording);
+        World world = engine.getWorld();
+        GameLogger.flush();
+        System.out.printf("Replayed %d commands over %d ticks in %.1f ms. Game over: %b, player won: %b, player health: %s%n",
+                recording.getEntries().size(), engine.getTickCount(), (System.nanoTime() - start) / 1_000_000.0,
+                world.isGameOver(), world.didPlayerWin(),
+                world.getPlayer() != null ? String.valueOf(world.getPlayer().getHealth()) : "-");
+    }
+}
@@ -0,0 +1,14 @@
+package com.mazegame.simulation;
+
+/**
+ * Source of "now" for everything that runs on a timer (traps, cooldowns).
+ * World hands its clock to every Executable so game timing no longer depends on
+ * System.currentTimeMillis() and can be sped up or replayed exactly.
+ */
+public interface SimulationClock {
+    /** Current simulation time in milliseconds. Only differences between readings are meaningful. */
+    long currentTimeMillis();
+
+    /** Called by the SimulationEngine once per simulated tick. Clocks that don't count ticks ignore it. */
+    void advanceTick();
+}
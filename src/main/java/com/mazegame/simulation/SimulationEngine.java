@@ -0,0 +1,269 @@
+package com.mazegame.simulation;
+
+import com.mazegame.characters.Player;
+import com.mazegame.core.World;
+import com.mazegame.interfaces.InputSource;
+import com.mazegame.interfaces.StepListener;
+import com.mazegame.items.Item;
+import com.mazegame.logging.GameLogger;
+
+import java.util.List;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Drives a World without any Swing dependency.
+ *
+ * Two ways to advance the game:
+ *  - tick()/run(): fixed-timestep simulation. Every tick polls the InputSource, applies the
+ *    command (if any) and always calls world.update(), so NPCs and traps keep going even when
+ *    the player stands still. Used for headless playthroughs and balancing runs.
+ *  - handleTurn(): the turn-based flow the Swing frame uses, where the world only advances
+ *    when the player actually did something.
+ */
+public class SimulationEngine {
+    private static final GameLogger LOG = GameLogger.getLogger(SimulationEngine.class);
+    public static final int DEFAULT_TICKS_PER_SECOND = 20;
+
+    // If we fall this many ticks behind (debugger, GC pause) we drop the backlog instead of spiralling
+    private static final int MAX_CATCH_UP_TICKS = 5;
+
+    private final World world;
+    private InputSource inputSource;
+    private StepListener stepListener;
+    private InputRecording recording; // Null unless someone wants the session replayable
+    private int ticksPerSecond;
+    private boolean asFastAsPossible;
+    private volatile boolean running;
+
+    private long tickCount = 0;
+    private Item selectedItem; // Item picked by the last command, used after world.update() like MainFrame always did
+
+    // Stats for the last run() call
+    private long lastRunTicks = 0;
+    private long lastRunNanos = 0;
+
+    public SimulationEngine(World world, InputSource inputSource, int ticksPerSecond) {
+        if (world == null) {
+            throw new IllegalArgumentException("SimulationEngine needs a world");
+        }
+        this.world = world;
+        this.inputSource = inputSource;
+        setTicksPerSecond(ticksPerSecond);
+    }
+
+    public SimulationEngine(World world, InputSource inputSource) {
+        this(world, inputSource, DEFAULT_TICKS_PER_SECOND);
+    }
+
+    public World getWorld() { return world; }
+
+    public InputSource getInputSource() { return inputSource; }
+    public void setInputSource(InputSource inputSource) { this.inputSource = inputSource; }
+
+    public StepListener getStepListener() { return stepListener; }
+
+    /** Called after every tick() and handleTurn(), on whatever thread drives the engine. */
+    public void setStepListener(StepListener stepListener) { this.stepListener = stepListener; }
+
+    public InputRecording getRecording() { return recording; }
+
+    /** Every command applied from now on goes into 'recording' with its tick, see ReplayRunner. */
+    public void setRecording(InputRecording recording) { this.recording = recording; }
+
+    public int getTicksPerSecond() { return ticksPerSecond; }
+
+    public void setTicksPerSecond(int ticksPerSecond) {
+        if (ticksPerSecond <= 0) {
+            throw new IllegalArgumentException("ticksPerSecond must be positive, use setAsFastAsPossible(true) for unthrottled runs");
+        }
+        this.ticksPerSecond = ticksPerSecond;
+    }
+
+    public boolean isAsFastAsPossible() { return asFastAsPossible; }
+
+    /** When true, run() does not sleep between ticks at all. */
+    public void setAsFastAsPossible(boolean asFastAsPossible) {
+        this.asFastAsPossible = asFastAsPossible;
+    }
+
+    public long getTickCount() { return tickCount; }
+
+    public boolean isRunning() { return running; }
+
+    public boolean isFinished() {
+        return world.isGameOver() || world.didPlayerWin() || world.getPlayer() == null;
+    }
+
+    /**
+     * Simulates exactly one fixed-timestep tick.
+     * The world is updated whether or not the input source had anything to say.
+     */
+    public void tick() {
+        if (isFinished()) return;
+
+        PlayerCommand command = (inputSource != null) ? inputSource.nextCommand(tickCount) : PlayerCommand.NONE;
+        if (command == null) command = PlayerCommand.NONE;
+        if (recording != null && command != PlayerCommand.NONE) {
+            recording.record(tickCount, command); // Before applying, so a command that crashes is in there
+        }
+
+        applyPlayerCommand(world.getPlayer(), command);
+        world.update();
+        world.getClock().advanceTick();
+        tickCount++;
+        useSelectedItem();
+        notifyStepListener();
+    }
+
+    /**
+     * Turn-based step used by the Swing frame: the command is applied and the world only
+     * advances if it was a real action (moving, interacting, using an item).
+     * Cycling the active slot or pressing an empty slot costs no turn.
+     *
+     * @return true if the world advanced
+     */
+    public boolean handleTurn(PlayerCommand command) {
+        if (command == null || command == PlayerCommand.NONE || isFinished()) {
+            return false;
+        }
+        if (recording != null) {
+            recording.record(tickCount, command); // Turn or not, a replay has to see it (slot cycling matters later)
+        }
+        boolean tookTurn = applyPlayerCommand(world.getPlayer(), command);
+        if (tookTurn) {
+            world.update();
+            world.getClock().advanceTick();
+            tickCount++;
+            useSelectedItem();
+        }
+        notifyStepListener(); // Cycling the active slot changes the HUD too
+        return tookTurn;
+    }
+
+    /**
+     * Runs fixed-timestep ticks until maxTicks have been simulated, the game ends or stop() is called.
+     * Ticks are paced at getTicksPerSecond() unless as-fast-as-possible mode is on.
+     *
+     * @return the number of ticks simulated by this call
+     */
+    public long run(long maxTicks) {
+        running = true;
+        long ticksThisRun = 0;
+        long nanosPerTick = 1_000_000_000L / ticksPerSecond;
+        long startNanos = System.nanoTime();
+        long nextTickAt = startNanos;
+
+        try {
+            while (running && ticksThisRun < maxTicks && !isFinished()) {
+                if (!asFastAsPossible) {
+                    long now = System.nanoTime();
+                    if (now < nextTickAt) {
+                        LockSupport.parkNanos(nextTickAt - now);
+                        continue;
+                    }
+                    nextTickAt += nanosPerTick;
+                    if (now - nextTickAt > MAX_CATCH_UP_TICKS * nanosPerTick) {
+                        nextTickAt = now; // Too far behind, drop the backlog
+                    }
+                }
+                tick();
+                ticksThisRun++;
+            }
+        } finally {
+            running = false;
+            lastRunTicks = ticksThisRun;
+            lastRunNanos = System.nanoTime() - startNanos;
+        }
+        return ticksThisRun;
+    }
+
+    /** Asks a run() in progress (possibly on another thread) to return after the current tick. */
+    public void stop() {
+        running = false;
+    }
+
+    public long getLastRunTicks() { return lastRunTicks; }
+
+    public long getLastRunNanos() { return lastRunNanos; }
+
+    public double getLastRunTicksPerSecond() {
+        if (lastRunNanos <= 0) return 0.0;
+        return lastRunTicks * 1_000_000_000.0 / lastRunNanos;
+    }
+
+    /**
+     * Applies the player's part of a turn. Item use is deferred until after world.update(),
+     * the same order MainFrame always used.
+     *
+     * @return true if the command counts as a turn
+     */
+    private boolean applyPlayerCommand(Player player, PlayerCommand command) {
+        selectedItem = null;
+        if (player == null || command == PlayerCommand.NONE) {
+            return false;
+        }
+
+        if (command.isMove()) {
+            player.move(command.getDx(), command.getDy());
+            return true;
+        }
+
+        List<Item> inventory = player.getInventory();
+        switch (command) {
+            case INTERACT:
+                player.interact();
+                return true;
+            case USE_SLOT_1:
+            case USE_SLOT_2:
+            case USE_SLOT_3:
+            case USE_SLOT_4:
+                int slot = command.getSlotIndex();
+                if (inventory.size() > slot) {
+                    selectedItem = inventory.get(slot);
+                    return true;
+                }
+                LOG.info("No item in slot " + slot);
+                return false;
+            case CYCLE_PREVIOUS:
+                if (!inventory.isEmpty()) {
+                    int size = inventory.size();
+                    player.setActiveItemSlot((player.getActiveItemSlot() - 1 + size) % size);
+                }
+                return false;
+            case CYCLE_NEXT:
+                if (!inventory.isEmpty()) {
+                    player.setActiveItemSlot((player.getActiveItemSlot() + 1) % inventory.size());
+                }
+                return false;
+            case USE_ACTIVE_ITEM:
+                Item activeItem = player.getActiveItem();
+                if (activeItem != null) {
+                    selectedItem = activeItem;
+                    return true;
+                }
+                LOG.info("No active item to use.");
+                return false;
+            default:
+                return false;
+        }
+    }
+
+    private void notifyStepListener() {
+        if (stepListener != null) {
+            stepListener.stepCompleted(world);
+        }
+    }
+
+    private void useSelectedItem() {
+        Item item = selectedItem;
+        selectedItem = null;
+        if (item == null || world.isGameOver() || world.didPlayerWin()) {
+            return;
+        }
+        // Player might have died or been replaced during world.update(), so re-fetch
+        Player player = world.getPlayer();
+        if (player != null) {
+            item.use(player);
+        }
+    }
+}
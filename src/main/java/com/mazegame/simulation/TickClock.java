@@ -0,0 +1,37 @@
+package com.mazegame.simulation;
+
+/**
+ * Logical time derived from the tick count: every tick is worth a fixed number of milliseconds,
+ * no matter how long it really took. A headless run at 100x speed sees traps cycle exactly as
+ * they would in real time, and two runs with the same inputs produce the same timings.
+ */
+public class TickClock implements SimulationClock {
+    private final long millisPerTick;
+    private long ticks;
+
+    public TickClock(long millisPerTick) {
+        if (millisPerTick <= 0) {
+            throw new IllegalArgumentException("millisPerTick must be positive");
+        }
+        this.millisPerTick = millisPerTick;
+    }
+
+    /** Clock matching an engine running at the given tick rate. */
+    public static TickClock forTickRate(int ticksPerSecond) {
+        return new TickClock(Math.max(1, 1000 / ticksPerSecond));
+    }
+
+    @Override
+    public long currentTimeMillis() {
+        return ticks * millisPerTick;
+    }
+
+    @Override
+    public void advanceTick() {
+        ticks++;
+    }
+
+    public long getTicks() { return ticks; }
+
+    public long getMillisPerTick() { return millisPerTick; }
+}
@@ -0,0 +1,16 @@
+package com.mazegame.simulation;
+
+/**
+ * Real time. This is what the game always used, and it stays the default for interactive play.
+ */
+public class WallClock implements SimulationClock {
+    @Override
+    public long currentTimeMillis() {
+        return System.currentTimeMillis();
+    }
+
+    @Override
+    public void advanceTick() {
+        // Real time advances on its own
+    }
+}
@@ -2,79 +2,129 @@ package com.mazegame.ui;
 
 import com.mazegame.core.Room;
 import com.mazegame.core.World;
-import com.mazegame.characters.Player;
-import com.mazegame.items.Item;
-import com.mazegame.items.Gun;
+import com.mazegame.logging.GameLogger;
 
 import javax.swing.JPanel;
 import java.awt.Graphics;
 import java.awt.Dimension;
 import java.awt.Color;
 import java.awt.Font;
-import java.util.List;
+import java.awt.Image;
+import java.awt.Rectangle;
 
 public class GamePanel extends JPanel {
+    private static final GameLogger LOG = GameLogger.getLogger(GamePanel.class);
     private World world;
+    private final SnapshotBuffer snapshots = new SnapshotBuffer(); // Painting reads these, never the world
+    private final RoomBackgroundCache backgrounds = new RoomBackgroundCache(); // Static tiles, one blit per frame
+    private Runnable firstFrameListener; // EDT only; run once, then dropped
     public static final int TILE_PIXEL_WIDTH = 32;
     public static final int TILE_PIXEL_HEIGHT = 32;
 
+    // Created once instead of on every paint
+    private static final Font STATUS_FONT = new Font("Arial", Font.BOLD, 18);
+    private static final Font BANNER_FONT = new Font("Arial", Font.BOLD, 40);
+    private static final Font HUD_FONT = new Font("Arial", Font.PLAIN, 14);
+
     public GamePanel(World world) {
         this.world = world;
+        // Sized for the room the player starts in (generated worlds may use other room sizes)
+        Room startRoom = (world.getPlayer() != null) ? world.getPlayer().getCurrentRoom() : null;
+        int roomWidth = (startRoom != null) ? startRoom.getWidth() : Room.ROOM_WIDTH_TILES;
+        int roomHeight = (startRoom != null) ? startRoom.getHeight() : Room.ROOM_HEIGHT_TILES;
         setPreferredSize(new Dimension(
-                Room.ROOM_WIDTH_TILES * TILE_PIXEL_WIDTH,
-                Room.ROOM_HEIGHT_TILES * TILE_PIXEL_HEIGHT + 120 // Increased space for UI
+                roomWidth * TILE_PIXEL_WIDTH,
+                roomHeight * TILE_PIXEL_HEIGHT + 120 // Increased space for UI
         ));
         setBackground(Color.DARK_GRAY);
+        publishSnapshot(world); // Something to paint before the first turn
+    }
+
+    /**
+     * Copies what the panel needs to paint out of the world and schedules a repaint. Call it from
+     * the thread running the simulation after each step; paintComponent never touches the world.
+     */
+    public void publishSnapshot(World world) {
+        snapshots.publish(world);
+        // Only repaint what changed; Swing merges these until the next paint. All safe from any thread.
+        RenderSnapshot published = snapshots.lastPublished();
+        if (published.isFullRepaint()) {
+            repaint();
+            return;
+        }
+        Rectangle dirty = published.getDirtyPixels(TILE_PIXEL_WIDTH, TILE_PIXEL_HEIGHT);
+        if (dirty != null) {
+            repaint(dirty);
+        }
+        if (published.isHudChanged()) {
+            int hudTop = published.getRoomHeight() * TILE_PIXEL_HEIGHT;
+            repaint(0, hudTop, getWidth(), Math.max(0, getHeight() - hudTop));
+        }
+    }
+
+    /** Runs once on the EDT right after the first frame with the room in it was painted. */
+    public void setFirstFrameListener(Runnable listener) {
+        this.firstFrameListener = listener;
     }
 
     @Override
     protected void paintComponent(Graphics g) {
         super.paintComponent(g);
+        RenderSnapshot snapshot = snapshots.latest();
+        if (!snapshot.isCaptured()) return;
 
-        // --- DEBUG LOGS ---
-        System.out.println("GamePanel.paintComponent: Start. GameOver=" + world.isGameOver() + ", PlayerWon=" + world.didPlayerWin());
-        Player p = world.getPlayer();
-        System.out.println("GamePanel.paintComponent: Player is " + (p == null ? "null" : "NOT null (" + System.identityHashCode(p) + ", health=" + p.getHealth() + ")"));
+        // Called for every frame - only build the debug line when DEBUG is on
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("GamePanel.paintComponent: Start. GameOver=" + snapshot.isGameOver() + ", PlayerWon=" + snapshot.didPlayerWin() +
+                      ", Player is " + (snapshot.hasPlayer() ? "NOT null (health=" + snapshot.getHealth() + ")" : "null"));
+        }
 
         // 1. Check for Game Over or Win state FIRST
-        if (world.isGameOver()) {
+        if (snapshot.isGameOver()) {
             drawEndGameMessage(g, "GAME OVER!", Color.RED);
             return; // Stop further drawing if game is over
         }
-        if (world.didPlayerWin()) {
+        if (snapshot.didPlayerWin()) {
             drawEndGameMessage(g, "YOU ESCAPED!", Color.GREEN); // Or "YOU WIN!"
             return; // Stop further drawing if player won
         }
         // ------------------------------------
 
         // If game is not over/won, then we expect a valid player
-        Player player = world.getPlayer(); // Fetch player AFTER checking game over states
-        if (player == null) {
+        if (!snapshot.hasPlayer()) {
             // This case should ideally only happen if the game starts without a player
             // or some other very unexpected error where player is null but game isn't over.
             g.setColor(Color.RED);
-            g.setFont(new Font("Arial", Font.BOLD, 18));
+            g.setFont(STATUS_FONT);
             g.drawString("CRITICAL ERROR: Player is null but game not over!", 50, 50);
-            System.err.println("GamePanel.paintComponent: Player is null, but world.isGameOver() and world.didPlayerWin() are both false. This is an unexpected state.");
+            LOG.error("GamePanel.paintComponent: Player is null, but world.isGameOver() and world.didPlayerWin() are both false. This is an unexpected state.");
             return;
         }
 
         // If game is ongoing and player is valid, draw the room and UI
-        Room currentRoom = player.getCurrentRoom();
-        if (currentRoom == null) {
+        if (!snapshot.hasRoom()) {
             g.setColor(Color.RED);
-            g.setFont(new Font("Arial", Font.BOLD, 18));
+            g.setFont(STATUS_FONT);
             g.drawString("Player is not in a room!", 50, 50);
             return;
         }
 
-        currentRoom.drawContents(g, TILE_PIXEL_WIDTH, TILE_PIXEL_HEIGHT);
-        drawUI(g, player);
+        Rectangle clip = g.getClipBounds();
+        Image background = backgrounds.get(snapshot, TILE_PIXEL_WIDTH, TILE_PIXEL_HEIGHT, getGraphicsConfiguration());
+        snapshot.paintRoom(g, TILE_PIXEL_WIDTH, TILE_PIXEL_HEIGHT, clip, background);
+        if (clip == null || clip.y + clip.height > snapshot.getRoomHeight() * TILE_PIXEL_HEIGHT) {
+            drawUI(g, snapshot); // Skipped when only tiles were repainted
+        }
+        if (firstFrameListener != null) {
+            Runnable listener = firstFrameListener;
+            firstFrameListener = null;
+            listener.run();
+        }
     }
 
     private void drawEndGameMessage(Graphics g, String message, Color color) {
         g.setColor(color);
-        g.setFont(new Font("Arial", Font.BOLD, 40));
+        g.setFont(BANNER_FONT);
         int stringWidth = g.getFontMetrics().stringWidth(message);
         // For better vertical centering:
         int stringHeight = g.getFontMetrics().getHeight();
@@ -82,57 +132,38 @@ public class GamePanel extends JPanel {
         g.drawString(message, (getWidth() - stringWidth) / 2, (getHeight() - stringHeight) / 2 + ascent);
     }
 
-    private void drawUI(Graphics g, Player player) {
-        int uiYStart = Room.ROOM_HEIGHT_TILES * TILE_PIXEL_HEIGHT + 20;
+    private void drawUI(Graphics g, RenderSnapshot snapshot) {
+        int uiYStart = snapshot.getRoomHeight() * TILE_PIXEL_HEIGHT + 20;
         g.setColor(Color.WHITE);
-        g.setFont(new Font("Arial", Font.PLAIN, 14));
+        g.setFont(HUD_FONT);
 
-        // Debug log for UI health
-        // System.out.println("drawUI: player.getHealth(): " + player.getHealth() +
-        //                    " for " + player.getName() +
-        //                    " (object: " + System.identityHashCode(player) + ")");
-
-        g.drawString("Health: " + player.getHealth() + "/" + player.getMaxHealth(), 10, uiYStart);
+        g.drawString("Health: " + snapshot.getHealth() + "/" + snapshot.getMaxHealth(), 10, uiYStart);
 
         // Inventory
         int inventoryYOffset = uiYStart + 20;
         g.drawString("Inventory (Q/R cycle, F use):", 10, inventoryYOffset);
         inventoryYOffset += 15;
 
-        List<Item> inventory = player.getInventory();
-        Item activeItem = player.getActiveItem();
-        int maxItemsToShow = 6;
-
-        if (inventory.isEmpty()) {
+        int shown = snapshot.getShownInventorySize();
+        if (snapshot.getInventorySize() == 0) {
             g.drawString("  (empty)", 10, inventoryYOffset);
         } else {
-            for (int i = 0; i < Math.min(inventory.size(), maxItemsToShow); i++) {
-                String itemText = "  " + (i + 1) + ". " + inventory.get(i).getName();
-                if (inventory.get(i) == activeItem) {
+            for (int i = 0; i < shown; i++) {
+                String itemText = "  " + (i + 1) + ". " + snapshot.getInventoryName(i);
+                if (i == snapshot.getActiveSlot()) {
                     g.setColor(Color.YELLOW);
                     itemText = "> " + itemText;
                 }
                 g.drawString(itemText, 10, inventoryYOffset + (i * 15));
                 g.setColor(Color.WHITE);
             }
-            if (inventory.size() > maxItemsToShow) {
-                g.drawString("  ... (more)", 10, inventoryYOffset + (maxItemsToShow * 15));
+            if (snapshot.getInventorySize() > shown) {
+                g.drawString("  ... (more)", 10, inventoryYOffset + (shown * 15));
             }
         }
 
         // Display active item info
         int activeItemInfoX = getWidth() / 2 - 50;
-        if (activeItem instanceof Gun) {
-            Gun heldGun = (Gun) activeItem;
-            g.drawString("Active: " + heldGun.getName() + " | Ammo: " +
-                         heldGun.getCurrentAmmo() + "/" + heldGun.getMaxAmmoCapacity(),
-                         activeItemInfoX, uiYStart);
-        } else if (activeItem != null) {
-            g.drawString("Active: " + activeItem.getName(), activeItemInfoX, uiYStart);
-        } else if (!inventory.isEmpty()){
-             g.drawString("Active: (Select with Q/R)", activeItemInfoX, uiYStart);
-        } else {
-            g.drawString("Active: Nothing", activeItemInfoX, uiYStart);
-        }
+        g.drawString(snapshot.getActiveItemLine(), activeItemInfoX, uiYStart);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,299 @@
+package com.mazegame.ui;
+
+import com.mazegame.characters.LivingBeing;
+import com.mazegame.characters.Player;
+import com.mazegame.core.Entity;
+import com.mazegame.core.Room;
+import com.mazegame.core.Tile;
+import com.mazegame.core.TileLayer;
+import com.mazegame.core.World;
+import com.mazegame.items.Gun;
+import com.mazegame.items.Item;
+
+import java.awt.Graphics;
+import java.awt.Image;
+import java.awt.Rectangle;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Everything GamePanel needs to paint one frame, copied out of the world at the end of a step.
+ *
+ * Painting only reads this object: tile types and sprites, which entity is where and in what
+ * visual state (Entity.getVisualState()), and the HUD values. Entities are kept only to call
+ * drawVisualState(), which reads nothing but their sprites. So the simulation can keep going on
+ * its own thread while the EDT paints the last snapshot.
+ *
+ * Instances are recycled by SnapshotBuffer: capture() refills the arrays instead of allocating.
+ *
+ * capture() also works out what changed since the previous snapshot (tiles whose type, sprite or
+ * entity state differ, tiles a being or item left or entered, the HUD), so GamePanel can repaint
+ * just those regions. The capture walks every cell anyway, so the diff comes almost for free and
+ * nothing in the model has to remember to mark itself dirty.
+ */
+public final class RenderSnapshot {
+    private static final int MAX_INVENTORY_LINES = 6; // GamePanel shows six and "... (more)"
+
+    private boolean captured = false;
+    private boolean gameOver;
+    private boolean playerWon;
+    private boolean hasPlayer;
+    private boolean hasRoom;
+
+    // Room tiles, index = y * width + x
+    private int width;
+    private int height;
+    private Tile.TileType[] tileTypes = new Tile.TileType[0];
+    private Image[] tileSprites = new Image[0];
+    private Entity[] tileEntities = new Entity[0];
+    private int[] tileEntityStates = new int[0];
+    private int appearanceVersion; // TileLayer.getAppearanceVersion(), keys RoomBackgroundCache
+
+    // Floor items, then beings, in drawing order
+    private int itemCount;
+    private int drawableCount;
+    private Entity[] drawables = new Entity[16];
+    private int[] drawX = new int[16];
+    private int[] drawY = new int[16];
+    private int[] drawStates = new int[16];
+
+    // HUD
+    private int health;
+    private int maxHealth;
+    private int inventorySize;
+    private final String[] inventoryNames = new String[MAX_INVENTORY_LINES];
+    private int activeSlot; // -1 if the active item isn't among the shown lines
+    private String activeItemLine;
+
+    // What changed since the snapshot published before this one
+    private Room room;
+    private boolean fullRepaint;
+    private boolean hudChanged;
+    private int dirtyMinX, dirtyMinY, dirtyMaxX, dirtyMaxY; // In tiles; empty when dirtyMaxX < dirtyMinX
+
+    /**
+     * Copies the state of the world as seen by the player. Call on the thread that runs the simulation.
+     * @param previous the snapshot published before this one (or null); only read, to find what changed
+     */
+    void capture(World world, RenderSnapshot previous) {
+        captured = true;
+        gameOver = world.isGameOver();
+        playerWon = world.didPlayerWin();
+        Player player = world.getPlayer();
+        hasPlayer = (player != null);
+        room = hasPlayer ? player.getCurrentRoom() : null;
+        hasRoom = (room != null);
+        itemCount = 0;
+        drawableCount = 0;
+        dirtyMinX = dirtyMinY = Integer.MAX_VALUE;
+        dirtyMaxX = dirtyMaxY = -1;
+        if (!hasPlayer) {
+            fullRepaint = true;
+            return;
+        }
+
+        captureHud(player);
+        hudChanged = (previous == null) || !previous.hasPlayer || isHudDifferent(previous);
+        if (hasRoom) {
+            TileLayer layer = room.getTileLayer();
+            fullRepaint = (previous == null) || !previous.captured || previous.room != room
+                    || previous.gameOver != gameOver || previous.playerWon != playerWon
+                    || previous.width != layer.getWidth() || previous.height != layer.getHeight();
+            captureRoom(layer, world, fullRepaint ? null : previous);
+        } else {
+            fullRepaint = true;
+        }
+    }
+
+    private void captureRoom(TileLayer layer, World world, RenderSnapshot previous) {
+        width = layer.getWidth();
+        height = layer.getHeight();
+        appearanceVersion = layer.getAppearanceVersion();
+        int cells = layer.size();
+        if (tileTypes.length < cells) {
+            tileTypes = new Tile.TileType[cells];
+            tileSprites = new Image[cells];
+            tileEntities = new Entity[cells];
+            tileEntityStates = new int[cells];
+        }
+        for (int i = 0; i < cells; i++) {
+            tileTypes[i] = layer.getType(i);
+            tileSprites[i] = layer.getSprite(i);
+            Entity entity = layer.getEntity(i);
+            tileEntities[i] = entity;
+            tileEntityStates[i] = (entity != null) ? entity.getVisualState() : 0;
+            if (previous != null && (previous.tileTypes[i] != tileTypes[i] || previous.tileSprites[i] != tileSprites[i]
+                    || previous.tileEntities[i] != entity || previous.tileEntityStates[i] != tileEntityStates[i])) {
+                markDirty(i % width, i / width);
+            }
+        }
+
+        for (Item item : room.getItemsInRoom()) {
+            if (item.getOwner() == null && item.getPosition() != null) {
+                addDrawable(item);
+            }
+        }
+        itemCount = drawableCount;
+        for (LivingBeing being : room.getLivingBeingsInRoom()) {
+            boolean visible = being.getHealth() > 0 || (being instanceof Player && world.isGameOver());
+            if (visible && being.getPosition() != null) {
+                addDrawable(being);
+            }
+        }
+
+        if (previous != null) {
+            // Anything that moved, appeared, vanished or changed look dirties where it was and where it is.
+            // Entries shift when something is added or removed; that only marks a bit more than needed.
+            int count = Math.max(drawableCount, previous.drawableCount);
+            for (int i = 0; i < count; i++) {
+                boolean inOld = i < previous.drawableCount;
+                boolean inNew = i < drawableCount;
+                if (inOld && inNew && previous.drawables[i] == drawables[i] && previous.drawX[i] == drawX[i]
+                        && previous.drawY[i] == drawY[i] && previous.drawStates[i] == drawStates[i]) {
+                    continue;
+                }
+                if (inOld) markDirty(previous.drawX[i], previous.drawY[i]);
+                if (inNew) markDirty(drawX[i], drawY[i]);
+            }
+        }
+    }
+
+    private void markDirty(int x, int y) {
+        dirtyMinX = Math.min(dirtyMinX, x);
+        dirtyMinY = Math.min(dirtyMinY, y);
+        dirtyMaxX = Math.max(dirtyMaxX, x);
+        dirtyMaxY = Math.max(dirtyMaxY, y);
+    }
+
+    private boolean isHudDifferent(RenderSnapshot previous) {
+        if (previous.health != health || previous.maxHealth != maxHealth || previous.inventorySize != inventorySize
+                || previous.activeSlot != activeSlot || !activeItemLine.equals(previous.activeItemLine)) {
+            return true;
+        }
+        for (int i = 0; i < getShownInventorySize(); i++) {
+            if (!inventoryNames[i].equals(previous.inventoryNames[i])) return true;
+        }
+        return false;
+    }
+
+    private void addDrawable(Entity entity) {
+        if (drawableCount == drawables.length) {
+            int size = drawables.length * 2;
+            drawables = Arrays.copyOf(drawables, size);
+            drawX = Arrays.copyOf(drawX, size);
+            drawY = Arrays.copyOf(drawY, size);
+            drawStates = Arrays.copyOf(drawStates, size);
+        }
+        drawables[drawableCount] = entity;
+        drawX[drawableCount] = entity.getPosition().getX();
+        drawY[drawableCount] = entity.getPosition().getY();
+        drawStates[drawableCount] = entity.getVisualState();
+        drawableCount++;
+    }
+
+    private void captureHud(Player player) {
+        health = player.getHealth();
+        maxHealth = player.getMaxHealth();
+        List<Item> inventory = player.getInventory();
+        Item activeItem = player.getActiveItem();
+        inventorySize = inventory.size();
+        activeSlot = -1;
+        for (int i = 0; i < Math.min(inventorySize, MAX_INVENTORY_LINES); i++) {
+            inventoryNames[i] = inventory.get(i).getName();
+            if (inventory.get(i) == activeItem) activeSlot = i;
+        }
+
+        if (activeItem instanceof Gun) {
+            Gun heldGun = (Gun) activeItem;
+            activeItemLine = "Active: " + heldGun.getName() + " | Ammo: " +
+                             heldGun.getCurrentAmmo() + "/" + heldGun.getMaxAmmoCapacity();
+        } else if (activeItem != null) {
+            activeItemLine = "Active: " + activeItem.getName();
+        } else if (inventorySize > 0) {
+            activeItemLine = "Active: (Select with Q/R)";
+        } else {
+            activeItemLine = "Active: Nothing";
+        }
+    }
+
+    /** Paints just the base tiles (no entities), for RoomBackgroundCache. */
+    void paintBackground(Graphics g, int tilePixelWidth, int tilePixelHeight) {
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                int i = y * width + x;
+                Tile.drawBase(g, tileTypes[i], tileSprites[i], x * tilePixelWidth, y * tilePixelHeight, tilePixelWidth, tilePixelHeight);
+            }
+        }
+    }
+
+    /**
+     * Paints tiles, tile entities, floor items and beings, same order as Room.drawContents().
+     * Only tiles touching 'clip' (pixels, null = everything) are drawn. With a background (from
+     * RoomBackgroundCache) the base tiles are one blit of the clipped area instead of a drawImage each.
+     */
+    public void paintRoom(Graphics g, int tilePixelWidth, int tilePixelHeight, Rectangle clip, Image background) {
+        if (!hasRoom) return;
+        int fromX = 0, fromY = 0, toX = width - 1, toY = height - 1;
+        if (clip != null) {
+            fromX = Math.max(fromX, clip.x / tilePixelWidth);
+            fromY = Math.max(fromY, clip.y / tilePixelHeight);
+            toX = Math.min(toX, (clip.x + clip.width - 1) / tilePixelWidth);
+            toY = Math.min(toY, (clip.y + clip.height - 1) / tilePixelHeight);
+        }
+        if (background != null && toX >= fromX && toY >= fromY) {
+            int x1 = fromX * tilePixelWidth, y1 = fromY * tilePixelHeight;
+            int x2 = (toX + 1) * tilePixelWidth, y2 = (toY + 1) * tilePixelHeight;
+            g.drawImage(background, x1, y1, x2, y2, x1, y1, x2, y2, null);
+        }
+        for (int y = fromY; y <= toY; y++) {
+            for (int x = fromX; x <= toX; x++) {
+                int i = y * width + x;
+                int screenX = x * tilePixelWidth;
+                int screenY = y * tilePixelHeight;
+                if (background == null) {
+                    Tile.drawBase(g, tileTypes[i], tileSprites[i], screenX, screenY, tilePixelWidth, tilePixelHeight);
+                }
+                if (tileEntities[i] != null) {
+                    tileEntities[i].drawVisualState(g, tileEntityStates[i], screenX, screenY, tilePixelWidth, tilePixelHeight);
+                }
+            }
+        }
+        for (int i = 0; i < drawableCount; i++) {
+            if (drawX[i] < fromX || drawX[i] > toX || drawY[i] < fromY || drawY[i] > toY) continue;
+            drawables[i].drawVisualState(g, drawStates[i],
+                    drawX[i] * tilePixelWidth, drawY[i] * tilePixelHeight, tilePixelWidth, tilePixelHeight);
+        }
+    }
+
+    /** False until the first capture(); nothing to paint yet. */
+    public boolean isCaptured() { return captured; }
+    public boolean isGameOver() { return gameOver; }
+    public boolean didPlayerWin() { return playerWon; }
+    public boolean hasPlayer() { return hasPlayer; }
+    public boolean hasRoom() { return hasRoom; }
+    public int getRoomWidth() { return width; }
+    public int getRoomHeight() { return height; }
+    public int getHealth() { return health; }
+    public int getMaxHealth() { return maxHealth; }
+    public int getInventorySize() { return inventorySize; }
+    public int getShownInventorySize() { return Math.min(inventorySize, MAX_INVENTORY_LINES); }
+    public String getInventoryName(int slot) { return inventoryNames[slot]; }
+    public int getActiveSlot() { return activeSlot; }
+    public String getActiveItemLine() { return activeItemLine; }
+    public int getItemCount() { return itemCount; }
+    public int getBeingCount() { return drawableCount - itemCount; }
+    Room getRoom() { return room; }
+    int getAppearanceVersion() { return appearanceVersion; }
+
+    /** The whole panel needs repainting: first frame, another room, game ended, ... */
+    public boolean isFullRepaint() { return fullRepaint; }
+    public boolean isHudChanged() { return hudChanged; }
+    public boolean hasDirtyTiles() { return dirtyMaxX >= dirtyMinX; }
+
+    /** Changed tiles since the previous snapshot as a pixel rectangle, or null if none. */
+    public Rectangle getDirtyPixels(int tilePixelWidth, int tilePixelHeight) {
+        if (!hasDirtyTiles()) return null;
+        return new Rectangle(dirtyMinX * tilePixelWidth, dirtyMinY * tilePixelHeight,
+                (dirtyMaxX - dirtyMinX + 1) * tilePixelWidth, (dirtyMaxY - dirtyMinY + 1) * tilePixelHeight);
+    }
+}
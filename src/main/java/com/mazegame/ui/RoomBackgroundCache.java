@@ -0,0 +1,94 @@
+package com.mazegame.ui;
+
+import com.mazegame.core.Room;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Pre-rendered static tiles (walls, floors, the base of door/chest/lever tiles) per room.
+ *
+ * Rendered once into a display-compatible image and blitted afterwards. An image is thrown away
+ * when its room's TileLayer.getAppearanceVersion() moves on, i.e. after Room.setTile, Tile.setType
+ * or a sprite change; doors opening or beings walking don't affect it. It is also redrawn when
+ * SpriteManager.getAtlasVersion() moves on, so placeholders get replaced once the real sprites
+ * have loaded. The last few rooms are kept so walking back and forth doesn't re-render.
+ *
+ * A compatible BufferedImage rather than a VolatileImage: Java2D caches it in video memory by
+ * itself (a "managed image") and it can't lose its contents. EDT only.
+ */
+public final class RoomBackgroundCache {
+    private static final int MAX_ROOMS = 8;
+
+    private final Map<Room, Entry> images = new LinkedHashMap<Room, Entry>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Room, Entry> eldest) {
+            return size() > MAX_ROOMS;
+        }
+    };
+    private int renders = 0;
+
+    private static final class Entry {
+        final int version;
+        final int spriteVersion;
+        final BufferedImage image;
+
+        Entry(int version, int spriteVersion, BufferedImage image) {
+            this.version = version;
+            this.spriteVersion = spriteVersion;
+            this.image = image;
+        }
+    }
+
+    /**
+     * Background for the snapshot's room, rendered from the snapshot if missing or stale.
+     * @param gc the panel's configuration for a compatible image; null falls back to plain RGB
+     */
+    public BufferedImage get(RenderSnapshot snapshot, int tilePixelWidth, int tilePixelHeight, GraphicsConfiguration gc) {
+        Room room = snapshot.getRoom();
+        if (room == null) return null;
+        Entry entry = images.get(room);
+        int spriteVersion = SpriteManager.getAtlasVersion();
+        if (entry != null && entry.version == snapshot.getAppearanceVersion() && entry.spriteVersion == spriteVersion) {
+            return entry.image;
+        }
+
+        int w = snapshot.getRoomWidth() * tilePixelWidth;
+        int h = snapshot.getRoomHeight() * tilePixelHeight;
+        BufferedImage image = (entry != null && entry.image.getWidth() == w && entry.image.getHeight() == h)
+                ? entry.image
+                : createImage(w, h, gc);
+        Graphics2D g = image.createGraphics();
+        try {
+            g.setColor(Color.DARK_GRAY); // Panel background, shows through transparent sprites
+            g.fillRect(0, 0, w, h);
+            snapshot.paintBackground(g, tilePixelWidth, tilePixelHeight);
+        } finally {
+            g.dispose();
+        }
+        images.put(room, new Entry(snapshot.getAppearanceVersion(), spriteVersion, image));
+        renders++;
+        return image;
+    }
+
+    /** How many times a background was (re)rendered; for tests and profiling. */
+    public int getRenderCount() {
+        return renders;
+    }
+
+    public void clear() {
+        images.clear();
+    }
+
+    private static BufferedImage createImage(int w, int h, GraphicsConfiguration gc) {
+        if (gc != null) {
+            return gc.createCompatibleImage(w, h, Transparency.OPAQUE);
+        }
+        return new BufferedImage(w, h, BufferedImage.TYPE_INT_RGB);
+    }
+}
@@ -0,0 +1,47 @@
+package com.mazegame.ui;
+
+import com.mazegame.core.World;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Triple buffer of RenderSnapshots between one simulation thread and the EDT.
+ *
+ * The simulation fills its back slot and swaps it into the middle; the EDT swaps the middle out
+ * whenever a newer one is there. Neither side ever waits for the other or sees a half-written
+ * snapshot, and the three snapshots are reused forever, so there is no per-frame allocation
+ * beyond what capture() needs when a room gets bigger.
+ */
+public final class SnapshotBuffer {
+    private static final int INDEX_MASK = 3;
+    private static final int FRESH = 4; // Set on the middle slot when the writer put a new one there
+
+    private final RenderSnapshot[] slots = { new RenderSnapshot(), new RenderSnapshot(), new RenderSnapshot() };
+    private final AtomicInteger middle = new AtomicInteger(2);
+    private int back = 0;  // Owned by the publishing thread
+    private int lastPublished = -1; // Also the publisher's; that slot is only ever read from now on
+    private int front = 1; // Owned by the painting thread
+
+    /** Captures the world and makes it the latest snapshot. Only call from one thread at a time. */
+    public void publish(World world) {
+        slots[back].capture(world, lastPublished < 0 ? null : slots[lastPublished]);
+        lastPublished = back;
+        back = middle.getAndSet(back | FRESH) & INDEX_MASK;
+    }
+
+    /**
+     * The snapshot the last publish() made, for the publishing thread to see what changed. Read
+     * only: the EDT may be painting it. It isn't refilled before two more publishes.
+     */
+    public RenderSnapshot lastPublished() {
+        return lastPublished < 0 ? null : slots[lastPublished];
+    }
+
+    /** Newest published snapshot. Stays valid (unchanged) until the next call from the same thread. */
+    public RenderSnapshot latest() {
+        if ((middle.get() & FRESH) != 0) {
+            front = middle.getAndSet(front) & INDEX_MASK;
+        }
+        return slots[front];
+    }
+}
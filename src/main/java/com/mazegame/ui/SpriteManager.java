@@ -1,108 +1,280 @@
 package com.mazegame.ui;
 
+import com.mazegame.core.Tile;
+import com.mazegame.logging.GameLogger;
 import javax.imageio.ImageIO;
+import java.awt.AlphaComposite;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.GraphicsEnvironment;
+import java.awt.Image;
+import java.awt.RenderingHints;
+import java.awt.Transparency;
 import java.awt.image.BufferedImage;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
+/**
+ * The one place sprites come from.
+ *
+ * getSprite() loads lazily: the first call for a name decodes it, concurrent callers for the same
+ * name wait for that one decode, and everyone after gets the cached image. Missing files are
+ * cached too, so they are only reported once. The cache is an LRU bounded at
+ * -Dmazegame.spriteCacheSize entries (64 by default); an evicted sprite is simply decoded again
+ * next time it's asked for.
+ *
+ * Every sprite is scaled once to one tile (GamePanel.TILE_PIXEL_WIDTH x TILE_PIXEL_HEIGHT) in the
+ * screen's native format, so drawing it is a plain copy.
+ *
+ * preloadAsync() lays out an atlas for all GAME_SPRITES straight away, paints a placeholder into
+ * each cell (the same fallback colours Tile and LivingBeing use) and hands out views into it, so
+ * getSprite() never waits for those. The PNGs are decoded in parallel in the background and drawn
+ * into their cells as they finish; the views already given out show the real sprite from then on.
+ * getAtlasVersion() changes with every cell filled, for anything that caches rendered sprites.
+ */
 public class SpriteManager {
-    // Use ConcurrentHashMap for thread safety and stability
-    private static Map<String, BufferedImage> sprites = new ConcurrentHashMap<>();
+    private static final GameLogger LOG = GameLogger.getLogger(SpriteManager.class);
     private static final String SPRITE_PATH_PREFIX = "/sprites/";
+    private static final int MAX_CACHED_SPRITES = Math.max(1, Integer.getInteger("mazegame.spriteCacheSize", 64));
 
+    /** Everything the game draws; what preloadAsync() decodes and packs. */
+    public static final List<String> GAME_SPRITES = Collections.unmodifiableList(Arrays.asList(
+            "player.png", "goblin.png", "wall.png", "floor.png",
+            "door_closed.png", "door_open.png", "chest_closed.png", "chest_open.png", "chest.png",
+            "key.png", "aid_kit.png", "ammo.png", "gun.png", "treasure.png", "crowbar.png",
+            "lever_on.png", "lever_off.png",
+            "trap_idle.png", "trap_warning.png", "trap_active.png"));
+
+    /** What the first frame can't do without; the rest may show as placeholders for a moment. */
+    public static final List<String> FIRST_FRAME_SPRITES = Collections.unmodifiableList(Arrays.asList(
+            "wall.png", "floor.png", "player.png"));
+
+    private static final Color PLACEHOLDER_ITEM_COLOR = new Color(128, 128, 128, 160);
+
+    // Name -> loaded (or loading) sprite. Guarded by 'cache'; decoding happens outside the lock.
+    private static final Map<String, CompletableFuture<BufferedImage>> cache =
+            new LinkedHashMap<String, CompletableFuture<BufferedImage>>(32, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, CompletableFuture<BufferedImage>> eldest) {
+                    return size() > MAX_CACHED_SPRITES;
+                }
+            };
+    private static final AtomicInteger decodeCount = new AtomicInteger(); // For tests and startup stats
+
+    // Atlas state, set up by preloadAsync()
+    private static volatile BufferedImage atlas;
+    private static final AtomicInteger atlasVersion = new AtomicInteger();
+    private static final Map<String, CompletableFuture<Void>> cellLoads = new ConcurrentHashMap<>();
+    private static CompletableFuture<Void> preload; // Guarded by SpriteManager.class
+
+    /** Decodes all GAME_SPRITES in parallel into the atlas. Blocks until done. */
     public static void loadAllSprites() {
-        System.out.println("Loading sprites...");
-        loadSprite("player.png");
-        loadSprite("goblin.png");
-        loadSprite("wall.png");
-        loadSprite("floor.png");
-        loadSprite("door_closed.png");
-        loadSprite("door_open.png");
-        loadSprite("chest_closed.png");
-        loadSprite("chest_open.png");
-        loadSprite("chest.png");
-        loadSprite("key.png");
-        loadSprite("aid_kit.png");
-        loadSprite("ammo.png");
-        loadSprite("gun.png");
-        loadSprite("treasure.png");
-        loadSprite("crowbar.png");
-        loadSprite("lever_on.png");
-        loadSprite("lever_off.png");
-        // --- Trap sprites ---
-        loadSprite("trap_idle.png");
-        loadSprite("trap_warning.png");
-        loadSprite("trap_active.png");
-        // --------------------
-        System.out.println("Sprites loaded: " + sprites.size());
-        if (sprites.containsKey("floor.png") && sprites.get("floor.png") != null) {
-            System.out.println("VERIFY_LOAD: floor.png successfully loaded and retrievable immediately after loading.");
-        } else {
-            System.err.println("VERIFY_LOAD_FAIL: floor.png FAILED to be retrieved immediately after loading or not in map.");
+        preloadAsync().join();
+    }
+
+    /**
+     * Starts decoding all GAME_SPRITES on the common pool and returns right away; the future
+     * completes when every cell of the atlas holds its real sprite. Calling it again returns the
+     * same future.
+     */
+    public static synchronized CompletableFuture<Void> preloadAsync() {
+        if (preload != null) return preload;
+        long start = System.nanoTime();
+        int tileWidth = GamePanel.TILE_PIXEL_WIDTH;
+        int tileHeight = GamePanel.TILE_PIXEL_HEIGHT;
+        int columns = (int) Math.ceil(Math.sqrt(GAME_SPRITES.size()));
+        int rows = (GAME_SPRITES.size() + columns - 1) / columns;
+        BufferedImage sheet = createCompatibleImage(columns * tileWidth, rows * tileHeight);
+
+        List<CompletableFuture<Void>> loads = new ArrayList<>();
+        Graphics2D g = sheet.createGraphics();
+        try {
+            for (int cell = 0; cell < GAME_SPRITES.size(); cell++) {
+                String name = GAME_SPRITES.get(cell);
+                int x = (cell % columns) * tileWidth;
+                int y = (cell / columns) * tileHeight;
+                paintPlaceholder(g, name, x, y, tileWidth, tileHeight);
+                synchronized (cache) {
+                    cache.put(name, CompletableFuture.completedFuture(sheet.getSubimage(x, y, tileWidth, tileHeight)));
+                }
+                CompletableFuture<Void> load = CompletableFuture.runAsync(() -> fillCell(sheet, name, x, y));
+                cellLoads.put(name, load);
+                loads.add(load);
+            }
+        } finally {
+            g.dispose();
         }
-        if (sprites.containsKey("door_open.png") && sprites.get("door_open.png") != null) {
-            System.out.println("VERIFY_LOAD: door_open.png successfully loaded and retrievable immediately after loading.");
-        } else {
-            System.err.println("VERIFY_LOAD_FAIL: door_open.png FAILED to be retrieved immediately after loading or not in map.");
+        atlas = sheet;
+        preload = CompletableFuture.allOf(loads.toArray(new CompletableFuture[0])).thenRun(() ->
+                LOG.info(String.format("Sprites loaded: %d in %.1f ms (atlas %dx%d)", GAME_SPRITES.size(),
+                        (System.nanoTime() - start) / 1_000_000.0, sheet.getWidth(), sheet.getHeight())));
+        return preload;
+    }
+
+    /** Completes when all the named sprites are in the atlas (right away for names it isn't loading). */
+    public static CompletableFuture<Void> whenLoaded(Collection<String> names) {
+        List<CompletableFuture<Void>> waits = new ArrayList<>();
+        for (String name : names) {
+            CompletableFuture<Void> load = cellLoads.get(name);
+            if (load != null) waits.add(load);
         }
-        System.out.println("Sprites loaded successfully");
+        return CompletableFuture.allOf(waits.toArray(new CompletableFuture[0]));
     }
 
-    private static void loadSprite(String fileName) {
-        String cleanFileName = fileName.trim();
-        System.out.println("SpriteManager.loadSprite: Attempting to load and cache with key: '[" + cleanFileName + "]'");
-        try (InputStream is = SpriteManager.class.getResourceAsStream(SPRITE_PATH_PREFIX + cleanFileName)) {
-            if (is == null) {
-                System.err.println("Error: Sprite resource not found - " + SPRITE_PATH_PREFIX + cleanFileName);
-                sprites.remove(cleanFileName); // Ensure key is not present if loading failed
-                return;
-            }
-            BufferedImage sprite = ImageIO.read(is);
-            if (sprite != null) {
-                sprites.put(cleanFileName, sprite); // THIS IS THE PUT
-                System.out.println("Loaded sprite: " + cleanFileName + " (Dimensions: " + sprite.getWidth() + "x" + sprite.getHeight() + ")");
-                // ADD VERIFICATION IMMEDIATELY AFTER PUT
-                if (!sprites.containsKey(cleanFileName) || sprites.get(cleanFileName) == null) {
-                    System.err.println("!!!!!!!!!! CRITICAL CACHE FAILURE for [" + cleanFileName + "] IMMEDIATELY AFTER PUT !!!!!!!!!!");
-                } else {
-                    System.out.println("!!!!!!!!!! VERIFY PUT SUCCESS for key: [" + cleanFileName + "] - get returned valid image immediately after put. Cache size: " + sprites.size() + " !!!!!!!!!!");
+    /** The sprite, decoded on first use; null if the file doesn't exist or can't be read. */
+    public static BufferedImage getSprite(String spriteName) {
+        return startLoad(spriteName.trim()).join();
+    }
+
+    /**
+     * The name a sprite was loaded under, or null if the image isn't in the cache (never one of
+     * ours, or evicted since). Only looks at what's cached, never decodes anything.
+     */
+    public static String nameOf(Image sprite) {
+        if (sprite == null) return null;
+        synchronized (cache) {
+            for (Map.Entry<String, CompletableFuture<BufferedImage>> entry : cache.entrySet()) {
+                CompletableFuture<BufferedImage> load = entry.getValue();
+                if (load.isDone() && load.getNow(null) == sprite) {
+                    return entry.getKey();
                 }
-            } else {
-                System.err.println("Error: ImageIO.read returned null for " + cleanFileName);
-                sprites.remove(cleanFileName); // Ensure key is not present if loading failed
             }
-        } catch (IOException e) {
-            System.err.println("Error loading sprite " + cleanFileName + ": " + e.getMessage());
-            sprites.remove(cleanFileName); // Ensure key is not present if loading failed
-            e.printStackTrace();
         }
+        return null;
     }
 
-    public static BufferedImage getSprite(String spriteName) {
-        String cleanSpriteName = spriteName.trim();
+    /** The image the preloaded sprites live in, or null before preloadAsync() ran. */
+    public static BufferedImage getAtlas() {
+        return atlas;
+    }
+
+    /** Bumped every time a real sprite replaced a placeholder in the atlas. */
+    public static int getAtlasVersion() {
+        return atlasVersion.get();
+    }
+
+    /** How many PNGs were actually decoded so far. */
+    public static int getDecodeCount() {
+        return decodeCount.get();
+    }
+
+    /** Forgets everything, e.g. so tests start cold. */
+    public static void clearCache() {
+        CompletableFuture<Void> running;
+        synchronized (SpriteManager.class) {
+            running = preload;
+            preload = null;
+        }
+        if (running != null) running.join(); // Don't let old cells land in a new cache
+        synchronized (cache) {
+            cache.clear();
+        }
+        cellLoads.clear();
+        atlas = null;
+    }
+
+    // Returns the cache entry for a name, creating it (and decoding on this thread) if there's none
+    private static CompletableFuture<BufferedImage> startLoad(String name) {
+        CompletableFuture<BufferedImage> load;
+        synchronized (cache) {
+            load = cache.get(name);
+            if (load != null) return load;
+            load = new CompletableFuture<>();
+            cache.put(name, load);
+        }
+        load.complete(decodeScaled(name));
+        return load;
+    }
 
-        if (!sprites.containsKey(cleanSpriteName)) {
-            System.err.println("SPRITE_ERROR: Key '[" + cleanSpriteName + "]' NOT PRESENT in cache keys.");
-            printCacheState();
+    // Never throws: a sprite that can't be read completes as null and the caller draws a placeholder
+    private static BufferedImage decodeScaled(String name) {
+        try (InputStream is = SpriteManager.class.getResourceAsStream(SPRITE_PATH_PREFIX + name)) {
+            if (is == null) {
+                LOG.warn("Error: Sprite resource not found - " + SPRITE_PATH_PREFIX + name);
+                return null;
+            }
+            BufferedImage raw = ImageIO.read(is);
+            decodeCount.incrementAndGet();
+            if (raw == null) {
+                LOG.warn("Error: ImageIO.read returned null for " + name);
+                return null;
+            }
+            LOG.debug(() -> "Loaded sprite: " + name + " (Dimensions: " + raw.getWidth() + "x" + raw.getHeight() + ")");
+            return scaleToTile(raw, GamePanel.TILE_PIXEL_WIDTH, GamePanel.TILE_PIXEL_HEIGHT);
+        } catch (IOException | RuntimeException e) {
+            LOG.error("Error loading sprite " + name + ": " + e.getMessage(), e);
             return null;
         }
+    }
 
-        BufferedImage sprite = sprites.get(cleanSpriteName);
+    private static BufferedImage scaleToTile(BufferedImage raw, int tileWidth, int tileHeight) {
+        BufferedImage scaled = createCompatibleImage(tileWidth, tileHeight);
+        Graphics2D g = scaled.createGraphics();
+        try {
+            // Scaling happens once per sprite, so it can afford the good filter
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BICUBIC);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g.drawImage(raw, 0, 0, tileWidth, tileHeight, null);
+        } finally {
+            g.dispose();
+        }
+        return scaled;
+    }
 
+    // Background part of preloadAsync(): decode one sprite and draw it over its placeholder
+    private static void fillCell(BufferedImage sheet, String name, int x, int y) {
+        BufferedImage sprite = decodeScaled(name);
         if (sprite == null) {
-            System.err.println("SPRITE_ERROR: Key '[" + cleanSpriteName + "]' IS PRESENT in cache, but its value is NULL.");
-            printCacheState();
+            synchronized (cache) {
+                cache.put(name, CompletableFuture.completedFuture(null)); // Later callers fall back like before
+            }
+            return;
+        }
+        synchronized (sheet) { // Cells don't overlap, but keep Java2D to one writer at a time
+            Graphics2D g = sheet.createGraphics();
+            try {
+                g.setComposite(AlphaComposite.Src); // Replace the placeholder, don't blend over it
+                g.drawImage(sprite, x, y, null);
+            } finally {
+                g.dispose();
+            }
+        }
+        atlasVersion.incrementAndGet();
+    }
+
+    // The look an entity has with no sprite at all (see Tile.drawBase and LivingBeing.draw)
+    private static void paintPlaceholder(Graphics2D g, String name, int x, int y, int w, int h) {
+        if (name.equals("wall.png")) {
+            Tile.drawBase(g, Tile.TileType.WALL, null, x, y, w, h);
+        } else if (name.equals("floor.png")) {
+            Tile.drawBase(g, Tile.TileType.FLOOR, null, x, y, w, h);
+        } else if (name.startsWith("door_")) {
+            Tile.drawBase(g, Tile.TileType.DOOR, null, x, y, w, h);
+        } else if (name.equals("player.png") || name.equals("goblin.png")) {
+            g.setColor(name.equals("player.png") ? Color.BLUE : Color.RED);
+            g.fillOval(x + w / 4, y + h / 4, w / 2, h / 2);
+        } else {
+            g.setColor(PLACEHOLDER_ITEM_COLOR);
+            g.fillRect(x + w / 4, y + h / 4, w / 2, h / 2);
         }
-        return sprite;
     }
 
-    private static void printCacheState() {
-        System.err.print("SPRITE_CACHE_STATE: Size: " + sprites.size() + ", Keys: [");
-        for (String key : sprites.keySet()) {
-            System.err.print("'" + key + "'" + (sprites.get(key) == null ? " (VALUE IS NULL!)" : "") + ", ");
+    // Same pixel layout as the screen when there is one, so blits skip format conversion
+    private static BufferedImage createCompatibleImage(int width, int height) {
+        if (!GraphicsEnvironment.isHeadless()) {
+            return GraphicsEnvironment.getLocalGraphicsEnvironment().getDefaultScreenDevice()
+                    .getDefaultConfiguration().createCompatibleImage(width, height, Transparency.TRANSLUCENT);
         }
-        System.err.println("]");
+        return new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB_PRE);
     }
-}
\ No newline at end of file
+}
@@ -1,5 +1,423 @@
 package com.mazegame.utils;
 
+import com.mazegame.core.Entity;
+import com.mazegame.core.World;
+import com.mazegame.logging.GameLogger;
+import com.mazegame.simulation.SimulationClock;
+import com.mazegame.simulation.WallClock;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Saves and loads whole worlds: rooms and their tiles, doors, chests and what's in them,
+ * inventories, trap phases, levers and their puzzles, NPC loot.
+ *
+ * The static methods save and load whole worlds. An instance does incremental checkpoints for
+ * one world: the first checkpoint() writes a full save (the base), later ones append only the
+ * entities flagged by Entity.markChanged() since the previous checkpoint to a journal next to it
+ * (file + ".journal"). Every maxDeltas checkpoints, or once the journal outgrows the base, the
+ * next checkpoint compacts: it writes a new base and drops the journal. load() reads the base and
+ * plays the journal over it.
+ *
+ * File layout (big-endian):
+ *   int    magic "MAZE"
+ *   short  format version
+ *   byte   flags (FLAG_DEFLATE: the body is deflated)
+ *   int    body length (uncompressed)
+ *   int    stored body length
+ *   int    CRC32 of the stored body
+ *   bytes  body, see WorldWriter
+ *
+ * Saves go to a temp file through a FileChannel and are then moved over the old file, so a crash
+ * halfway leaves the previous save alone. Loading checks magic, version and CRC before building
+ * anything, and anything off is an IOException. Bump FORMAT_VERSION whenever the body changes and
+ * keep WorldReader able to read the older ones.
+ *
+ * Journal frames (big-endian):
+ *   int    magic "MZDL"
+ *   int    CRC of the base they apply to (the base header's CRC)
+ *   int    sequence number, 0 after each base
+ *   long   clock time since the base was written, in ms
+ *   int    body length
+ *   int    CRC32 of the body
+ *   bytes  body, see WorldWriter.writeDelta()
+ *
+ * Frames for another base (a compaction that crashed before deleting the journal) are ignored,
+ * and a torn last frame is dropped, so a crash costs at most the checkpoint being written.
+ */
 public class GameStateManager {
-    
+    private static final GameLogger LOG = GameLogger.getLogger(GameStateManager.class);
+
+    public static final int FORMAT_VERSION = 1;
+    static final int MAGIC = 0x4D415A45; // "MAZE"
+    static final int FLAG_DEFLATE = 1;
+    private static final int HEADER_BYTES = 19;
+    private static final int CRC_OFFSET = 15;
+    static final int FRAME_MAGIC = 0x4D5A444C; // "MZDL"
+    private static final int FRAME_HEADER_BYTES = 28;
+    public static final int DEFAULT_MAX_DELTAS = 32;
+
+    private final World world;
+    private final Path file;
+    private final Path journal;
+    private final boolean compress;
+    private int maxDeltas = DEFAULT_MAX_DELTAS;
+    private WorldWriter writer; // Holds the entity table of the current base; null means write a base next
+    private int baseCrc;
+    private long baseTime;
+    private long baseBytes;
+    private long journalBytes;
+    private int deltaCount;
+    private int lastEndFlags;
+
+    /** Incremental checkpoints of 'world' to 'file', uncompressed. Turns on the world's change tracking. */
+    public GameStateManager(World world, Path file) {
+        this(world, file, false);
+    }
+
+    /** @param compress deflate the bases (journal frames are small and stay raw) */
+    public GameStateManager(World world, Path file, boolean compress) {
+        this.world = world;
+        this.file = file;
+        this.journal = journalFor(file);
+        this.compress = compress;
+        world.setTrackingChanges(true);
+    }
+
+    public int getMaxDeltas() { return maxDeltas; }
+
+    /** How many delta checkpoints go on one base before the next checkpoint compacts. */
+    public void setMaxDeltas(int maxDeltas) {
+        if (maxDeltas < 0) {
+            throw new IllegalArgumentException("maxDeltas can't be negative: " + maxDeltas);
+        }
+        this.maxDeltas = maxDeltas;
+    }
+
+    /** Delta checkpoints written since the last base. */
+    public int getDeltaCount() { return deltaCount; }
+
+    public long getJournalBytes() { return journalBytes; }
+
+    /**
+     * Writes what changed since the last checkpoint, or a new base when there is none yet or it's
+     * time to compact. Call it between ticks, from the thread that runs them.
+     */
+    public void checkpoint() throws IOException {
+        if (writer == null || deltaCount >= maxDeltas || journalBytes > baseBytes) {
+            compact();
+            return;
+        }
+        long start = System.nanoTime();
+        List<Entity> changed = world.takeChangedEntities();
+        int endFlags = (world.isGameOver() ? 1 : 0) | (world.didPlayerWin() ? 2 : 0);
+        if (changed.isEmpty() && endFlags == lastEndFlags) {
+            return; // Nothing to write
+        }
+        ByteBuffer body = writer.writeDelta(world, changed);
+        if (body == null) {
+            compact(); // Something a delta can't describe
+            return;
+        }
+        int length = body.remaining();
+        CRC32 crc = new CRC32();
+        crc.update(body.array(), body.arrayOffset() + body.position(), length);
+        ByteBuffer header = ByteBuffer.allocate(FRAME_HEADER_BYTES);
+        header.putInt(FRAME_MAGIC)
+              .putInt(baseCrc)
+              .putInt(deltaCount)
+              .putLong(world.getClock().currentTimeMillis() - baseTime)
+              .putInt(length)
+              .putInt((int) crc.getValue());
+        header.flip();
+        try (FileChannel channel = FileChannel.open(journal, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            ByteBuffer[] frame = { header, body };
+            while (body.hasRemaining()) {
+                channel.write(frame);
+            }
+        } catch (IOException e) {
+            writer = null; // The journal may end in half a frame now, start over with a base
+            throw e;
+        }
+        deltaCount++;
+        journalBytes += FRAME_HEADER_BYTES + length;
+        lastEndFlags = endFlags;
+        LOG.debug(() -> String.format("Checkpoint %d of %s: %d entities, %d bytes in %.2f ms", deltaCount, world.getName(),
+                changed.size(), length, (System.nanoTime() - start) / 1_000_000.0));
+    }
+
+    /** Writes a new base with everything in it and drops the journal. */
+    public void compact() throws IOException {
+        world.takeChangedEntities(); // The base has all of it
+        WorldWriter newWriter = new WorldWriter();
+        int crc;
+        long bytes;
+        try {
+            ByteBuffer data = encode(newWriter, world, compress);
+            crc = data.getInt(data.position() + CRC_OFFSET);
+            bytes = data.remaining();
+            writeAtomically(data, file);
+            Files.deleteIfExists(journal);
+        } catch (IOException | RuntimeException e) {
+            writer = null; // The changes taken above are in no file now, the next checkpoint writes a full base
+            throw e;
+        }
+        writer = newWriter;
+        baseCrc = crc;
+        baseTime = world.getClock().currentTimeMillis();
+        baseBytes = bytes;
+        journalBytes = 0;
+        deltaCount = 0;
+        lastEndFlags = (world.isGameOver() ? 1 : 0) | (world.didPlayerWin() ? 2 : 0);
+    }
+
+    static Path journalFor(Path file) {
+        return file.resolveSibling(file.getFileName() + ".journal");
+    }
+
+    /** Saves uncompressed; fastest. */
+    public static void save(World world, Path file) throws IOException {
+        save(world, file, false);
+    }
+
+    /** @param compress deflate the body: a fraction of the size, a few times slower */
+    public static void save(World world, Path file, boolean compress) throws IOException {
+        long start = System.nanoTime();
+        ByteBuffer data = encode(world, compress);
+        int bytes = data.remaining();
+        writeAtomically(data, file);
+        Files.deleteIfExists(journalFor(file)); // Left over from checkpoints, it doesn't fit this save
+        LOG.info(String.format("Saved %s to %s: %d bytes%s in %.1f ms", world.getName(), file, bytes,
+                compress ? " (deflated)" : "", (System.nanoTime() - start) / 1_000_000.0));
+    }
+
+    private static void writeAtomically(ByteBuffer data, Path file) throws IOException {
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            while (data.hasRemaining()) {
+                channel.write(data);
+            }
+        }
+        try {
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /** Loads a world running on the wall clock. */
+    public static World load(Path file) throws IOException {
+        return load(file, new WallClock());
+    }
+
+    /**
+     * Loads the save and plays its checkpoint journal, if there is one, over it.
+     * @param clock the loaded world's clock; trap phases continue from its current time
+     */
+    public static World load(Path file, SimulationClock clock) throws IOException {
+        long start = System.nanoTime();
+        ByteBuffer data = readFile(file);
+        List<Frame> frames = Collections.emptyList();
+        Path journal = journalFor(file);
+        if (Files.exists(journal) && data.remaining() >= HEADER_BYTES) {
+            frames = readJournal(readFile(journal), data.getInt(data.position() + CRC_OFFSET));
+        }
+        World world = decode(data, clock, frames);
+        LOG.info(String.format("Loaded %s from %s (+%d checkpoints) in %.1f ms", world.getName(), file,
+                frames.size(), (System.nanoTime() - start) / 1_000_000.0));
+        return world;
+    }
+
+    private static ByteBuffer readFile(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("Save file too big: " + file + " (" + size + " bytes)");
+            }
+            ByteBuffer data = ByteBuffer.allocate((int) size);
+            while (data.hasRemaining() && channel.read(data) >= 0) {
+                // Keep reading until full or EOF
+            }
+            data.flip();
+            return data;
+        }
+    }
+
+    private static final class Frame {
+        final long sinceBase;
+        final ByteBuffer body;
+
+        Frame(long sinceBase, ByteBuffer body) {
+            this.sinceBase = sinceBase;
+            this.body = body;
+        }
+    }
+
+    // The journal's frames for this base, up to the first one that's torn or out of order
+    private static List<Frame> readJournal(ByteBuffer data, int baseCrc) {
+        List<Frame> frames = new ArrayList<>();
+        while (data.remaining() >= FRAME_HEADER_BYTES) {
+            int at = data.position();
+            if (data.getInt() != FRAME_MAGIC || data.getInt() != baseCrc || data.getInt() != frames.size()) {
+                if (!frames.isEmpty()) LOG.warn("Checkpoint journal has a bad frame at byte " + at + ", ignoring the rest");
+                break;
+            }
+            long sinceBase = data.getLong();
+            int length = data.getInt();
+            int expectedCrc = data.getInt();
+            if (length < 0 || length > data.remaining()) {
+                LOG.warn("Checkpoint journal ends in a torn frame, ignoring it");
+                break;
+            }
+            CRC32 crc = new CRC32();
+            crc.update(data.array(), data.arrayOffset() + data.position(), length);
+            if ((int) crc.getValue() != expectedCrc) {
+                LOG.warn("Checkpoint " + frames.size() + " in the journal is damaged, ignoring it and the rest");
+                break;
+            }
+            ByteBuffer body = data.slice();
+            body.limit(length);
+            data.position(data.position() + length);
+            frames.add(new Frame(sinceBase, body));
+        }
+        return frames;
+    }
+
+    /** A whole save file (header included) in memory, e.g. for checkpoints that never hit the disk. */
+    public static ByteBuffer encode(World world, boolean compress) {
+        return encode(new WorldWriter(), world, compress);
+    }
+
+    private static ByteBuffer encode(WorldWriter writer, World world, boolean compress) {
+        ByteBuffer body = writer.write(world);
+        int rawLength = body.remaining();
+        byte[] stored;
+        int storedLength;
+        if (compress) {
+            stored = deflate(body.array(), body.arrayOffset() + body.position(), rawLength);
+            storedLength = stored.length;
+        } else {
+            stored = body.array();
+            storedLength = rawLength;
+        }
+        int offset = compress ? 0 : body.arrayOffset() + body.position();
+        CRC32 crc = new CRC32();
+        crc.update(stored, offset, storedLength);
+
+        ByteBuffer out = ByteBuffer.allocate(HEADER_BYTES + storedLength);
+        out.putInt(MAGIC)
+           .putShort((short) FORMAT_VERSION)
+           .put((byte) (compress ? FLAG_DEFLATE : 0))
+           .putInt(rawLength)
+           .putInt(storedLength)
+           .putInt((int) crc.getValue())
+           .put(stored, offset, storedLength);
+        out.flip();
+        return out;
+    }
+
+    /** Builds a new world from what encode() produced (or a save file's contents). */
+    public static World decode(ByteBuffer data, SimulationClock clock) throws IOException {
+        return decode(data, clock, Collections.<Frame>emptyList());
+    }
+
+    private static World decode(ByteBuffer data, SimulationClock clock, List<Frame> frames) throws IOException {
+        if (data.remaining() < HEADER_BYTES || data.getInt() != MAGIC) {
+            throw new IOException("Not a maze save file");
+        }
+        int version = data.getShort() & 0xFFFF;
+        if (version < 1 || version > FORMAT_VERSION) {
+            throw new IOException("Unsupported save format version " + version + " (this build reads up to " + FORMAT_VERSION + ")");
+        }
+        int flags = data.get();
+        int rawLength = data.getInt();
+        int storedLength = data.getInt();
+        int expectedCrc = data.getInt();
+        if (storedLength < 0 || rawLength < 0 || storedLength != data.remaining()) {
+            throw new IOException("Save file is truncated or has trailing data");
+        }
+        CRC32 crc = new CRC32();
+        crc.update(data.array(), data.arrayOffset() + data.position(), storedLength);
+        if ((int) crc.getValue() != expectedCrc) {
+            throw new IOException("Save file is corrupt (checksum mismatch)");
+        }
+
+        ByteBuffer body = data.slice();
+        if ((flags & FLAG_DEFLATE) != 0) {
+            body = ByteBuffer.wrap(inflate(body.array(), body.arrayOffset(), storedLength, rawLength));
+        }
+        try {
+            // Trap times are saved relative to when each part was written; the last one is "now"
+            long lastSave = frames.isEmpty() ? 0 : frames.get(frames.size() - 1).sinceBase;
+            WorldReader reader = new WorldReader(body, version);
+            reader.setTimeShift(lastSave);
+            World world = reader.read(clock);
+            for (Frame frame : frames) {
+                reader.setTimeShift(lastSave - frame.sinceBase);
+                reader.applyDelta(frame.body);
+            }
+            return world;
+        } catch (BufferUnderflowException | IndexOutOfBoundsException | IllegalArgumentException | ClassCastException e) {
+            throw new IOException("Save file is corrupt: " + e, e);
+        }
+    }
+
+    private static byte[] deflate(byte[] input, int offset, int length) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(input, offset, length);
+            deflater.finish();
+            byte[] out = new byte[Math.max(64, length / 4)];
+            int written = 0;
+            while (!deflater.finished()) {
+                if (written == out.length) {
+                    out = Arrays.copyOf(out, out.length * 2);
+                }
+                written += deflater.deflate(out, written, out.length - written);
+            }
+            return Arrays.copyOf(out, written);
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static byte[] inflate(byte[] input, int offset, int length, int rawLength) throws IOException {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(input, offset, length);
+            byte[] out = new byte[rawLength];
+            int read = 0;
+            while (read < rawLength && !inflater.finished()) {
+                int n = inflater.inflate(out, read, rawLength - read);
+                if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) break;
+                read += n;
+            }
+            if (read != rawLength) {
+                throw new IOException("Save file is corrupt: body inflated to " + read + " bytes, expected " + rawLength);
+            }
+            return out;
+        } catch (DataFormatException e) {
+            throw new IOException("Save file is corrupt: " + e.getMessage(), e);
+        } finally {
+            inflater.end();
+        }
+    }
 }
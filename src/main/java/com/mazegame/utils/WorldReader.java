@@ -0,0 +1,472 @@
+package com.mazegame.utils;
+
+import com.mazegame.characters.LivingBeing;
+import com.mazegame.characters.NPC;
+import com.mazegame.characters.Player;
+import com.mazegame.core.Door;
+import com.mazegame.core.Entity;
+import com.mazegame.core.Room;
+import com.mazegame.core.Tile;
+import com.mazegame.core.TileLayer;
+import com.mazegame.core.Trap;
+import com.mazegame.core.World;
+import com.mazegame.items.AidKit;
+import com.mazegame.items.Ammo;
+import com.mazegame.items.Chest;
+import com.mazegame.items.Crowbar;
+import com.mazegame.items.Gun;
+import com.mazegame.items.Item;
+import com.mazegame.items.Key;
+import com.mazegame.items.Lever;
+import com.mazegame.items.Treasure;
+import com.mazegame.puzzles.PuzzleController;
+import com.mazegame.simulation.SimulationClock;
+import com.mazegame.ui.SpriteManager;
+
+import java.awt.Image;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Builds a new World from a save body written by WorldWriter (see there for the layout).
+ *
+ * Entities are created through their normal constructors, so they come out wired up like in a
+ * fresh game (tiles, room graph, tick scheduler, sprites), and then get their saved state put
+ * back without firing events. The tiles go last and overwrite whatever the constructors did to
+ * them, so the loaded rooms look exactly as saved.
+ *
+ * After read(), applyDelta() plays checkpoint frames from WorldWriter.writeDelta() onto the
+ * world it built, in the order they were written.
+ */
+final class WorldReader {
+    private static final Trap.TrapState[] TRAP_STATES = Trap.TrapState.values();
+    private static final PuzzleController.Mode[] PUZZLE_MODES = PuzzleController.Mode.values();
+
+    private ByteBuffer buf;
+    private final int version; // Only 1 so far; branch on it when the layout changes
+    private final List<String> strings = new ArrayList<>();
+    private final List<Entity> table = new ArrayList<>();
+    private int playerItemSlot;
+    private World world;
+    private SimulationClock clock;
+    private long timeShift; // How long before the clock's "now" the data being read was saved
+    private int[] localSpriteIds;
+    private byte wallSpriteId;
+    private byte floorSpriteId;
+
+    WorldReader(ByteBuffer buf, int version) {
+        this.buf = buf;
+        this.version = version;
+    }
+
+    /** Trap times in what's read next are relative to a save taken this long before "now". */
+    void setTimeShift(long timeShift) {
+        this.timeShift = timeShift;
+    }
+
+    World read(SimulationClock clock) throws IOException {
+        World world = new World(getString());
+        this.world = world;
+        this.clock = clock;
+        world.setClock(clock); // Before any trap exists, they remember the time they were made at
+        world.setGridSize(getVarInt(), getVarInt());
+        int endFlags = buf.get();
+
+        List<Room> rooms = readRooms(world);
+        int entityCount = getVarInt();
+        for (int i = 0; i < entityCount; i++) {
+            table.add(readEntity(world, clock));
+        }
+        for (int i = rooms.size(); i < table.size(); i++) {
+            Entity entity = table.get(i);
+            if (entity instanceof LivingBeing) {
+                readInventory((LivingBeing) entity);
+            } else if (entity instanceof Chest) {
+                Chest chest = (Chest) entity;
+                int count = getVarInt();
+                for (int j = 0; j < count; j++) {
+                    chest.addItemInside((Item) getRef());
+                }
+            }
+        }
+
+        int worldCount = getVarInt();
+        List<Entity> members = new ArrayList<>(worldCount);
+        Player player = null;
+        for (int i = 0; i < worldCount; i++) {
+            Entity entity = table.get(getVarInt());
+            members.add(entity);
+            if (entity instanceof Player && player == null) player = (Player) entity;
+        }
+        world.addEntities(members);
+        if (player != null) {
+            world.setPlayer(player);
+        }
+
+        readPuzzles();
+        for (Room room : rooms) {
+            readRoomContents(room);
+        }
+        readTiles(rooms);
+
+        if ((endFlags & 1) != 0) world.setGameOver(true);
+        if ((endFlags & 2) != 0) world.setPlayerWon(true);
+        return world;
+    }
+
+    private List<Room> readRooms(World world) {
+        int count = getVarInt();
+        List<Room> rooms = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int id = getVarInt();
+            String name = getString();
+            Position gridPosition = getPosition();
+            Room room = new Room(id, name, world, gridPosition, getVarInt(), getVarInt());
+            rooms.add(room);
+            table.add(room);
+        }
+        return rooms;
+    }
+
+    private Entity readEntity(World world, SimulationClock clock) throws IOException {
+        byte kind = buf.get();
+        String name = getString();
+        Position position = getPosition();
+
+        switch (kind) {
+            case WorldWriter.KIND_PLAYER:
+            case WorldWriter.KIND_NPC: {
+                Room room = (Room) getRef();
+                int maxHealth = getVarInt();
+                int strength = getVarInt();
+                int health = getVarInt();
+                LivingBeing being;
+                if (kind == WorldWriter.KIND_PLAYER) {
+                    being = new Player(name, world, position, room, maxHealth, strength);
+                    playerItemSlot = getVarInt(); // Set once the inventory is back, it's range checked
+                } else {
+                    NPC npc = new NPC(name, world, position, room, maxHealth, strength, (Player) getRef());
+                    if (buf.get() != 0) {
+                        npc.setSpecialKeyDrop(getString(), getString());
+                    }
+                    being = npc;
+                }
+                being.setHealth(health);
+                return being;
+            }
+            case WorldWriter.KIND_DOOR: {
+                Room room1 = (Room) getRef();
+                Room room2 = (Room) getRef();
+                Position position2 = getPosition();
+                String keyId = getString();
+                int flags = buf.get();
+                Door door = new Door(name, world, room1, position, room2, position2,
+                        (flags & 1) != 0, keyId, (flags & 2) != 0);
+                door.restoreState((flags & 1) != 0, (flags & 4) != 0);
+                return door;
+            }
+            case WorldWriter.KIND_CHEST: {
+                Room room = (Room) getRef();
+                String keyId = getString();
+                int flags = buf.get();
+                Chest chest = new Chest(name, world, position, room, (flags & 1) != 0, keyId, (flags & 2) != 0);
+                chest.restoreState((flags & 1) != 0, (flags & 4) != 0);
+                return chest;
+            }
+            case WorldWriter.KIND_LEVER:
+                return new Lever(name, world, position, null, buf.get() != 0);
+            case WorldWriter.KIND_TRAP: {
+                Room room = (Room) getRef();
+                long idle = getVarLong();
+                long warning = getVarLong();
+                long active = getVarLong();
+                Trap trap = new Trap(name, world, position, idle, warning, active, getVarInt());
+                trap.setRoom(room);
+                Trap.TrapState state = TRAP_STATES[buf.get()];
+                trap.restoreState(state, clock.currentTimeMillis() - timeShift - unZigZag(getVarLong()));
+                return trap;
+            }
+            case WorldWriter.KIND_KEY:
+                return new Key(name, world, position, getString());
+            case WorldWriter.KIND_AID_KIT:
+                return new AidKit(name, world, position, getVarInt());
+            case WorldWriter.KIND_AMMO: {
+                String ammoType = getString();
+                return new Ammo(name, world, position, ammoType, getVarInt());
+            }
+            case WorldWriter.KIND_GUN: {
+                int damage = getVarInt();
+                int maxAmmo = getVarInt();
+                String ammoType = getString();
+                Gun gun = new Gun(name, world, position, damage, maxAmmo, ammoType, getVarInt());
+                int ammo = getVarInt();
+                if (ammo > 0) gun.addAmmo(ammo);
+                return gun;
+            }
+            case WorldWriter.KIND_TREASURE:
+                return new Treasure(name, world, position);
+            case WorldWriter.KIND_CROWBAR: {
+                Crowbar crowbar = new Crowbar(name, world, position);
+                crowbar.setDurability(getVarInt());
+                return crowbar;
+            }
+            default:
+                throw new IOException("Save file is corrupt: unknown entity kind " + kind + " for " + name);
+        }
+    }
+
+    private void readInventory(LivingBeing being) {
+        int count = getVarInt();
+        for (int i = 0; i < count; i++) {
+            Item item = (Item) getRef();
+            being.getInventory().add(item);
+            item.setOwner(being);
+        }
+        if (being instanceof Player) {
+            ((Player) being).setActiveItemSlot(playerItemSlot);
+        }
+    }
+
+    private void readPuzzles() {
+        int count = getVarInt();
+        for (int i = 0; i < count; i++) {
+            PuzzleController.Mode mode = PUZZLE_MODES[buf.get()];
+            int flags = buf.get();
+            int sequenceProgress = getVarInt();
+            PuzzleController controller = new PuzzleController(mode);
+            int doors = getVarInt();
+            for (int j = 0; j < doors; j++) {
+                controller.addDoor((Door) getRef());
+            }
+            int levers = getVarInt();
+            for (int j = 0; j < levers; j++) {
+                Lever lever = (Lever) getRef();
+                controller.registerLever(lever, buf.get() != 0);
+            }
+            controller.setLatching((flags & 1) != 0);
+            controller.restoreProgress(sequenceProgress, (flags & 2) != 0);
+        }
+    }
+
+    private void readRoomContents(Room room) {
+        int beings = getVarInt();
+        for (int i = 0; i < beings; i++) {
+            room.addLivingBeing((LivingBeing) getRef());
+        }
+        int items = getVarInt();
+        for (int i = 0; i < items; i++) {
+            room.addItem((Item) getRef());
+        }
+        TileLayer layer = room.getTileLayer();
+        int onTiles = getVarInt();
+        for (int i = 0; i < onTiles; i++) {
+            int cell = getVarInt();
+            layer.placeEntity(cell, getRef());
+        }
+    }
+
+    private void readTiles(List<Room> rooms) {
+        readPalette();
+        for (Room room : rooms) {
+            readRoomTiles(room);
+        }
+    }
+
+    // Saved palette id -> this JVM's palette id. Sprites that had no name when saved get
+    // whatever a fresh room would have there (wall or floor by type), marked with -1.
+    private void readPalette() {
+        int paletteSize = getVarInt();
+        localSpriteIds = new int[paletteSize];
+        for (int id = 1; id < paletteSize; id++) {
+            String name = getString();
+            Image sprite = (name != null) ? SpriteManager.getSprite(name) : null;
+            localSpriteIds[id] = (sprite != null) ? TileLayer.paletteIdOf(sprite) : -1;
+        }
+        wallSpriteId = (byte) TileLayer.paletteIdOf(SpriteManager.getSprite("wall.png"));
+        floorSpriteId = (byte) TileLayer.paletteIdOf(SpriteManager.getSprite("floor.png"));
+    }
+
+    private void readRoomTiles(Room room) {
+        TileLayer layer = room.getTileLayer();
+        int cells = layer.size();
+        byte[] types = new byte[cells];
+        byte[] spriteIds = new byte[cells];
+        buf.get(types);
+        buf.get(spriteIds);
+        for (int i = 0; i < cells; i++) {
+            int local = localSpriteIds[spriteIds[i] & 0xFF];
+            if (local >= 0) {
+                spriteIds[i] = (byte) local;
+            } else {
+                spriteIds[i] = (types[i] == (byte) Tile.TileType.WALL.ordinal()) ? wallSpriteId : floorSpriteId;
+            }
+        }
+        long[] walkable = new long[(cells + 63) >>> 6];
+        int packed = (cells + 7) / 8;
+        for (int j = 0; j < packed; j++) {
+            walkable[j >>> 3] |= (buf.get() & 0xFFL) << ((j & 7) * 8);
+        }
+        layer.restore(types, spriteIds, walkable);
+    }
+
+    /** Applies one WorldWriter.writeDelta() frame to the world read() built. */
+    void applyDelta(ByteBuffer frame) throws IOException {
+        buf = frame;
+        strings.clear();
+        int endFlags = buf.get();
+        readPalette();
+        int created = getVarInt();
+        for (int i = 0; i < created; i++) {
+            table.add(readEntity(world, clock));
+        }
+        int states = getVarInt();
+        for (int i = 0; i < states; i++) {
+            readState(getRef());
+        }
+        int left = getVarInt();
+        for (int i = 0; i < left; i++) {
+            world.removeEntity(getRef());
+        }
+        int joined = getVarInt();
+        for (int i = 0; i < joined; i++) {
+            world.addEntity(getRef());
+        }
+        int puzzles = getVarInt();
+        for (int i = 0; i < puzzles; i++) {
+            Lever lever = (Lever) getRef();
+            PuzzleController controller = lever.getControllers().get(getVarInt());
+            int sequenceProgress = getVarInt();
+            controller.restoreProgress(sequenceProgress, buf.get() != 0);
+        }
+        if ((endFlags & 1) != 0) world.setGameOver(true);
+        if ((endFlags & 2) != 0) world.setPlayerWon(true);
+        if (buf.hasRemaining()) {
+            throw new IOException("Save file is corrupt: " + buf.remaining() + " stray bytes after a checkpoint");
+        }
+    }
+
+    // Mirrors WorldWriter.writeStateRecord()
+    private void readState(Entity entity) {
+        Position position = getPosition();
+        if (entity instanceof Room) {
+            Room room = (Room) entity;
+            List<LivingBeing> beings = new ArrayList<>();
+            int count = getVarInt();
+            for (int i = 0; i < count; i++) beings.add((LivingBeing) getRef());
+            List<Item> items = new ArrayList<>();
+            count = getVarInt();
+            for (int i = 0; i < count; i++) items.add((Item) getRef());
+            room.restoreContents(beings, items);
+            TileLayer layer = room.getTileLayer();
+            for (int i = 0; i < layer.size(); i++) {
+                layer.setEntity(i, null);
+            }
+            count = getVarInt();
+            for (int i = 0; i < count; i++) {
+                int cell = getVarInt();
+                layer.placeEntity(cell, getRef());
+            }
+            readRoomTiles(room);
+        } else if (entity instanceof LivingBeing) {
+            LivingBeing being = (LivingBeing) entity;
+            Room room = (Room) getRef();
+            being.restoreState(room, position, getVarInt());
+            if (room != null) {
+                room.updateLivingBeingPosition(being);
+            }
+            being.getInventory().clear();
+            int count = getVarInt();
+            for (int i = 0; i < count; i++) {
+                Item item = (Item) getRef();
+                being.getInventory().add(item);
+                item.setOwner(being);
+            }
+            if (being instanceof Player) {
+                ((Player) being).setActiveItemSlot(getVarInt());
+            }
+        } else if (entity instanceof Door) {
+            int flags = buf.get();
+            Door door = (Door) entity;
+            door.setForceable((flags & 2) != 0);
+            door.restoreState((flags & 1) != 0, (flags & 4) != 0);
+        } else if (entity instanceof Chest) {
+            Chest chest = (Chest) entity;
+            int flags = buf.get();
+            chest.restoreState((flags & 1) != 0, (flags & 4) != 0);
+            for (Item item : new ArrayList<>(chest.getItemsInside())) {
+                chest.removeItemInside(item);
+            }
+            int count = getVarInt();
+            for (int i = 0; i < count; i++) {
+                chest.addItemInside((Item) getRef());
+            }
+        } else if (entity instanceof Lever) {
+            ((Lever) entity).restoreState(buf.get() != 0);
+        } else if (entity instanceof Trap) {
+            Trap.TrapState state = TRAP_STATES[buf.get()];
+            ((Trap) entity).restoreState(state, clock.currentTimeMillis() - timeShift - unZigZag(getVarLong()));
+        } else if (entity instanceof Item) {
+            Item item = (Item) entity;
+            item.setOwner((LivingBeing) getRef());
+            item.setPosition(position);
+            if (item instanceof Gun) {
+                ((Gun) item).setCurrentAmmo(getVarInt());
+            } else if (item instanceof Crowbar) {
+                ((Crowbar) item).setDurability(getVarInt());
+            }
+        }
+        // Rooms, doors, levers and traps stay where they were built
+    }
+
+    // --- Primitives, mirroring WorldWriter ---
+
+    private int getVarInt() {
+        int value = 0;
+        for (int shift = 0; ; shift += 7) {
+            byte b = buf.get();
+            value |= (b & 0x7F) << shift;
+            if (b >= 0) return value;
+            if (shift >= 28) throw new IllegalArgumentException("varint too long");
+        }
+    }
+
+    private long getVarLong() {
+        long value = 0;
+        for (int shift = 0; ; shift += 7) {
+            byte b = buf.get();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) return value;
+            if (shift >= 63) throw new IllegalArgumentException("varlong too long");
+        }
+    }
+
+    private static long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private String getString() {
+        int code = getVarInt();
+        if (code == 0) return null;
+        if (code >= 2) return strings.get(code - 2);
+        byte[] bytes = new byte[getVarInt()];
+        buf.get(bytes);
+        String s = new String(bytes, StandardCharsets.UTF_8);
+        strings.add(s);
+        return s;
+    }
+
+    private Position getPosition() {
+        if (buf.get() == 0) return null;
+        int x = (int) unZigZag(getVarLong());
+        int y = (int) unZigZag(getVarLong());
+        return new Position(x, y);
+    }
+
+    private Entity getRef() {
+        int id = getVarInt();
+        return (id == 0) ? null : table.get(id - 1);
+    }
+}
@@ -0,0 +1,572 @@
+package com.mazegame.utils;
+
+import com.mazegame.characters.LivingBeing;
+import com.mazegame.characters.NPC;
+import com.mazegame.characters.Player;
+import com.mazegame.core.Door;
+import com.mazegame.core.Entity;
+import com.mazegame.core.Room;
+import com.mazegame.core.TileLayer;
+import com.mazegame.core.Trap;
+import com.mazegame.core.World;
+import com.mazegame.items.AidKit;
+import com.mazegame.items.Ammo;
+import com.mazegame.items.Chest;
+import com.mazegame.items.Crowbar;
+import com.mazegame.items.Gun;
+import com.mazegame.items.Item;
+import com.mazegame.items.Key;
+import com.mazegame.items.Lever;
+import com.mazegame.items.Treasure;
+import com.mazegame.puzzles.PuzzleController;
+import com.mazegame.ui.SpriteManager;
+
+import java.awt.Image;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Writes the body of a save file (GameStateManager adds the header). Version 1 layout:
+ *
+ *   world       name, grid size, game over/won flags
+ *   rooms       id, name, grid position, size
+ *   entities    kind + what its constructor needs + its own state; the player comes first
+ *   links       inventories and chest contents
+ *   world list  table indices in World.getEntities() order
+ *   puzzles     mode, progress, doors, levers and the position each lever must be in
+ *   room state  beings, floor items, entities on tiles
+ *   tiles       sprite palette by name, then per room: types, sprite ids, base walkability bits
+ *
+ * Every entity gets an index in one table (rooms first) and references are indices. Numbers are
+ * varints and strings are written once and referred to by number afterwards, so a big generated
+ * world with thousands of "Medkit"s and "Room n"s stays small.
+ *
+ * A writer that wrote a base keeps its table, and writeDelta() then writes checkpoint frames on
+ * top of it that only hold what changed (see there). Each frame starts a fresh string table.
+ */
+final class WorldWriter {
+    static final byte KIND_PLAYER = 1;
+    static final byte KIND_NPC = 2;
+    static final byte KIND_DOOR = 3;
+    static final byte KIND_CHEST = 4;
+    static final byte KIND_LEVER = 5;
+    static final byte KIND_TRAP = 6;
+    static final byte KIND_KEY = 7;
+    static final byte KIND_AID_KIT = 8;
+    static final byte KIND_AMMO = 9;
+    static final byte KIND_GUN = 10;
+    static final byte KIND_TREASURE = 11;
+    static final byte KIND_CROWBAR = 12;
+
+    private byte[] buf = new byte[64 * 1024];
+    private int size;
+    private final Map<String, Integer> strings = new HashMap<>();
+    private final Map<Entity, Integer> ids = new IdentityHashMap<>();
+    private final List<Entity> table = new ArrayList<>();
+    private final BitSet inWorld = new BitSet(); // By table index, as of the last base or delta
+    private byte[] cellTypes = new byte[0];
+    private byte[] cellSprites = new byte[0];
+    private long[] cellWalkable = new long[0];
+
+    /** The body, from position 0 to limit. */
+    ByteBuffer write(World world) {
+        List<Room> rooms = new ArrayList<>();
+        Player player = world.getPlayer();
+        for (Entity entity : world.getEntities()) {
+            if (entity instanceof Room) {
+                rooms.add((Room) entity);
+                register(entity);
+            }
+        }
+        if (player != null) register(player);
+        for (Entity entity : world.getEntities()) {
+            register(entity);
+        }
+        // Items that only live in an inventory or a chest (the starting pistol, chest loot)
+        for (int i = 0; i < table.size(); i++) {
+            Entity entity = table.get(i);
+            if (entity instanceof LivingBeing) {
+                for (Item item : ((LivingBeing) entity).getInventory()) register(item);
+            } else if (entity instanceof Chest) {
+                for (Item item : ((Chest) entity).getItemsInside()) register(item);
+            }
+        }
+
+        putString(world.getName());
+        putVarInt(world.getRoomsX());
+        putVarInt(world.getRoomsY());
+        putByte(endFlags(world));
+
+        putVarInt(rooms.size());
+        for (Room room : rooms) {
+            putVarInt(room.getRoomID());
+            putString(room.getName());
+            putPosition(room.getPosition());
+            putVarInt(room.getWidth());
+            putVarInt(room.getHeight());
+        }
+
+        putVarInt(table.size() - rooms.size());
+        for (int i = rooms.size(); i < table.size(); i++) {
+            writeEntity(world, table.get(i));
+        }
+
+        for (int i = rooms.size(); i < table.size(); i++) {
+            Entity entity = table.get(i);
+            if (entity instanceof LivingBeing) {
+                putRefs(((LivingBeing) entity).getInventory());
+            } else if (entity instanceof Chest) {
+                putRefs(((Chest) entity).getItemsInside());
+            }
+        }
+
+        putVarInt(world.getEntities().size());
+        for (Entity entity : world.getEntities()) {
+            int id = ids.get(entity);
+            putVarInt(id);
+            inWorld.set(id);
+        }
+
+        writePuzzles();
+        for (Room room : rooms) {
+            writeRoomContents(room);
+        }
+        writeTiles(rooms);
+
+        return ByteBuffer.wrap(buf, 0, size);
+    }
+
+    /**
+     * A checkpoint frame: the current state of the changed entities, on top of the base and the
+     * deltas this writer wrote before. Layout:
+     *
+     *   end flags
+     *   tile palette    as in the base
+     *   new entities    shells like in the base, they take the next table indices
+     *   states          ref + state record (see writeState), rooms last
+     *   world list      refs that left the world, then refs that joined it in world order
+     *   puzzles         progress of every puzzle a changed lever is in
+     *
+     * New entities are whatever the changed ones lead to that the table doesn't know yet (loot
+     * dropped by a dead NPC, say). Returns null for changes a delta can't express (a new room):
+     * write a new base instead.
+     */
+    ByteBuffer writeDelta(World world, List<Entity> changed) {
+        size = 0;
+        strings.clear();
+        List<Entity> states = new ArrayList<>(changed);
+        Set<Entity> seen = Collections.newSetFromMap(new IdentityHashMap<Entity, Boolean>());
+        seen.addAll(changed);
+        List<Entity> created = new ArrayList<>();
+        List<Entity> refs = new ArrayList<>();
+        for (int i = 0; i < states.size(); i++) {
+            Entity entity = states.get(i);
+            if (!ids.containsKey(entity) && !registerNew(entity, created, seen, states)) {
+                return null;
+            }
+            refs.clear();
+            stateRefs(entity, refs);
+            for (Entity ref : refs) {
+                if (ref != null && !ids.containsKey(ref) && seen.add(ref)) {
+                    states.add(ref);
+                }
+            }
+        }
+
+        putByte(endFlags(world));
+        writePalette();
+        putVarInt(created.size());
+        for (Entity entity : created) {
+            writeEntity(world, entity);
+        }
+        // Rooms last: their lists and tile entities are filed by position, so those go first
+        putVarInt(states.size());
+        for (Entity entity : states) {
+            if (!(entity instanceof Room)) writeStateRecord(world, entity);
+        }
+        for (Entity entity : states) {
+            if (entity instanceof Room) writeStateRecord(world, entity);
+        }
+
+        List<Entity> left = new ArrayList<>();
+        Set<Entity> joined = Collections.newSetFromMap(new IdentityHashMap<Entity, Boolean>());
+        for (Entity entity : states) {
+            int id = ids.get(entity);
+            boolean now = world.containsEntity(entity);
+            if (now != inWorld.get(id)) {
+                if (now) joined.add(entity);
+                else left.add(entity);
+                inWorld.set(id, now);
+            }
+        }
+        putRefs(left);
+        // addEntity() appends, so whatever joined is at the end of the list
+        List<Entity> appended = new ArrayList<>();
+        List<Entity> all = world.getEntities();
+        for (int i = all.size() - 1; i >= 0 && appended.size() < joined.size(); i--) {
+            if (joined.contains(all.get(i))) appended.add(all.get(i));
+        }
+        Collections.reverse(appended);
+        putRefs(appended);
+
+        Set<PuzzleController> puzzles = new LinkedHashSet<>();
+        for (Entity entity : states) {
+            if (entity instanceof Lever) puzzles.addAll(((Lever) entity).getControllers());
+        }
+        putVarInt(puzzles.size());
+        for (PuzzleController controller : puzzles) {
+            // Controllers aren't in the table; find it as the n-th controller of its first lever
+            Lever first = controller.getLevers().get(0);
+            putRef(first);
+            putVarInt(first.getControllers().indexOf(controller));
+            putVarInt(controller.getSequenceProgress());
+            putByte(controller.isSolved() ? 1 : 0);
+        }
+        return ByteBuffer.wrap(buf, 0, size);
+    }
+
+    // Registers a new entity after anything its shell refers to, so the reader can build them in order
+    private boolean registerNew(Entity entity, List<Entity> created, Set<Entity> seen, List<Entity> states) {
+        if (entity instanceof Room) return false;
+        List<Entity> shellRefs = new ArrayList<>();
+        if (entity instanceof LivingBeing) {
+            shellRefs.add(((LivingBeing) entity).getCurrentRoom());
+            if (entity instanceof NPC) shellRefs.add(((NPC) entity).getTargetPlayer());
+        } else if (entity instanceof Door) {
+            shellRefs.add(((Door) entity).getRoom1());
+            shellRefs.add(((Door) entity).getRoom2());
+        } else if (entity instanceof Chest) {
+            shellRefs.add(((Chest) entity).getRoom());
+        } else if (entity instanceof Trap) {
+            shellRefs.add(((Trap) entity).getRoom());
+        }
+        for (Entity ref : shellRefs) {
+            if (ref != null && !ids.containsKey(ref)) {
+                if (!registerNew(ref, created, seen, states)) return false;
+                if (seen.add(ref)) states.add(ref);
+            }
+        }
+        register(entity);
+        created.add(entity);
+        return true;
+    }
+
+    // Entities a state record refers to
+    private static void stateRefs(Entity entity, List<Entity> out) {
+        if (entity instanceof Room) {
+            Room room = (Room) entity;
+            out.addAll(room.getLivingBeingsInRoom());
+            out.addAll(room.getItemsInRoom());
+            TileLayer layer = room.getTileLayer();
+            for (int i = 0; i < layer.size(); i++) {
+                Entity onTile = layer.getEntity(i);
+                if (onTile != null) out.add(onTile);
+            }
+        } else if (entity instanceof LivingBeing) {
+            out.add(((LivingBeing) entity).getCurrentRoom());
+            out.addAll(((LivingBeing) entity).getInventory());
+        } else if (entity instanceof Chest) {
+            out.addAll(((Chest) entity).getItemsInside());
+        } else if (entity instanceof Item) {
+            out.add(((Item) entity).getOwner());
+        }
+    }
+
+    // The mutable part of an entity; WorldReader.readState() applies it to the existing object
+    private void writeStateRecord(World world, Entity entity) {
+        putRef(entity);
+        putPosition(entity.getPosition());
+        if (entity instanceof Room) {
+            Room room = (Room) entity;
+            writeRoomContents(room);
+            writeRoomTiles(room);
+        } else if (entity instanceof LivingBeing) {
+            LivingBeing being = (LivingBeing) entity;
+            putRef(being.getCurrentRoom());
+            putVarInt(being.getHealth());
+            putRefs(being.getInventory());
+            if (being instanceof Player) {
+                putVarInt(((Player) being).getActiveItemSlot());
+            }
+        } else if (entity instanceof Door) {
+            Door door = (Door) entity;
+            putByte((door.isLocked() ? 1 : 0) | (door.canBeForcedOpen() ? 2 : 0) | (door.isCurrentlyOpen() ? 4 : 0));
+        } else if (entity instanceof Chest) {
+            Chest chest = (Chest) entity;
+            putByte((chest.isLocked() ? 1 : 0) | (chest.isOpen() ? 4 : 0));
+            putRefs(chest.getItemsInside());
+        } else if (entity instanceof Lever) {
+            putByte(((Lever) entity).isActive() ? 1 : 0);
+        } else if (entity instanceof Trap) {
+            Trap trap = (Trap) entity;
+            putByte(trap.getCurrentState().ordinal());
+            putVarLong(zigZag(world.getClock().currentTimeMillis() - trap.getLastStateChangeTime()));
+        } else if (entity instanceof Item) {
+            putRef(((Item) entity).getOwner());
+            if (entity instanceof Gun) {
+                putVarInt(((Gun) entity).getCurrentAmmo());
+            } else if (entity instanceof Crowbar) {
+                putVarInt(((Crowbar) entity).getDurability());
+            }
+        }
+    }
+
+    private static int endFlags(World world) {
+        return (world.isGameOver() ? 1 : 0) | (world.didPlayerWin() ? 2 : 0);
+    }
+
+    private void register(Entity entity) {
+        if (entity != null && !ids.containsKey(entity)) {
+            ids.put(entity, table.size());
+            table.add(entity);
+        }
+    }
+
+    private void writeEntity(World world, Entity entity) {
+        putByte(kindOf(entity));
+        putString(entity.getName());
+        putPosition(entity.getPosition());
+
+        if (entity instanceof LivingBeing) {
+            LivingBeing being = (LivingBeing) entity;
+            putRef(being.getCurrentRoom());
+            putVarInt(being.getMaxHealth());
+            putVarInt(being.getStrength());
+            putVarInt(being.getHealth());
+            if (being instanceof Player) {
+                putVarInt(((Player) being).getActiveItemSlot());
+            } else {
+                NPC npc = (NPC) being;
+                putRef(npc.getTargetPlayer());
+                putByte(npc.dropsSpecialKey ? 1 : 0);
+                if (npc.dropsSpecialKey) {
+                    putString(npc.getSpecialKeyName());
+                    putString(npc.getSpecialKeyId());
+                }
+            }
+        } else if (entity instanceof Door) {
+            Door door = (Door) entity;
+            putRef(door.getRoom1());
+            putRef(door.getRoom2());
+            putPosition(door.getRoom2() != null ? door.getPositionInRoom(door.getRoom2()) : null);
+            putString(door.getKeyId());
+            putByte((door.isLocked() ? 1 : 0) | (door.canBeForcedOpen() ? 2 : 0) | (door.isCurrentlyOpen() ? 4 : 0));
+        } else if (entity instanceof Chest) {
+            Chest chest = (Chest) entity;
+            putRef(chest.getRoom());
+            putString(chest.getKeyId());
+            putByte((chest.isLocked() ? 1 : 0) | (chest.canBeForcedOpen() ? 2 : 0) | (chest.isOpen() ? 4 : 0));
+        } else if (entity instanceof Lever) {
+            putByte(((Lever) entity).isActive() ? 1 : 0);
+        } else if (entity instanceof Trap) {
+            Trap trap = (Trap) entity;
+            putRef(trap.getRoom());
+            putVarLong(trap.getIdleDuration());
+            putVarLong(trap.getWarningDuration());
+            putVarLong(trap.getActiveDuration());
+            putVarInt(trap.getDamage());
+            putByte(trap.getCurrentState().ordinal());
+            // Time spent in the current state so far; the loaded world picks up from there on its own clock
+            putVarLong(zigZag(world.getClock().currentTimeMillis() - trap.getLastStateChangeTime()));
+        } else if (entity instanceof Key) {
+            putString(((Key) entity).getKeyId());
+        } else if (entity instanceof AidKit) {
+            putVarInt(((AidKit) entity).getHealAmount());
+        } else if (entity instanceof Ammo) {
+            Ammo ammo = (Ammo) entity;
+            putString(ammo.getAmmoType());
+            putVarInt(ammo.getQuantity());
+        } else if (entity instanceof Gun) {
+            Gun gun = (Gun) entity;
+            putVarInt(gun.getDamage());
+            putVarInt(gun.getMaxAmmoCapacity());
+            putString(gun.getRequiredAmmoType());
+            putVarInt(gun.getRange());
+            putVarInt(gun.getCurrentAmmo());
+        } else if (entity instanceof Crowbar) {
+            putVarInt(((Crowbar) entity).getDurability());
+        }
+        // Treasure: name and position are all there is
+    }
+
+    private static byte kindOf(Entity entity) {
+        if (entity instanceof Player) return KIND_PLAYER;
+        if (entity instanceof NPC) return KIND_NPC;
+        if (entity instanceof Door) return KIND_DOOR;
+        if (entity instanceof Chest) return KIND_CHEST;
+        if (entity instanceof Lever) return KIND_LEVER;
+        if (entity instanceof Trap) return KIND_TRAP;
+        if (entity instanceof Key) return KIND_KEY;
+        if (entity instanceof AidKit) return KIND_AID_KIT;
+        if (entity instanceof Ammo) return KIND_AMMO;
+        if (entity instanceof Gun) return KIND_GUN;
+        if (entity instanceof Treasure) return KIND_TREASURE;
+        if (entity instanceof Crowbar) return KIND_CROWBAR;
+        throw new IllegalArgumentException("Don't know how to save " + entity.getClass().getName() + " " + entity.getName());
+    }
+
+    private void writePuzzles() {
+        Set<PuzzleController> controllers = new LinkedHashSet<>();
+        for (Entity entity : table) {
+            if (entity instanceof Lever) {
+                controllers.addAll(((Lever) entity).getControllers());
+            }
+        }
+        putVarInt(controllers.size());
+        for (PuzzleController controller : controllers) {
+            putByte(controller.getMode().ordinal());
+            putByte((controller.isLatching() ? 1 : 0) | (controller.isSolved() ? 2 : 0));
+            putVarInt(controller.getSequenceProgress());
+            putRefs(controller.getDoors());
+            putVarInt(controller.getLevers().size());
+            for (Lever lever : controller.getLevers()) {
+                putRef(lever);
+                putByte(controller.isWantedOn(lever) ? 1 : 0);
+            }
+        }
+    }
+
+    private void writeRoomContents(Room room) {
+        putRefs(room.getLivingBeingsInRoom());
+        putRefs(room.getItemsInRoom());
+        TileLayer layer = room.getTileLayer();
+        int count = 0;
+        for (int i = 0; i < layer.size(); i++) {
+            if (layer.getEntity(i) != null) count++;
+        }
+        putVarInt(count);
+        for (int i = 0; i < layer.size(); i++) {
+            Entity onTile = layer.getEntity(i);
+            if (onTile != null) {
+                putVarInt(i);
+                putRef(onTile);
+            }
+        }
+    }
+
+    private void writeTiles(List<Room> rooms) {
+        writePalette();
+        for (Room room : rooms) {
+            writeRoomTiles(room);
+        }
+    }
+
+    // Sprite ids are only meaningful in this JVM, so the palette goes in by name.
+    // A sprite SpriteManager doesn't know (null name) loads as the default for the tile's type.
+    private void writePalette() {
+        Image[] palette = TileLayer.getSpritePalette();
+        putVarInt(palette.length);
+        for (int id = 1; id < palette.length; id++) {
+            putString(SpriteManager.nameOf(palette[id]));
+        }
+    }
+
+    // Types, sprite ids, then base walkability packed 8 cells to a byte
+    private void writeRoomTiles(Room room) {
+        TileLayer layer = room.getTileLayer();
+        int cells = layer.size();
+        if (cellTypes.length != cells) {
+            cellTypes = new byte[cells];
+            cellSprites = new byte[cells];
+            cellWalkable = new long[(cells + 63) >>> 6];
+        }
+        layer.copyCells(cellTypes, cellSprites, cellWalkable);
+        int packed = (cells + 7) / 8;
+        ensure(cells * 2 + packed);
+        System.arraycopy(cellTypes, 0, buf, size, cells);
+        System.arraycopy(cellSprites, 0, buf, size + cells, cells);
+        size += cells * 2;
+        for (int j = 0; j < packed; j++) {
+            buf[size++] = (byte) (cellWalkable[j >>> 3] >>> ((j & 7) * 8));
+        }
+    }
+
+    // --- Primitives ---
+
+    private void ensure(int bytes) {
+        if (buf.length - size < bytes) {
+            buf = Arrays.copyOf(buf, Math.max(buf.length * 2, size + bytes));
+        }
+    }
+
+    private void putByte(int value) {
+        ensure(1);
+        buf[size++] = (byte) value;
+    }
+
+    private void putVarInt(int value) {
+        ensure(5);
+        while ((value & ~0x7F) != 0) {
+            buf[size++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buf[size++] = (byte) value;
+    }
+
+    private void putVarLong(long value) {
+        ensure(10);
+        while ((value & ~0x7FL) != 0) {
+            buf[size++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buf[size++] = (byte) value;
+    }
+
+    static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    // 0 = null, 1 = new string follows, n >= 2 = the (n - 2)th string written before
+    private void putString(String s) {
+        if (s == null) {
+            putVarInt(0);
+            return;
+        }
+        Integer id = strings.get(s);
+        if (id != null) {
+            putVarInt(id + 2);
+            return;
+        }
+        strings.put(s, strings.size());
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        putVarInt(1);
+        putVarInt(bytes.length);
+        ensure(bytes.length);
+        System.arraycopy(bytes, 0, buf, size, bytes.length);
+        size += bytes.length;
+    }
+
+    // Coordinates can go negative in theory, hence zigzag
+    private void putPosition(Position position) {
+        if (position == null) {
+            putByte(0);
+            return;
+        }
+        putByte(1);
+        putVarLong(zigZag(position.getX()));
+        putVarLong(zigZag(position.getY()));
+    }
+
+    // Table index + 1, 0 for null or for something that isn't in the table
+    private void putRef(Entity entity) {
+        Integer id = (entity == null) ? null : ids.get(entity);
+        putVarInt(id == null ? 0 : id + 1);
+    }
+
+    private void putRefs(List<? extends Entity> entities) {
+        putVarInt(entities.size());
+        for (Entity entity : entities) {
+            putRef(entity);
+        }
+    }
+}
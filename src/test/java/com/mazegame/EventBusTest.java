@@ -0,0 +1,119 @@
+package com.mazegame;
+
+import com.mazegame.characters.LivingBeing;
+import com.mazegame.characters.NPC;
+import com.mazegame.characters.Player;
+import com.mazegame.core.Door;
+import com.mazegame.core.Room;
+import com.mazegame.core.World;
+import com.mazegame.events.EventCounter;
+import com.mazegame.events.GameListener;
+import com.mazegame.items.Lever;
+import com.mazegame.puzzles.PuzzleController;
+import com.mazegame.utils.Position;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EventBusTest {
+
+    private World world;
+    private Room room;
+    private Room otherRoom;
+    private Player player;
+
+    @BeforeEach
+    void setUp() {
+        world = new World("Test World");
+        room = new Room(1, "Event Room", world, new Position(0, 0));
+        otherRoom = new Room(2, "Other Room", world, new Position(1, 0));
+        world.addEntity(room);
+        world.addEntity(otherRoom);
+        player = new Player("TestHero", world, new Position(6, 6), room, 100, 10);
+        world.setPlayer(player);
+        room.addLivingBeing(player);
+    }
+
+    @Test
+    void testDamageDeathAndGameEndAreSentOnce() {
+        EventCounter counter = new EventCounter();
+        world.getEventBus().subscribe(counter);
+        List<Boolean> endings = new ArrayList<>();
+        world.getEventBus().subscribe(new GameListener() {
+            @Override
+            public void onGameEnded(boolean playerWon) {
+                endings.add(playerWon);
+            }
+        });
+
+        NPC goblin = new NPC("Goblin", world, new Position(7, 6), room, 5, 2, player);
+        room.addLivingBeing(goblin);
+        world.addEntity(goblin);
+        goblin.takeDamage(10);
+        assertEquals(1, counter.getDamageEvents());
+        assertEquals(1, counter.getDeaths());
+
+        player.takeDamage(60);
+        player.takeDamage(60);
+        assertEquals(120, counter.getDamageToPlayer());
+        assertEquals(2, counter.getDeaths());
+        assertEquals(1, endings.size());
+        assertFalse(endings.get(0));
+
+        world.setGameOver(true); // Already over, not sent again
+        assertEquals(1, endings.size());
+    }
+
+    @Test
+    void testPuzzleOpensDoorFromLeverEvents() {
+        Door door = new Door("Puzzle Door", world, room, new Position(11, 5), otherRoom, new Position(0, 5), true, null);
+        world.addEntity(door);
+        PuzzleController puzzle = new PuzzleController(door);
+        Lever a = new Lever("A", world, new Position(2, 2), puzzle, false);
+        Lever b = new Lever("B", world, new Position(4, 2), puzzle, true);
+
+        List<Door> doorChanges = new ArrayList<>();
+        world.getEventBus().subscribe(new GameListener() {
+            @Override
+            public void onDoorChanged(Door changed) {
+                doorChanges.add(changed);
+            }
+        });
+
+        b.pull(); // Off again
+        a.pull();
+        assertFalse(puzzle.isSolved());
+        assertTrue(door.isLocked());
+
+        b.pull();
+        assertTrue(puzzle.isSolved());
+        assertFalse(door.isLocked());
+        assertTrue(door.isCurrentlyOpen());
+        assertEquals(2, doorChanges.size()); // unlock + open
+    }
+
+    @Test
+    void testRoomChangeAndUnsubscribe() {
+        List<Room> entered = new ArrayList<>();
+        GameListener listener = new GameListener() {
+            @Override
+            public void onRoomChanged(LivingBeing being, Room from, Room to) {
+                entered.add(to);
+            }
+        };
+        world.getEventBus().subscribe(listener);
+        player.setCurrentRoom(otherRoom);
+        assertEquals(1, entered.size());
+        assertSame(otherRoom, entered.get(0));
+
+        assertTrue(world.getEventBus().unsubscribe(listener));
+        assertFalse(world.getEventBus().unsubscribe(listener));
+        player.setCurrentRoom(room);
+        assertEquals(1, entered.size());
+    }
+}
@@ -0,0 +1,142 @@
+package com.mazegame;
+
+import com.mazegame.logging.AsyncRingBufferAppender;
+import com.mazegame.logging.GameLogger;
+import com.mazegame.logging.LogAppender;
+import com.mazegame.logging.LogLevel;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GameLoggerTest {
+
+    // Keeps the messages it gets; optionally slow, or stuck until released
+    private static class CollectingAppender implements LogAppender {
+        final List<String> messages = new ArrayList<>();
+        final CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release;
+        long delayMillis;
+
+        @Override
+        public void append(LogLevel level, String loggerName, String message, Throwable error) {
+            entered.countDown();
+            try {
+                if (release != null) release.await();
+                if (delayMillis > 0) Thread.sleep(delayMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            synchronized (messages) {
+                messages.add(message);
+            }
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        List<String> snapshot() {
+            synchronized (messages) {
+                return new ArrayList<>(messages);
+            }
+        }
+    }
+
+    private final LogLevel oldLevel = GameLogger.getLevel();
+
+    @AfterEach
+    void tearDown() {
+        GameLogger.setLevel(oldLevel);
+    }
+
+    @Test
+    void testDisabledLevelNeverBuildsTheMessage() {
+        GameLogger log = GameLogger.getLogger(GameLoggerTest.class);
+        AtomicInteger built = new AtomicInteger();
+        GameLogger.setLevel(LogLevel.INFO);
+        log.debug(() -> "debug " + built.incrementAndGet());
+        log.trace(() -> "trace " + built.incrementAndGet());
+        assertEquals(0, built.get());
+        assertFalse(log.isDebugEnabled());
+
+        GameLogger.setLevel(LogLevel.DEBUG);
+        log.debug(() -> "debug " + built.incrementAndGet());
+        assertEquals(1, built.get());
+    }
+
+    @Test
+    void testFullRingCountsDrops() throws InterruptedException {
+        CollectingAppender console = new CollectingAppender();
+        console.release = new CountDownLatch(1);
+        AsyncRingBufferAppender appender = new AsyncRingBufferAppender(console, 4);
+
+        // The first record holds the drain thread in the delegate, then the ring fills up
+        appender.append(LogLevel.INFO, "Test", "first", null);
+        assertTrue(console.entered.await(5, TimeUnit.SECONDS));
+        for (int i = 0; i < 10; i++) {
+            appender.append(LogLevel.INFO, "Test", "queued " + i, null);
+        }
+        assertEquals(6, appender.getDroppedCount());
+
+        console.release.countDown();
+        assertTrue(appender.flush(5000));
+        List<String> written = console.snapshot();
+        assertEquals(6, written.size()); // first, the drop warning, 4 queued
+        assertEquals("first", written.get(0));
+        assertEquals("6 log records dropped (buffer full)", written.get(1));
+        assertEquals("queued 3", written.get(5));
+    }
+
+    @Test
+    void testFlushReturnsOnceQueuedRecordsAreWritten() {
+        CollectingAppender console = new CollectingAppender();
+        console.delayMillis = 2;
+        AsyncRingBufferAppender appender = new AsyncRingBufferAppender(console, 64);
+        for (int i = 0; i < 30; i++) {
+            appender.append(LogLevel.INFO, "Test", "record " + i, null);
+        }
+        appender.flush();
+        assertEquals(30, console.snapshot().size());
+        assertEquals(0, appender.getDroppedCount());
+    }
+
+    @Test
+    void testThrowingDelegateDoesNotHangFlush() {
+        CollectingAppender console = new CollectingAppender() {
+            @Override
+            public void append(LogLevel level, String loggerName, String message, Throwable error) {
+                if ("boom".equals(message)) throw new IllegalStateException("console gone");
+                super.append(level, loggerName, message, error);
+            }
+        };
+        AsyncRingBufferAppender appender = new AsyncRingBufferAppender(console, 8);
+        appender.append(LogLevel.ERROR, "Test", "boom", null);
+        assertTrue(appender.flush(5000));
+
+        // The drain thread survived and keeps writing
+        appender.append(LogLevel.INFO, "Test", "after", null);
+        assertTrue(appender.flush(5000));
+        assertEquals(1, console.snapshot().size());
+        assertEquals("after", console.snapshot().get(0));
+    }
+
+    @Test
+    void testFlushGivesUpOnAStuckDelegate() throws InterruptedException {
+        CollectingAppender console = new CollectingAppender();
+        console.release = new CountDownLatch(1);
+        AsyncRingBufferAppender appender = new AsyncRingBufferAppender(console, 8);
+        appender.append(LogLevel.INFO, "Test", "stuck", null);
+        assertTrue(console.entered.await(5, TimeUnit.SECONDS));
+        assertFalse(appender.flush(50));
+        console.release.countDown();
+        assertTrue(appender.flush(5000));
+    }
+}
@@ -0,0 +1,274 @@
+package com.mazegame;
+
+import com.mazegame.characters.NPC;
+import com.mazegame.characters.Player;
+import com.mazegame.core.*;
+import com.mazegame.items.Chest;
+import com.mazegame.items.Item;
+import com.mazegame.items.Key;
+import com.mazegame.items.Lever;
+import com.mazegame.simulation.ManualClock;
+import com.mazegame.utils.GameStateManager;
+import com.mazegame.utils.Position;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GameStateManagerTest {
+
+    @TempDir
+    Path dir;
+
+    private static <T extends Entity> T find(World world, Class<T> type, String name) {
+        for (Entity entity : world.getEntities()) {
+            if (type.isInstance(entity) && entity.getName().equals(name)) return type.cast(entity);
+        }
+        return null;
+    }
+
+    private static List<String> names(List<? extends Entity> entities) {
+        List<String> names = new ArrayList<>();
+        for (Entity entity : entities) names.add(entity.getName());
+        return names;
+    }
+
+    // Everything about a world that should survive a save, as text
+    private static List<String> describe(World world) {
+        List<String> out = new ArrayList<>();
+        for (Entity entity : world.getEntities()) {
+            String line = entity.getClass().getSimpleName() + " " + entity.getName() + " @" + entity.getPosition();
+            if (!(entity instanceof Player)) {
+                line += " v" + entity.getVisualState(); // The player's damage flash isn't saved
+            }
+            if (entity instanceof Room) {
+                Room room = (Room) entity;
+                TileLayer layer = room.getTileLayer();
+                StringBuilder tiles = new StringBuilder();
+                for (int i = 0; i < layer.size(); i++) {
+                    tiles.append(layer.getType(i).ordinal()).append(layer.isWalkable(i) ? '.' : '#');
+                }
+                line += " " + tiles + " beings=" + names(room.getLivingBeingsInRoom()) + " items=" + names(room.getItemsInRoom());
+            }
+            out.add(line);
+        }
+        return out;
+    }
+
+    @Test
+    void testHandBuiltWorldRoundTrips() throws IOException {
+        ManualClock clock = new ManualClock(10_000);
+        World world = new World("Save Test");
+        world.setClock(clock);
+        world.initializeWorld();
+        Player player = world.getPlayer();
+        Room start = world.getRoomById(0);
+
+        player.takeDamage(15);
+        Item key = start.getItemsAt(3, 3).get(0);
+        player.setPosition(new Position(3, 3));
+        player.pickUpItem(key);
+        find(world, Lever.class, "Lever Alpha").pull();
+        find(world, Door.class, "Rickety Door").forceOpen();
+        Chest crate = find(world, Chest.class, "Dusty Crate");
+        crate.open(player);
+        clock.advance(3200); // Spike traps go from idle to warning at 3000
+        for (Entity entity : new ArrayList<>(world.getEntities())) {
+            if (entity instanceof Trap) ((Trap) entity).execute(clock);
+        }
+
+        Path file = dir.resolve("game.sav");
+        GameStateManager.save(world, file, true);
+        World loaded = GameStateManager.load(file, new ManualClock(clock.currentTimeMillis()));
+
+        assertEquals(describe(world), describe(loaded));
+        Player loadedPlayer = loaded.getPlayer();
+        assertEquals(85, loadedPlayer.getHealth());
+        assertEquals(names(player.getInventory()), names(loadedPlayer.getInventory()));
+        assertSame(loadedPlayer, loadedPlayer.getInventory().get(0).getOwner());
+        assertTrue(find(loaded, Chest.class, "Dusty Crate").isOpen());
+        assertEquals(names(find(world, Chest.class, "Old Chest").getItemsInside()),
+                names(find(loaded, Chest.class, "Old Chest").getItemsInside()));
+        assertEquals("door_room2_exit_key", find(loaded, NPC.class, "Goblin Guard").getSpecialKeyId());
+        Trap trap = find(loaded, Trap.class, "Spike Trap 3");
+        assertEquals(Trap.TrapState.WARNING, trap.getCurrentState());
+        assertEquals(find(world, Trap.class, "Spike Trap 3").getLastStateChangeTime(), trap.getLastStateChangeTime());
+        assertTrue(loaded.isRoomReachable(3, 4)); // Forced door is unlocked in the room graph too
+
+        // The puzzle came back wired to the loaded levers: Alpha is already on, Beta finishes it
+        Door sealed = find(loaded, Door.class, "Sealed Passage");
+        assertTrue(sealed.isLocked());
+        find(loaded, Lever.class, "Lever Beta").pull();
+        assertFalse(sealed.isLocked());
+        assertTrue(sealed.isCurrentlyOpen());
+    }
+
+    @Test
+    void testGeneratedWorldRoundTripsCompressedOrNot() throws IOException {
+        World world = new World("Generated");
+        new WorldGenerator(7L, 20, 20).generate(world);
+
+        for (boolean compress : new boolean[] { false, true }) {
+            ByteBuffer data = GameStateManager.encode(world, compress);
+            World loaded = GameStateManager.decode(data, new ManualClock());
+            assertEquals(describe(world), describe(loaded));
+            assertEquals(400, loaded.getRoomGraph().getRoomCount());
+            assertTrue(WorldGenerator.isSolvable(loaded));
+        }
+        assertTrue(GameStateManager.encode(world, true).remaining() < GameStateManager.encode(world, false).remaining() / 2);
+    }
+
+    @Test
+    void testDamagedOrForeignFilesAreRejected() throws IOException {
+        World world = new World("Small");
+        new WorldGenerator(3L, 2, 2).generate(world);
+        byte[] bytes = GameStateManager.encode(world, false).array();
+
+        byte[] flipped = bytes.clone();
+        flipped[flipped.length / 2] ^= 0x10;
+        assertThrows(IOException.class, () -> GameStateManager.decode(ByteBuffer.wrap(flipped), new ManualClock()));
+
+        byte[] future = bytes.clone();
+        future[5] = (byte) (GameStateManager.FORMAT_VERSION + 1); // Low byte of the version
+        assertThrows(IOException.class, () -> GameStateManager.decode(ByteBuffer.wrap(future), new ManualClock()));
+
+        Path text = dir.resolve("notes.txt");
+        Files.write(text, "not a save".getBytes("UTF-8"));
+        assertThrows(IOException.class, () -> GameStateManager.load(text));
+    }
+
+    @Test
+    void testCheckpointsWriteOnlyWhatChanged() throws IOException {
+        ManualClock clock = new ManualClock(10_000);
+        World world = new World("Checkpoint Test");
+        world.setClock(clock);
+        world.initializeWorld();
+        Player player = world.getPlayer();
+        Path file = dir.resolve("auto.sav");
+        Path journal = dir.resolve("auto.sav.journal");
+        GameStateManager checkpoints = new GameStateManager(world, file);
+
+        checkpoints.checkpoint(); // The base
+        assertTrue(Files.exists(file));
+        assertFalse(Files.exists(journal));
+        long baseSize = Files.size(file);
+
+        player.takeDamage(15);
+        Item key = world.getRoomById(0).getItemsAt(3, 3).get(0);
+        player.setPosition(new Position(3, 3));
+        player.pickUpItem(key);
+        checkpoints.checkpoint();
+        find(world, Lever.class, "Lever Alpha").pull();
+        find(world, Door.class, "Rickety Door").forceOpen();
+        find(world, Chest.class, "Dusty Crate").open(player);
+        find(world, Chest.class, "Old Chest").forceOpen(); // The crowbar's way in
+        NPC goblin = find(world, NPC.class, "Goblin Guard");
+        goblin.takeDamage(goblin.getHealth()); // Drops its key: a new entity in the delta
+        clock.advance(3200);
+        for (Entity entity : new ArrayList<>(world.getEntities())) {
+            if (entity instanceof Trap) ((Trap) entity).execute(clock);
+        }
+        checkpoints.checkpoint();
+        checkpoints.checkpoint(); // Nothing changed, nothing written
+
+        assertEquals(2, checkpoints.getDeltaCount());
+        assertEquals(Files.size(journal), checkpoints.getJournalBytes());
+        assertTrue(Files.size(journal) < baseSize / 4, "journal " + Files.size(journal) + " vs base " + baseSize);
+
+        World loaded = GameStateManager.load(file, new ManualClock(clock.currentTimeMillis()));
+        assertEquals(describe(world), describe(loaded));
+        assertEquals(85, loaded.getPlayer().getHealth());
+        assertEquals(names(player.getInventory()), names(loaded.getPlayer().getInventory()));
+        assertTrue(find(loaded, Chest.class, "Dusty Crate").isOpen());
+        assertTrue(find(loaded, Chest.class, "Old Chest").isOpen());
+        assertFalse(find(loaded, Chest.class, "Old Chest").isLocked());
+        assertEquals(find(world, Trap.class, "Spike Trap 3").getLastStateChangeTime(),
+                find(loaded, Trap.class, "Spike Trap 3").getLastStateChangeTime());
+        Door sealed = find(loaded, Door.class, "Sealed Passage");
+        find(loaded, Lever.class, "Lever Beta").pull();
+        assertFalse(sealed.isLocked());
+
+        // A torn last frame loses just that checkpoint
+        player.heal(5);
+        checkpoints.checkpoint();
+        byte[] bytes = Files.readAllBytes(journal);
+        Files.write(journal, Arrays.copyOf(bytes, bytes.length - 3));
+        World torn = GameStateManager.load(file, new ManualClock(clock.currentTimeMillis()));
+        assertEquals(85, torn.getPlayer().getHealth());
+
+        // Compaction folds it all into a new base and drops the journal
+        checkpoints.setMaxDeltas(0);
+        player.heal(5);
+        checkpoints.checkpoint();
+        assertFalse(Files.exists(journal));
+        assertEquals(0, checkpoints.getDeltaCount());
+        assertEquals(describe(world), describe(GameStateManager.load(file, new ManualClock(clock.currentTimeMillis()))));
+    }
+
+    @Test
+    void testFailedCompactionFallsBackToAFullBase() throws IOException {
+        ManualClock clock = new ManualClock(10_000);
+        World world = new World("Compaction Test");
+        world.setClock(clock);
+        world.initializeWorld();
+        Player player = world.getPlayer();
+        Path file = dir.resolve("auto.sav");
+        GameStateManager checkpoints = new GameStateManager(world, file);
+        checkpoints.checkpoint();
+
+        // Something in the way of the temp file makes the new base fail to write
+        Path temp = dir.resolve("auto.sav.tmp");
+        Files.createDirectory(temp);
+        player.takeDamage(15);
+        assertThrows(IOException.class, checkpoints::compact);
+        Files.delete(temp);
+
+        // The damage was taken by the failed compaction; it must not be lost
+        checkpoints.checkpoint();
+        assertEquals(0, checkpoints.getDeltaCount());
+        assertEquals(85, GameStateManager.load(file, new ManualClock(clock.currentTimeMillis())).getPlayer().getHealth());
+    }
+
+    @Test
+    void testEveryInventoryEditIsTracked() {
+        World world = new World("Tracking Test");
+        world.initializeWorld();
+        world.setTrackingChanges(true);
+        Player player = world.getPlayer();
+        List<Item> inventory = player.getInventory();
+        inventory.add(new Key("Spare Key", world, null, "spare"));
+        inventory.add(new Key("Other Key", world, null, "other"));
+        world.takeChangedEntities();
+
+        List<Runnable> edits = Arrays.<Runnable>asList(
+            () -> inventory.sort((a, b) -> b.getName().compareTo(a.getName())),
+            () -> inventory.replaceAll(item -> item),
+            () -> inventory.removeIf(item -> item.getName().equals("Spare Key")),
+            () -> inventory.addAll(0, Arrays.<Item>asList(new Key("Third Key", world, null, "third"))),
+            () -> { Iterator<Item> it = inventory.iterator(); it.next(); it.remove(); },
+            () -> inventory.listIterator().add(new Key("Fourth Key", world, null, "fourth")),
+            () -> inventory.subList(0, 1).clear(),
+            () -> inventory.retainAll(Arrays.asList())
+        );
+        for (int i = 0; i < edits.size(); i++) {
+            edits.get(i).run();
+            assertTrue(world.takeChangedEntities().contains(player), "Edit " + i + " wasn't tracked");
+        }
+
+        NPC goblin = find(world, NPC.class, "Goblin Guard");
+        goblin.takeDamage(5);
+        world.takeChangedEntities();
+        goblin.heal(5);
+        assertTrue(world.takeChangedEntities().contains(goblin));
+    }
+}
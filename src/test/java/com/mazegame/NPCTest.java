@@ -1,4 +1,105 @@
 package com.mazegame;
+
+import com.mazegame.characters.NPC;
+import com.mazegame.characters.Player;
+import com.mazegame.core.*;
+import com.mazegame.simulation.ManualClock;
+import com.mazegame.utils.Position;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
 public class NPCTest {
-    
+
+    private World world;
+    private Room roomA;
+    private Room roomB;
+    private Player player;
+    private final ManualClock clock = new ManualClock();
+
+    @BeforeEach
+    void setUp() {
+        world = new World("NPC World");
+        roomA = new Room(20, "A", world, new Position(0, 0));
+        roomB = new Room(21, "B", world, new Position(1, 0));
+        world.addEntity(roomA);
+        world.addEntity(roomB);
+        player = new Player("TestHero", world, new Position(9, 5), roomA, 100, 10);
+        world.setPlayer(player);
+        roomA.addLivingBeing(player);
+    }
+
+    private void wallOff(Room room, int x, int fromY, int toY) {
+        for (int y = fromY; y <= toY; y++) {
+            room.getTile(x, y).setType(Tile.TileType.WALL);
+        }
+    }
+
+    @Test
+    void testGoblinWalksAroundWallInsteadOfGettingStuck() {
+        wallOff(roomA, 4, 3, 7); // Straight in the way of a horizontal-first greedy step
+        NPC goblin = new NPC("Goblin", world, new Position(2, 5), roomA, 20, 2, player);
+        roomA.addLivingBeing(goblin);
+
+        for (int i = 0; i < 20; i++) {
+            goblin.execute(clock);
+        }
+        int dx = Math.abs(goblin.getPosition().getX() - player.getPosition().getX());
+        int dy = Math.abs(goblin.getPosition().getY() - player.getPosition().getY());
+        assertTrue(dx <= 1 && dy <= 1, "Goblin should have reached the player, is at " + goblin.getPosition());
+        assertTrue(player.getHealth() < 100);
+    }
+
+    @Test
+    void testGoblinFollowsPlayerThroughDoor() {
+        Door door = new Door("A-B", world, roomA, new Position(Room.ROOM_WIDTH_TILES - 1, 5),
+                roomB, new Position(0, 5), false, null);
+        world.addEntity(door);
+        NPC goblin = new NPC("Goblin", world, new Position(2, 2), roomA, 20, 2, player);
+        roomA.addLivingBeing(goblin);
+
+        player.setCurrentRoom(roomB);
+        player.setPosition(new Position(6, 8));
+
+        for (int i = 0; i < 20 && goblin.getCurrentRoom() == roomA; i++) {
+            goblin.execute(clock);
+        }
+        assertSame(roomB, goblin.getCurrentRoom());
+    }
+
+    @Test
+    void testLockedDoorStopsTheChase() {
+        Door door = new Door("A-B", world, roomA, new Position(Room.ROOM_WIDTH_TILES - 1, 5),
+                roomB, new Position(0, 5), true, "ab_key");
+        world.addEntity(door);
+        NPC goblin = new NPC("Goblin", world, new Position(2, 2), roomA, 20, 2, player);
+        roomA.addLivingBeing(goblin);
+        player.setCurrentRoom(roomB);
+
+        for (int i = 0; i < 20; i++) {
+            goblin.execute(clock);
+        }
+        assertSame(roomA, goblin.getCurrentRoom());
+        assertEquals(new Position(2, 2), goblin.getPosition());
+    }
+
+    @Test
+    void testPathsAreRecomputedWhenWalkabilityChanges() {
+        PathFinder pathFinder = world.getPathFinder();
+        List<Position> open = pathFinder.findPath(roomA, new Position(2, 5), new Position(6, 5));
+        assertEquals(5, open.size());
+        assertSame(open, pathFinder.findPath(roomA, new Position(2, 5), new Position(6, 5)), "Second lookup should hit the cache");
+
+        wallOff(roomA, 4, 1, 9);
+        List<Position> detour = pathFinder.findPath(roomA, new Position(2, 5), new Position(6, 5));
+        assertEquals(new Position(6, 5), detour.get(detour.size() - 1));
+        assertTrue(detour.size() > 5);
+        for (Position step : detour) {
+            assertTrue(roomA.isWalkable(step.getX(), step.getY()));
+        }
+    }
 }
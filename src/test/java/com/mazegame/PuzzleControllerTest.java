@@ -0,0 +1,127 @@
+package com.mazegame;
+
+import com.mazegame.characters.Player;
+import com.mazegame.core.Door;
+import com.mazegame.core.Room;
+import com.mazegame.core.World;
+import com.mazegame.items.Lever;
+import com.mazegame.puzzles.PuzzleController;
+import com.mazegame.utils.Position;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PuzzleControllerTest {
+
+    private World world;
+    private Room room;
+    private Door eastDoor;
+    private Door southDoor;
+
+    @BeforeEach
+    void setUp() {
+        world = new World("Test World");
+        room = new Room(1, "Puzzle Room", world, new Position(0, 0));
+        Room east = new Room(2, "East Room", world, new Position(1, 0));
+        Room south = new Room(3, "South Room", world, new Position(0, 1));
+        world.addEntity(room);
+        world.addEntity(east);
+        world.addEntity(south);
+        Player player = new Player("TestHero", world, new Position(6, 6), room, 100, 10);
+        world.setPlayer(player);
+        room.addLivingBeing(player);
+        eastDoor = new Door("East Door", world, room, new Position(11, 5), east, new Position(0, 5), true, null);
+        southDoor = new Door("South Door", world, room, new Position(5, 11), south, new Position(5, 0), true, null);
+        world.addEntity(eastDoor);
+        world.addEntity(southDoor);
+    }
+
+    private Lever lever(String name, PuzzleController controller, boolean on) {
+        return new Lever(name, world, new Position(1, 1), controller, on);
+    }
+
+    @Test
+    void testAllWithWantedOffLeversOpensEveryDoor() {
+        PuzzleController puzzle = new PuzzleController(PuzzleController.Mode.ALL, eastDoor, southDoor);
+        Lever up = lever("Up", puzzle, false);
+        Lever down = new Lever("Down", world, new Position(2, 1), null, true);
+        puzzle.registerLever(down, false); // Has to end up OFF
+
+        up.pull();
+        assertFalse(puzzle.isSolved());
+        down.pull();
+        assertTrue(puzzle.isSolved());
+        assertFalse(eastDoor.isLocked());
+        assertFalse(southDoor.isLocked());
+    }
+
+    @Test
+    void testXorFollowsParityWhenNotLatching() {
+        PuzzleController puzzle = new PuzzleController(PuzzleController.Mode.XOR, eastDoor);
+        puzzle.setLatching(false);
+        Lever a = lever("A", puzzle, false);
+        Lever b = lever("B", puzzle, false);
+
+        a.pull();
+        assertTrue(puzzle.isSolved());
+        assertTrue(eastDoor.isCurrentlyOpen());
+        b.pull(); // Two on: even
+        assertFalse(puzzle.isSolved());
+        assertTrue(eastDoor.isLocked());
+        assertFalse(eastDoor.isCurrentlyOpen());
+        a.pull();
+        assertTrue(puzzle.isSolved());
+    }
+
+    @Test
+    void testSequenceResetsOnWrongOrder() {
+        PuzzleController puzzle = new PuzzleController(PuzzleController.Mode.SEQUENCE, eastDoor);
+        Lever first = lever("First", puzzle, false);
+        Lever second = lever("Second", puzzle, false);
+        Lever third = lever("Third", puzzle, false);
+
+        first.pull();
+        third.pull(); // Too early: start over
+        third.pull();
+        second.pull();
+        third.pull();
+        assertFalse(puzzle.isSolved());
+
+        // All three are on now; switch them off and do it right
+        first.pull();
+        second.pull();
+        third.pull();
+        first.pull();
+        second.pull();
+        assertFalse(puzzle.isSolved());
+        third.pull();
+        assertTrue(puzzle.isSolved());
+    }
+
+    @Test
+    void testSharedLeverDrivesTwoPuzzlesAndManyLeversStayCheap() {
+        PuzzleController any = new PuzzleController(PuzzleController.Mode.ANY, southDoor);
+        PuzzleController all = new PuzzleController(PuzzleController.Mode.ALL, eastDoor);
+        List<Lever> levers = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            Lever lever = lever("L" + i, all, false);
+            levers.add(lever);
+        }
+        any.registerLever(levers.get(499));
+
+        for (int i = 0; i < 499; i++) {
+            levers.get(i).pull();
+        }
+        assertFalse(any.isSolved());
+        assertFalse(all.isSolved());
+
+        levers.get(499).pull();
+        assertTrue(any.isSolved());
+        assertTrue(all.isSolved());
+    }
+}
@@ -0,0 +1,120 @@
+package com.mazegame;
+
+import com.mazegame.characters.Player;
+import com.mazegame.core.Room;
+import com.mazegame.core.Tile;
+import com.mazegame.core.World;
+import com.mazegame.items.Key;
+import com.mazegame.items.Lever;
+import com.mazegame.ui.RenderSnapshot;
+import com.mazegame.ui.RoomBackgroundCache;
+import com.mazegame.ui.SnapshotBuffer;
+import com.mazegame.utils.Position;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RenderSnapshotTest {
+
+    private World world;
+    private Room room;
+    private Player player;
+
+    @BeforeEach
+    void setUp() {
+        world = new World("Test World");
+        room = new Room(5, "Snapshot Room", world, new Position(0, 0));
+        world.addEntity(room);
+        player = new Player("TestHero", world, new Position(6, 6), room, 100, 10);
+        world.setPlayer(player);
+        room.addLivingBeing(player);
+        room.addItem(new Key("Floor Key", world, new Position(2, 2), "k1"));
+    }
+
+    @Test
+    void testSnapshotDoesNotChangeWhenTheWorldDoes() {
+        SnapshotBuffer buffer = new SnapshotBuffer();
+        assertFalse(buffer.latest().isCaptured());
+
+        buffer.publish(world);
+        RenderSnapshot snapshot = buffer.latest();
+        assertTrue(snapshot.isCaptured());
+        assertEquals(100, snapshot.getHealth());
+        assertEquals(1, snapshot.getItemCount());
+        assertEquals(1, snapshot.getBeingCount());
+        assertEquals("Active: Nothing", snapshot.getActiveItemLine());
+
+        // The world moves on, but nothing was published: painting keeps seeing the old frame
+        player.takeDamage(30);
+        assertSame(snapshot, buffer.latest());
+        assertEquals(100, snapshot.getHealth());
+
+        buffer.publish(world);
+        RenderSnapshot newer = buffer.latest();
+        assertNotSame(snapshot, newer);
+        assertEquals(70, newer.getHealth());
+    }
+
+    @Test
+    void testBufferKeepsOnlyTheNewestOfSeveralPublishes() {
+        SnapshotBuffer buffer = new SnapshotBuffer();
+        for (int i = 0; i < 5; i++) {
+            player.takeDamage(10);
+            buffer.publish(world);
+        }
+        assertEquals(50, buffer.latest().getHealth());
+        assertEquals(50, buffer.latest().getHealth()); // Nothing new, same snapshot
+    }
+
+    @Test
+    void testOnlyChangedTilesAreDirty() {
+        Lever lever = new Lever("Lever", world, new Position(3, 3), null, false);
+        room.getTile(3, 3).setEntityOnTile(lever);
+        SnapshotBuffer buffer = new SnapshotBuffer();
+        buffer.publish(world);
+        assertTrue(buffer.lastPublished().isFullRepaint());
+
+        player.move(1, 0); // (6,6) -> (7,6)
+        buffer.publish(world);
+        RenderSnapshot moved = buffer.lastPublished();
+        assertFalse(moved.isFullRepaint());
+        assertFalse(moved.isHudChanged());
+        assertEquals(new Rectangle(6 * 32, 6 * 32, 2 * 32, 32), moved.getDirtyPixels(32, 32));
+
+        lever.pull();
+        buffer.publish(world);
+        assertEquals(new Rectangle(3 * 32, 3 * 32, 32, 32), buffer.lastPublished().getDirtyPixels(32, 32));
+
+        buffer.publish(world);
+        assertFalse(buffer.lastPublished().hasDirtyTiles());
+
+        player.takeDamage(5);
+        buffer.publish(world);
+        assertTrue(buffer.lastPublished().isHudChanged());
+    }
+
+    @Test
+    void testBackgroundIsRenderedOnceUntilATileChanges() {
+        SnapshotBuffer buffer = new SnapshotBuffer();
+        RoomBackgroundCache cache = new RoomBackgroundCache();
+        buffer.publish(world);
+        BufferedImage first = cache.get(buffer.latest(), 32, 32, null);
+        assertEquals(room.getWidth() * 32, first.getWidth());
+
+        player.move(1, 0);
+        player.takeDamage(5);
+        buffer.publish(world);
+        assertSame(first, cache.get(buffer.latest(), 32, 32, null));
+        assertEquals(1, cache.getRenderCount());
+
+        room.getTile(4, 4).setType(Tile.TileType.WALL);
+        buffer.publish(world);
+        cache.get(buffer.latest(), 32, 32, null);
+        assertEquals(2, cache.getRenderCount());
+    }
+}
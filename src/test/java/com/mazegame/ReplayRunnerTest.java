@@ -0,0 +1,113 @@
+package com.mazegame;
+
+import com.mazegame.characters.NPC;
+import com.mazegame.core.Entity;
+import com.mazegame.core.World;
+import com.mazegame.simulation.InputRecording;
+import com.mazegame.simulation.PlayerCommand;
+import com.mazegame.simulation.RandomInputSource;
+import com.mazegame.simulation.ReplayRunner;
+import com.mazegame.simulation.SimulationEngine;
+import com.mazegame.utils.GameStateManager;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReplayRunnerTest {
+
+    @TempDir
+    Path dir;
+
+    private static List<String> entityPositions(World world) {
+        List<String> names = new ArrayList<>();
+        for (Entity entity : world.getEntities()) {
+            names.add(entity.getName() + "@" + entity.getPosition());
+        }
+        return names;
+    }
+
+    @Test
+    void testTurnBasedSessionReplaysExactly() throws IOException {
+        InputRecording recording = new InputRecording(InputRecording.Mode.TURNS, 77L, 250);
+        World live = recording.createWorld("Replay");
+        SimulationEngine engine = new SimulationEngine(live, null);
+        engine.setRecording(recording);
+        Path file = dir.resolve("session.rec");
+        recording.streamTo(file);
+
+        // Same turn-by-turn flow as MainFrame, commands from a seeded random "player"
+        RandomInputSource player = new RandomInputSource(5L);
+        for (int i = 0; i < 400 && !engine.isFinished(); i++) {
+            engine.handleTurn(player.nextCommand(i));
+        }
+        recording.close(); // No end line: like a session that crashed
+
+        InputRecording loaded = InputRecording.load(file);
+        assertEquals(recording.getEntries().size(), loaded.getEntries().size());
+        assertEquals(-1, loaded.getEndTick());
+        SimulationEngine replay = ReplayRunner.replay(loaded);
+        assertEquals(engine.getTickCount(), replay.getTickCount());
+        assertEquals(GameStateManager.encode(live, false), GameStateManager.encode(replay.getWorld(), false));
+    }
+
+    @Test
+    void testFixedTickSessionOnGeneratedWorldReplaysExactly() throws IOException {
+        InputRecording recording = new InputRecording(InputRecording.Mode.TICKS, 3L, 50, 9L, 6, 6);
+        recording.setActiveRoomRadius(1);
+        World live = recording.createWorld("Replay");
+        SimulationEngine engine = new SimulationEngine(live, new RandomInputSource(8L));
+        engine.setAsFastAsPossible(true);
+        engine.setRecording(recording);
+        engine.run(2000);
+        recording.finish(engine.getTickCount());
+
+        Path file = dir.resolve("ticks.rec");
+        recording.save(file);
+        SimulationEngine replay = ReplayRunner.replay(InputRecording.load(file));
+        assertEquals(engine.getTickCount(), replay.getTickCount());
+        assertEquals(GameStateManager.encode(live, false), GameStateManager.encode(replay.getWorld(), false));
+    }
+
+    @Test
+    void testReplayThatNoLongerLinesUpIsReported() throws IOException {
+        InputRecording recording = new InputRecording(InputRecording.Mode.TURNS, 1L, 250);
+        SimulationEngine engine = new SimulationEngine(recording.createWorld("Replay"), null);
+        engine.setRecording(recording);
+        engine.handleTurn(PlayerCommand.CYCLE_NEXT); // No turn, still tick 0
+        engine.handleTurn(PlayerCommand.MOVE_LEFT);
+        engine.handleTurn(PlayerCommand.MOVE_LEFT);
+        Path file = dir.resolve("edited.rec");
+        recording.save(file);
+
+        // Someone drops a line: the second move is now due on a tick the replay isn't at
+        List<String> lines = new ArrayList<>(Files.readAllLines(file));
+        lines.remove("1 MOVE_LEFT");
+        lines.add("5 MOVE_LEFT");
+        Files.write(file, lines);
+        assertThrows(IllegalStateException.class, () -> ReplayRunner.replay(InputRecording.load(file)));
+
+        Files.write(file, "not a recording\n".getBytes("UTF-8"));
+        assertThrows(IOException.class, () -> InputRecording.load(file));
+    }
+
+    @Test
+    void testSeededWorldsRollTheSameLoot() {
+        List<List<String>> runs = new ArrayList<>();
+        for (int run = 0; run < 2; run++) {
+            World world = new InputRecording(InputRecording.Mode.TURNS, 12345L, 250).createWorld("Loot");
+            for (Entity entity : new ArrayList<>(world.getEntities())) {
+                if (entity instanceof NPC) ((NPC) entity).takeDamage(1000);
+            }
+            runs.add(entityPositions(world));
+        }
+        assertEquals(runs.get(0), runs.get(1));
+    }
+}
@@ -0,0 +1,162 @@
+package com.mazegame;
+
+import com.mazegame.characters.LivingBeing;
+import com.mazegame.characters.NPC;
+import com.mazegame.characters.Player;
+import com.mazegame.core.*;
+import com.mazegame.items.Chest;
+import com.mazegame.items.Item;
+import com.mazegame.items.Key;
+import com.mazegame.items.Lever;
+import com.mazegame.utils.Position;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RoomTest {
+
+    private World world;
+    private Room room;
+    private Player player;
+
+    @BeforeEach
+    void setUp() {
+        world = new World("Test World");
+        room = new Room(5, "Index Room", world, new Position(0, 0));
+        world.addEntity(room);
+        player = new Player("TestHero", world, new Position(6, 6), room, 100, 10);
+        world.setPlayer(player);
+        room.addLivingBeing(player);
+    }
+
+    @Test
+    void testItemLookupFollowsAddAndRemove() {
+        Key key = new Key("Index Key", world, new Position(2, 3), "k1");
+        room.addItem(key);
+
+        assertEquals(1, room.getItemsAt(2, 3).size());
+        assertSame(key, room.getItemsAt(new Position(2, 3)).get(0));
+        assertTrue(room.getItemsAt(3, 3).isEmpty());
+
+        room.removeItem(key);
+        assertTrue(room.getItemsAt(2, 3).isEmpty());
+        assertFalse(room.containsItem(key));
+    }
+
+    @Test
+    void testBeingLookupFollowsMoveAndSetPosition() {
+        assertSame(player, room.getLivingBeingsAt(6, 6).get(0));
+
+        player.move(1, 0);
+        assertTrue(room.getLivingBeingsAt(6, 6).isEmpty());
+        assertSame(player, room.getLivingBeingsAt(7, 6).get(0));
+
+        player.setPosition(new Position(2, 2));
+        assertTrue(room.getLivingBeingsAt(7, 6).isEmpty());
+        assertSame(player, room.getLivingBeingsAt(2, 2).get(0));
+
+        room.removeLivingBeing(player);
+        assertTrue(room.getLivingBeingsAt(2, 2).isEmpty());
+    }
+
+    @Test
+    void testRangeQueries() {
+        NPC near = new NPC("Near Goblin", world, new Position(8, 6), room, 20, 2, player);
+        NPC far = new NPC("Far Goblin", world, new Position(1, 1), room, 20, 2, player);
+        room.addLivingBeing(near);
+        room.addLivingBeing(far);
+        room.addItem(new Key("Near Key", world, new Position(5, 5), "k2"));
+
+        List<LivingBeing> beings = room.getLivingBeingsInRange(6, 6, 2, new ArrayList<>());
+        assertTrue(beings.contains(player));
+        assertTrue(beings.contains(near));
+        assertFalse(beings.contains(far));
+
+        List<Item> items = room.getItemsInRange(6, 6, 1, new ArrayList<>());
+        assertEquals(1, items.size());
+
+        // Range is clipped to the room instead of failing at the edges
+        assertTrue(room.getLivingBeingsInRange(0, 0, 3, new ArrayList<>()).contains(far));
+    }
+
+    @Test
+    void testCollectionGettersAreLiveReadOnlyViews() {
+        List<Item> items = room.getItemsInRoom();
+        assertSame(items, room.getItemsInRoom(), "Getter should not copy on every call");
+        assertThrows(UnsupportedOperationException.class, () -> items.add(null));
+
+        Key key = new Key("View Key", world, new Position(4, 4), "k3");
+        room.addItem(key);
+        assertTrue(items.contains(key), "View should reflect later additions");
+
+        // Removing while iterating must not blow up
+        for (LivingBeing being : room.getLivingBeingsInRoom()) {
+            room.removeLivingBeing(being);
+        }
+        assertTrue(room.getLivingBeingsInRoom().isEmpty());
+    }
+
+    @Test
+    void testWalkabilityCacheFollowsDoorsAndChests() {
+        Room other = new Room(6, "Other Room", world, new Position(1, 0));
+        Door door = new Door("Cache Door", world, room, new Position(11, 5), other, new Position(0, 5), false, null);
+        assertTrue(room.isWalkable(3, 3));
+        assertFalse(room.isWalkable(0, 0)); // Border wall
+        assertFalse(room.isWalkable(-1, 3));
+        assertFalse(room.isWalkable(11, 5));
+
+        door.open();
+        assertTrue(room.isWalkable(11, 5));
+        assertTrue(other.isWalkable(0, 5));
+        door.close();
+        assertFalse(room.isWalkable(11, 5));
+
+        new Chest("Cache Chest", world, new Position(3, 3), room, false, null);
+        assertFalse(room.isWalkable(3, 3));
+        assertFalse(room.getTile(3, 3).isWalkable());
+    }
+
+    @Test
+    void testNewRoomIsAnEmptyBoxWhateverItsId() {
+        for (int id = 0; id < 2; id++) {
+            Room plain = new Room(id, "Plain " + id, world, new Position(id, 1));
+            for (int y = 1; y < plain.getHeight() - 1; y++) {
+                for (int x = 1; x < plain.getWidth() - 1; x++) {
+                    assertTrue(plain.isWalkable(x, y), "Room " + id + " has a wall at " + x + "," + y);
+                }
+            }
+        }
+        // The hand-built level adds its own
+        World level = new World("Level");
+        level.initializeWorld();
+        assertEquals(Tile.TileType.WALL, level.getRoomById(0).getTile(5, 3).getType());
+    }
+
+    @Test
+    void testEntitiesInRoomComeFromTheTileEntityTable() {
+        Chest first = new Chest("First Chest", world, new Position(2, 2), room, false, null, false);
+        Chest second = new Chest("Second Chest", world, new Position(9, 9), room, false, null, false);
+        Lever lever = new Lever("Lever", world, new Position(4, 1), null, false);
+        room.getTile(4, 1).setEntityOnTile(lever);
+        List<Entity> found = world.getEntitiesInRoom(room);
+        assertTrue(found.contains(first));
+        assertTrue(found.contains(second));
+        assertTrue(found.contains(player));
+        assertFalse(found.contains(lever), "Only chests are picked up from the tiles");
+
+        room.getTile(2, 2).setEntityOnTile(null); // Frees first's slot in the table
+        found = world.getEntitiesInRoom(room);
+        assertFalse(found.contains(first));
+        assertTrue(found.contains(second));
+
+        List<Lever> levers = new ArrayList<>();
+        room.getTileEntities(Lever.class, levers);
+        assertEquals(1, levers.size());
+        assertSame(lever, levers.get(0));
+    }
+}
@@ -0,0 +1,70 @@
+package com.mazegame;
+
+import com.mazegame.characters.Player;
+import com.mazegame.core.Room;
+import com.mazegame.core.World;
+import com.mazegame.simulation.PlayerCommand;
+import com.mazegame.simulation.QueuedInputSource;
+import com.mazegame.simulation.SimulationEngine;
+import com.mazegame.utils.Position;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+class SimulationEngineTest {
+
+    private World world;
+    private Player player;
+    private QueuedInputSource input;
+    private SimulationEngine engine;
+
+    @BeforeEach
+    void setUp() {
+        world = new World("Engine World");
+        Room room = new Room(5, "Open Room", world, new Position(0, 0));
+        world.addEntity(room);
+        player = new Player("Runner", world, new Position(6, 6), room, 100, 10);
+        room.addLivingBeing(player);
+        world.setPlayer(player);
+
+        input = new QueuedInputSource();
+        engine = new SimulationEngine(world, input);
+        engine.setAsFastAsPossible(true);
+    }
+
+    @Test
+    void testTickAdvancesWithoutInput() {
+        long ticks = engine.run(50);
+        assertEquals(50, ticks);
+        assertEquals(50, engine.getTickCount());
+        assertEquals(new Position(6, 6), player.getPosition());
+    }
+
+    @Test
+    void testQueuedCommandsAppliedOnePerTick() {
+        input.submit(PlayerCommand.MOVE_RIGHT);
+        input.submit(PlayerCommand.MOVE_DOWN);
+
+        engine.tick();
+        assertEquals(new Position(7, 6), player.getPosition());
+        engine.tick();
+        assertEquals(new Position(7, 7), player.getPosition());
+        engine.tick(); // Queue is empty, player stays put
+        assertEquals(new Position(7, 7), player.getPosition());
+    }
+
+    @Test
+    void testCycleCommandTakesNoTurn() {
+        assertFalse(engine.handleTurn(PlayerCommand.CYCLE_NEXT));
+        assertEquals(0, engine.getTickCount());
+        assertTrue(engine.handleTurn(PlayerCommand.MOVE_LEFT));
+        assertEquals(1, engine.getTickCount());
+    }
+
+    @Test
+    void testRunStopsWhenGameEnds() {
+        world.setGameOver(true);
+        assertEquals(0, engine.run(10));
+    }
+}
@@ -0,0 +1,65 @@
+package com.mazegame;
+
+import com.mazegame.core.Room;
+import com.mazegame.core.World;
+import com.mazegame.ui.GamePanel;
+import com.mazegame.ui.SpriteManager;
+import com.mazegame.utils.Position;
+
+import org.junit.jupiter.api.Test;
+
+import java.awt.image.BufferedImage;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SpriteManagerTest {
+
+    @Test
+    void testSpritesArePreScaledTilesOfOneAtlas() {
+        SpriteManager.clearCache();
+        SpriteManager.loadAllSprites();
+        BufferedImage atlas = SpriteManager.getAtlas();
+        assertNotNull(atlas);
+
+        for (String name : new String[] { "wall.png", "player.png", "trap_active.png" }) {
+            BufferedImage sprite = SpriteManager.getSprite(name);
+            assertNotNull(sprite, name);
+            assertEquals(GamePanel.TILE_PIXEL_WIDTH, sprite.getWidth());
+            assertEquals(GamePanel.TILE_PIXEL_HEIGHT, sprite.getHeight());
+            assertEquals(atlas.getType(), sprite.getType());
+        }
+        assertNotSame(SpriteManager.getSprite("wall.png"), SpriteManager.getSprite("floor.png"));
+    }
+
+    @Test
+    void testLazyLoadsDecodeEachSpriteOnce() {
+        SpriteManager.clearCache();
+        int before = SpriteManager.getDecodeCount();
+        World world = new World("Test World");
+        for (int i = 0; i < 200; i++) {
+            world.addEntity(new Room(i, "Room " + i, world, new Position(i, 0)));
+        }
+        assertEquals(2, SpriteManager.getDecodeCount() - before); // wall.png and floor.png
+        assertSame(SpriteManager.getSprite("wall.png"), SpriteManager.getSprite(" wall.png "));
+
+        assertNull(SpriteManager.getSprite("no_such_sprite.png"));
+        assertNull(SpriteManager.getSprite("no_such_sprite.png")); // Cached as missing
+    }
+
+    @Test
+    void testPreloadHandsOutPlaceholdersThatFillIn() {
+        SpriteManager.clearCache();
+        int versionBefore = SpriteManager.getAtlasVersion();
+        CompletableFuture<Void> preload = SpriteManager.preloadAsync();
+
+        BufferedImage wall = SpriteManager.getSprite("wall.png"); // Never waits for the decode
+        assertNotNull(wall);
+        assertSame(SpriteManager.getAtlas().getRaster(), wall.getRaster().getParent()); // A view into the atlas
+
+        preload.join();
+        assertTrue(SpriteManager.whenLoaded(SpriteManager.FIRST_FRAME_SPRITES).isDone());
+        assertSame(wall, SpriteManager.getSprite("wall.png")); // Same view, now with the real pixels
+        assertTrue(SpriteManager.getAtlasVersion() > versionBefore);
+    }
+}
@@ -0,0 +1,111 @@
+package com.mazegame;
+
+import com.mazegame.characters.Player;
+import com.mazegame.core.*;
+import com.mazegame.simulation.ManualClock;
+import com.mazegame.utils.GameStateManager;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TilePagerTest {
+
+    @TempDir
+    Path dir;
+
+    private static List<String> describeTiles(World world) {
+        List<String> out = new ArrayList<>();
+        for (Entity entity : world.getEntities()) {
+            if (!(entity instanceof Room)) continue;
+            TileLayer layer = ((Room) entity).getTileLayer();
+            StringBuilder line = new StringBuilder(entity.getName()).append(' ');
+            for (int i = 0; i < layer.size(); i++) {
+                Entity onTile = layer.getEntity(i);
+                line.append(layer.getType(i).ordinal()).append(layer.isWalkable(i) ? '.' : '#')
+                    .append(layer.getSprite(i) != null ? 's' : '-').append(onTile != null ? onTile.getName() : "");
+            }
+            out.add(line.toString());
+        }
+        return out;
+    }
+
+    private static int residentLayers(World world) {
+        int count = 0;
+        for (Entity entity : world.getEntities()) {
+            if (entity instanceof Room && ((Room) entity).getTileLayer().isResident()) count++;
+        }
+        return count;
+    }
+
+    @Test
+    void testDormantRoomsArePagedOutAndComeBackIntact() throws IOException {
+        World world = new World("Paged");
+        world.setClock(new ManualClock());
+        new WorldGenerator(11L, 8, 8).generate(world);
+        List<String> before = describeTiles(world);
+        ByteBuffer unpagedSave = GameStateManager.encode(world, false);
+
+        Path file = dir.resolve("tiles.map");
+        TilePager pager = world.enableTilePaging(file, 3);
+        world.update();
+        int pinned = world.getTickScheduler().getActiveRooms().size();
+        assertEquals(pinned + 3, residentLayers(world));
+        assertTrue(Files.size(file) > 0);
+
+        // Saving reads paged-out rooms straight from the file
+        assertEquals(unpagedSave, GameStateManager.encode(world, false));
+        assertEquals(pinned + 3, residentLayers(world));
+
+        // Reading everything pages it all back in, the next tick pages it out again
+        assertEquals(before, describeTiles(world));
+        assertEquals(64, residentLayers(world));
+        world.update();
+        assertEquals(pinned + 3, residentLayers(world));
+        assertEquals(before, describeTiles(world)); // Clean rooms go out without a write and still read back the same
+
+        // A change made while a room was paged in survives the next round trip
+        Room far = world.getRoomById(63);
+        world.update();
+        far.setTile(1, 1, far.getTile(1, 2)); // Any cell copy will do
+        String changed = describeTiles(world).get(63);
+        world.update();
+        assertFalse(far.getTileLayer().isResident());
+        assertEquals(changed, describeTiles(world).get(63));
+
+        // Entering a room brings it in and pins it
+        Player player = world.getPlayer();
+        world.update();
+        player.setCurrentRoom(far);
+        assertTrue(far.getTileLayer().isResident());
+        world.update();
+        assertTrue(pager.isResident(far));
+
+        world.disableTilePaging();
+        assertEquals(64, residentLayers(world));
+        assertFalse(Files.exists(file));
+    }
+
+    @Test
+    void testMemoryPressureKeepsOnlyPinnedRooms() throws IOException {
+        World world = new World("Pressure");
+        new WorldGenerator(2L, 4, 4).generate(world);
+        TilePager pager = world.enableTilePaging(dir.resolve("tiles.map"), 100);
+        world.update();
+        assertEquals(16, residentLayers(world)); // Room for all of them
+
+        pager.setPressureRatio(Double.MIN_VALUE); // Any heap use counts as pressure
+        world.update();
+        assertEquals(world.getTickScheduler().getActiveRooms().size(), residentLayers(world));
+        assertTrue(world.getPlayer().getCurrentRoom().getTileLayer().isResident());
+        world.disableTilePaging();
+    }
+}
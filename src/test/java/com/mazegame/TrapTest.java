@@ -0,0 +1,91 @@
+package com.mazegame;
+
+import com.mazegame.characters.Player;
+import com.mazegame.core.Room;
+import com.mazegame.core.Trap;
+import com.mazegame.core.World;
+import com.mazegame.simulation.ManualClock;
+import com.mazegame.utils.Position;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+class TrapTest {
+
+    private World world;
+    private ManualClock clock;
+    private Room room;
+    private Player player;
+    private Trap trap;
+
+    @BeforeEach
+    void setUp() {
+        world = new World("Trap World");
+        clock = new ManualClock(1_000);
+        world.setClock(clock);
+
+        room = new Room(7, "Trap Room", world, new Position(0, 0));
+        world.addEntity(room);
+        player = new Player("Walker", world, new Position(2, 2), room, 100, 10);
+        room.addLivingBeing(player);
+        world.setPlayer(player);
+
+        trap = new Trap("Test Spikes", world, new Position(5, 5), 3000, 1000, 1500, 10);
+        room.getTile(5, 5).setEntityOnTile(trap);
+        world.addEntity(trap);
+    }
+
+    @Test
+    void testTrapFollowsSimulationClockNotWallClock() {
+        trap.execute(clock);
+        assertEquals(Trap.TrapState.IDLE, trap.getCurrentState());
+
+        clock.advance(2999);
+        trap.execute(clock);
+        assertEquals(Trap.TrapState.IDLE, trap.getCurrentState());
+
+        clock.advance(1);
+        trap.execute(clock);
+        assertEquals(Trap.TrapState.WARNING, trap.getCurrentState());
+
+        clock.advance(1000);
+        trap.execute(clock);
+        assertEquals(Trap.TrapState.ACTIVE, trap.getCurrentState());
+
+        clock.advance(1500);
+        trap.execute(clock);
+        assertEquals(Trap.TrapState.IDLE, trap.getCurrentState());
+    }
+
+    @Test
+    void testActiveTrapDamagesPlayerStandingOnIt() {
+        player.setPosition(new Position(5, 5));
+        clock.advance(3000); // execute() moves at most one state per call
+        trap.execute(clock);
+        trap.execute(clock);
+        clock.advance(1000);
+        trap.execute(clock);
+        assertEquals(Trap.TrapState.ACTIVE, trap.getCurrentState());
+
+        int before = player.getHealth();
+        trap.execute(clock);
+        assertEquals(before - 10, player.getHealth());
+    }
+
+    @Test
+    void testCatchUpMatchesPhaseOfTheCycle() {
+        // Cycle is 3000 idle + 1000 warning + 1500 active = 5500
+        clock.advance(3 * 5500 + 3500);
+        trap.catchUp(clock);
+        assertEquals(Trap.TrapState.WARNING, trap.getCurrentState());
+
+        // 500ms into the warning, so 500 more should flip it to active on a normal tick
+        clock.advance(499);
+        trap.execute(clock);
+        assertEquals(Trap.TrapState.WARNING, trap.getCurrentState());
+        clock.advance(1);
+        trap.execute(clock);
+        assertEquals(Trap.TrapState.ACTIVE, trap.getCurrentState());
+    }
+}
@@ -0,0 +1,66 @@
+package com.mazegame;
+
+import com.mazegame.core.*;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WorldGeneratorTest {
+
+    private static World generate(long seed, int roomsX, int roomsY, int roomWidth, int roomHeight) {
+        World world = new World("Generated");
+        WorldGenerator generator = new WorldGenerator(seed, roomsX, roomsY, roomWidth, roomHeight);
+        generator.setLockChance(0.4); // Plenty of locks so the key placement actually gets exercised
+        generator.generate(world);
+        return world;
+    }
+
+    private static List<String> describeDoors(World world) {
+        List<String> doors = new ArrayList<>();
+        for (Entity entity : world.getEntities()) {
+            if (entity instanceof Door) {
+                Door door = (Door) entity;
+                doors.add(door.getName() + "|" + door.isLocked() + "|" + door.getKeyId());
+            }
+        }
+        return doors;
+    }
+
+    @Test
+    void testSizeIsConfigurablePerWorld() {
+        World world = generate(1L, 7, 4, 9, 15);
+        assertEquals(7, world.getRoomsX());
+        assertEquals(4, world.getRoomsY());
+        Room last = world.getRoomById(7 * 4 - 1);
+        assertNotNull(last);
+        assertEquals(9, last.getWidth());
+        assertEquals(15, last.getHeight());
+        assertNotNull(world.getPlayer());
+        assertSame(world.getRoomById(0), world.getPlayer().getCurrentRoom());
+    }
+
+    @Test
+    void testSameSeedGivesSameWorld() {
+        assertEquals(describeDoors(generate(99L, 8, 8, 12, 12)), describeDoors(generate(99L, 8, 8, 12, 12)));
+        assertNotEquals(describeDoors(generate(99L, 8, 8, 12, 12)), describeDoors(generate(100L, 8, 8, 12, 12)));
+    }
+
+    @Test
+    void testGeneratedWorldsAreSolvable() {
+        for (long seed = 0; seed < 20; seed++) {
+            World world = generate(seed, 12, 9, 12, 12);
+            assertTrue(WorldGenerator.isSolvable(world), "Seed " + seed + " produced an unsolvable maze");
+            assertEquals(12 * 9, world.getRoomGraph().getRoomCount());
+        }
+    }
+
+    @Test
+    void testSingleRoomWorldHasAnExit() {
+        World world = generate(5L, 1, 1, 6, 6);
+        assertTrue(WorldGenerator.isSolvable(world));
+    }
+}
@@ -1,4 +1,268 @@
 package com.mazegame;
+
+import com.mazegame.characters.LivingBeing;
+import com.mazegame.characters.NPC;
+import com.mazegame.characters.Player;
+import com.mazegame.core.*;
+import com.mazegame.simulation.ManualClock;
+import com.mazegame.simulation.SimulationClock;
+import com.mazegame.simulation.SimulationEngine;
+import com.mazegame.simulation.TickClock;
+import com.mazegame.utils.Position;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
 public class WorldTest {
-    
+
+    private World world;
+
+    @BeforeEach
+    void setUp() {
+        world = new World("Test World");
+        world.initializeWorld();
+    }
+
+    @Test
+    void testRoomLookupById() {
+        for (int id = 0; id < World.NUM_ROOMS_X * World.NUM_ROOMS_Y; id++) {
+            Room room = world.getRoomById(id);
+            assertNotNull(room);
+            assertEquals(id, room.getRoomID());
+        }
+        assertNull(world.getRoomById(999));
+    }
+
+    @Test
+    void testGraphHasEdgesForGridDoors() {
+        Room room0 = world.getRoomById(0);
+        // Room 0 is the top-left corner: one door east, one door south
+        assertEquals(2, world.getRoomGraph().getEdges(room0).size());
+        assertTrue(world.isRoomReachable(0, 8));
+    }
+
+    @Test
+    void testEdgesRecordLockAndForceableState() {
+        Room room3 = world.getRoomById(3);
+        RoomGraph.Edge rickety = null;
+        for (RoomGraph.Edge edge : world.getRoomGraph().getEdges(room3)) {
+            if (edge.getDoor().getName().equals("Rickety Door")) rickety = edge;
+        }
+        assertNotNull(rickety);
+        assertTrue(rickety.isLocked());
+        assertTrue(rickety.isForceable());
+        assertSame(world.getRoomById(4), rickety.getTo());
+
+        rickety.getDoor().forceOpen();
+        assertFalse(rickety.isLocked(), "Edge should follow the door's lock state");
+    }
+
+    @Test
+    void testReachabilityFollowsLocking() {
+        World small = new World("Two Rooms");
+        Room a = new Room(10, "A", small, new Position(0, 0));
+        Room b = new Room(11, "B", small, new Position(1, 0));
+        small.addEntity(a);
+        small.addEntity(b);
+        Door door = new Door("A-B", small, a, new Position(Room.ROOM_WIDTH_TILES - 1, 5),
+                b, new Position(0, 5), true, "ab_key", true);
+        small.addEntity(door);
+
+        assertFalse(small.isRoomReachable(10, 11));
+        Set<Room> withCrowbar = small.getRoomGraph().getReachableRooms(a, true);
+        assertTrue(withCrowbar.contains(b));
+
+        door.unlock();
+        assertTrue(small.isRoomReachable(10, 11));
+
+        door.setLockedState(true);
+        assertFalse(small.isRoomReachable(10, 11));
+    }
+
+    @Test
+    void testOnlyRoomsNearThePlayerTick() {
+        World line = new World("Line");
+        ManualClock clock = new ManualClock(0);
+        line.setClock(clock);
+        Room a = new Room(30, "A", line, new Position(0, 0));
+        Room b = new Room(31, "B", line, new Position(1, 0));
+        Room c = new Room(32, "C", line, new Position(2, 0));
+        line.addEntity(a);
+        line.addEntity(b);
+        line.addEntity(c);
+        int east = Room.ROOM_WIDTH_TILES - 1;
+        line.addEntity(new Door("A-B", line, a, new Position(east, 5), b, new Position(0, 5), false, null));
+        line.addEntity(new Door("B-C", line, b, new Position(east, 5), c, new Position(0, 5), false, null));
+        Player player = new Player("Hero", line, new Position(5, 5), a, 100, 10);
+        line.setPlayer(player);
+
+        Trap trap = new Trap("Far Spikes", line, new Position(3, 3), 1000, 0, 1000, 5);
+        trap.setRoom(c);
+        line.addEntity(trap);
+
+        line.getTickScheduler().setActiveRoomRadius(1);
+        line.getTickScheduler().setLingerTicks(0);
+        line.update();
+        assertEquals(Arrays.asList(a, b), line.getTickScheduler().getActiveRooms());
+        assertFalse(line.getTickScheduler().isRoomActive(c));
+
+        clock.advance(1500);
+        line.update();
+        assertEquals(Trap.TrapState.IDLE, trap.getCurrentState(), "Dormant room should not tick");
+
+        player.setCurrentRoom(c);
+        line.update();
+        assertEquals(Trap.TrapState.ACTIVE, trap.getCurrentState(), "Waking room should catch up");
+        assertEquals(Arrays.asList(c, b), line.getTickScheduler().getActiveRooms());
+    }
+
+    @Test
+    void testRoomThePlayerLeftLingersForAFewTicks() {
+        World two = new World("Two");
+        Room a = new Room(40, "A", two, new Position(0, 0));
+        Room b = new Room(41, "B", two, new Position(1, 0));
+        two.addEntity(a);
+        two.addEntity(b);
+        two.addEntity(new Door("A-B", two, a, new Position(Room.ROOM_WIDTH_TILES - 1, 5), b, new Position(0, 5), false, null));
+        Player player = new Player("Hero", two, new Position(5, 5), a, 100, 10);
+        two.setPlayer(player);
+        TickScheduler scheduler = two.getTickScheduler();
+        scheduler.setLingerTicks(2);
+
+        two.update();
+        assertEquals(Arrays.asList(a), scheduler.getActiveRooms());
+
+        player.setCurrentRoom(b);
+        two.update();
+        assertEquals(Arrays.asList(b, a), scheduler.getActiveRooms());
+        two.update();
+        assertEquals(Arrays.asList(b, a), scheduler.getActiveRooms());
+        two.update();
+        assertEquals(Arrays.asList(b), scheduler.getActiveRooms());
+    }
+
+    private static String runGenerated(boolean parallel, ForkJoinPool pool) {
+        World generated = new World("Parallel");
+        generated.setClock(TickClock.forTickRate(SimulationEngine.DEFAULT_TICKS_PER_SECOND));
+        WorldGenerator generator = new WorldGenerator(3L, 6, 6);
+        generator.setNpcChance(1.0);
+        generator.setTrapChance(1.0);
+        generator.generate(generated);
+        TickScheduler scheduler = generated.getTickScheduler();
+        scheduler.setActiveRoomRadius(3); // Lots of hot rooms with NPCs heading for the player
+        scheduler.setParallel(parallel);
+        scheduler.setPool(pool);
+
+        SimulationEngine engine = new SimulationEngine(generated, null);
+        engine.setAsFastAsPossible(true);
+        for (int tick = 0; tick < 300; tick++) {
+            engine.tick();
+            generated.getPlayer().heal(100); // Keep the goblins' target alive for the whole run
+        }
+
+        StringBuilder state = new StringBuilder("ticks=" + engine.getTickCount() + " over=" + generated.isGameOver() + "\n");
+        for (int id = 0; id < 36; id++) {
+            Room room = generated.getRoomById(id);
+            for (LivingBeing being : room.getLivingBeingsInRoom()) {
+                state.append(id).append(' ').append(being.getName()).append(' ')
+                     .append(being.getPosition()).append(' ').append(being.getHealth()).append('\n');
+            }
+        }
+        for (Entity entity : generated.getEntities()) {
+            if (entity instanceof Trap) {
+                state.append(entity.getName()).append(' ').append(((Trap) entity).getCurrentState()).append('\n');
+            }
+        }
+        return state.toString();
+    }
+
+    @Test
+    void testParallelTickMatchesSerial() {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            String serial = runGenerated(false, pool);
+            String parallel = runGenerated(true, pool);
+            assertEquals(serial, parallel);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    // Notes which NPCs are in its room every time it runs
+    private static class WatchingTrap extends Trap {
+        final List<String> seen = new ArrayList<>();
+
+        WatchingTrap(World world, Room room) {
+            super("Watcher", world, new Position(8, 8), 1000, 0, 1000, 0);
+            setRoom(room);
+        }
+
+        @Override
+        public void execute(SimulationClock clock) {
+            StringBuilder names = new StringBuilder();
+            for (LivingBeing being : getRoom().getLivingBeingsInRoom()) {
+                if (being instanceof NPC) names.append(being.getName());
+            }
+            seen.add(names.toString());
+            super.execute(clock);
+        }
+    }
+
+    private static List<String> runNpcIntoLaterRoom(boolean parallel, ForkJoinPool pool) {
+        // Player in P; A and C are further along, so they run after P and A runs before C
+        World line = new World("Later");
+        line.setClock(new ManualClock());
+        Room p = new Room(50, "P", line, new Position(0, 0));
+        Room a = new Room(51, "A", line, new Position(1, 0));
+        Room c = new Room(52, "C", line, new Position(2, 0));
+        line.addEntity(p);
+        line.addEntity(a);
+        line.addEntity(c);
+        int east = Room.ROOM_WIDTH_TILES - 1;
+        line.addEntity(new Door("P-A", line, p, new Position(east, 5), a, new Position(0, 5), false, null));
+        line.addEntity(new Door("A-C", line, a, new Position(east, 5), c, new Position(0, 5), false, null));
+        Player player = new Player("Hero", line, new Position(5, 5), p, 100, 10);
+        line.setPlayer(player);
+        p.addLivingBeing(player);
+
+        // The runner chases someone in C, i.e. away from the player into a later room
+        Player decoy = new Player("Decoy", line, new Position(6, 5), c, 100, 10);
+        c.addLivingBeing(decoy);
+        NPC runner = new NPC("Runner", line, new Position(east - 1, 5), a, 20, 2, decoy);
+        a.addLivingBeing(runner);
+        line.addEntity(runner);
+        WatchingTrap watcher = new WatchingTrap(line, c);
+        line.addEntity(watcher);
+
+        TickScheduler scheduler = line.getTickScheduler();
+        scheduler.setActiveRoomRadius(2);
+        scheduler.setLingerTicks(0);
+        scheduler.setParallel(parallel);
+        scheduler.setPool(pool);
+        line.update(); // Runner steps onto the door and goes through
+        assertEquals(Arrays.asList(p, a, c), scheduler.getActiveRooms());
+        assertSame(c, runner.getCurrentRoom());
+        line.update();
+        return watcher.seen;
+    }
+
+    @Test
+    void testNpcEnteringALaterRoomIsSeenThereNextTick() {
+        ForkJoinPool pool = new ForkJoinPool(2);
+        try {
+            List<String> serial = runNpcIntoLaterRoom(false, pool);
+            assertEquals(Arrays.asList("", "Runner"), serial);
+            assertEquals(serial, runNpcIntoLaterRoom(true, pool));
+        } finally {
+            pool.shutdown();
+        }
+    }
 }